@@ -17,17 +17,32 @@
 package org.bremersee.authman;
 
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.UserProfileRepository;
+import org.bremersee.authman.security.authentication.LoginThrottle;
+import org.bremersee.authman.security.authentication.ThrottlingAuthenticationProvider;
+import org.bremersee.authman.security.core.userdetails.RehashingAuthenticationProvider;
+import org.bremersee.authman.security.crypto.AdaptivePasswordEncoder;
+import org.bremersee.authman.security.crypto.VerifiedCredentialCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.core.userdetails.UserDetailsService;
 
 /**
+ * Secures the actuator endpoints with basic authentication.
+ *
+ * <p>The actuator has its own authentication manager, because monitoring systems (like
+ * Prometheus) log in on every scrape: only this manager remembers verified passwords in the
+ * {@link VerifiedCredentialCache}, the form login of the users always runs the password hash.
+ *
  * @author Christian Bremer
  */
 @Order(101)
@@ -38,9 +53,39 @@ public class ActuatorSecurity extends WebSecurityConfigurerAdapter {
 
   private final ActuatorSecurityProperties properties;
 
+  private final UserDetailsService userDetailsService;
+
+  private final UserProfileRepository userProfileRepository;
+
+  private final AdaptivePasswordEncoder userPasswordEncoder;
+
+  private final VerifiedCredentialCache verifiedCredentialCache;
+
+  private final LoginThrottle loginThrottle;
+
   @Autowired
-  public ActuatorSecurity(ActuatorSecurityProperties properties) {
+  public ActuatorSecurity(
+      ActuatorSecurityProperties properties,
+      UserDetailsService userDetailsService,
+      UserProfileRepository userProfileRepository,
+      @Qualifier("userPasswordEncoder") AdaptivePasswordEncoder userPasswordEncoder,
+      VerifiedCredentialCache verifiedCredentialCache,
+      LoginThrottle loginThrottle) {
     this.properties = properties;
+    this.userDetailsService = userDetailsService;
+    this.userProfileRepository = userProfileRepository;
+    this.userPasswordEncoder = userPasswordEncoder;
+    this.verifiedCredentialCache = verifiedCredentialCache;
+    this.loginThrottle = loginThrottle;
+  }
+
+  @Override
+  protected void configure(AuthenticationManagerBuilder auth) {
+    final RehashingAuthenticationProvider provider
+        = new RehashingAuthenticationProvider(userPasswordEncoder, userProfileRepository);
+    provider.setUserDetailsService(userDetailsService);
+    provider.setPasswordEncoder(verifiedCredentialCache);
+    auth.authenticationProvider(new ThrottlingAuthenticationProvider(provider, loginThrottle));
   }
 
   @Override
@@ -16,14 +16,17 @@
 
 package org.bremersee.authman;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.security.KeyPair;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.CacheInvalidationService;
 import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
 import org.bremersee.authman.domain.OAuth2ApprovalRepository;
 import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
 import org.bremersee.authman.mapper.OAuth2ApprovalMapper;
-import org.bremersee.authman.security.crypto.password.PasswordEncoder;
+import org.bremersee.authman.security.crypto.VerifiedCredentialCache;
 import org.bremersee.authman.security.oauth2.provider.approval.OAuth2ApprovalStore;
+import org.bremersee.authman.security.oauth2.provider.token.OAuth2RotatingTokenServices;
 import org.bremersee.authman.security.oauth2.provider.token.store.OAuth2TokenStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -39,7 +42,6 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.approval.ApprovalStore;
-import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
 import org.springframework.util.StringUtils;
@@ -55,7 +57,7 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
 
   private AuthorizationServerProperties properties;
 
-  private PasswordEncoder passwordEncoder;
+  private VerifiedCredentialCache verifiedCredentialCache;
 
   private OAuth2ApprovalRepository approvalRepository;
 
@@ -69,25 +71,33 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
 
   private AuthenticationManager authenticationManager;
 
+  private CacheInvalidationService cacheInvalidationService;
+
+  private MeterRegistry meterRegistry;
+
   @Autowired
   public AuthorizationServerConfiguration(
       AuthorizationServerProperties properties,
-      PasswordEncoder passwordEncoder,
+      VerifiedCredentialCache verifiedCredentialCache,
       OAuth2ApprovalRepository approvalRepository,
       OAuth2ApprovalMapper approvalMapper,
       OAuth2AccessTokenRepository accessTokenRepository,
       OAuth2RefreshTokenRepository refreshTokenRepository,
       @Qualifier("oauth2ClientDetailsService") ClientDetailsService clientDetailsService,
-      @Qualifier("authenticationManagerBean") AuthenticationManager authenticationManager) {
+      @Qualifier("authenticationManagerBean") AuthenticationManager authenticationManager,
+      CacheInvalidationService cacheInvalidationService,
+      MeterRegistry meterRegistry) {
 
     this.properties = properties;
-    this.passwordEncoder = passwordEncoder;
+    this.verifiedCredentialCache = verifiedCredentialCache;
     this.approvalRepository = approvalRepository;
     this.approvalMapper = approvalMapper;
     this.accessTokenRepository = accessTokenRepository;
     this.refreshTokenRepository = refreshTokenRepository;
     this.clientDetailsService = clientDetailsService;
     this.authenticationManager = authenticationManager;
+    this.cacheInvalidationService = cacheInvalidationService;
+    this.meterRegistry = meterRegistry;
   }
 
   @Bean
@@ -118,13 +128,19 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
   }
 
   @Bean
-  public TokenStore tokenStore() {
+  public OAuth2TokenStore tokenStore() {
     /*
     final JwtTokenStore tokenStore = new JwtTokenStore(jwtAccessTokenConverter());
     tokenStore.setApprovalStore(approvalStore());
     return tokenStore;
     */
-    return new OAuth2TokenStore(accessTokenRepository, refreshTokenRepository);
+    final OAuth2TokenStore tokenStore = new OAuth2TokenStore(
+        accessTokenRepository, refreshTokenRepository);
+    tokenStore.setCacheMaxAgeMillis(properties.getIssuedTokenCacheMaxAgeSeconds() * 1000L);
+    tokenStore.setCacheMaxSize(properties.getIssuedTokenCacheMaxSize());
+    tokenStore.setCacheInvalidationService(cacheInvalidationService);
+    tokenStore.setMeterRegistry(meterRegistry);
+    return tokenStore;
   }
 
   @Bean
@@ -135,6 +151,9 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
         approvalRepository, approvalMapper);
     approvalStore.setHandleRevocationsAsExpiry(
         properties.isHandleApprovalRevocationsAsExpiry());
+    approvalStore.setCacheMaxAgeMillis(properties.getApprovalCacheMaxAgeSeconds() * 1000L);
+    approvalStore.setCacheMaxSize(properties.getApprovalCacheMaxSize());
+    approvalStore.setCacheInvalidationService(cacheInvalidationService);
     return approvalStore;
 
   }
@@ -161,7 +180,7 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
         .tokenKeyAccess(properties.getTokenKeyAccess())
         .checkTokenAccess(properties.getCheckTokenAccess())
         .realm(properties.getRealm())
-        .passwordEncoder(passwordEncoder)
+        .passwordEncoder(verifiedCredentialCache)
     ;
     if (properties.isAllowFormAuthenticationForClients()) {
       security.allowFormAuthenticationForClients();
@@ -177,5 +196,12 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
         .accessTokenConverter(jwtAccessTokenConverter());
     endpoints.tokenStore(tokenStore());
     endpoints.approvalStore(approvalStore());
+    if (properties.isRefreshTokenRotation()) {
+      final OAuth2RotatingTokenServices tokenServices = new OAuth2RotatingTokenServices(
+          tokenStore(), properties.getRefreshTokenFamilyHistorySize());
+      tokenServices.setClientDetailsService(clientDetailsService);
+      tokenServices.setTokenEnhancer(jwtAccessTokenConverter());
+      endpoints.tokenServices(tokenServices);
+    }
   }
 }
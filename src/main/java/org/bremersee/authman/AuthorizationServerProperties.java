@@ -105,6 +105,24 @@ public class AuthorizationServerProperties {
 
   private boolean handleApprovalRevocationsAsExpiry = false;
 
+  private long approvalCacheMaxAgeSeconds = 300L; // 0 disables the approval cache
+
+  private int approvalCacheMaxSize = 10000;
+
+  private long introspectionCacheMaxAgeSeconds = 30L; // 0 disables the introspection cache
+
+  private int introspectionCacheMaxSize = 10000;
+
+  private int introspectionBatchMaxSize = 100;
+
+  private long issuedTokenCacheMaxAgeSeconds = 0L; // 0 disables the issued token cache
+
+  private int issuedTokenCacheMaxSize = 10000;
+
+  private boolean refreshTokenRotation = false;
+
+  private int refreshTokenFamilyHistorySize = 100;
+
   private Set<String> defaultAuthorizationGrantTypes = new LinkedHashSet<>();
 
   private Set<String> developersAuthorizationGrantTypes = new LinkedHashSet<>();
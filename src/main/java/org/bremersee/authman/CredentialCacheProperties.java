@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of the cache of verified credentials.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties(prefix = "bremersee.credential-cache")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+public class CredentialCacheProperties {
+
+  /**
+   * Specifies whether successful password and client secret verifications are cached. Default is
+   * {@code true}.
+   */
+  private boolean enabled = true;
+
+  /**
+   * The maximum number of cached verifications. Default is {@code 10000}.
+   */
+  private int maxSize = 10000;
+
+  /**
+   * The time in seconds a verification is cached. Default is {@code 300}.
+   */
+  private long timeToLiveSeconds = 300L;
+
+}
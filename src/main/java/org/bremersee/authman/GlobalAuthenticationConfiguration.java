@@ -16,17 +16,24 @@
 
 package org.bremersee.authman;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bremersee.authman.business.UserNameGenerator;
 import org.bremersee.authman.domain.OAuth2ForeignTokenRepository;
 import org.bremersee.authman.domain.RoleRepository;
 import org.bremersee.authman.domain.UserProfileRepository;
-import org.bremersee.authman.domain.UserRegistrationRequestRepository;
+import org.bremersee.authman.security.authentication.LoginThrottle;
 import org.bremersee.authman.security.authentication.OAuth2AuthenticationProvider;
+import org.bremersee.authman.security.authentication.ThrottlingAuthenticationProvider;
+import org.bremersee.authman.security.core.userdetails.RehashingAuthenticationProvider;
+import org.bremersee.authman.security.crypto.AdaptivePasswordEncoder;
+import org.bremersee.authman.security.crypto.VerifiedCredentialCache;
 import org.bremersee.authman.security.crypto.password.PasswordEncoderImpl;
 import org.bremersee.authman.security.crypto.password.PasswordEncoderProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.authentication.configuration.GlobalAuthenticationConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -35,12 +42,16 @@ import org.springframework.security.core.userdetails.UserDetailsService;
  * @author Christian Bremer
  */
 @Configuration
-@EnableConfigurationProperties({PasswordEncoderProperties.class})
+@EnableConfigurationProperties({
+    PasswordEncoderProperties.class,
+    CredentialCacheProperties.class,
+    PasswordHashProperties.class
+})
 public class GlobalAuthenticationConfiguration extends GlobalAuthenticationConfigurerAdapter {
 
   private final UserProfileRepository userProfileRepository;
 
-  private final UserRegistrationRequestRepository userRegistrationRequestRepository;
+  private final UserNameGenerator userNameGenerator;
 
   private final RoleRepository roleRepository;
 
@@ -50,45 +61,102 @@ public class GlobalAuthenticationConfiguration extends GlobalAuthenticationConfi
 
   private final PasswordEncoderImpl passwordEncoder;
 
+  private final AdaptivePasswordEncoder userPasswordEncoder;
+
+  private final VerifiedCredentialCache verifiedCredentialCache;
+
+  private final LoginThrottle loginThrottle;
+
+  private final MeterRegistry meterRegistry;
+
   @Autowired
   public GlobalAuthenticationConfiguration(
       final PasswordEncoderProperties passwordEncoderProperties,
       final UserProfileRepository userProfileRepository,
-      final UserRegistrationRequestRepository userRegistrationRequestRepository,
+      final UserNameGenerator userNameGenerator,
       final RoleRepository roleRepository,
       final UserDetailsService userDetailsService,
-      final OAuth2ForeignTokenRepository oauth2TokenRepository) {
+      final OAuth2ForeignTokenRepository oauth2TokenRepository,
+      final CredentialCacheProperties credentialCacheProperties,
+      final PasswordHashProperties passwordHashProperties,
+      final MeterRegistry meterRegistry,
+      final LoginThrottle loginThrottle) {
 
     this.userProfileRepository = userProfileRepository;
-    this.userRegistrationRequestRepository = userRegistrationRequestRepository;
+    this.userNameGenerator = userNameGenerator;
     this.roleRepository = roleRepository;
     this.userDetailsService = userDetailsService;
     this.oauth2TokenRepository = oauth2TokenRepository;
+    this.loginThrottle = loginThrottle;
+    this.meterRegistry = meterRegistry;
     this.passwordEncoder = new PasswordEncoderImpl(passwordEncoderProperties);
     this.passwordEncoder.init();
+    this.userPasswordEncoder = new AdaptivePasswordEncoder(
+        passwordEncoder,
+        passwordHashProperties.isAdaptive(),
+        passwordHashProperties.getIterations())
+        .meterRegistry(meterRegistry);
+    if (passwordHashProperties.isCalibrate()) {
+      this.userPasswordEncoder.calibrate(
+          passwordHashProperties.getTargetMillis(),
+          passwordHashProperties.getMinIterations(),
+          passwordHashProperties.getMaxIterations());
+    }
+    final long timeToLiveSeconds = credentialCacheProperties.isEnabled()
+        ? credentialCacheProperties.getTimeToLiveSeconds()
+        : 0L;
+    this.verifiedCredentialCache = new VerifiedCredentialCache(
+        userPasswordEncoder, credentialCacheProperties.getMaxSize(), timeToLiveSeconds)
+        .meterRegistry(meterRegistry);
   }
 
   @Override
   public void init(AuthenticationManagerBuilder auth) throws Exception {
-    auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
-    auth.authenticationProvider(oAuth2AuthenticationProvider());
+    final RehashingAuthenticationProvider daoAuthenticationProvider
+        = new RehashingAuthenticationProvider(userPasswordEncoder, userProfileRepository);
+    daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+    daoAuthenticationProvider.setPasswordEncoder(userPasswordEncoder);
+    auth.authenticationProvider(
+        new ThrottlingAuthenticationProvider(daoAuthenticationProvider, loginThrottle));
+    auth.authenticationProvider(
+        new ThrottlingAuthenticationProvider(oAuth2AuthenticationProvider(), loginThrottle));
   }
 
+  /**
+   * Returns the default password encoder. There are other password encoder beans (the user
+   * password encoder and the credential cache), so it is marked as primary for injections by
+   * type; the others have to be injected by their names.
+   *
+   * @return the default password encoder
+   */
+  @Primary
   @Bean(name = "passwordEncoder")
   public PasswordEncoderImpl passwordEncoder() {
     return passwordEncoder;
   }
 
+  @Bean(name = "userPasswordEncoder")
+  public AdaptivePasswordEncoder userPasswordEncoder() {
+    return userPasswordEncoder;
+  }
+
+  @Bean(name = "verifiedCredentialCache")
+  public VerifiedCredentialCache verifiedCredentialCache() {
+    return verifiedCredentialCache;
+  }
+
   @Bean("oAuth2AuthenticationProviderAndImporter")
   public OAuth2AuthenticationProvider oAuth2AuthenticationProvider() {
 
-    return new OAuth2AuthenticationProvider(
+    final OAuth2AuthenticationProvider provider = new OAuth2AuthenticationProvider(
         userProfileRepository,
-        userRegistrationRequestRepository,
+        userNameGenerator,
         roleRepository,
         oauth2TokenRepository,
         userDetailsService,
-        passwordEncoder);
+        userPasswordEncoder);
+    provider.setMeterRegistry(meterRegistry);
+    return provider;
   }
 
 }
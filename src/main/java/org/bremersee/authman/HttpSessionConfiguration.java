@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import java.time.Duration;
+import org.bremersee.authman.security.web.session.MongoSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+/**
+ * @author Christian Bremer
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bremersee.session", name = "mongo-enabled", havingValue = "true")
+@EnableSpringHttpSession
+@EnableConfigurationProperties({HttpSessionProperties.class})
+public class HttpSessionConfiguration {
+
+  private final HttpSessionProperties properties;
+
+  private final MongoOperations mongoOperations;
+
+  @Autowired
+  public HttpSessionConfiguration(
+      final HttpSessionProperties properties,
+      final MongoOperations mongoOperations) {
+    this.properties = properties;
+    this.mongoOperations = mongoOperations;
+  }
+
+  @Bean
+  public MongoSessionRepository sessionRepository() {
+    final MongoSessionRepository repository = new MongoSessionRepository(
+        mongoOperations,
+        properties.getCollectionName(),
+        properties.getCompressionThreshold());
+    repository.setDefaultMaxInactiveInterval(
+        Duration.ofSeconds(properties.getMaxInactiveIntervalSeconds()));
+    repository.setTouchInterval(Duration.ofSeconds(properties.getTouchIntervalSeconds()));
+    return repository.init();
+  }
+
+}
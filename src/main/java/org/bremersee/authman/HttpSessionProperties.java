@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.session")
+@Getter
+@Setter
+@ToString
+public class HttpSessionProperties {
+
+  /**
+   * Store the http sessions in mongo instead of the memory of the servlet container.
+   */
+  private boolean mongoEnabled = false;
+
+  private String collectionName = "httpSession";
+
+  private long maxInactiveIntervalSeconds = 1800L;
+
+  /**
+   * The last access time of an unchanged session is only written, if it is older than this
+   * interval. So a session may expire up to this interval earlier.
+   */
+  private long touchIntervalSeconds = 60L;
+
+  /**
+   * Serialized attributes, that are larger than this threshold (in bytes), are compressed.
+   */
+  private int compressionThreshold = 512;
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import org.bremersee.authman.security.crypto.VerifiedCredentialCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.client.ClientDetailsUserDetailsService;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+
+/**
+ * Secures the token revocation and introspection endpoints like the token endpoint of the
+ * authorization server: the clients authenticate with basic authentication.
+ *
+ * @author Christian Bremer
+ */
+@Order(1)
+@Configuration
+public class OAuth2TokenEndpointSecurity extends WebSecurityConfigurerAdapter {
+
+  private final AuthorizationServerProperties properties;
+
+  private final ClientDetailsService clientDetailsService;
+
+  private final VerifiedCredentialCache verifiedCredentialCache;
+
+  @Autowired
+  public OAuth2TokenEndpointSecurity(
+      AuthorizationServerProperties properties,
+      @Qualifier("oauth2ClientDetailsService") ClientDetailsService clientDetailsService,
+      VerifiedCredentialCache verifiedCredentialCache) {
+
+    this.properties = properties;
+    this.clientDetailsService = clientDetailsService;
+    this.verifiedCredentialCache = verifiedCredentialCache;
+  }
+
+  @Override
+  protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+    auth.userDetailsService(new ClientDetailsUserDetailsService(clientDetailsService))
+        .passwordEncoder(verifiedCredentialCache);
+  }
+
+  @Override
+  protected void configure(HttpSecurity http) throws Exception {
+    http
+        .requestMatcher(new OrRequestMatcher(
+            new AntPathRequestMatcher("/oauth/revoke"),
+            new AntPathRequestMatcher("/oauth/introspect/**")))
+        .csrf().disable()
+        .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+        .and()
+        .httpBasic().realmName(properties.getRealm())
+        .and()
+        .authorizeRequests()
+        .antMatchers("/oauth/introspect/**").access(properties.getCheckTokenAccess())
+        .anyRequest().authenticated();
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of the adaptive hashing of user passwords.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties(prefix = "bremersee.password-hash")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+public class PasswordHashProperties {
+
+  /**
+   * Specifies whether new user passwords are hashed with PBKDF2 and whether old hashes are
+   * upgraded on login. Default is {@code false}: then the configured password encoder is used.
+   */
+  private boolean adaptive = false;
+
+  /**
+   * The PBKDF2 iterations, if the work factor isn't calibrated. Default is {@code 185000}.
+   */
+  private int iterations = 185000;
+
+  /**
+   * Specifies whether the iterations are calibrated at startup, so that hashing a password takes
+   * about {@link #targetMillis}. Default is {@code false}.
+   */
+  private boolean calibrate = false;
+
+  /**
+   * The time in milliseconds hashing a password should take. Default is {@code 250}.
+   */
+  private long targetMillis = 250L;
+
+  /**
+   * The lower bound of the iterations. Default is {@code 10000}.
+   */
+  private int minIterations = 10000;
+
+  /**
+   * The upper bound of the iterations. Default is {@code 10000000}.
+   */
+  private int maxIterations = 10000000;
+
+}
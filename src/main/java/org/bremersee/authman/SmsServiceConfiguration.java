@@ -41,6 +41,12 @@ public class SmsServiceConfiguration {
   @Bean
   public SmsService smsService() {
     if (!properties.isEnabled()) {
+      if (properties.getStandInLatencyMillis() > 0L || properties.getStandInFailureRate() > 0.0) {
+        return SmsServiceStandIn.newInstance(
+            new DummySmsService(),
+            properties.getStandInLatencyMillis(),
+            properties.getStandInFailureRate());
+      }
       return new DummySmsService();
     }
     final GoyyaSmsService smsService = new GoyyaSmsService(
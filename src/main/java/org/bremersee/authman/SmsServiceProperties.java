@@ -40,4 +40,8 @@ public class SmsServiceProperties {
 
   private String sender = "bremersee";
 
+  private long standInLatencyMillis = 0L;
+
+  private double standInFailureRate = 0.0;
+
 }
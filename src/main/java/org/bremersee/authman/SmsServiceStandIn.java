@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.sms.SmsService;
+
+/**
+ * A stand-in for the SMS provider that is used for load tests. It delegates to another SMS
+ * service (normally the dummy one) and simulates the latency and the failure rate of a real
+ * provider.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+class SmsServiceStandIn implements InvocationHandler {
+
+  private final SmsService delegate;
+
+  private final long latencyMillis;
+
+  private final double failureRate;
+
+  private SmsServiceStandIn(
+      final SmsService delegate,
+      final long latencyMillis,
+      final double failureRate) {
+    this.delegate = delegate;
+    this.latencyMillis = Math.max(0L, latencyMillis);
+    this.failureRate = Math.max(0.0, Math.min(1.0, failureRate));
+  }
+
+  static SmsService newInstance(
+      final SmsService delegate,
+      final long latencyMillis,
+      final double failureRate) {
+
+    log.info("Using SMS stand-in with a latency of {} ms and a failure rate of {}.",
+        latencyMillis, failureRate);
+    return (SmsService) Proxy.newProxyInstance(
+        SmsService.class.getClassLoader(),
+        new Class<?>[]{SmsService.class},
+        new SmsServiceStandIn(delegate, latencyMillis, failureRate));
+  }
+
+  @Override
+  public Object invoke(final Object proxy, final Method method, final Object[] args)
+      throws Throwable {
+
+    if (method.getDeclaringClass() == Object.class) {
+      return method.invoke(this, args);
+    }
+    if (latencyMillis > 0L) {
+      Thread.sleep(latencyMillis);
+    }
+    if (failureRate > 0.0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+      throw new IllegalStateException("Simulated failure of the SMS provider.");
+    }
+    try {
+      return method.invoke(delegate, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+}
@@ -16,25 +16,24 @@
 
 package org.bremersee.authman;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.bremersee.authman.security.authentication.ForeignUserProfileDefaultRequestor;
 import org.bremersee.authman.security.authentication.ForeignUserProfileRequestor;
-import org.bremersee.authman.security.authentication.OAuth2AuthenticationEntryPoint;
 import org.bremersee.authman.security.authentication.OAuth2CallbackFilter;
+import org.bremersee.authman.security.authentication.OAuth2DispatchingFilter;
 import org.bremersee.authman.security.authentication.OAuth2MergeFilter;
-import org.bremersee.authman.security.authentication.OAuth2RedirectFilter;
+import org.bremersee.authman.security.authentication.OAuth2ProviderRegistration;
+import org.bremersee.authman.security.authentication.OAuth2ProviderRegistry;
 import org.bremersee.authman.security.authentication.facebook.FacebookAuthenticationProperties;
-import org.bremersee.authman.security.authentication.facebook.FacebookUserProfileParser;
 import org.bremersee.authman.security.authentication.github.GitHubAuthenticationProperties;
-import org.bremersee.authman.security.authentication.github.GitHubUserProfileParser;
 import org.bremersee.authman.security.authentication.google.GoogleAuthenticationProperties;
-import org.bremersee.authman.security.authentication.google.GoogleUserProfileParser;
 import org.bremersee.authman.security.core.RoleConstants;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
@@ -58,126 +57,59 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
 
   private static final String LOGIN_PAGE = "/login";
 
-  private FacebookAuthenticationProperties facebookAuthenticationProperties;
-
-  private GitHubAuthenticationProperties gitHubAuthenticationProperties;
-
-  private GoogleAuthenticationProperties googleAuthenticationProperties;
-
-  private Jackson2ObjectMapperBuilder objectMapperBuilder;
+  private OAuth2ProviderRegistry providerRegistry;
 
   private RestTemplateBuilder restTemplateBuilder;
 
-  public WebSecurityConfiguration(
-      final FacebookAuthenticationProperties facebookAuthenticationProperties,
-      final GitHubAuthenticationProperties gitHubAuthenticationProperties,
-      final GoogleAuthenticationProperties googleAuthenticationProperties,
-      final Jackson2ObjectMapperBuilder objectMapperBuilder,
-      final RestTemplateBuilder restTemplateBuilder) {
-
-    this.facebookAuthenticationProperties = facebookAuthenticationProperties;
-    this.gitHubAuthenticationProperties = gitHubAuthenticationProperties;
-    this.googleAuthenticationProperties = googleAuthenticationProperties;
-    this.objectMapperBuilder = objectMapperBuilder;
-    this.restTemplateBuilder = restTemplateBuilder;
-  }
-
-  @Bean("facebookEntryPoint")
-  public OAuth2AuthenticationEntryPoint facebookEntryPoint() {
-    return new OAuth2AuthenticationEntryPoint(facebookAuthenticationProperties);
-  }
-
-  @Bean("gitHubEntryPoint")
-  public OAuth2AuthenticationEntryPoint gitHubEntryPoint() {
-    return new OAuth2AuthenticationEntryPoint(gitHubAuthenticationProperties);
-  }
-
-  @Bean("googleEntryPoint")
-  public OAuth2AuthenticationEntryPoint googleEntryPoint() {
-    return new OAuth2AuthenticationEntryPoint(googleAuthenticationProperties);
-  }
-
-  @Bean("facebookRedirectFilter")
-  public OAuth2RedirectFilter facebookRedirectFilter() {
-    return new OAuth2RedirectFilter(facebookEntryPoint(),
-        new AntPathRequestMatcher("/facebook/login", "POST"));
-  }
+  private MeterRegistry meterRegistry;
 
-  @Bean("gitHubRedirectFilter")
-  public OAuth2RedirectFilter gitHubRedirectFilter() {
-    return new OAuth2RedirectFilter(gitHubEntryPoint(),
-        new AntPathRequestMatcher("/github/login", "POST"));
-  }
-
-  @Bean("googleRedirectFilter")
-  public OAuth2RedirectFilter googleRedirectFilter() {
-    return new OAuth2RedirectFilter(googleEntryPoint(),
-        new AntPathRequestMatcher("/google/login", "POST"));
-  }
+  private ApplicationEventPublisher applicationEventPublisher;
 
-  @Bean("facebookUserProfileParser")
-  public FacebookUserProfileParser facebookUserProfileParser() {
-    return new FacebookUserProfileParser(
-        facebookAuthenticationProperties, objectMapperBuilder.build());
-  }
+  public WebSecurityConfiguration(
+      final OAuth2ProviderRegistry providerRegistry,
+      final RestTemplateBuilder restTemplateBuilder,
+      final MeterRegistry meterRegistry,
+      final ApplicationEventPublisher applicationEventPublisher) {
 
-  @Bean("facebookCallbackFilter")
-  public OAuth2CallbackFilter facebookCallbackFilter()
+    this.providerRegistry = providerRegistry;
+    this.restTemplateBuilder = restTemplateBuilder;
+    this.meterRegistry = meterRegistry;
+    this.applicationEventPublisher = applicationEventPublisher;
+  }
+
+  @Bean("oAuth2DispatchingFilter")
+  public OAuth2DispatchingFilter oAuth2DispatchingFilter() throws Exception {
+    final OAuth2DispatchingFilter dispatchingFilter = new OAuth2DispatchingFilter();
+    for (final OAuth2ProviderRegistration registration : providerRegistry.getRegistrations()) {
+      dispatchingFilter.addProvider(
+          registration.getProvider(),
+          registration.getEntryPoint(),
+          callbackFilter(registration));
+    }
+    return dispatchingFilter;
+  }
+
+  /**
+   * The callback filters are not registered as beans (they are only invoked by the dispatching
+   * filter), so everything the application context would inject must be set here, including the
+   * event publisher for the interactive authentication success events.
+   */
+  private OAuth2CallbackFilter callbackFilter(final OAuth2ProviderRegistration registration)
       throws Exception {
 
     final AntPathRequestMatcher requestMatcher = new AntPathRequestMatcher(
-        "/facebook/callback", "GET");
-    final ForeignUserProfileRequestor userRequestor = new ForeignUserProfileDefaultRequestor(
-        facebookAuthenticationProperties,
-        new FacebookUserProfileParser(
-            facebookAuthenticationProperties, objectMapperBuilder.build()))
-        .restTemplateBuilder(restTemplateBuilder);
-    final OAuth2CallbackFilter callbackFilter = new OAuth2CallbackFilter(
-        facebookAuthenticationProperties, userRequestor, requestMatcher);
-    callbackFilter.setAuthenticationManager(authenticationManagerBean());
-    callbackFilter.setRestTemplateBuilder(restTemplateBuilder);
-    return callbackFilter;
-  }
-
-  @Bean("gitHubUserProfileParser")
-  public GitHubUserProfileParser gitHubUserProfileParser() {
-    return new GitHubUserProfileParser(gitHubAuthenticationProperties);
-  }
-
-  @Bean("gitHubCallbackFilter")
-  public OAuth2CallbackFilter gitHubCallbackFilter() throws Exception {
-
-    final AntPathRequestMatcher requestMatcher = new AntPathRequestMatcher(
-        "/github/callback", "GET");
-    final ForeignUserProfileRequestor userRequestor = new ForeignUserProfileDefaultRequestor(
-        gitHubAuthenticationProperties,
-        new GitHubUserProfileParser(gitHubAuthenticationProperties))
-        .restTemplateBuilder(restTemplateBuilder);
-    final OAuth2CallbackFilter callbackFilter = new OAuth2CallbackFilter(
-        gitHubAuthenticationProperties, userRequestor, requestMatcher);
-    callbackFilter.setAuthenticationManager(authenticationManagerBean());
-    callbackFilter.setRestTemplateBuilder(restTemplateBuilder);
-    return callbackFilter;
-  }
-
-  @Bean("googleUserProfileParser")
-  public GoogleUserProfileParser googleUserProfileParser() {
-    return new GoogleUserProfileParser(googleAuthenticationProperties);
-  }
-
-  @Bean("googleCallbackFilter")
-  public OAuth2CallbackFilter googleCallbackFilter() throws Exception {
-
-    final AntPathRequestMatcher requestMatcher = new AntPathRequestMatcher(
-        "/google/callback", "GET");
+        "/" + registration.getProvider() + "/callback", "GET");
     final ForeignUserProfileRequestor userRequestor = new ForeignUserProfileDefaultRequestor(
-        googleAuthenticationProperties,
-        new GoogleUserProfileParser(googleAuthenticationProperties))
+        registration.getProperties(),
+        registration.getUserProfileParser())
         .restTemplateBuilder(restTemplateBuilder);
     final OAuth2CallbackFilter callbackFilter = new OAuth2CallbackFilter(
-        googleAuthenticationProperties, userRequestor, requestMatcher);
+        registration.getProperties(), userRequestor, requestMatcher);
     callbackFilter.setAuthenticationManager(authenticationManagerBean());
     callbackFilter.setRestTemplateBuilder(restTemplateBuilder);
+    callbackFilter.setMeterRegistry(meterRegistry);
+    callbackFilter.setApplicationEventPublisher(applicationEventPublisher);
+    callbackFilter.afterPropertiesSet();
     return callbackFilter;
   }
 
@@ -208,12 +140,7 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http
-        .addFilterBefore(facebookRedirectFilter(), X509AuthenticationFilter.class)
-        .addFilterBefore(googleRedirectFilter(), X509AuthenticationFilter.class)
-        .addFilterBefore(gitHubRedirectFilter(), X509AuthenticationFilter.class)
-        .addFilterAfter(facebookCallbackFilter(), AbstractPreAuthenticatedProcessingFilter.class)
-        .addFilterAfter(googleCallbackFilter(), AbstractPreAuthenticatedProcessingFilter.class)
-        .addFilterAfter(gitHubCallbackFilter(), AbstractPreAuthenticatedProcessingFilter.class)
+        .addFilterBefore(oAuth2DispatchingFilter(), X509AuthenticationFilter.class)
         .addFilterAfter(oAuth2MergeFilter(), AbstractPreAuthenticatedProcessingFilter.class)
 
         .requestMatcher(new NegatedRequestMatcher(
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache invalidation properties.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.cache-invalidation")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class CacheInvalidationProperties {
+
+  /**
+   * Specifies whether invalidation events are exchanged with the other nodes. Default is {@code
+   * true}. A single node installation may switch it off.
+   */
+  private boolean clusterEnabled = true;
+
+  /**
+   * The interval in milliseconds of looking for invalidation events of other nodes. Default is
+   * {@code 5000}.
+   */
+  private long pollIntervalMillis = 5000L;
+
+  /**
+   * The time in milliseconds the poll window reaches back into the past to tolerate clock skew
+   * between the nodes. Default is {@code 2000}.
+   */
+  private long pollOverlapMillis = 2000L;
+
+  /**
+   * The maximum time in milliseconds between two polls, when polling fails. The time is doubled
+   * with every failure. Default is {@code 300000}.
+   */
+  private long maxPollBackoffMillis = 300000L;
+
+}
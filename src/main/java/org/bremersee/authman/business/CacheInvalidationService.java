@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.function.Consumer;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Propagates the invalidation of local in-memory caches to all nodes of the cluster.
+ *
+ * @author Christian Bremer
+ */
+public interface CacheInvalidationService {
+
+  /**
+   * Registers a listener of the specified cache. The listener is called with the key of the entry
+   * that must be evicted or with {@code null}, if the whole cache must be cleared.
+   *
+   * @param cacheName the name of the cache
+   * @param listener  the listener
+   */
+  void addListener(@NotNull String cacheName, @NotNull Consumer<String> listener);
+
+  /**
+   * Invalidates the entry with the specified key on this and on all other nodes.
+   *
+   * @param cacheName the name of the cache
+   * @param key       the key of the entry or {@code null} to clear the whole cache
+   */
+  void invalidate(@NotNull String cacheName, String key);
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.CacheInvalidation;
+import org.bremersee.authman.domain.CacheInvalidationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache invalidation service implementation. The invalidation events are stored in the database
+ * and polled by each node. If polling fails, the poll window is kept and the next attempts are
+ * delayed exponentially.
+ *
+ * @author Christian Bremer
+ */
+@Component("cacheInvalidationService")
+@Slf4j
+public class CacheInvalidationServiceImpl implements CacheInvalidationService {
+
+  private final String origin = UUID.randomUUID().toString();
+
+  private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+  private final CacheInvalidationProperties properties;
+
+  private final CacheInvalidationRepository repository;
+
+  private volatile long lastPoll = System.currentTimeMillis();
+
+  private int pollFailures;
+
+  private long nextPoll;
+
+  @Autowired
+  public CacheInvalidationServiceImpl(
+      final CacheInvalidationProperties properties,
+      final CacheInvalidationRepository repository) {
+    this.properties = properties;
+    this.repository = repository;
+  }
+
+  @Override
+  public void addListener(
+      @NotNull final String cacheName,
+      @NotNull final Consumer<String> listener) {
+
+    listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  @Override
+  public void invalidate(@NotNull final String cacheName, final String key) {
+
+    notifyListeners(cacheName, key);
+    if (properties.isClusterEnabled()) {
+      final CacheInvalidation event = new CacheInvalidation();
+      event.setOrigin(origin);
+      event.setCacheName(cacheName);
+      event.setKey(key);
+      try {
+        repository.save(event);
+
+      } catch (RuntimeException e) {
+        log.error("Publishing invalidation of cache [{}] and key [{}] failed.", cacheName, key, e);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${bremersee.cache-invalidation.poll-interval-millis:5000}")
+  public void pollInvalidations() {
+    if (!properties.isClusterEnabled() || listeners.isEmpty()) {
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    if (now < nextPoll) {
+      return;
+    }
+    final Date since = new Date(lastPoll - properties.getPollOverlapMillis());
+    final List<CacheInvalidation> events;
+    try {
+      events = repository.findByCreatedAfterOrderByCreatedAsc(since);
+
+    } catch (RuntimeException e) {
+      // the poll window is not moved, so no event is lost
+      pollFailures++;
+      final long delay = Math.min(
+          properties.getPollIntervalMillis() << Math.min(pollFailures, 20),
+          properties.getMaxPollBackoffMillis());
+      nextPoll = now + delay;
+      log.error("Polling cache invalidations failed {} time(s), next attempt in {} ms.",
+          pollFailures, delay, e);
+      return;
+    }
+    if (pollFailures > 0) {
+      log.info("Polling cache invalidations succeeded after {} failure(s).", pollFailures);
+      pollFailures = 0;
+    }
+    lastPoll = now;
+    for (final CacheInvalidation event : events) {
+      if (!origin.equals(event.getOrigin())) {
+        notifyListeners(event.getCacheName(), event.getKey());
+      }
+    }
+  }
+
+  private void notifyListeners(final String cacheName, final String key) {
+    final List<Consumer<String>> cacheListeners = listeners.get(cacheName);
+    if (cacheListeners != null) {
+      log.debug("Invalidating cache [{}] with key [{}].", cacheName, key);
+      cacheListeners.forEach(listener -> listener.accept(key));
+    }
+  }
+
+}
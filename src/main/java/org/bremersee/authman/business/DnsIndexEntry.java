@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bremersee.smbcon.model.DnsRecord;
+
+/**
+ * A record of the name server index.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString(exclude = "searchText")
+@EqualsAndHashCode(exclude = "searchText")
+public class DnsIndexEntry implements Serializable, Comparable<DnsIndexEntry> {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Pattern DOT = Pattern.compile(Pattern.quote("."));
+
+  private final String zoneName;
+
+  private final String name;
+
+  private final String recordType;
+
+  private final String recordValue;
+
+  private final String flags;
+
+  private final String serial;
+
+  private final String ttl;
+
+  private final String searchText;
+
+  /**
+   * Creates a record of the name server index.
+   *
+   * @param zoneName  the name of the zone
+   * @param name      the name of the entry
+   * @param dnsRecord the record (may be {@code null}, if the entry has no records)
+   */
+  public DnsIndexEntry(
+      @NotNull final String zoneName,
+      final String name,
+      final DnsRecord dnsRecord) {
+
+    this.zoneName = zoneName;
+    this.name = name;
+    this.recordType = dnsRecord != null ? dnsRecord.getRecordType() : null;
+    this.recordValue = dnsRecord != null ? dnsRecord.getRecordValue() : null;
+    this.flags = dnsRecord != null ? dnsRecord.getFlags() : null;
+    this.serial = dnsRecord != null ? dnsRecord.getSerial() : null;
+    this.ttl = dnsRecord != null ? dnsRecord.getTtl() : null;
+    this.searchText = (name + " " + recordType + " " + recordValue).toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Checks whether the name, the type or the value contains the (lower case) query.
+   *
+   * @param lowerCaseQuery the query in lower case
+   * @return {@code true} if the record matches, otherwise {@code false}
+   */
+  public boolean matches(final String lowerCaseQuery) {
+    return searchText.contains(lowerCaseQuery);
+  }
+
+  @SuppressWarnings("NullableProblems")
+  @Override
+  public int compareTo(final DnsIndexEntry o) {
+    final String n0 = name != null ? name : "";
+    final String n1 = o != null && o.getName() != null ? o.getName() : "";
+    return compare(n0, n1);
+  }
+
+  private static int compare(final String a, final String b) {
+    final String[] aa = DOT.split(a);
+    final String[] bb = DOT.split(b);
+    if (aa.length > 1 && aa.length == bb.length) {
+      for (int i = 0; i < aa.length; i++) {
+        final int c = compare(aa[i], bb[i]);
+        if (c != 0) {
+          return c;
+        }
+      }
+      return 0;
+    }
+
+    try {
+      return Integer.compare(Integer.parseInt(a), Integer.parseInt(b));
+
+    } catch (RuntimeException re) {
+      return a.compareToIgnoreCase(b);
+    }
+  }
+
+}
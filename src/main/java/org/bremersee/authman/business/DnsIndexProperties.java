@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the name server index.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.dns-index")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class DnsIndexProperties {
+
+  /**
+   * The maximum number of zones, whose records are fetched at the same time. Default is
+   * {@code 4}.
+   */
+  private int fetchConcurrency = 4;
+
+  /**
+   * The time in milliseconds to wait for the records of all zones. Default is {@code 10000}.
+   */
+  private long fetchTimeoutMillis = 10000L;
+
+  /**
+   * The time in seconds the index of zones and records is kept. Default is {@code 300}.
+   */
+  private long timeToLiveSeconds = 300L;
+
+  /**
+   * The time in seconds an incomplete index (the records of a zone couldn't be fetched) is kept.
+   * Default is {@code 30}.
+   */
+  private long incompleteTimeToLiveSeconds = 30L;
+
+  /**
+   * The time in seconds the info of the name server is kept. Default is {@code 3600}.
+   */
+  private long infoTimeToLiveSeconds = 3600L;
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.List;
+import org.bremersee.smbcon.model.DnsZone;
+import org.bremersee.smbcon.model.Info;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * A cached index of the zones and records of the name server.
+ *
+ * @author Christian Bremer
+ */
+public interface DnsIndexService {
+
+  /**
+   * Gets the (cached) info of the name server.
+   *
+   * @return the info
+   */
+  Info getInfo();
+
+  /**
+   * Gets the zones of the name server.
+   *
+   * @return the zones
+   */
+  List<DnsZone> getZones();
+
+  /**
+   * Finds records of the index.
+   *
+   * @param zoneName the name of the zone (may be {@code null} to find records of all zones)
+   * @param query    the text, that the name, the type or the value of the record must contain
+   *                 (may be {@code null})
+   * @param pageable the page request
+   * @return the page of records
+   */
+  Page<DnsIndexEntry> findRecords(String zoneName, String query, Pageable pageable);
+
+  /**
+   * Removes the index on this and on all other nodes, so that it is rebuilt on the next request.
+   */
+  void invalidate();
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.smbcon.model.DnsEntry;
+import org.bremersee.smbcon.model.DnsRecord;
+import org.bremersee.smbcon.model.DnsZone;
+import org.bremersee.smbcon.model.Info;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds the index of the name server by fetching the records of the zones concurrently, but not
+ * more than {@link DnsIndexProperties#getFetchConcurrency()} at the same time. The index is kept
+ * until it is invalidated or expires. An incomplete index expires earlier, so that a failing zone
+ * doesn't cause a new fetch of all zones on every request.
+ *
+ * @author Christian Bremer
+ */
+@Component("dnsIndexService")
+@Slf4j
+public class DnsIndexServiceImpl implements DnsIndexService {
+
+  static final String CACHE_NAME = "dnsIndex";
+
+  private static final String MSDCS_PREFIX = "_msdcs.";
+
+  private static final Comparator<DnsZone> ZONE_ORDER = Comparator
+      .comparing((DnsZone zone) -> zoneName(zone).toLowerCase(Locale.ENGLISH)
+          .startsWith(MSDCS_PREFIX))
+      .thenComparing(DnsIndexServiceImpl::zoneName, String.CASE_INSENSITIVE_ORDER);
+
+  private final DnsIndexProperties properties;
+
+  private final SambaConnectorService sambaConnectorService;
+
+  private final CacheInvalidationService cacheInvalidationService;
+
+  private final ExecutorService executor;
+
+  private final Timer loadTimer;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile Index index;
+
+  private volatile Info info;
+
+  private volatile long infoExpiresAt;
+
+  @Autowired
+  public DnsIndexServiceImpl(
+      @NotNull final DnsIndexProperties properties,
+      @NotNull final SambaConnectorService sambaConnectorService,
+      @NotNull final CacheInvalidationService cacheInvalidationService,
+      @NotNull final MeterRegistry meterRegistry) {
+
+    this.properties = properties;
+    this.sambaConnectorService = sambaConnectorService;
+    this.cacheInvalidationService = cacheInvalidationService;
+    this.cacheInvalidationService.addListener(CACHE_NAME, key -> clear());
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(
+        Math.max(1, properties.getFetchConcurrency()),
+        runnable -> {
+          final Thread thread = new Thread(runnable, "dns-index-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.loadTimer = Timer.builder("dns.index.load")
+        .description("Time of fetching the records of all zones")
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public Info getInfo() {
+    Info current = info;
+    if (current == null || System.currentTimeMillis() > infoExpiresAt) {
+      try {
+        current = sambaConnectorService.getInfo();
+        info = current;
+        infoExpiresAt = System.currentTimeMillis()
+            + TimeUnit.SECONDS.toMillis(properties.getInfoTimeToLiveSeconds());
+      } catch (RuntimeException e) {
+        if (current == null) {
+          throw e;
+        }
+        log.warn("Getting name server info failed, using the old one.", e);
+      }
+    }
+    return current;
+  }
+
+  @Override
+  public List<DnsZone> getZones() {
+    return getIndex().zones;
+  }
+
+  @Override
+  public Page<DnsIndexEntry> findRecords(
+      final String zoneName,
+      final String query,
+      final Pageable pageable) {
+
+    final List<DnsIndexEntry> entries;
+    if (StringUtils.hasText(zoneName) || StringUtils.hasText(query)) {
+      final String lowerCaseQuery = StringUtils.hasText(query)
+          ? query.trim().toLowerCase(Locale.ENGLISH)
+          : null;
+      entries = getIndex().entries.stream()
+          .filter(entry -> !StringUtils.hasText(zoneName) || zoneName.equals(entry.getZoneName()))
+          .filter(entry -> lowerCaseQuery == null || entry.matches(lowerCaseQuery))
+          .collect(Collectors.toList());
+    } else {
+      entries = getIndex().entries;
+    }
+    if (pageable == null || pageable.isUnpaged()) {
+      return new PageImpl<>(entries);
+    }
+    final int from = (int) Math.min(pageable.getOffset(), entries.size());
+    final int to = (int) Math.min((long) from + pageable.getPageSize(), entries.size());
+    return new PageImpl<>(entries.subList(from, to), pageable, entries.size());
+  }
+
+  @Override
+  public void invalidate() {
+    cacheInvalidationService.invalidate(CACHE_NAME, null);
+  }
+
+  private void clear() {
+    generation.incrementAndGet();
+    index = null;
+  }
+
+  private Index getIndex() {
+    final Index current = index;
+    return current != null && !current.isExpired() ? current : load();
+  }
+
+  private synchronized Index load() {
+    Index current = index;
+    if (current != null && !current.isExpired()) {
+      return current;
+    }
+    final long loadGeneration = generation.get();
+    final long start = System.nanoTime();
+    final List<DnsZone> zones = new ArrayList<>(sambaConnectorService.getDnsZones());
+    zones.sort(ZONE_ORDER);
+
+    final List<CompletableFuture<List<DnsEntry>>> futures = new ArrayList<>(zones.size());
+    for (final DnsZone zone : zones) {
+      futures.add(CompletableFuture.supplyAsync(
+          () -> sambaConnectorService.getDnsRecords(zoneName(zone)), executor));
+    }
+
+    final long deadline = System.currentTimeMillis() + properties.getFetchTimeoutMillis();
+    final List<DnsIndexEntry> entries = new ArrayList<>();
+    boolean complete = true;
+    for (int i = 0; i < zones.size(); i++) {
+      final String zoneName = zoneName(zones.get(i));
+      try {
+        entries.addAll(toIndexEntries(zoneName, futures.get(i).get(
+            Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        futures.forEach(future -> future.cancel(true));
+        throw new IllegalStateException("Interrupted while fetching name server records.", e);
+      } catch (ExecutionException | TimeoutException e) {
+        log.error("Fetching records of zone [{}] failed.", zoneName, e);
+        futures.get(i).cancel(true);
+        complete = false;
+      }
+    }
+    loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    final long timeToLiveSeconds = complete
+        ? properties.getTimeToLiveSeconds()
+        : properties.getIncompleteTimeToLiveSeconds();
+    current = new Index(
+        Collections.unmodifiableList(zones),
+        Collections.unmodifiableList(entries),
+        System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeToLiveSeconds));
+    // don't keep an index that was invalidated while loading
+    if (loadGeneration == generation.get()) {
+      index = current;
+    }
+    log.debug("Name server index loaded ({} zones, {} records, complete = {}).",
+        zones.size(), entries.size(), complete);
+    return current;
+  }
+
+  private static List<DnsIndexEntry> toIndexEntries(
+      final String zoneName,
+      final List<DnsEntry> dnsEntries) {
+
+    final List<DnsIndexEntry> entries = new ArrayList<>();
+    if (dnsEntries != null) {
+      for (final DnsEntry dnsEntry : dnsEntries) {
+        if (dnsEntry.getRecords() == null || dnsEntry.getRecords().isEmpty()) {
+          entries.add(new DnsIndexEntry(zoneName, dnsEntry.getName(), null));
+        } else {
+          for (final DnsRecord dnsRecord : dnsEntry.getRecords()) {
+            entries.add(new DnsIndexEntry(zoneName, dnsEntry.getName(), dnsRecord));
+          }
+        }
+      }
+      Collections.sort(entries);
+    }
+    return entries;
+  }
+
+  private static String zoneName(final DnsZone zone) {
+    return zone.getPszZoneName() != null ? zone.getPszZoneName() : "";
+  }
+
+  private static class Index {
+
+    private final List<DnsZone> zones;
+
+    private final List<DnsIndexEntry> entries;
+
+    private final long expiresAt;
+
+    Index(final List<DnsZone> zones, final List<DnsIndexEntry> entries, final long expiresAt) {
+      this.zones = zones;
+      this.entries = entries;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired() {
+      return System.currentTimeMillis() > expiresAt;
+    }
+  }
+
+}
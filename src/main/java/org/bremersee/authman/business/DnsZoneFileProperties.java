@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the zone file import.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.dns-zone-file")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class DnsZoneFileProperties {
+
+  /**
+   * The maximum number of record changes, that are sent to the name server at the same time.
+   * Default is {@code 4}.
+   */
+  private int importConcurrency = 4;
+
+  /**
+   * The maximum number of records of a zone file. Default is {@code 50000}.
+   */
+  private int maxRecords = 50000;
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.validation.constraints.NotNull;
+import org.bremersee.smbcon.model.DnsRecordType;
+
+/**
+ * Reads the resource records of a zone file (RFC 1035, section 5) one after another. It supports
+ * comments, quoted strings, parentheses over several lines, blank owners and the {@code $ORIGIN}
+ * and {@code $TTL} directives. The record data is not interpreted.
+ *
+ * @author Christian Bremer
+ */
+public class DnsZoneFileReader implements Closeable {
+
+  private final BufferedReader reader;
+
+  private final String zone;
+
+  private String origin;
+
+  private Long defaultTtl;
+
+  private String lastName;
+
+  private int lineNumber;
+
+  private int recordLineNumber;
+
+  /**
+   * Creates a zone file reader.
+   *
+   * @param reader   the reader of the zone file
+   * @param zoneName the name of the zone
+   */
+  public DnsZoneFileReader(@NotNull final Reader reader, @NotNull final String zoneName) {
+    this.reader = reader instanceof BufferedReader
+        ? (BufferedReader) reader
+        : new BufferedReader(reader);
+    this.zone = toAbsolute(zoneName);
+    this.origin = this.zone;
+  }
+
+  /**
+   * Gets the line number of the last record, that was read.
+   *
+   * @return the line number
+   */
+  public int getLineNumber() {
+    return recordLineNumber;
+  }
+
+  /**
+   * Reads the next resource record.
+   *
+   * @return the record or {@code null}, if the end of the file is reached
+   * @throws IOException              if reading fails
+   * @throws IllegalArgumentException if the record is invalid (the reader can be used further)
+   */
+  public DnsZoneFileRecord next() throws IOException {
+    List<String> tokens;
+    while ((tokens = readTokens()) != null) {
+      final String first = tokens.get(0);
+      if (first.isEmpty() || first.charAt(0) != '$') {
+        return parseRecord(tokens);
+      }
+      readDirective(tokens);
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void readDirective(final List<String> tokens) {
+    final String directive = tokens.get(0).toUpperCase(Locale.ENGLISH);
+    if ("$ORIGIN".equals(directive) && tokens.size() > 1) {
+      origin = toAbsolute(resolve(tokens.get(1)));
+    } else if ("$TTL".equals(directive) && tokens.size() > 1) {
+      defaultTtl = parseTtl(tokens.get(1));
+    } else {
+      throw error("Unsupported directive " + tokens.get(0));
+    }
+  }
+
+  private DnsZoneFileRecord parseRecord(final List<String> tokens) {
+    int index = 0;
+    final String name;
+    if (tokens.get(0).isEmpty()) {
+      // the line starts with a blank, so the owner is the last one
+      if (lastName == null) {
+        throw error("The first record has no name");
+      }
+      name = lastName;
+      index++;
+    } else {
+      name = toZoneRelative(resolve(tokens.get(index++)));
+      lastName = name;
+    }
+
+    Long ttl = defaultTtl;
+    for (int i = 0; i < 2 && index < tokens.size(); i++) {
+      final String token = tokens.get(index);
+      if (isClass(token)) {
+        index++;
+      } else if (Character.isDigit(token.charAt(0))) {
+        ttl = parseTtl(token);
+        index++;
+      }
+    }
+    if (index >= tokens.size()) {
+      throw error("The record has no type");
+    }
+    final String type = tokens.get(index++).toUpperCase(Locale.ENGLISH);
+    final DnsRecordType recordType = DnsRecordType.fromValue(type);
+    if (recordType == null) {
+      throw error("Unsupported record type " + type);
+    }
+    if (index >= tokens.size()) {
+      throw error("The record has no data");
+    }
+    return new DnsZoneFileRecord(
+        recordLineNumber,
+        name,
+        recordType,
+        String.join(" ", tokens.subList(index, tokens.size())),
+        ttl);
+  }
+
+  /**
+   * Reads the tokens of the next logical line. The first token is empty, if the line starts with
+   * a blank.
+   */
+  private List<String> readTokens() throws IOException {
+    final List<String> tokens = new ArrayList<>();
+    final StringBuilder token = new StringBuilder();
+    int depth = 0;
+    boolean first = true;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (first) {
+        recordLineNumber = lineNumber;
+        if (!line.isEmpty() && Character.isWhitespace(line.charAt(0))) {
+          tokens.add("");
+        }
+        first = false;
+      }
+      boolean quoted = false;
+      for (int i = 0; i < line.length(); i++) {
+        final char c = line.charAt(i);
+        if (quoted) {
+          if (c == '\\' && i + 1 < line.length()) {
+            token.append(line.charAt(++i));
+          } else if (c == '"') {
+            quoted = false;
+          } else {
+            token.append(c);
+          }
+        } else if (c == '"') {
+          quoted = true;
+        } else if (c == ';') {
+          break;
+        } else if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+          depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+          addToken(tokens, token);
+        } else {
+          token.append(c);
+        }
+      }
+      if (quoted) {
+        throw error("Unterminated quoted string");
+      }
+      addToken(tokens, token);
+      if (depth <= 0) {
+        if (tokens.size() > 1 || (tokens.size() == 1 && !tokens.get(0).isEmpty())) {
+          return tokens;
+        }
+        tokens.clear();
+        depth = 0;
+        first = true;
+      }
+    }
+    if (depth > 0) {
+      throw error("Unbalanced parentheses");
+    }
+    return null;
+  }
+
+  private static void addToken(final List<String> tokens, final StringBuilder token) {
+    if (token.length() > 0) {
+      tokens.add(token.toString());
+      token.setLength(0);
+    }
+  }
+
+  private static boolean isClass(final String token) {
+    final String value = token.toUpperCase(Locale.ENGLISH);
+    return "IN".equals(value) || "CH".equals(value) || "HS".equals(value) || "CS".equals(value);
+  }
+
+  private Long parseTtl(final String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw error("Illegal ttl " + value);
+    }
+  }
+
+  private String resolve(final String name) {
+    if (DnsZoneFileRecord.APEX.equals(name)) {
+      return origin;
+    }
+    return name.endsWith(".") ? name : name + "." + origin;
+  }
+
+  private String toZoneRelative(final String absoluteName) {
+    if (absoluteName.equalsIgnoreCase(zone)) {
+      return DnsZoneFileRecord.APEX;
+    }
+    final String suffix = "." + zone;
+    if (absoluteName.length() > suffix.length()
+        && absoluteName.toLowerCase(Locale.ENGLISH).endsWith(suffix.toLowerCase(Locale.ENGLISH))) {
+      return absoluteName.substring(0, absoluteName.length() - suffix.length());
+    }
+    throw error("The name " + absoluteName + " is not in zone " + zone);
+  }
+
+  private static String toAbsolute(final String name) {
+    return name.endsWith(".") ? name : name + ".";
+  }
+
+  private IllegalArgumentException error(final String message) {
+    return new IllegalArgumentException("Line " + recordLineNumber + ": " + message + ".");
+  }
+
+}
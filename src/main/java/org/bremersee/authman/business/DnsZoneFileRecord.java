@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.Serializable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bremersee.smbcon.model.DnsRecordType;
+
+/**
+ * A resource record of a zone file.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class DnsZoneFileRecord implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The name of the zone itself.
+   */
+  public static final String APEX = "@";
+
+  private final int lineNumber;
+
+  private final String name;
+
+  private final DnsRecordType recordType;
+
+  private final String data;
+
+  private final Long ttl;
+
+  /**
+   * Creates a resource record.
+   *
+   * @param lineNumber the line number in the zone file
+   * @param name       the name relative to the zone ({@link #APEX} for the zone itself)
+   * @param recordType the record type
+   * @param data       the record data
+   * @param ttl        the time to live in seconds (may be {@code null})
+   */
+  public DnsZoneFileRecord(
+      final int lineNumber,
+      final String name,
+      final DnsRecordType recordType,
+      final String data,
+      final Long ttl) {
+    this.lineNumber = lineNumber;
+    this.name = name;
+    this.recordType = recordType;
+    this.data = data;
+    this.ttl = ttl;
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Imports and exports the records of a name server zone as zone file (RFC 1035).
+ *
+ * @author Christian Bremer
+ */
+public interface DnsZoneFileService {
+
+  /**
+   * Writes the records of the zone as zone file.
+   *
+   * @param zoneName the name of the zone
+   * @param writer   the writer
+   * @throws IOException if writing fails
+   */
+  void exportZone(@NotNull String zoneName, @NotNull Writer writer) throws IOException;
+
+  /**
+   * Reads the zone file and applies the differences to the records of the zone.
+   *
+   * @param zoneName      the name of the zone
+   * @param reader        the reader of the zone file
+   * @param deleteMissing specifies whether records, that are not in the zone file, are deleted
+   *                      (SOA records are never deleted)
+   * @return the result of the import
+   * @throws IOException if reading fails
+   */
+  DnsZoneImportResult importZone(
+      @NotNull String zoneName,
+      @NotNull Reader reader,
+      boolean deleteMissing) throws IOException;
+
+}
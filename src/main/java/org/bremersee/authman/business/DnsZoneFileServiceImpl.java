@@ -0,0 +1,320 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.DnsZoneImportOutcome.Action;
+import org.bremersee.smbcon.model.DnsEntry;
+import org.bremersee.smbcon.model.DnsRecord;
+import org.bremersee.smbcon.model.DnsRecordType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Imports and exports zone files. The import compares the zone file with the current records
+ * and sends only the differences to the name server, first the deletions and then the
+ * creations, each with not more than {@link DnsZoneFileProperties#getImportConcurrency()}
+ * concurrent calls.
+ *
+ * <p>The export quotes every value, that contains characters with a meaning in zone files, so
+ * that importing an unchanged export doesn't change anything.
+ *
+ * @author Christian Bremer
+ */
+@Component("dnsZoneFileService")
+@Slf4j
+public class DnsZoneFileServiceImpl implements DnsZoneFileService {
+
+  private final DnsZoneFileProperties properties;
+
+  private final SambaConnectorService sambaConnectorService;
+
+  private final DnsIndexService dnsIndexService;
+
+  private final ExecutorService executor;
+
+  private final Timer importTimer;
+
+  @Autowired
+  public DnsZoneFileServiceImpl(
+      @NotNull final DnsZoneFileProperties properties,
+      @NotNull final SambaConnectorService sambaConnectorService,
+      @NotNull final DnsIndexService dnsIndexService,
+      @NotNull final MeterRegistry meterRegistry) {
+
+    this.properties = properties;
+    this.sambaConnectorService = sambaConnectorService;
+    this.dnsIndexService = dnsIndexService;
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(
+        Math.max(1, properties.getImportConcurrency()),
+        runnable -> {
+          final Thread thread = new Thread(runnable, "dns-import-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.importTimer = Timer.builder("dns.zone.import")
+        .description("Time of applying a zone file")
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public void exportZone(
+      @NotNull final String zoneName,
+      @NotNull final Writer writer) throws IOException {
+
+    final String origin = zoneName.endsWith(".") ? zoneName : zoneName + ".";
+    writer.write("; zone " + zoneName + "\n");
+    writer.write("$ORIGIN " + origin + "\n");
+    for (final DnsEntry dnsEntry : getDnsRecords(zoneName)) {
+      if (dnsEntry.getRecords() == null) {
+        continue;
+      }
+      final String name = isApex(dnsEntry.getName(), zoneName)
+          ? DnsZoneFileRecord.APEX
+          : dnsEntry.getName();
+      for (final DnsRecord dnsRecord : dnsEntry.getRecords()) {
+        final StringBuilder line = new StringBuilder();
+        if (DnsRecordType.SOA.name().equals(dnsRecord.getRecordType())) {
+          // the name server returns the soa record in its own format, it can't be imported
+          line.append("; ");
+        }
+        line.append(name).append('\t');
+        if (StringUtils.hasText(dnsRecord.getTtl())) {
+          line.append(dnsRecord.getTtl()).append('\t');
+        }
+        line.append("IN\t").append(dnsRecord.getRecordType()).append('\t');
+        final String value = String.valueOf(dnsRecord.getRecordValue());
+        if (DnsRecordType.TXT.name().equals(dnsRecord.getRecordType()) || mustBeQuoted(value)) {
+          line.append('"')
+              .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+              .append('"');
+        } else {
+          line.append(value);
+        }
+        writer.write(line.append('\n').toString());
+      }
+    }
+    writer.flush();
+  }
+
+  @Override
+  public DnsZoneImportResult importZone(
+      @NotNull final String zoneName,
+      @NotNull final Reader reader,
+      final boolean deleteMissing) throws IOException {
+
+    final long start = System.currentTimeMillis();
+    final List<DnsZoneImportOutcome> outcomes = new ArrayList<>();
+
+    // current records by key
+    final Map<String, Change> current = new LinkedHashMap<>();
+    for (final DnsEntry dnsEntry : getDnsRecords(zoneName)) {
+      if (dnsEntry.getRecords() != null) {
+        for (final DnsRecord dnsRecord : dnsEntry.getRecords()) {
+          final DnsRecordType recordType = DnsRecordType.fromValue(dnsRecord.getRecordType());
+          if (recordType != null && dnsRecord.getRecordValue() != null) {
+            final Change change = new Change(
+                Action.DELETE, dnsEntry.getName(), recordType, dnsRecord.getRecordValue());
+            current.put(change.key(zoneName), change);
+          }
+        }
+      }
+    }
+
+    // records of the zone file, that are new
+    final Map<String, Change> creations = new LinkedHashMap<>();
+    int unchanged = 0;
+    int records = 0;
+    try (final DnsZoneFileReader zoneFileReader = new DnsZoneFileReader(reader, zoneName)) {
+      while (true) {
+        final DnsZoneFileRecord record;
+        try {
+          record = zoneFileReader.next();
+        } catch (IllegalArgumentException e) {
+          outcomes.add(new DnsZoneImportOutcome(
+              Action.SKIP, null, null, null, false, e.getMessage()));
+          continue;
+        }
+        if (record == null) {
+          break;
+        }
+        if (++records > properties.getMaxRecords()) {
+          throw new IllegalArgumentException(
+              "The zone file has more than " + properties.getMaxRecords() + " records.");
+        }
+        final Change change = new Change(
+            Action.CREATE, record.getName(), record.getRecordType(), record.getData());
+        final String key = change.key(zoneName);
+        if (current.remove(key) != null) {
+          unchanged++;
+        } else if (record.getRecordType() == DnsRecordType.SOA) {
+          outcomes.add(change.toOutcome(Action.SKIP, false,
+              "Line " + record.getLineNumber() + ": SOA records can't be imported."));
+        } else {
+          creations.putIfAbsent(key, change);
+        }
+      }
+    }
+
+    final List<Change> deletions = new ArrayList<>();
+    if (deleteMissing) {
+      current.values().stream()
+          .filter(change -> change.recordType != DnsRecordType.SOA)
+          .forEach(deletions::add);
+    }
+
+    // deletions first, so that a record can be replaced by one with the same name and type
+    outcomes.addAll(apply(zoneName, deletions));
+    outcomes.addAll(apply(zoneName, new ArrayList<>(creations.values())));
+    if (!deletions.isEmpty() || !creations.isEmpty()) {
+      dnsIndexService.invalidate();
+    }
+
+    final long duration = System.currentTimeMillis() - start;
+    importTimer.record(duration, TimeUnit.MILLISECONDS);
+    final DnsZoneImportResult result = new DnsZoneImportResult(
+        zoneName, unchanged, outcomes, duration);
+    log.info("Zone file of [{}] imported: created = {}, deleted = {}, unchanged = {}, "
+            + "failed = {}, skipped = {}, duration = {} ms, changes per second = {}",
+        zoneName, result.getCreated(), result.getDeleted(), unchanged, result.getFailed(),
+        result.getSkipped(), duration, String.format(Locale.ENGLISH, "%.1f",
+            result.getChangesPerSecond()));
+    return result;
+  }
+
+  private List<DnsEntry> getDnsRecords(final String zoneName) {
+    final List<DnsEntry> entries = sambaConnectorService.getDnsRecords(zoneName);
+    return entries != null ? entries : new ArrayList<>();
+  }
+
+  private List<DnsZoneImportOutcome> apply(final String zoneName, final List<Change> changes) {
+    final List<CompletableFuture<DnsZoneImportOutcome>> futures = new ArrayList<>(changes.size());
+    for (final Change change : changes) {
+      futures.add(CompletableFuture.supplyAsync(() -> change.apply(zoneName), executor));
+    }
+    final List<DnsZoneImportOutcome> outcomes = new ArrayList<>(changes.size());
+    futures.forEach(future -> outcomes.add(future.join()));
+    return outcomes;
+  }
+
+  /**
+   * Checks whether the value contains characters, that the zone file reader treats as syntax
+   * (comments, parentheses, quotes and escapes), or blanks, that the reader would collapse.
+   */
+  private static boolean mustBeQuoted(final String value) {
+    if (value.isEmpty() || value.contains("  ") || !value.trim().equals(value)) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == ';' || c == '(' || c == ')' || c == '"' || c == '\\'
+          || (c != ' ' && Character.isWhitespace(c))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isApex(final String name, final String zoneName) {
+    if (!StringUtils.hasText(name) || DnsZoneFileRecord.APEX.equals(name)) {
+      return true;
+    }
+    final String absolute = name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+    final String zone = zoneName.endsWith(".")
+        ? zoneName.substring(0, zoneName.length() - 1)
+        : zoneName;
+    return absolute.equalsIgnoreCase(zone);
+  }
+
+  private class Change {
+
+    private final Action action;
+
+    private final String name;
+
+    private final DnsRecordType recordType;
+
+    private final String data;
+
+    Change(
+        final Action action,
+        final String name,
+        final DnsRecordType recordType,
+        final String data) {
+      this.action = action;
+      this.name = name;
+      this.recordType = recordType;
+      this.data = data;
+    }
+
+    String key(final String zoneName) {
+      final String normalizedName = isApex(name, zoneName)
+          ? DnsZoneFileRecord.APEX
+          : name.toLowerCase(Locale.ENGLISH);
+      return normalizedName + '|' + recordType.name() + '|' + data.trim();
+    }
+
+    DnsZoneImportOutcome apply(final String zoneName) {
+      try {
+        if (action == Action.DELETE) {
+          sambaConnectorService.deleteDnsRecord(zoneName, name, recordType, data);
+        } else {
+          sambaConnectorService.addDnsRecord(zoneName, name, recordType, data);
+        }
+        return toOutcome(action, true, null);
+
+      } catch (RuntimeException e) {
+        log.error("{} of record [{} {} {}] in zone [{}] failed.",
+            action, name, recordType, data, zoneName, e);
+        return toOutcome(action, false, e.getMessage());
+      }
+    }
+
+    DnsZoneImportOutcome toOutcome(
+        final Action outcomeAction,
+        final boolean successful,
+        final String message) {
+      return new DnsZoneImportOutcome(
+          outcomeAction, name, recordType.name(), data, successful, message);
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.Serializable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The outcome of importing one record of a zone file.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class DnsZoneImportOutcome implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The action of the import.
+   */
+  public enum Action {
+    CREATE, DELETE, SKIP
+  }
+
+  private final Action action;
+
+  private final String name;
+
+  private final String recordType;
+
+  private final String data;
+
+  private final boolean successful;
+
+  private final String message;
+
+  DnsZoneImportOutcome(
+      final Action action,
+      final String name,
+      final String recordType,
+      final String data,
+      final boolean successful,
+      final String message) {
+    this.action = action;
+    this.name = name;
+    this.recordType = recordType;
+    this.data = data;
+    this.successful = successful;
+    this.message = message;
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.bremersee.authman.business.DnsZoneImportOutcome.Action;
+
+/**
+ * The result of importing a zone file.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class DnsZoneImportResult implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String zoneName;
+
+  private final int unchanged;
+
+  private final List<DnsZoneImportOutcome> outcomes;
+
+  private final long durationMillis;
+
+  DnsZoneImportResult(
+      final String zoneName,
+      final int unchanged,
+      final List<DnsZoneImportOutcome> outcomes,
+      final long durationMillis) {
+    this.zoneName = zoneName;
+    this.unchanged = unchanged;
+    this.outcomes = outcomes;
+    this.durationMillis = durationMillis;
+  }
+
+  public long getCreated() {
+    return count(Action.CREATE, true);
+  }
+
+  public long getDeleted() {
+    return count(Action.DELETE, true);
+  }
+
+  public long getSkipped() {
+    return count(Action.SKIP, false);
+  }
+
+  public long getFailed() {
+    return outcomes.stream()
+        .filter(outcome -> outcome.getAction() != Action.SKIP && !outcome.isSuccessful())
+        .count();
+  }
+
+  /**
+   * Gets the number of applied changes per second.
+   *
+   * @return the changes per second
+   */
+  public double getChangesPerSecond() {
+    final long changes = getCreated() + getDeleted();
+    return durationMillis > 0L ? changes * 1000.0 / durationMillis : changes;
+  }
+
+  private long count(final Action action, final boolean successful) {
+    return outcomes.stream()
+        .filter(outcome -> outcome.getAction() == action && outcome.isSuccessful() == successful)
+        .count();
+  }
+
+}
@@ -16,17 +16,15 @@
 
 package org.bremersee.authman.business;
 
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
-import javax.mail.Message;
-import javax.mail.internet.InternetAddress;
 import javax.validation.constraints.NotNull;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.LocaleUtils;
 import org.bremersee.authman.domain.EmailChangeRequest;
@@ -41,21 +39,18 @@ import org.bremersee.authman.security.core.SecurityHelper;
 import org.bremersee.authman.security.core.context.RunAsCallbackWithoutResult;
 import org.bremersee.authman.validation.ValidationProperties;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
-import org.springframework.context.MessageSourceAware;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessagePreparator;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
 
 /**
  * @author Christian Bremer
  */
 @Component("emailChangeService")
 @Slf4j
-public class EmailChangeServiceImpl implements EmailChangeService, MessageSourceAware {
+public class EmailChangeServiceImpl implements EmailChangeService {
 
   private final ValidationProperties validationProperties;
 
@@ -67,10 +62,9 @@ public class EmailChangeServiceImpl implements EmailChangeService, MessageSource
 
   private final UserProfileService userProfileService;
 
-  private final JavaMailSender mailSender;
+  private final MailOutboxService mailOutboxService;
 
-  @Setter
-  private MessageSource messageSource;
+  private final MailTemplateService mailTemplateService;
 
   @Autowired
   public EmailChangeServiceImpl(
@@ -79,14 +73,16 @@ public class EmailChangeServiceImpl implements EmailChangeService, MessageSource
       final EmailChangeRequestRepository changeRequestRepository,
       final UserProfileRepository userProfileRepository,
       final UserProfileService userProfileService,
-      final JavaMailSender mailSender) {
+      final MailOutboxService mailOutboxService,
+      final MailTemplateService mailTemplateService) {
 
     this.validationProperties = validationProperties;
     this.emailChangeProperties = emailChangeProperties;
     this.changeRequestRepository = changeRequestRepository;
     this.userProfileRepository = userProfileRepository;
     this.userProfileService = userProfileService;
-    this.mailSender = mailSender;
+    this.mailOutboxService = mailOutboxService;
+    this.mailTemplateService = mailTemplateService;
   }
 
   @PreAuthorize("hasRole('ROLE_ADMIN') or authentication.name == #userName")
@@ -129,29 +125,22 @@ public class EmailChangeServiceImpl implements EmailChangeService, MessageSource
       final UserProfile userProfile,
       final EmailChangeRequest request) {
 
-    final MimeMessagePreparator preparator = mimeMessage -> {
-
-      final String hash = URLEncoder
-          .encode(request.getChangeHash(), StandardCharsets.UTF_8.name());
-      final String href = emailChangeProperties.getLink().replace("{requestHash}", hash);
-
-      mimeMessage
-          .setRecipient(Message.RecipientType.TO, new InternetAddress(request.getNewEmail()));
-      mimeMessage.setFrom(new InternetAddress(emailChangeProperties.getSender()));
-      mimeMessage.setSubject(getSubject(userProfile));
-      mimeMessage.setText("Dear " + userProfile.getDisplayName()
-          + ", to change your email please click " + href);
-    };
-
-    this.mailSender.send(preparator);
-  }
-
-  private String getSubject(final UserProfile userProfile) {
-    return messageSource.getMessage(
+    final String hash = UriUtils.encode(request.getChangeHash(), StandardCharsets.UTF_8);
+    final String href = emailChangeProperties.getLink().replace("{requestHash}", hash);
+    final MailTemplate template = mailTemplateService.getTemplate(
+        "email-change",
         emailChangeProperties.getSubjectCode(),
-        new Object[0],
         "Email Change Request",
         LocaleUtils.toLocale(userProfile.getPreferredLocale()));
+    final Map<String, Object> variables = new HashMap<>();
+    variables.put("displayName", userProfile.getDisplayName());
+    variables.put("link", href);
+    mailOutboxService.enqueue(
+        emailChangeProperties.getSender(),
+        request.getNewEmail(),
+        template.getSubject(),
+        template.renderText(variables),
+        template.renderHtml(variables));
   }
 
   @Override
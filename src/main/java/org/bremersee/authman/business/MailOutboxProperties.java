@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mail outbox properties.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.mail-outbox")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class MailOutboxProperties {
+
+  /**
+   * The interval in milliseconds of looking for mails to send. Default is {@code 1000}.
+   */
+  private long pollIntervalMillis = 1000L;
+
+  /**
+   * The maximum number of mails that are sent over one connection. Default is {@code 50}.
+   */
+  private int batchSize = 50;
+
+  /**
+   * The time in milliseconds a dispatcher may work on a mail before another node may pick it up.
+   * Default is {@code 120000}.
+   */
+  private long lockMillis = 120000L;
+
+  /**
+   * The maximum number of attempts to send a mail. Default is {@code 8}.
+   */
+  private int maxAttempts = 8;
+
+  /**
+   * The delay in milliseconds before the first retry. It is doubled with every further attempt.
+   * Default is {@code 10000}.
+   */
+  private long initialBackoffMillis = 10000L;
+
+  /**
+   * The maximum delay in milliseconds between two attempts. Default is {@code 3600000}.
+   */
+  private long maxBackoffMillis = 3600000L;
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface MailOutboxService {
+
+  /**
+   * Stores the mail in the outbox. It is sent asynchronously by the dispatcher.
+   *
+   * @param sender    the sender
+   * @param recipient the recipient
+   * @param subject   the subject
+   * @param text      the plain text
+   * @param html      the html text (may be {@code null})
+   */
+  void enqueue(
+      @NotNull String sender,
+      @NotNull String recipient,
+      @NotNull String subject,
+      @NotNull String text,
+      String html);
+
+  /**
+   * Sends the due mails of the outbox.
+   */
+  void dispatch();
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.MailOutboxEntry;
+import org.bremersee.authman.domain.MailOutboxEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores mails in a mongo collection and sends them in batches, so that every batch uses only one
+ * connection to the mail server. Failed mails are retried with an exponential backoff.
+ *
+ * @author Christian Bremer
+ */
+@Component("mailOutboxService")
+@Slf4j
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+  private final String owner = UUID.randomUUID().toString();
+
+  private final AtomicLong queueSize = new AtomicLong();
+
+  private final MailOutboxProperties properties;
+
+  private final MailOutboxEntryRepository repository;
+
+  private final JavaMailSender mailSender;
+
+  private final Timer batchTimer;
+
+  private final Counter sentCounter;
+
+  private final Counter retryCounter;
+
+  private final Counter failureCounter;
+
+  @Autowired
+  public MailOutboxServiceImpl(
+      final MailOutboxProperties properties,
+      final MailOutboxEntryRepository repository,
+      final JavaMailSender mailSender,
+      final MeterRegistry meterRegistry) {
+
+    this.properties = properties;
+    this.repository = repository;
+    this.mailSender = mailSender;
+    Gauge.builder("mail.outbox.queue.size", queueSize, AtomicLong::get)
+        .description("Mails waiting in the outbox")
+        .register(meterRegistry);
+    this.batchTimer = Timer.builder("mail.outbox.batch")
+        .description("Time of sending a batch of mails")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.sentCounter = meterRegistry.counter("mail.outbox.sent");
+    this.retryCounter = meterRegistry.counter("mail.outbox.retries");
+    this.failureCounter = meterRegistry.counter("mail.outbox.failures");
+  }
+
+  @Override
+  public void enqueue(
+      @NotNull final String sender,
+      @NotNull final String recipient,
+      @NotNull final String subject,
+      @NotNull final String text,
+      final String html) {
+
+    final MailOutboxEntry entry = new MailOutboxEntry();
+    entry.setSender(sender);
+    entry.setRecipient(recipient);
+    entry.setSubject(subject);
+    entry.setText(text);
+    entry.setHtml(html);
+    repository.save(entry);
+    queueSize.incrementAndGet();
+    log.debug("Mail to [{}] enqueued.", recipient);
+  }
+
+  @Scheduled(fixedDelayString = "${bremersee.mail-outbox.poll-interval-millis:1000}")
+  @Override
+  public void dispatch() {
+    List<MailOutboxEntry> batch = lockBatch();
+    while (!batch.isEmpty()) {
+      send(batch);
+      batch = lockBatch();
+    }
+    queueSize.set(repository.countByFailed(false));
+  }
+
+  private List<MailOutboxEntry> lockBatch() {
+    final Date now = new Date();
+    final Date lockedUntil = new Date(now.getTime() + properties.getLockMillis());
+    final List<MailOutboxEntry> batch = new ArrayList<>();
+    MailOutboxEntry entry;
+    while (batch.size() < properties.getBatchSize()
+        && (entry = repository.lockNext(owner, now, lockedUntil)) != null) {
+      batch.add(entry);
+    }
+    return batch;
+  }
+
+  private void send(final List<MailOutboxEntry> batch) {
+    final Map<MimeMessage, MailOutboxEntry> messages = new IdentityHashMap<>();
+    for (final MailOutboxEntry entry : batch) {
+      try {
+        messages.put(createMessage(entry), entry);
+      } catch (MessagingException e) {
+        log.error("Creating mail [{}] failed.", entry, e);
+        giveUp(entry, e);
+      }
+    }
+    if (messages.isEmpty()) {
+      return;
+    }
+
+    Map<Object, Exception> failedMessages = Collections.emptyMap();
+    MailException error = null;
+    final long start = System.nanoTime();
+    try {
+      mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+
+    } catch (MailSendException e) {
+      error = e;
+      failedMessages = e.getFailedMessages();
+
+    } catch (MailException e) {
+      error = e;
+
+    } finally {
+      batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    int sent = 0;
+    for (final Map.Entry<MimeMessage, MailOutboxEntry> message : messages.entrySet()) {
+      final Exception failure = error == null
+          ? null
+          : failedMessages.isEmpty() ? error : failedMessages.get(message.getKey());
+      if (failure == null) {
+        repository.deleteById(message.getValue().getId());
+        sentCounter.increment();
+        sent++;
+      } else {
+        retry(message.getValue(), failure);
+      }
+    }
+    log.debug("{} of {} mail(s) sent.", sent, messages.size());
+  }
+
+  private MimeMessage createMessage(final MailOutboxEntry entry) throws MessagingException {
+    final MimeMessage mimeMessage = mailSender.createMimeMessage();
+    final MimeMessageHelper helper = new MimeMessageHelper(
+        mimeMessage, entry.getHtml() != null, StandardCharsets.UTF_8.name());
+    helper.setTo(entry.getRecipient());
+    helper.setFrom(entry.getSender());
+    helper.setSubject(entry.getSubject());
+    if (entry.getHtml() != null) {
+      helper.setText(entry.getText(), entry.getHtml());
+    } else {
+      helper.setText(entry.getText());
+    }
+    return mimeMessage;
+  }
+
+  private void retry(final MailOutboxEntry entry, final Exception failure) {
+    final int attempts = entry.getAttempts() + 1;
+    if (attempts >= properties.getMaxAttempts()) {
+      log.error("Sending mail [{}] failed {} times, giving up.", entry, attempts, failure);
+      entry.setAttempts(attempts);
+      giveUp(entry, failure);
+      return;
+    }
+    final long backoff = Math.min(
+        properties.getInitialBackoffMillis() << Math.min(attempts - 1, 30),
+        properties.getMaxBackoffMillis());
+    log.warn("Sending mail [{}] failed (attempt {}), retrying in {} ms.",
+        entry, attempts, backoff, failure);
+    entry.setAttempts(attempts);
+    entry.setNextAttempt(new Date(System.currentTimeMillis() + backoff));
+    entry.setLockedUntil(null);
+    entry.setLockOwner(null);
+    entry.setLastError(String.valueOf(failure.getMessage()));
+    repository.save(entry);
+    retryCounter.increment();
+  }
+
+  private void giveUp(final MailOutboxEntry entry, final Exception failure) {
+    entry.setFailed(true);
+    entry.setLockedUntil(null);
+    entry.setLockOwner(null);
+    entry.setLastError(String.valueOf(failure.getMessage()));
+    repository.save(entry);
+    failureCounter.increment();
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * A compiled mail template of one locale. The template texts are split once into literal parts
+ * and place holders ({@code ${name}}), so that rendering only appends these parts to a buffer.
+ * The values of the place holders are escaped in the html part. A place holder with a {@code null}
+ * value renders as empty text, a place holder without an entry in the variables is an error.
+ *
+ * @author Christian Bremer
+ */
+public class MailTemplate {
+
+  private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal
+      .withInitial(() -> new StringBuilder(2048));
+
+  @Getter
+  private final String subject;
+
+  private final List<Part> textParts;
+
+  private final List<Part> htmlParts;
+
+  MailTemplate(@NotNull final String subject, @NotNull final String text, final String html) {
+    this.subject = subject;
+    this.textParts = compile(text);
+    this.htmlParts = html != null ? compile(html) : Collections.emptyList();
+  }
+
+  private static List<Part> compile(final String template) {
+    final List<Part> parts = new ArrayList<>();
+    int index = 0;
+    int start;
+    while ((start = template.indexOf("${", index)) >= 0) {
+      final int end = template.indexOf('}', start + 2);
+      if (end < 0) {
+        break;
+      }
+      if (start > index) {
+        parts.add(new Part(template.substring(index, start), false));
+      }
+      parts.add(new Part(template.substring(start + 2, end).trim(), true));
+      index = end + 1;
+    }
+    if (index < template.length()) {
+      parts.add(new Part(template.substring(index), false));
+    }
+    return parts;
+  }
+
+  public boolean hasHtml() {
+    return !htmlParts.isEmpty();
+  }
+
+  /**
+   * Renders the plain text part.
+   *
+   * @param variables the values of the place holders
+   * @return the plain text
+   * @throws IllegalArgumentException if there is no entry of a place holder in the variables
+   */
+  public String renderText(@NotNull final Map<String, ?> variables) {
+    return render(textParts, variables, false);
+  }
+
+  /**
+   * Renders the html part.
+   *
+   * @param variables the values of the place holders
+   * @return the html text or {@code null}, if the template has no html part
+   * @throws IllegalArgumentException if there is no entry of a place holder in the variables
+   */
+  public String renderHtml(@NotNull final Map<String, ?> variables) {
+    return hasHtml() ? render(htmlParts, variables, true) : null;
+  }
+
+  /**
+   * Renders the plain text part into the specified buffer.
+   *
+   * @param variables the values of the place holders
+   * @param buffer    the buffer
+   * @throws IllegalArgumentException if there is no entry of a place holder in the variables
+   */
+  public void renderText(
+      @NotNull final Map<String, ?> variables,
+      @NotNull final StringBuilder buffer) {
+    render(textParts, variables, false, buffer);
+  }
+
+  /**
+   * Renders the html part into the specified buffer.
+   *
+   * @param variables the values of the place holders
+   * @param buffer    the buffer
+   * @throws IllegalArgumentException if there is no entry of a place holder in the variables
+   */
+  public void renderHtml(
+      @NotNull final Map<String, ?> variables,
+      @NotNull final StringBuilder buffer) {
+    render(htmlParts, variables, true, buffer);
+  }
+
+  private static String render(
+      final List<Part> parts,
+      final Map<String, ?> variables,
+      final boolean escape) {
+
+    final StringBuilder buffer = BUFFER.get();
+    buffer.setLength(0);
+    render(parts, variables, escape, buffer);
+    return buffer.toString();
+  }
+
+  private static void render(
+      final List<Part> parts,
+      final Map<String, ?> variables,
+      final boolean escape,
+      final StringBuilder buffer) {
+
+    for (final Part part : parts) {
+      if (!part.placeHolder) {
+        buffer.append(part.value);
+      } else {
+        final Object value = variables.get(part.value);
+        if (value == null && !variables.containsKey(part.value)) {
+          throw new IllegalArgumentException(
+              "There is no value of place holder [" + part.value + "].");
+        }
+        if (value != null) {
+          buffer.append(escape ? HtmlUtils.htmlEscape(value.toString()) : value.toString());
+        }
+      }
+    }
+  }
+
+  private static class Part {
+
+    private final String value;
+
+    private final boolean placeHolder;
+
+    private Part(final String value, final boolean placeHolder) {
+      this.value = value;
+      this.placeHolder = placeHolder;
+    }
+  }
+
+}
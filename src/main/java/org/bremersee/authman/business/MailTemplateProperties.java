@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the mail templates.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.mail-template")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class MailTemplateProperties {
+
+  /**
+   * The locales of the mail templates, for example {@code en} or {@code de_DE}. A template is
+   * compiled at most once per name and locale. The locale of a user is mapped to the configured
+   * locale with the same language and country or with the same language, otherwise the first
+   * locale is used. Default is {@code en, de}.
+   */
+  private List<String> locales = new ArrayList<>(Arrays.asList("en", "de"));
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.Locale;
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface MailTemplateService {
+
+  /**
+   * Returns the compiled mail template. The template texts are loaded from
+   * {@code classpath:/mail/{name}[_{locale}].txt} and {@code .html}, the subject is resolved with
+   * the message source. Compiled templates are cached per locale.
+   *
+   * @param name           the name of the template
+   * @param subjectCode    the message code of the subject
+   * @param defaultSubject the subject, if the message code can't be resolved
+   * @param locale         the locale
+   * @return the compiled template
+   */
+  MailTemplate getTemplate(
+      @NotNull String name,
+      @NotNull String subjectCode,
+      String defaultSubject,
+      Locale locale);
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceAware;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Loads and compiles the mail templates once per name and configured locale.
+ *
+ * @author Christian Bremer
+ */
+@Component("mailTemplateService")
+@Slf4j
+public class MailTemplateServiceImpl implements MailTemplateService, MessageSourceAware {
+
+  private static final String LOCATION = "classpath:/mail/";
+
+  private final Map<String, MailTemplate> templates = new ConcurrentHashMap<>();
+
+  private final ResourceLoader resourceLoader;
+
+  private final List<Locale> locales;
+
+  @Setter
+  private MessageSource messageSource;
+
+  @Autowired
+  public MailTemplateServiceImpl(
+      final ResourceLoader resourceLoader,
+      final MailTemplateProperties properties) {
+    this.resourceLoader = resourceLoader;
+    this.locales = properties.getLocales().stream()
+        .map(StringUtils::parseLocaleString)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toCollection(ArrayList::new));
+    if (this.locales.isEmpty()) {
+      this.locales.add(Locale.getDefault());
+    }
+  }
+
+  @Override
+  public MailTemplate getTemplate(
+      @NotNull final String name,
+      @NotNull final String subjectCode,
+      final String defaultSubject,
+      final Locale locale) {
+
+    // the number of cached templates is bounded by the configured locales
+    final Locale templateLocale = resolveLocale(locale != null ? locale : Locale.getDefault());
+    final String key = name + ":" + subjectCode + ":" + templateLocale;
+    return templates.computeIfAbsent(
+        key, k -> compile(name, subjectCode, defaultSubject, templateLocale));
+  }
+
+  private Locale resolveLocale(final Locale locale) {
+    Locale languageMatch = null;
+    for (final Locale candidate : locales) {
+      if (candidate.equals(locale)) {
+        return candidate;
+      }
+      if (candidate.getLanguage().equals(locale.getLanguage())
+          && (languageMatch == null || !StringUtils.hasText(candidate.getCountry()))) {
+        languageMatch = candidate;
+      }
+    }
+    return languageMatch != null ? languageMatch : locales.get(0);
+  }
+
+  private MailTemplate compile(
+      final String name,
+      final String subjectCode,
+      final String defaultSubject,
+      final Locale locale) {
+
+    final String subject = messageSource.getMessage(
+        subjectCode, new Object[0], defaultSubject, locale);
+    final String text = load(name, ".txt", locale);
+    if (text == null) {
+      throw new IllegalStateException("There is no mail template with name [" + name + "].");
+    }
+    final String html = load(name, ".html", locale);
+    log.info("Mail template [{}] for locale [{}] compiled.", name, locale);
+    return new MailTemplate(subject, text, html);
+  }
+
+  private String load(final String name, final String suffix, final Locale locale) {
+    final List<String> candidates = new ArrayList<>(3);
+    if (StringUtils.hasText(locale.getLanguage())) {
+      if (StringUtils.hasText(locale.getCountry())) {
+        candidates.add(name + "_" + locale.getLanguage() + "_" + locale.getCountry() + suffix);
+      }
+      candidates.add(name + "_" + locale.getLanguage() + suffix);
+    }
+    candidates.add(name + suffix);
+    for (final String candidate : candidates) {
+      final Resource resource = resourceLoader.getResource(LOCATION + candidate);
+      if (resource.exists()) {
+        try (InputStream in = resource.getInputStream()) {
+          return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+
+        } catch (IOException e) {
+          throw new IllegalStateException("Reading mail template [" + candidate + "] failed.", e);
+        }
+      }
+    }
+    return null;
+  }
+
+}
@@ -30,13 +30,10 @@ import org.bremersee.authman.domain.UserProfile;
 import org.bremersee.authman.domain.UserProfileRepository;
 import org.bremersee.authman.exception.InvalidMobileException;
 import org.bremersee.authman.exception.NotFoundException;
-import org.bremersee.authman.exception.SmsSendException;
 import org.bremersee.authman.security.core.RoleConstants;
 import org.bremersee.authman.security.core.SecurityHelper;
 import org.bremersee.authman.security.core.context.RunAsCallbackWithoutResult;
 import org.bremersee.authman.validation.ValidationProperties;
-import org.bremersee.sms.SmsException;
-import org.bremersee.sms.SmsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.MessageSourceAware;
@@ -62,7 +59,7 @@ public class MobileChangeServiceImpl implements MobileChangeService, MessageSour
 
   private final UserProfileService userProfileService;
 
-  private final SmsService smsService;
+  private final SmsQueueService smsQueueService;
 
   @Setter
   private MessageSource messageSource;
@@ -74,14 +71,14 @@ public class MobileChangeServiceImpl implements MobileChangeService, MessageSour
       final MobileChangeRequestRepository changeRequestRepository,
       final UserProfileRepository userProfileRepository,
       final UserProfileService userProfileService,
-      final SmsService smsService) {
+      final SmsQueueService smsQueueService) {
 
     this.validationProperties = validationProperties;
     this.mobileChangeProperties = mobileChangeProperties;
     this.changeRequestRepository = changeRequestRepository;
     this.userProfileRepository = userProfileRepository;
     this.userProfileService = userProfileService;
-    this.smsService = smsService;
+    this.smsQueueService = smsQueueService;
   }
 
   @PreAuthorize("hasRole('ROLE_ADMIN') or authentication.name == #userName")
@@ -131,14 +128,7 @@ public class MobileChangeServiceImpl implements MobileChangeService, MessageSour
         "mobile.change.sms.message",
         params, defaultMessage,
         LocaleUtils.toLocale(userProfile.getPreferredLocale()));
-    try {
-      smsService.sendSms(request.getNewMobile(), message);
-
-    } catch (SmsException e) {
-      log.error("Sending mobile change SMS to [{}] of user [{}] failed.",
-          request.getNewMobile(), request.getUserName(), e);
-      throw new SmsSendException(e);
-    }
+    smsQueueService.enqueue(request.getNewMobile(), message);
   }
 
   @Override
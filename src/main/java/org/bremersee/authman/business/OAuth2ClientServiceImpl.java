@@ -21,7 +21,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.bremersee.authman.AuthorizationServerProperties;
 import org.bremersee.authman.domain.OAuth2Client;
 import org.bremersee.authman.domain.OAuth2ClientRepository;
-import org.bremersee.authman.domain.OAuth2ScopeRepository;
 import org.bremersee.authman.exception.AlreadyExistsException;
 import org.bremersee.authman.exception.AuthorizedGrantTypeRequiredException;
 import org.bremersee.authman.exception.ForbiddenException;
@@ -38,6 +37,7 @@ import org.bremersee.authman.security.core.SecurityHelper;
 import org.bremersee.authman.security.crypto.password.PasswordEncoder;
 import org.bremersee.authman.security.crypto.password.PasswordEncoderImpl;
 import org.bremersee.authman.security.crypto.password.PasswordEncoderProperties;
+import org.bremersee.authman.security.oauth2.provider.token.store.OAuth2TokenStore;
 import org.bremersee.authman.validation.ValidationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.domain.Page;
@@ -64,7 +64,7 @@ public class OAuth2ClientServiceImpl implements OAuth2ClientService {
 
   private final RoleService roleService;
 
-  private final OAuth2ScopeRepository scopeRepository;
+  private final OAuth2ScopeCatalog scopeCatalog;
 
   private final OAuth2ClientRepository clientRepository;
 
@@ -74,22 +74,26 @@ public class OAuth2ClientServiceImpl implements OAuth2ClientService {
 
   private final PasswordEncoder clearPasswordEncoder;
 
+  private final OAuth2TokenStore tokenStore;
+
   public OAuth2ClientServiceImpl(
       final ValidationProperties validationProperties,
       final AuthorizationServerProperties authorizationServerProperties,
       final RoleService roleService,
-      final OAuth2ScopeRepository scopeRepository,
+      final OAuth2ScopeCatalog scopeCatalog,
       final OAuth2ClientRepository clientRepository,
       final OAuth2ClientMapper clientMapper,
-      final PasswordEncoder passwordEncoder) {
+      final PasswordEncoder passwordEncoder,
+      final OAuth2TokenStore tokenStore) {
 
     this.validationProperties = validationProperties;
     this.authorizationServerProperties = authorizationServerProperties;
     this.roleService = roleService;
-    this.scopeRepository = scopeRepository;
+    this.scopeCatalog = scopeCatalog;
     this.clientRepository = clientRepository;
     this.clientMapper = clientMapper;
     this.passwordEncoder = passwordEncoder;
+    this.tokenStore = tokenStore;
 
     PasswordEncoderProperties pep = new PasswordEncoderProperties();
     pep.setAlgorithm("clear");
@@ -118,7 +122,7 @@ public class OAuth2ClientServiceImpl implements OAuth2ClientService {
     client.getAuthorizedGrantTypes().removeIf(s -> s == null || s.trim().length() == 0);
     client.getAutoApproveScopes().removeIf(s -> s == null || s.trim().length() == 0);
     client.getRegisteredRedirectUri().removeIf(s -> s == null || s.trim().length() == 0);
-    client.getScope().removeIf(scopeRepository::isNotVisible);
+    client.getScope().removeIf(scopeCatalog::isNotVisible);
 
     // Remove all entries that are not supported.
     client.getAuthorizedGrantTypes().removeIf(
@@ -272,6 +276,8 @@ public class OAuth2ClientServiceImpl implements OAuth2ClientService {
         || SecurityHelper.isCurrentUserName(clientEntity.getCreatedBy())) {
       roleService.deleteRoles(clientId);
       clientRepository.delete(clientEntity);
+      // the tokens of a deleted client must not be accepted any longer
+      tokenStore.revokeTokensByClientId(clientId, null);
     } else {
       log.error("Deleting client [{}] failed: Forbidden.", clientId);
       throw new ForbiddenException();
@@ -16,6 +16,7 @@
 
 package org.bremersee.authman.business;
 
+import java.util.Set;
 import javax.validation.constraints.NotNull;
 
 /**
@@ -25,4 +26,12 @@ public interface OAuth2ForeignTokenService {
 
   boolean isAccountConnected(@NotNull String userName, @NotNull String provider);
 
+  /**
+   * Gets the providers, that are connected with the account of the user, with one query.
+   *
+   * @param userName the user name
+   * @return the names of the connected providers
+   */
+  Set<String> getConnectedProviders(@NotNull String userName);
+
 }
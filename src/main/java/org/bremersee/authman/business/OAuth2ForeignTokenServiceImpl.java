@@ -16,6 +16,7 @@
 
 package org.bremersee.authman.business;
 
+import java.util.Set;
 import javax.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.authman.domain.OAuth2ForeignTokenRepository;
@@ -44,4 +45,9 @@ public class OAuth2ForeignTokenServiceImpl implements OAuth2ForeignTokenService
 
     return repository.countByUserNameAndProvider(userName, provider) > 0;
   }
+
+  @Override
+  public Set<String> getConnectedProviders(@NotNull final String userName) {
+    return repository.findProvidersByUserName(userName);
+  }
 }
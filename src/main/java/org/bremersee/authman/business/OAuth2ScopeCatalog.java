@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.Optional;
+
+/**
+ * An in-memory catalog of all oauth2 scopes. The catalog is loaded on first use and reloaded
+ * after a scope was created, updated or deleted.
+ *
+ * @author Christian Bremer
+ */
+public interface OAuth2ScopeCatalog {
+
+  /**
+   * Returns the scope with the specified name.
+   *
+   * @param scope the name of the scope
+   * @return the scope or an empty optional, if there is no such scope
+   */
+  Optional<OAuth2ScopeCatalogEntry> getScope(String scope);
+
+  /**
+   * Checks whether the scope exists and is visible for the current user. Administrators can see
+   * all scopes, users can see public scopes and their own ones, everybody else can only see
+   * public scopes.
+   *
+   * @param scope the name of the scope
+   * @return {@code true} if the scope is visible, otherwise {@code false}
+   */
+  boolean isVisible(String scope);
+
+  /**
+   * Checks whether the scope doesn't exist or is not visible for the current user.
+   *
+   * @param scope the name of the scope
+   * @return {@code true} if the scope is not visible, otherwise {@code false}
+   */
+  boolean isNotVisible(String scope);
+
+  /**
+   * Discards the catalog on this and on all other nodes, so that it will be reloaded.
+   */
+  void refresh();
+
+}
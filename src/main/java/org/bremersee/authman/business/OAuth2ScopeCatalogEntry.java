@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.ToString;
+import org.bremersee.authman.domain.OAuth2Scope;
+import org.bremersee.authman.model.OAuth2ScopeVisibility;
+import org.springframework.util.StringUtils;
+
+/**
+ * An immutable copy of an oauth2 scope entity.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+public class OAuth2ScopeCatalogEntry {
+
+  private final String scope;
+
+  private final OAuth2ScopeVisibility visibility;
+
+  private final String createdBy;
+
+  private final String defaultLanguage;
+
+  private final Map<String, String> descriptions;
+
+  OAuth2ScopeCatalogEntry(@NotNull final OAuth2Scope entity) {
+    this.scope = entity.getScope();
+    this.visibility = entity.getVisibility() != null
+        ? entity.getVisibility()
+        : OAuth2ScopeVisibility.PUBLIC;
+    this.createdBy = entity.getCreatedBy();
+    this.defaultLanguage = entity.getDefaultLanguage();
+    this.descriptions = entity.getDescriptions() != null
+        ? Collections.unmodifiableMap(new TreeMap<>(entity.getDescriptions()))
+        : Collections.emptyMap();
+  }
+
+  /**
+   * Returns the description in the specified language or in the default language, if there is
+   * no description in the specified language.
+   *
+   * @param language the language
+   * @return the description
+   */
+  public String getDescription(final String language) {
+    final String description = language != null ? descriptions.get(language) : null;
+    return StringUtils.hasText(description) ? description : descriptions.get(defaultLanguage);
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.OAuth2Scope;
+import org.bremersee.authman.domain.OAuth2ScopeRepository;
+import org.bremersee.authman.model.OAuth2ScopeVisibility;
+import org.bremersee.authman.security.core.RoleConstants;
+import org.bremersee.authman.security.core.SecurityHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author Christian Bremer
+ */
+@Component("oauth2ScopeCatalog")
+@Slf4j
+public class OAuth2ScopeCatalogImpl implements OAuth2ScopeCatalog {
+
+  static final String CACHE_NAME = "oauth2Scopes";
+
+  private final OAuth2ScopeRepository scopeRepository;
+
+  private final CacheInvalidationService cacheInvalidationService;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile Map<String, OAuth2ScopeCatalogEntry> scopes;
+
+  @Autowired
+  public OAuth2ScopeCatalogImpl(
+      @NotNull final OAuth2ScopeRepository scopeRepository,
+      @NotNull final CacheInvalidationService cacheInvalidationService) {
+
+    this.scopeRepository = scopeRepository;
+    this.cacheInvalidationService = cacheInvalidationService;
+    this.cacheInvalidationService.addListener(CACHE_NAME, key -> clear());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    getScopes();
+  }
+
+  @Override
+  public Optional<OAuth2ScopeCatalogEntry> getScope(final String scope) {
+    if (scope == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(getScopes().get(scope));
+  }
+
+  @Override
+  public boolean isVisible(final String scope) {
+    final OAuth2ScopeCatalogEntry entry = getScope(scope).orElse(null);
+    if (entry == null) {
+      return false;
+    }
+    if (SecurityHelper.isCurrentUserAdmin()) {
+      return true;
+    }
+    if (OAuth2ScopeVisibility.PUBLIC.equals(entry.getVisibility())) {
+      return true;
+    }
+    final String userName = SecurityHelper.getCurrentUserName();
+    return SecurityHelper.getCurrentUserRoles().contains(RoleConstants.USER_ROLE)
+        && userName != null && userName.equals(entry.getCreatedBy());
+  }
+
+  @Override
+  public boolean isNotVisible(final String scope) {
+    return !isVisible(scope);
+  }
+
+  @Override
+  public void refresh() {
+    cacheInvalidationService.invalidate(CACHE_NAME, null);
+  }
+
+  private void clear() {
+    generation.incrementAndGet();
+    scopes = null;
+  }
+
+  private Map<String, OAuth2ScopeCatalogEntry> getScopes() {
+    final Map<String, OAuth2ScopeCatalogEntry> map = scopes;
+    return map != null ? map : load();
+  }
+
+  private synchronized Map<String, OAuth2ScopeCatalogEntry> load() {
+    Map<String, OAuth2ScopeCatalogEntry> map = scopes;
+    if (map != null) {
+      return map;
+    }
+    final long loadGeneration = generation.get();
+    map = new HashMap<>();
+    for (final OAuth2Scope entity : scopeRepository.findAll()) {
+      map.put(entity.getScope(), new OAuth2ScopeCatalogEntry(entity));
+    }
+    map = Collections.unmodifiableMap(map);
+    // don't keep the catalog if it was cleared while loading
+    if (loadGeneration == generation.get()) {
+      scopes = map;
+    }
+    log.debug("OAuth2 scope catalog loaded ({} scopes).", map.size());
+    return map;
+  }
+
+}
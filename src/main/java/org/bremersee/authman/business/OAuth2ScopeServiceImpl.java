@@ -65,17 +65,21 @@ public class OAuth2ScopeServiceImpl implements OAuth2ScopeService {
 
   private final OAuth2ClientRepository clientRepository;
 
+  private final OAuth2ScopeCatalog scopeCatalog;
+
   @Autowired
   public OAuth2ScopeServiceImpl(
       final ValidationProperties validationProperties,
       OAuth2ScopeRepository scopeRepository,
       OAuth2ScopeMapper scopeMapper,
-      OAuth2ClientRepository clientRepository) {
+      OAuth2ClientRepository clientRepository,
+      OAuth2ScopeCatalog scopeCatalog) {
 
     this.validationProperties = validationProperties;
     this.scopeRepository = scopeRepository;
     this.scopeMapper = scopeMapper;
     this.clientRepository = clientRepository;
+    this.scopeCatalog = scopeCatalog;
   }
 
   private void validateScope(@NotNull final OAuth2ScopeDto scope) {
@@ -134,6 +138,7 @@ public class OAuth2ScopeServiceImpl implements OAuth2ScopeService {
     OAuth2Scope entity = new OAuth2Scope();
     scopeMapper.updateEntity(scope, entity);
     entity = scopeRepository.save(entity);
+    scopeCatalog.refresh();
 
     log.info("Scope [{}] successfully created (id={})", entity.getId());
     return entity.getId();
@@ -195,6 +200,7 @@ public class OAuth2ScopeServiceImpl implements OAuth2ScopeService {
         || SecurityHelper.isCurrentUserName(scopeEntity.getCreatedBy())) {
       scopeMapper.updateEntity(scope, scopeEntity);
       scopeRepository.save(scopeEntity);
+      scopeCatalog.refresh();
     } else {
       log.error("Updating scope [{}] failed: Forbidden.", scopeName);
       throw new ForbiddenException();
@@ -236,6 +242,7 @@ public class OAuth2ScopeServiceImpl implements OAuth2ScopeService {
       return false;
     }
     scopeRepository.delete(scopeEntity);
+    scopeCatalog.refresh();
     log.info("Scope [{}] successfully deleted.", scopeEntity.getScope());
     return true;
   }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import javax.validation.constraints.NotNull;
+
+/**
+ * The names and the keys of the token caches, that are invalidated with the {@link
+ * CacheInvalidationService}. The token store and the introspection service evict the entries of
+ * each other, so both use this class instead of each other.
+ *
+ * @author Christian Bremer
+ */
+public abstract class OAuth2TokenCaches {
+
+  /**
+   * The cache of the introspection responses.
+   */
+  public static final String INTROSPECTION_CACHE_NAME = "oauth2Introspection";
+
+  /**
+   * The cache of the issued access tokens of the token store.
+   */
+  public static final String ISSUED_TOKEN_CACHE_NAME = "oauth2IssuedTokens";
+
+  private static final String ACCESS_TOKEN_KEY_PREFIX = "a:";
+
+  private static final String REFRESH_TOKEN_KEY_PREFIX = "r:";
+
+  /**
+   * Returns the key of the cached introspection response of the specified access token. Everyone,
+   * who deletes an access token, must invalidate it.
+   *
+   * @param accessTokenValue the access token value
+   * @return the key of the cache {@link #INTROSPECTION_CACHE_NAME}
+   */
+  public static String introspectionKey(@NotNull final String accessTokenValue) {
+    return hash(accessTokenValue);
+  }
+
+  /**
+   * Returns the key, that evicts the issued access token with the specified value.
+   *
+   * @param accessTokenValue the access token value
+   * @return the key of the cache {@link #ISSUED_TOKEN_CACHE_NAME}
+   */
+  public static String issuedAccessTokenKey(@NotNull final String accessTokenValue) {
+    return ACCESS_TOKEN_KEY_PREFIX + hash(accessTokenValue);
+  }
+
+  /**
+   * Returns the key, that evicts the issued access tokens with the specified refresh token value.
+   *
+   * @param refreshTokenValue the refresh token value
+   * @return the key of the cache {@link #ISSUED_TOKEN_CACHE_NAME}
+   */
+  public static String issuedRefreshTokenKey(@NotNull final String refreshTokenValue) {
+    return REFRESH_TOKEN_KEY_PREFIX + hash(refreshTokenValue);
+  }
+
+  /**
+   * Checks whether the key of the cache {@link #ISSUED_TOKEN_CACHE_NAME} belongs to an access
+   * token.
+   *
+   * @param key the key
+   * @return {@code true} if it is an access token key, otherwise {@code false}
+   */
+  public static boolean isIssuedAccessTokenKey(final String key) {
+    return key != null && key.startsWith(ACCESS_TOKEN_KEY_PREFIX);
+  }
+
+  /**
+   * Checks whether the key of the cache {@link #ISSUED_TOKEN_CACHE_NAME} belongs to a refresh
+   * token.
+   *
+   * @param key the key
+   * @return {@code true} if it is a refresh token key, otherwise {@code false}
+   */
+  public static boolean isIssuedRefreshTokenKey(final String key) {
+    return key != null && key.startsWith(REFRESH_TOKEN_KEY_PREFIX);
+  }
+
+  private static String hash(final String tokenValue) {
+    // the token itself must not be sent around as invalidation key
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+
+}
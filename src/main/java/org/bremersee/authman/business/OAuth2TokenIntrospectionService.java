@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.List;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Revokes tokens (RFC 7009) and answers introspection requests (RFC 7662).
+ *
+ * @author Christian Bremer
+ */
+public interface OAuth2TokenIntrospectionService {
+
+  /**
+   * Revokes an access token or a refresh token. Revoking a refresh token revokes the access tokens
+   * that were issued with it, too. Unknown tokens are ignored.
+   *
+   * @param clientId      the ID of the client, that requests the revocation
+   * @param token         the token value
+   * @param tokenTypeHint the token type hint ({@code access_token} or {@code refresh_token}, may be
+   *                      {@code null})
+   * @throws org.bremersee.authman.exception.ForbiddenException if the token was issued to another
+   *                                                            client
+   */
+  void revoke(@NotNull String clientId, @NotNull String token, String tokenTypeHint);
+
+  /**
+   * Introspects the access token.
+   *
+   * @param token the token value
+   * @return the introspection response as JSON
+   */
+  String introspect(@NotNull String token);
+
+  /**
+   * Introspects many access tokens at once.
+   *
+   * @param tokens the token values
+   * @return a JSON array with the introspection responses in the order of the tokens
+   * @throws org.bremersee.authman.exception.BadRequestException if there are too many tokens
+   */
+  String introspect(@NotNull List<String> tokens);
+
+}
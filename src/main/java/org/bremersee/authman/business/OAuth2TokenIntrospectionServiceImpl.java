@@ -0,0 +1,355 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.bremersee.authman.business.OAuth2TokenCaches.INTROSPECTION_CACHE_NAME;
+import static org.bremersee.authman.business.OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME;
+import static org.bremersee.authman.business.OAuth2TokenCaches.introspectionKey;
+import static org.bremersee.authman.business.OAuth2TokenCaches.issuedAccessTokenKey;
+import static org.bremersee.authman.business.OAuth2TokenCaches.issuedRefreshTokenKey;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.AuthorizationServerProperties;
+import org.bremersee.authman.domain.OAuth2AccessToken;
+import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
+import org.bremersee.authman.domain.OAuth2RefreshToken;
+import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
+import org.bremersee.authman.exception.BadRequestException;
+import org.bremersee.authman.exception.ForbiddenException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Introspects access tokens with one database query, that doesn't read the serialized
+ * authentication. The rendered responses are cached in memory until the token expires or the
+ * maximum age of the cache entry is reached. Deleting a token, here or in the token store, evicts
+ * the cache entry on all nodes.
+ *
+ * @author Christian Bremer
+ */
+@Component("oauth2TokenIntrospectionService")
+@Slf4j
+public class OAuth2TokenIntrospectionServiceImpl implements OAuth2TokenIntrospectionService {
+
+  private static final String INACTIVE = "{\"active\":false}";
+
+  private static final String REFRESH_TOKEN_HINT = "refresh_token";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+
+  private final AtomicLong cacheGeneration = new AtomicLong();
+
+  private final OAuth2AccessTokenRepository accessTokenRepository;
+
+  private final OAuth2RefreshTokenRepository refreshTokenRepository;
+
+  private final CacheInvalidationService cacheInvalidationService;
+
+  private final long cacheMaxAgeMillis;
+
+  private final int cacheMaxSize;
+
+  private final int batchMaxSize;
+
+  private final Timer introspectTimer;
+
+  private final Timer batchTimer;
+
+  private final Timer revokeTimer;
+
+  private final Counter cacheHits;
+
+  private final Counter cacheMisses;
+
+  @Autowired
+  public OAuth2TokenIntrospectionServiceImpl(
+      final AuthorizationServerProperties properties,
+      final OAuth2AccessTokenRepository accessTokenRepository,
+      final OAuth2RefreshTokenRepository refreshTokenRepository,
+      final CacheInvalidationService cacheInvalidationService,
+      final MeterRegistry meterRegistry) {
+
+    this.accessTokenRepository = accessTokenRepository;
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.cacheInvalidationService = cacheInvalidationService;
+    this.cacheMaxAgeMillis = properties.getIntrospectionCacheMaxAgeSeconds() * 1000L;
+    this.cacheMaxSize = properties.getIntrospectionCacheMaxSize();
+    this.batchMaxSize = properties.getIntrospectionBatchMaxSize();
+    this.introspectTimer = Timer.builder("oauth2.introspect")
+        .description("Time of introspecting a token")
+        .tag("batch", "false")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.batchTimer = Timer.builder("oauth2.introspect")
+        .description("Time of introspecting a batch of tokens")
+        .tag("batch", "true")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.revokeTimer = Timer.builder("oauth2.revoke")
+        .description("Time of revoking a token")
+        .register(meterRegistry);
+    this.cacheHits = meterRegistry.counter("oauth2.introspect.cache.hits");
+    this.cacheMisses = meterRegistry.counter("oauth2.introspect.cache.misses");
+    cacheInvalidationService.addListener(INTROSPECTION_CACHE_NAME, this::evict);
+  }
+
+  @Override
+  public void revoke(
+      @NotNull final String clientId,
+      @NotNull final String token,
+      final String tokenTypeHint) {
+
+    final long start = System.nanoTime();
+    try {
+      final boolean refreshTokenFirst = REFRESH_TOKEN_HINT.equals(tokenTypeHint);
+      if (!refreshTokenFirst && revokeAccessToken(clientId, token)) {
+        return;
+      }
+      if (revokeRefreshToken(clientId, token)) {
+        return;
+      }
+      if (refreshTokenFirst) {
+        revokeAccessToken(clientId, token);
+      }
+
+    } finally {
+      revokeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private boolean revokeAccessToken(final String clientId, final String token) {
+    final Optional<OAuth2AccessToken> accessToken = accessTokenRepository
+        .findByValueWithoutAuthentication(token);
+    if (!accessToken.isPresent()) {
+      return false;
+    }
+    checkClient(clientId, accessToken.get().getClientId());
+    accessTokenRepository.deleteByValue(token);
+    cacheInvalidationService.invalidate(INTROSPECTION_CACHE_NAME, introspectionKey(token));
+    cacheInvalidationService.invalidate(ISSUED_TOKEN_CACHE_NAME, issuedAccessTokenKey(token));
+    log.info("Access token of client [{}] revoked.", clientId);
+    return true;
+  }
+
+  private boolean revokeRefreshToken(final String clientId, final String token) {
+    final Optional<OAuth2RefreshToken> refreshToken = refreshTokenRepository.findByValue(token);
+    if (!refreshToken.isPresent()) {
+      return false;
+    }
+    checkClient(clientId, refreshToken.get().getClientId());
+    final List<String> accessTokens = accessTokenRepository
+        .findAndRemoveValuesByRefreshTokenValues(Collections.singleton(token));
+    refreshTokenRepository.deleteByValue(token);
+    accessTokens.forEach(value -> cacheInvalidationService.invalidate(
+        INTROSPECTION_CACHE_NAME, introspectionKey(value)));
+    cacheInvalidationService.invalidate(ISSUED_TOKEN_CACHE_NAME, issuedRefreshTokenKey(token));
+    log.info("Refresh token of client [{}] revoked.", clientId);
+    return true;
+  }
+
+  private void checkClient(final String clientId, final String tokenClientId) {
+    if (!clientId.equals(tokenClientId)) {
+      log.warn("Client [{}] must not revoke a token of client [{}].", clientId, tokenClientId);
+      throw new ForbiddenException();
+    }
+  }
+
+  @Override
+  public String introspect(@NotNull final String token) {
+    final long start = System.nanoTime();
+    try {
+      final long now = System.currentTimeMillis();
+      final String key = introspectionKey(token);
+      final String cached = getCachedResponse(key, now);
+      if (cached != null) {
+        return cached;
+      }
+      final long generation = cacheGeneration.get();
+      final OAuth2AccessToken accessToken = accessTokenRepository
+          .findByValueWithoutAuthentication(token)
+          .orElse(null);
+      return renderAndCache(key, accessToken, generation, now);
+
+    } finally {
+      introspectTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public String introspect(@NotNull final List<String> tokens) {
+    if (tokens.size() > batchMaxSize) {
+      throw new BadRequestException(
+          "Only " + batchMaxSize + " tokens can be introspected at once.");
+    }
+    final long start = System.nanoTime();
+    try {
+      final long now = System.currentTimeMillis();
+      final long generation = cacheGeneration.get();
+      final Map<String, String> responses = new HashMap<>();
+      final Map<String, String> missingKeys = new LinkedHashMap<>();
+      for (final String token : tokens) {
+        if (token == null || responses.containsKey(token) || missingKeys.containsKey(token)) {
+          continue;
+        }
+        final String key = introspectionKey(token);
+        final String cached = getCachedResponse(key, now);
+        if (cached != null) {
+          responses.put(token, cached);
+        } else {
+          missingKeys.put(token, key);
+        }
+      }
+      if (!missingKeys.isEmpty()) {
+        final Map<String, OAuth2AccessToken> accessTokens = new HashMap<>();
+        for (final OAuth2AccessToken accessToken : accessTokenRepository
+            .findByValuesWithoutAuthentication(missingKeys.keySet())) {
+          accessTokens.put(accessToken.getValue(), accessToken);
+        }
+        for (final Map.Entry<String, String> missing : missingKeys.entrySet()) {
+          responses.put(missing.getKey(), renderAndCache(
+              missing.getValue(), accessTokens.get(missing.getKey()), generation, now));
+        }
+      }
+      final StringBuilder sb = new StringBuilder("[");
+      for (final String token : tokens) {
+        if (sb.length() > 1) {
+          sb.append(',');
+        }
+        sb.append(token == null ? INACTIVE : responses.get(token));
+      }
+      return sb.append(']').toString();
+
+    } finally {
+      batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private String getCachedResponse(final String key, final long now) {
+    if (cacheMaxAgeMillis <= 0L) {
+      return null;
+    }
+    final CachedResponse cachedResponse = cache.get(key);
+    if (cachedResponse != null && cachedResponse.isValid(now)) {
+      cacheHits.increment();
+      return cachedResponse.getJson();
+    }
+    cacheMisses.increment();
+    return null;
+  }
+
+  private String renderAndCache(
+      final String key,
+      final OAuth2AccessToken accessToken,
+      final long generation,
+      final long now) {
+
+    final String json = render(accessToken);
+    if (cacheMaxAgeMillis <= 0L) {
+      return json;
+    }
+    if (cache.size() >= cacheMaxSize) {
+      cache.values().removeIf(entry -> !entry.isValid(now));
+      if (cache.size() >= cacheMaxSize) {
+        cache.clear();
+      }
+    }
+    if (generation == cacheGeneration.get()) {
+      // nothing was invalidated while loading
+      long validUntil = now + cacheMaxAgeMillis;
+      if (accessToken != null && accessToken.getExpiration() != null) {
+        validUntil = Math.min(validUntil, accessToken.getExpiration().getTime());
+      }
+      cache.put(key, new CachedResponse(json, validUntil));
+    }
+    return json;
+  }
+
+  private String render(final OAuth2AccessToken accessToken) {
+    if (accessToken == null || accessToken.isExpired()) {
+      return INACTIVE;
+    }
+    final Map<String, Object> response = new LinkedHashMap<>();
+    response.put("active", Boolean.TRUE);
+    response.put("scope", StringUtils.collectionToDelimitedString(accessToken.getScope(), " "));
+    response.put("client_id", accessToken.getClientId());
+    if (StringUtils.hasText(accessToken.getUserName())) {
+      response.put("username", accessToken.getUserName());
+      response.put("sub", accessToken.getUserName());
+    }
+    response.put("token_type", accessToken.getTokenType());
+    if (accessToken.getExpiration() != null) {
+      response.put("exp", accessToken.getExpiration().getTime() / 1000L);
+    }
+    if (accessToken.getCreated() != null) {
+      response.put("iat", accessToken.getCreated().getTime() / 1000L);
+    }
+    try {
+      return objectMapper.writeValueAsString(response);
+
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Rendering introspection response failed.", e);
+    }
+  }
+
+  private void evict(final String key) {
+    cacheGeneration.incrementAndGet();
+    if (key == null) {
+      cache.clear();
+    } else {
+      cache.remove(key);
+    }
+  }
+
+  private static class CachedResponse {
+
+    private final String json;
+
+    private final long validUntil;
+
+    CachedResponse(final String json, final long validUntil) {
+      this.json = json;
+      this.validUntil = validUntil;
+    }
+
+    String getJson() {
+      return json;
+    }
+
+    boolean isValid(final long now) {
+      return now < validUntil;
+    }
+  }
+
+}
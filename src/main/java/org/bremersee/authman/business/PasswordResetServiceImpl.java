@@ -16,17 +16,15 @@
 
 package org.bremersee.authman.business;
 
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
-import javax.mail.Message;
-import javax.mail.internet.InternetAddress;
 import javax.validation.constraints.NotNull;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.LocaleUtils;
 import org.bremersee.authman.domain.PasswordResetRequest;
@@ -39,13 +37,10 @@ import org.bremersee.authman.security.core.RoleConstants;
 import org.bremersee.authman.security.core.SecurityHelper;
 import org.bremersee.authman.security.core.context.RunAsCallbackWithoutResult;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
-import org.springframework.context.MessageSourceAware;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessagePreparator;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
 
 /**
  * Password reset service implementation.
@@ -54,7 +49,7 @@ import org.springframework.util.StringUtils;
  */
 @Component("passwordResetService")
 @Slf4j
-public class PasswordResetServiceImpl implements PasswordResetService, MessageSourceAware {
+public class PasswordResetServiceImpl implements PasswordResetService {
 
   private final PasswordResetProperties properties;
 
@@ -64,10 +59,9 @@ public class PasswordResetServiceImpl implements PasswordResetService, MessageSo
 
   private final UserProfileService userProfileService;
 
-  private final JavaMailSender mailSender;
+  private final MailOutboxService mailOutboxService;
 
-  @Setter
-  private MessageSource messageSource;
+  private final MailTemplateService mailTemplateService;
 
   @Autowired
   public PasswordResetServiceImpl(
@@ -75,13 +69,15 @@ public class PasswordResetServiceImpl implements PasswordResetService, MessageSo
       final UserProfileRepository userProfileRepository,
       final PasswordResetRequestRepository passwordResetRequestRepository,
       final UserProfileService userProfileService,
-      final JavaMailSender mailSender) {
+      final MailOutboxService mailOutboxService,
+      final MailTemplateService mailTemplateService) {
 
     this.properties = properties;
     this.userProfileRepository = userProfileRepository;
     this.passwordResetRequestRepository = passwordResetRequestRepository;
     this.userProfileService = userProfileService;
-    this.mailSender = mailSender;
+    this.mailOutboxService = mailOutboxService;
+    this.mailTemplateService = mailTemplateService;
   }
 
   @Override
@@ -117,29 +113,23 @@ public class PasswordResetServiceImpl implements PasswordResetService, MessageSo
       final UserProfile userProfile,
       final PasswordResetRequest passwordResetRequest) {
 
-    MimeMessagePreparator preparator = mimeMessage -> {
-
-      final String hash = URLEncoder
-          .encode(passwordResetRequest.getResetHash(), StandardCharsets.UTF_8.name());
-      final String href = properties.getLink().replace("{requestHash}", hash);
-
-      mimeMessage
-          .setRecipient(Message.RecipientType.TO, new InternetAddress(userProfile.getEmail()));
-      mimeMessage.setFrom(new InternetAddress(properties.getSender()));
-      mimeMessage.setSubject(getSubject(userProfile));
-      mimeMessage.setText("Dear " + userProfile.getDisplayName()
-          + ", to reset your password please click " + href);
-    };
-
-    this.mailSender.send(preparator);
-  }
-
-  private String getSubject(final UserProfile userProfile) {
-    return messageSource.getMessage(
+    final String hash = UriUtils.encode(
+        passwordResetRequest.getResetHash(), StandardCharsets.UTF_8);
+    final String href = properties.getLink().replace("{requestHash}", hash);
+    final MailTemplate template = mailTemplateService.getTemplate(
+        "password-reset",
         properties.getSubjectCode(),
-        new Object[0],
         "Password Reset Request",
         LocaleUtils.toLocale(userProfile.getPreferredLocale()));
+    final Map<String, Object> variables = new HashMap<>();
+    variables.put("displayName", userProfile.getDisplayName());
+    variables.put("link", href);
+    mailOutboxService.enqueue(
+        properties.getSender(),
+        userProfile.getEmail(),
+        template.getSubject(),
+        template.renderText(variables),
+        template.renderHtml(variables));
   }
 
   @Override
@@ -17,14 +17,23 @@
 package org.bremersee.authman.business;
 
 import javax.validation.constraints.NotNull;
-import org.bremersee.authman.model.postman.Collection;
 
 /**
  * @author Christian Bremer
  */
 public interface PostmanCollectionService {
 
-  Collection generatePostmanCollection(
+  /**
+   * Returns the serialized postman collection of the client. It is generated only once per
+   * client version and request origin.
+   *
+   * @param clientId the client ID
+   * @param scheme   the scheme of the request
+   * @param host     the host of the request
+   * @param port     the port of the request
+   * @return the serialized postman collection
+   */
+  SerializedPostmanCollection getSerializedPostmanCollection(
       @NotNull String clientId,
       @NotNull String scheme,
       @NotNull String host,
@@ -22,10 +22,16 @@ import static org.bremersee.authman.AuthorizationServerProperties.IMPLICIT;
 import static org.bremersee.authman.AuthorizationServerProperties.PASSWORD_CREDENTIALS;
 import static org.bremersee.authman.AuthorizationServerProperties.REFRESH_TOKEN;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import javax.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.authman.domain.OAuth2Client;
@@ -52,6 +58,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -95,6 +102,18 @@ public class PostmanCollectionServiceImpl implements PostmanCollectionService {
 
   private final PasswordEncoder passwordEncoder;
 
+  // the least recently used collection is removed, if the cache is full
+  private final Map<String, SerializedPostmanCollection> serializedCollections
+      = new LinkedHashMap<String, SerializedPostmanCollection>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<String, SerializedPostmanCollection> eldest) {
+          return size() > Math.max(1, cacheMaxSize);
+        }
+      };
+
+  private ObjectMapper objectMapper = new ObjectMapper();
+
   @Value("${server.servlet.context-path:}")
   private String contextPath = "";
 
@@ -113,6 +132,10 @@ public class PostmanCollectionServiceImpl implements PostmanCollectionService {
   @Value("${bremersee.postman-collection.fallback-redirect:http://localhost:6080}")
   private String fallbackCallbackUrl = "http://localhost:6080";
 
+  // the host is taken from the request, so the number of cache keys is not limited otherwise
+  @Value("${bremersee.postman-collection.cache-max-size:100}")
+  private int cacheMaxSize = 100;
+
   @Autowired
   public PostmanCollectionServiceImpl(
       final OAuth2ClientRepository clientRepository) {
@@ -124,40 +147,84 @@ public class PostmanCollectionServiceImpl implements PostmanCollectionService {
     this.passwordEncoder = new PasswordEncoderImpl(pep);
   }
 
+  @Autowired(required = false)
+  public void setObjectMapper(final ObjectMapper objectMapper) {
+    if (objectMapper != null) {
+      this.objectMapper = objectMapper;
+    }
+  }
+
   @Override
-  public Collection generatePostmanCollection(
+  public SerializedPostmanCollection getSerializedPostmanCollection(
       @NotNull String clientId,
       @NotNull String scheme,
       @NotNull String host,
       int port) {
 
-    log.info("Generation postman collection of client [{}].", clientId);
-
-    OAuth2Client clientEntity = clientRepository
-        .findByClientId(clientId)
-        .orElseThrow(ForbiddenException::new);
-
-    if (SecurityHelper.isCurrentUserAdmin()
-        || SecurityHelper.isCurrentUserName(clientEntity.getCreatedBy())) {
-
-      final String displayName = StringUtils.hasText(clientEntity.getDisplayName())
-          ? clientEntity.getDisplayName() : clientEntity.getClientId();
-
-      final Info info = new Info();
-      info.setName("OAuth2 of '" + displayName + "'");
-      info.setDescription("OAuth2 Flows and Me Resource.");
+    final OAuth2Client clientEntity = findClient(clientId);
+    final String cacheKey = clientId + "|" + scheme + "|" + host + "|" + port;
+    final SerializedPostmanCollection cached;
+    synchronized (serializedCollections) {
+      cached = serializedCollections.get(cacheKey);
+    }
+    if (cached != null && Objects.equals(cached.getClientVersion(), clientEntity.getVersion())) {
+      log.debug("Returning cached postman collection of client [{}].", clientId);
+      return cached;
+    }
 
-      final Collection collection = new Collection();
-      collection.setInfo(info);
-      collection.getItem().addAll(generatePostmanItems(clientEntity, scheme, host, port));
-      collection.setAuth(oauth2(clientEntity, scheme, host, port));
-      collection.setEvent(Event.defaultEmptyEvents());
-      return collection;
+    log.debug("Generating postman collection of client [{}].", clientId);
+    final Collection collection = buildCollection(clientEntity, scheme, host, port);
+    final byte[] json;
+    try {
+      json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(collection);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Serializing postman collection failed.", e);
+    }
+    final SerializedPostmanCollection serialized = new SerializedPostmanCollection(
+        clientEntity.getVersion(),
+        json,
+        "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    synchronized (serializedCollections) {
+      serializedCollections.put(cacheKey, serialized);
+    }
+    return serialized;
+  }
 
-    } else {
-      log.error("Generating postman collection of client [{}] failed: Forbidden.", clientId);
+  private OAuth2Client findClient(final String clientId) {
+    final Optional<OAuth2Client> clientEntity = clientRepository.findByClientId(clientId);
+    if (!clientEntity.isPresent()) {
+      synchronized (serializedCollections) {
+        serializedCollections.keySet().removeIf(key -> key.startsWith(clientId + "|"));
+      }
       throw new ForbiddenException();
     }
+    if (SecurityHelper.isCurrentUserAdmin()
+        || SecurityHelper.isCurrentUserName(clientEntity.get().getCreatedBy())) {
+      return clientEntity.get();
+    }
+    log.error("Generating postman collection of client [{}] failed: Forbidden.", clientId);
+    throw new ForbiddenException();
+  }
+
+  private Collection buildCollection(
+      final OAuth2Client clientEntity,
+      final String scheme,
+      final String host,
+      final int port) {
+
+    final String displayName = StringUtils.hasText(clientEntity.getDisplayName())
+        ? clientEntity.getDisplayName() : clientEntity.getClientId();
+
+    final Info info = new Info();
+    info.setName("OAuth2 of '" + displayName + "'");
+    info.setDescription("OAuth2 Flows and Me Resource.");
+
+    final Collection collection = new Collection();
+    collection.setInfo(info);
+    collection.getItem().addAll(generatePostmanItems(clientEntity, scheme, host, port));
+    collection.setAuth(oauth2(clientEntity, scheme, host, port));
+    collection.setEvent(Event.defaultEmptyEvents());
+    return collection;
   }
 
   private List<Item> generatePostmanItems(
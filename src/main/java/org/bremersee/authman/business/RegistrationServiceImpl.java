@@ -16,14 +16,12 @@
 
 package org.bremersee.authman.business;
 
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
-import javax.mail.Message;
-import javax.mail.internet.InternetAddress;
 import javax.validation.constraints.NotNull;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.LocaleUtils;
 import org.bremersee.authman.domain.UserProfileRepository;
@@ -35,15 +33,13 @@ import org.bremersee.authman.model.UserProfileCreateRequestDto;
 import org.bremersee.authman.model.UserProfileDto;
 import org.bremersee.authman.security.core.RoleConstants;
 import org.bremersee.authman.security.core.SecurityHelper;
-import org.bremersee.authman.security.crypto.password.PasswordEncoder;
 import org.bremersee.authman.validation.ValidationProperties;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.MessageSource;
-import org.springframework.context.MessageSourceAware;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
 
 /**
  * @author Christian Bremer
@@ -51,7 +47,7 @@ import org.springframework.stereotype.Component;
 @Component("registrationService")
 @Slf4j
 public class RegistrationServiceImpl extends AbstractUserProfileService
-    implements RegistrationService, MessageSourceAware {
+    implements RegistrationService {
 
   private final RegistrationProperties registrationProperties;
 
@@ -63,7 +59,9 @@ public class RegistrationServiceImpl extends AbstractUserProfileService
 
   private final PasswordEncoder passwordEncoder;
 
-  private final JavaMailSender mailSender;
+  private final MailOutboxService mailOutboxService;
+
+  private final MailTemplateService mailTemplateService;
 
   @Autowired
   public RegistrationServiceImpl(
@@ -73,8 +71,9 @@ public class RegistrationServiceImpl extends AbstractUserProfileService
       final UserProfileRepository userRepository,
       final UserProfileService userService,
       final UserProfileListener userProfileListener,
-      final PasswordEncoder passwordEncoder,
-      final JavaMailSender mailSender) {
+      final @Qualifier("userPasswordEncoder") PasswordEncoder passwordEncoder,
+      final MailOutboxService mailOutboxService,
+      final MailTemplateService mailTemplateService) {
 
     super(validationProperties, userRepository);
     this.registrationProperties = registrationProperties;
@@ -82,12 +81,10 @@ public class RegistrationServiceImpl extends AbstractUserProfileService
     this.userService = userService;
     this.userProfileListener = userProfileListener;
     this.passwordEncoder = passwordEncoder;
-    this.mailSender = mailSender;
+    this.mailOutboxService = mailOutboxService;
+    this.mailTemplateService = mailTemplateService;
   }
 
-  @Setter
-  private MessageSource messageSource;
-
   private String buildRegistrationHash() {
     String hash = UUID.randomUUID().toString();
     while (registrationRepository.countByRegistrationHash(hash) > 0) {
@@ -147,28 +144,22 @@ public class RegistrationServiceImpl extends AbstractUserProfileService
 
   private void sendRegistrationMail(final UserRegistrationRequest request) {
 
-    MimeMessagePreparator preparator = mimeMessage -> {
-
-      final String hash = URLEncoder
-          .encode(request.getRegistrationHash(), StandardCharsets.UTF_8.name());
-      final String href = registrationProperties.getLink().replace("{registrationHash}", hash);
-
-      mimeMessage.setRecipient(Message.RecipientType.TO, new InternetAddress(request.getEmail()));
-      mimeMessage.setFrom(new InternetAddress(registrationProperties.getSender()));
-      mimeMessage.setSubject(getSubject(request));
-      mimeMessage.setText("Dear " + request.getDisplayName()
-          + ", welcome to bremersee.org! Please click " + href + " to complete your registration.");
-    };
-
-    this.mailSender.send(preparator);
-  }
-
-  private String getSubject(final UserRegistrationRequest request) {
-    return messageSource.getMessage(
+    final String hash = UriUtils.encode(request.getRegistrationHash(), StandardCharsets.UTF_8);
+    final String href = registrationProperties.getLink().replace("{registrationHash}", hash);
+    final MailTemplate template = mailTemplateService.getTemplate(
+        "registration",
         registrationProperties.getSubjectCode(),
-        new Object[0],
         "Welcome to bremersee.org",
         LocaleUtils.toLocale(request.getPreferredLocale()));
+    final Map<String, Object> variables = new HashMap<>();
+    variables.put("displayName", request.getDisplayName());
+    variables.put("link", href);
+    mailOutboxService.enqueue(
+        registrationProperties.getSender(),
+        request.getEmail(),
+        template.getSubject(),
+        template.renderText(variables),
+        template.renderHtml(variables));
   }
 
   @Scheduled(cron = "0 13 0 * * ?") // second, minute, hour, day of month, month, day(s) of week
@@ -84,6 +84,12 @@ public interface SambaConnectorService {
       @NotNull DnsRecordType recordType,
       @NotNull String data);
 
+  void addDnsRecordAsync(
+      @NotNull String zoneName,
+      @NotNull String name,
+      @NotNull DnsRecordType recordType,
+      @NotNull String data);
+
   void updateDnsRecord(
       @NotNull String zoneName,
       @NotNull String name,
@@ -97,4 +103,10 @@ public interface SambaConnectorService {
       @NotNull DnsRecordType recordType,
       @NotNull String data);
 
+  void deleteDnsRecordAsync(
+      @NotNull String zoneName,
+      @NotNull String name,
+      @NotNull DnsRecordType recordType,
+      @NotNull String data);
+
 }
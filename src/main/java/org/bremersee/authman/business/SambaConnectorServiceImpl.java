@@ -263,13 +263,11 @@ public class SambaConnectorServiceImpl implements SambaConnectorService {
     return sambaConnector.getDnsZones().getBody();
   }
 
-  @Async
   @Override
   public void createDnsZone(@NotNull final String zoneName) {
     sambaConnector.createDnsZone(new DnsZoneCreateRequest().pszZoneName(zoneName));
   }
 
-  @Async
   @Override
   public void deleteDnsZone(@NotNull final String zoneName) {
     sambaConnector.deleteDnsZone(zoneName);
@@ -280,7 +278,6 @@ public class SambaConnectorServiceImpl implements SambaConnectorService {
     return sambaConnector.getDnsRecords(zoneName).getBody();
   }
 
-  @Async
   @Override
   public void addDnsRecord(
       @NotNull final String zoneName,
@@ -297,6 +294,15 @@ public class SambaConnectorServiceImpl implements SambaConnectorService {
   }
 
   @Async
+  @Override
+  public void addDnsRecordAsync(
+      @NotNull final String zoneName,
+      @NotNull final String name,
+      @NotNull final DnsRecordType recordType,
+      @NotNull final String data) {
+    addDnsRecord(zoneName, name, recordType, data);
+  }
+
   @Override
   public void updateDnsRecord(
       @NotNull final String zoneName,
@@ -313,7 +319,6 @@ public class SambaConnectorServiceImpl implements SambaConnectorService {
             .newData(newData));
   }
 
-  @Async
   @Override
   public void deleteDnsRecord(
       @NotNull final String zoneName,
@@ -329,4 +334,14 @@ public class SambaConnectorServiceImpl implements SambaConnectorService {
             .data(data));
   }
 
+  @Async
+  @Override
+  public void deleteDnsRecordAsync(
+      @NotNull final String zoneName,
+      @NotNull final String name,
+      @NotNull final DnsRecordType recordType,
+      @NotNull final String data) {
+    deleteDnsRecord(zoneName, name, recordType, data);
+  }
+
 }
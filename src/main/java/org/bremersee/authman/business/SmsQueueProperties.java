@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * SMS queue properties.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.sms-queue")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class SmsQueueProperties {
+
+  /**
+   * The interval in milliseconds of looking for messages to send. Default is {@code 500}.
+   */
+  private long pollIntervalMillis = 500L;
+
+  /**
+   * The number of messages that may be sent per second. Default is {@code 5}.
+   */
+  private double permitsPerSecond = 5.0;
+
+  /**
+   * The number of messages that may be sent at once after an idle period. Default is
+   * {@code 10}.
+   */
+  private int burstSize = 10;
+
+  /**
+   * The maximum number of attempts to send a message. Default is {@code 5}.
+   */
+  private int maxAttempts = 5;
+
+  /**
+   * The delay in milliseconds before the first retry. It is doubled with every further attempt.
+   * Default is {@code 2000}.
+   */
+  private long initialBackoffMillis = 2000L;
+
+  /**
+   * The maximum delay in milliseconds between two attempts. Default is {@code 60000}.
+   */
+  private long maxBackoffMillis = 60000L;
+
+}
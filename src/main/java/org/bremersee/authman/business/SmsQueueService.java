@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface SmsQueueService {
+
+  /**
+   * Puts the SMS into the queue. It is sent asynchronously by the dispatcher. A message, that is
+   * still waiting for the same receiver, is replaced by the new one.
+   *
+   * @param receiver the mobile number of the receiver
+   * @param message  the message
+   */
+  void enqueue(@NotNull String receiver, @NotNull String message);
+
+  /**
+   * Sends the due messages of the queue as far as the rate limit allows it.
+   */
+  void dispatch();
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import javax.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.sms.SmsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps SMS in memory and sends them with the rate of a token bucket, so that bursts don't exceed
+ * the limits of the SMS provider. There is at most one pending message per receiver: a newer
+ * message (for example a new confirmation code) replaces the older one. Failed messages are
+ * retried with an exponential backoff.
+ *
+ * @author Christian Bremer
+ */
+@Component("smsQueueService")
+@Slf4j
+public class SmsQueueServiceImpl implements SmsQueueService {
+
+  private final Map<String, PendingSms> pending = new ConcurrentHashMap<>();
+
+  private final Deque<String> receivers = new ConcurrentLinkedDeque<>();
+
+  private final SmsQueueProperties properties;
+
+  private final SmsService smsService;
+
+  private final TokenBucket tokenBucket;
+
+  private final Timer sendTimer;
+
+  private final Counter sentCounter;
+
+  private final Counter deduplicatedCounter;
+
+  private final Counter throttledCounter;
+
+  private final Counter retryCounter;
+
+  private final Counter failureCounter;
+
+  @Autowired
+  public SmsQueueServiceImpl(
+      final SmsQueueProperties properties,
+      final SmsService smsService,
+      final MeterRegistry meterRegistry) {
+
+    this.properties = properties;
+    this.smsService = smsService;
+    this.tokenBucket = new TokenBucket(properties.getBurstSize(), properties.getPermitsPerSecond());
+    Gauge.builder("sms.queue.size", pending, Map::size)
+        .description("SMS waiting in the queue")
+        .register(meterRegistry);
+    this.sendTimer = Timer.builder("sms.queue.send")
+        .description("Time of sending one SMS")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.sentCounter = meterRegistry.counter("sms.queue.sent");
+    this.deduplicatedCounter = meterRegistry.counter("sms.queue.deduplicated");
+    this.throttledCounter = meterRegistry.counter("sms.queue.throttled");
+    this.retryCounter = meterRegistry.counter("sms.queue.retries");
+    this.failureCounter = meterRegistry.counter("sms.queue.failures");
+  }
+
+  @Override
+  public void enqueue(@NotNull final String receiver, @NotNull final String message) {
+    if (pending.put(receiver, new PendingSms(receiver, message)) == null) {
+      receivers.addLast(receiver);
+      log.debug("SMS to [{}] enqueued.", receiver);
+    } else {
+      deduplicatedCounter.increment();
+      log.debug("Pending SMS to [{}] replaced by a newer one.", receiver);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${bremersee.sms-queue.poll-interval-millis:500}")
+  @Override
+  public void dispatch() {
+    // Every receiver is looked at only once per run, messages that are not due yet go back to
+    // the end of the queue.
+    int remaining = receivers.size();
+    String receiver;
+    while (remaining-- > 0 && (receiver = receivers.pollFirst()) != null) {
+      final PendingSms sms = pending.remove(receiver);
+      if (sms == null) {
+        continue;
+      }
+      if (sms.getNextAttempt() > System.currentTimeMillis()) {
+        requeue(sms, false);
+        continue;
+      }
+      if (!tokenBucket.tryAcquire()) {
+        throttledCounter.increment();
+        requeue(sms, true);
+        return;
+      }
+      send(sms);
+    }
+  }
+
+  private void send(final PendingSms sms) {
+    final long start = System.nanoTime();
+    try {
+      smsService.sendSms(sms.getReceiver(), sms.getMessage());
+      sentCounter.increment();
+      log.debug("SMS to [{}] sent.", sms.getReceiver());
+
+    } catch (RuntimeException e) { // includes SmsException
+      retry(sms, e);
+
+    } finally {
+      sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void retry(final PendingSms sms, final Exception failure) {
+    final int attempts = sms.getAttempts() + 1;
+    if (attempts >= properties.getMaxAttempts()) {
+      log.error("Sending SMS to [{}] failed {} times, giving up.",
+          sms.getReceiver(), attempts, failure);
+      failureCounter.increment();
+      return;
+    }
+    final long backoff = Math.min(
+        properties.getInitialBackoffMillis() << Math.min(attempts - 1, 30),
+        properties.getMaxBackoffMillis());
+    log.warn("Sending SMS to [{}] failed (attempt {}), retrying in {} ms.",
+        sms.getReceiver(), attempts, backoff, failure);
+    sms.attempts = attempts;
+    sms.nextAttempt = System.currentTimeMillis() + backoff;
+    requeue(sms, false);
+    retryCounter.increment();
+  }
+
+  private void requeue(final PendingSms sms, final boolean first) {
+    // If a newer message was enqueued in the meantime, it wins and the old one is dropped.
+    if (pending.putIfAbsent(sms.getReceiver(), sms) == null) {
+      if (first) {
+        receivers.addFirst(sms.getReceiver());
+      } else {
+        receivers.addLast(sms.getReceiver());
+      }
+    }
+  }
+
+  @RequiredArgsConstructor
+  @Getter
+  @ToString(exclude = "message")
+  private static class PendingSms {
+
+    private final String receiver;
+
+    private final String message;
+
+    private int attempts;
+
+    private long nextAttempt;
+
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simple token bucket. It holds up to {@code capacity} tokens and is refilled continuously with
+ * the given rate.
+ *
+ * @author Christian Bremer
+ */
+class TokenBucket {
+
+  private final double capacity;
+
+  private final double tokensPerNano;
+
+  private double tokens;
+
+  private long lastRefill;
+
+  TokenBucket(final int capacity, final double tokensPerSecond) {
+    this.capacity = Math.max(1, capacity);
+    this.tokensPerNano = Math.max(0.0, tokensPerSecond) / TimeUnit.SECONDS.toNanos(1L);
+    this.tokens = this.capacity;
+    this.lastRefill = System.nanoTime();
+  }
+
+  /**
+   * Takes one token from the bucket.
+   *
+   * @return {@code true} if a token was available, otherwise {@code false}
+   */
+  synchronized boolean tryAcquire() {
+    final long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+    lastRefill = now;
+    if (tokens < 1.0) {
+      return false;
+    }
+    tokens -= 1.0;
+    return true;
+  }
+
+}
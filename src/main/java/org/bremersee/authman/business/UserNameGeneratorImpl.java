@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import java.nio.charset.StandardCharsets;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.SequenceCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * Generates user names from a cluster wide sequence. The sequence is reserved in blocks, so that
+ * only every {@code blockSize}th name needs a database round trip. Every sequence value is mapped
+ * by a keyed permutation (a small Feistel network with cycle walking) onto the number space of
+ * the configured digits. The permutation is a bijection, so the names are unique as long as the
+ * sequence is, but consecutive names don't reveal each other.
+ *
+ * @author Christian Bremer
+ */
+@Component("userNameGenerator")
+@Slf4j
+public class UserNameGeneratorImpl implements UserNameGenerator {
+
+  private static final String COUNTER_NAME = "userName";
+
+  private static final int ROUNDS = 4;
+
+  private final UserNameGeneratorProperties properties;
+
+  private final SequenceCounterRepository counterRepository;
+
+  private final long[] roundKeys = new long[ROUNDS];
+
+  private long modulus;
+
+  private int halfBits;
+
+  private long halfMask;
+
+  private long next;
+
+  private long end;
+
+  @Autowired
+  public UserNameGeneratorImpl(
+      final UserNameGeneratorProperties properties,
+      final SequenceCounterRepository counterRepository) {
+    this.properties = properties;
+    this.counterRepository = counterRepository;
+  }
+
+  @PostConstruct
+  public void init() {
+    Assert.isTrue(properties.getDigits() > 0 && properties.getDigits() <= 18,
+        "Digits must be between 1 and 18.");
+    Assert.isTrue(properties.getBlockSize() > 0, "Block size must be greater than 0.");
+    Assert.hasText(properties.getKey(), "Key must be present.");
+    if (UserNameGeneratorProperties.DEFAULT_KEY.equals(properties.getKey())) {
+      log.warn("!!! The user name generator uses the default key: the sequence behind the "
+          + "user names can be derived by everybody. Set 'bremersee.user-name-generator.key' "
+          + "in production! !!!");
+    }
+    modulus = 1L;
+    for (int i = 0; i < properties.getDigits(); i++) {
+      modulus = modulus * 10L;
+    }
+    final int bits = 64 - Long.numberOfLeadingZeros(modulus - 1L);
+    halfBits = Math.max(1, (bits + 1) / 2);
+    halfMask = (1L << halfBits) - 1L;
+    long seed = 0xCBF29CE484222325L;
+    for (final byte b : properties.getKey().getBytes(StandardCharsets.UTF_8)) {
+      seed = (seed ^ (b & 0xFF)) * 0x100000001B3L;
+    }
+    for (int i = 0; i < ROUNDS; i++) {
+      seed += 0x9E3779B97F4A7C15L;
+      roundKeys[i] = mix(seed);
+    }
+    log.info("User name generator: prefix = {}, digits = {}, block size = {}",
+        properties.getPrefix(), properties.getDigits(), properties.getBlockSize());
+  }
+
+  @Override
+  public String generateUserName() {
+    final long value = permute(nextValue());
+    final String prefix = properties.getPrefix() != null ? properties.getPrefix() : "";
+    final char[] chars = new char[prefix.length() + properties.getDigits()];
+    prefix.getChars(0, prefix.length(), chars, 0);
+    long rest = value;
+    for (int i = chars.length - 1; i >= prefix.length(); i--) {
+      chars[i] = (char) ('0' + rest % 10L);
+      rest = rest / 10L;
+    }
+    return new String(chars);
+  }
+
+  private synchronized long nextValue() {
+    if (next >= end) {
+      next = counterRepository.reserveBlock(COUNTER_NAME, properties.getBlockSize());
+      end = next + properties.getBlockSize();
+      log.debug("Reserved user name sequence block [{}, {}).", next, end);
+    }
+    if (next >= modulus) {
+      throw new IllegalStateException("All user names with " + properties.getDigits()
+          + " digits are used, increase the number of digits.");
+    }
+    return next++;
+  }
+
+  private long permute(final long value) {
+    long result = value;
+    do {
+      result = encrypt(result);
+    } while (result >= modulus);
+    return result;
+  }
+
+  private long encrypt(final long value) {
+    long left = value >>> halfBits;
+    long right = value & halfMask;
+    for (final long roundKey : roundKeys) {
+      final long tmp = right;
+      right = left ^ (mix(right + roundKey) & halfMask);
+      left = tmp;
+    }
+    return (left << halfBits) | right;
+  }
+
+  private static long mix(final long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the user name generator, that is used when an account is created silently on a
+ * social login.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.user-name-generator")
+@Component
+@Getter
+@Setter
+@ToString(exclude = "key")
+@EqualsAndHashCode(exclude = "key")
+public class UserNameGeneratorProperties {
+
+  /**
+   * The default key of the permutation. It is public, so it must be replaced in production.
+   */
+  public static final String DEFAULT_KEY = "changeit";
+
+  /**
+   * The prefix of the generated user names. Default is {@code u}.
+   */
+  private String prefix = "u";
+
+  /**
+   * The number of digits after the prefix (1 - 18). Default is {@code 9}, so that generated
+   * names can't collide with the seven digits names of older versions.
+   */
+  private int digits = 9;
+
+  /**
+   * The number of sequence values a node reserves at once. Default is {@code 100}.
+   */
+  private int blockSize = 100;
+
+  /**
+   * The key of the permutation, that hides the sequence behind the user names. It must be the
+   * same on all nodes and must not change once names were generated.
+   */
+  private String key = DEFAULT_KEY;
+
+}
@@ -16,8 +16,10 @@
 
 package org.bremersee.authman.business;
 
+import java.util.Optional;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import org.bremersee.authman.model.AuditVersion;
 import org.bremersee.authman.model.UserProfileCreateRequestDto;
 import org.bremersee.authman.model.UserProfileDto;
 import org.springframework.data.domain.Page;
@@ -37,6 +39,8 @@ public interface UserProfileService {
 
   UserProfileDto getUserProfile(@NotNull String userName);
 
+  Optional<AuditVersion> getUserProfileVersion(@NotNull String userName);
+
   boolean isUserProfileExisting(@NotNull String userName);
 
   UserProfileDto updateUserProfile(@NotNull String userName, @NotNull UserProfileDto userProfile);
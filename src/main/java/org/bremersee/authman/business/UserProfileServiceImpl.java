@@ -18,6 +18,7 @@ package org.bremersee.authman.business;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotBlank;
@@ -32,16 +33,17 @@ import org.bremersee.authman.exception.NotFoundException;
 import org.bremersee.authman.exception.PasswordsNotMatchException;
 import org.bremersee.authman.listener.UserProfileListener;
 import org.bremersee.authman.mapper.UserProfileMapper;
+import org.bremersee.authman.model.AuditVersion;
 import org.bremersee.authman.model.SambaSettingsDto;
 import org.bremersee.authman.model.UserProfileCreateRequestDto;
 import org.bremersee.authman.model.UserProfileDto;
 import org.bremersee.authman.security.core.RoleConstants;
 import org.bremersee.authman.security.core.SecurityHelper;
-import org.bremersee.authman.security.crypto.password.PasswordEncoder;
 import org.bremersee.authman.validation.ValidationProperties;
 import org.bremersee.smbcon.model.Name;
 import org.bremersee.smbcon.model.SambaUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -50,6 +52,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -79,7 +82,7 @@ public class UserProfileServiceImpl extends AbstractUserProfileService
       UserProfileRepository userRepository,
       UserProfileMapper userMapper,
       RoleService roleService,
-      PasswordEncoder passwordEncoder,
+      @Qualifier("userPasswordEncoder") PasswordEncoder passwordEncoder,
       SambaConnectorService sambaConnectorService,
       UserProfileListener userProfileListener) {
 
@@ -192,6 +195,12 @@ public class UserProfileServiceImpl extends AbstractUserProfileService
         .orElseThrow(NotFoundException::new);
   }
 
+  @PreAuthorize("hasRole('ROLE_ADMIN') or authentication.name == #userName")
+  @Override
+  public Optional<AuditVersion> getUserProfileVersion(@NotNull final String userName) {
+    return getUserRepository().findAuditVersionByUserName(userName);
+  }
+
   @Override
   public boolean isUserProfileExisting(@NotNull final String userName) {
     final boolean exists = getUserRepository().countByUserName(userName) > 0;
@@ -24,10 +24,10 @@ import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.OAuth2ScopeCatalog;
+import org.bremersee.authman.business.OAuth2ScopeCatalogEntry;
 import org.bremersee.authman.domain.OAuth2Client;
 import org.bremersee.authman.domain.OAuth2ClientRepository;
-import org.bremersee.authman.domain.OAuth2Scope;
-import org.bremersee.authman.domain.OAuth2ScopeRepository;
 import org.bremersee.authman.model.ApprovableOAuth2ScopeDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.oauth2.common.util.OAuth2Utils;
@@ -50,17 +50,17 @@ public class AuthorizeController extends AbstractController {
 
   private final OAuth2ClientRepository oauth2ClientRepository;
 
-  private final OAuth2ScopeRepository oauth2ScopeRepository;
+  private final OAuth2ScopeCatalog oauth2ScopeCatalog;
 
   @Autowired
   public AuthorizeController(
       @NotNull final LocaleResolver localeResolver,
       @NotNull final OAuth2ClientRepository oauth2ClientRepository,
-      @NotNull final OAuth2ScopeRepository oauth2ScopeRepository) {
+      @NotNull final OAuth2ScopeCatalog oauth2ScopeCatalog) {
 
     super(localeResolver);
     this.oauth2ClientRepository = oauth2ClientRepository;
-    this.oauth2ScopeRepository = oauth2ScopeRepository;
+    this.oauth2ScopeCatalog = oauth2ScopeCatalog;
   }
 
   @RequestMapping(
@@ -142,18 +142,17 @@ public class AuthorizeController extends AbstractController {
       final Map<String, Boolean> scopes,
       final Locale locale) {
 
-    final List<OAuth2Scope> scopeList = oauth2ScopeRepository
-        .findByScopeIn(new ArrayList<>(scopes.keySet()));
     final List<ApprovableOAuth2ScopeDto> approvableScopes = new ArrayList<>(scopes.size());
-    for (final OAuth2Scope scope : scopeList) {
-      ApprovableOAuth2ScopeDto dto = new ApprovableOAuth2ScopeDto();
-      dto.setApproved(scopes.get(scope.getScope()));
-      dto.setDescription(scope.getDescriptions().get(locale.getLanguage()));
-      if (!StringUtils.hasText(dto.getDescription())) {
-        dto.setDescription(scope.getDescriptions().get(scope.getDefaultLanguage()));
+    for (final Map.Entry<String, Boolean> entry : scopes.entrySet()) {
+      final OAuth2ScopeCatalogEntry scope = oauth2ScopeCatalog.getScope(entry.getKey())
+          .orElse(null);
+      if (scope != null) {
+        ApprovableOAuth2ScopeDto dto = new ApprovableOAuth2ScopeDto();
+        dto.setApproved(entry.getValue());
+        dto.setDescription(scope.getDescription(locale.getLanguage()));
+        dto.setScope(scope.getScope());
+        approvableScopes.add(dto);
       }
-      dto.setScope(scope.getScope());
-      approvableScopes.add(dto);
     }
     return approvableScopes;
   }
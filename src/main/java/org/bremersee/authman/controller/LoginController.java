@@ -18,6 +18,7 @@ package org.bremersee.authman.controller;
 
 import javax.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.security.authentication.OAuth2ProviderRegistry;
 import org.bremersee.authman.validation.ValidationProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -37,13 +38,17 @@ public class LoginController extends AbstractController {
 
   private final ValidationProperties validationProperties;
 
+  private final OAuth2ProviderRegistry providerRegistry;
+
   @Autowired
   public LoginController(
       @NotNull final ValidationProperties validationProperties,
+      @NotNull final OAuth2ProviderRegistry providerRegistry,
       @NotNull final LocaleResolver localeResolver) {
 
     super(localeResolver);
     this.validationProperties = validationProperties;
+    this.providerRegistry = providerRegistry;
   }
 
   @RequestMapping(
@@ -55,6 +60,7 @@ public class LoginController extends AbstractController {
       model.addAttribute("userNamePattern",
           validationProperties.getUserNamePattern().pattern());
     }
+    model.addAttribute("oauth2Providers", providerRegistry.getRegistrations());
 
     return "login";
   }
@@ -18,8 +18,6 @@ package org.bremersee.authman.controller;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,6 +34,7 @@ import org.bremersee.authman.security.authentication.ForeignUserProfile;
 import org.bremersee.authman.security.authentication.ForeignUserProfileDefaultRequestor;
 import org.bremersee.authman.security.authentication.ForeignUserProfileParser;
 import org.bremersee.authman.security.authentication.OAuth2AuthenticationProperties;
+import org.bremersee.authman.security.authentication.OAuth2ProviderRegistry;
 import org.bremersee.authman.security.authentication.OAuth2StateCache;
 import org.bremersee.authman.security.core.SecurityHelper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -66,9 +65,7 @@ public class OAuth2MergeController extends AbstractController {
 
   private static final String CONNECT_ERROR_CODE = "i18n.oauth2.connect.profile.error";
 
-  private final Map<String, OAuth2AuthenticationProperties> providerProperties = new HashMap<>();
-
-  private final Map<String, ForeignUserProfileParser> userProfileParsers = new HashMap<>();
+  private final OAuth2ProviderRegistry providerRegistry;
 
   private final OAuth2ForeignTokenRepository oauth2TokenRepository;
 
@@ -81,18 +78,11 @@ public class OAuth2MergeController extends AbstractController {
   @Autowired
   public OAuth2MergeController(
       final LocaleResolver localeResolver,
-      final List<OAuth2AuthenticationProperties> providerProperties,
-      final List<ForeignUserProfileParser> userProfileParsers,
+      final OAuth2ProviderRegistry providerRegistry,
       final OAuth2ForeignTokenRepository oauth2TokenRepository) {
 
     super(localeResolver);
-    providerProperties.forEach(
-        oAuth2AuthenticationProperties -> OAuth2MergeController.this.providerProperties.put(
-            oAuth2AuthenticationProperties.getProvider(),
-            oAuth2AuthenticationProperties));
-    userProfileParsers.forEach(
-        userProfileParser -> OAuth2MergeController.this.userProfileParsers.put(
-            userProfileParser.getProvider(), userProfileParser));
+    this.providerRegistry = providerRegistry;
     this.oauth2TokenRepository = oauth2TokenRepository;
   }
 
@@ -133,7 +123,7 @@ public class OAuth2MergeController extends AbstractController {
       final HttpServletResponse response) throws IOException {
 
     log.info("Connecting profile with provider {}", provider);
-    final OAuth2AuthenticationProperties properties = providerProperties.get(provider);
+    final OAuth2AuthenticationProperties properties = providerRegistry.getProperties(provider);
     if (properties == null) {
       log.warn("msg=[Provider is unsupported.] provider=[{}]", provider);
       redirectStrategy.sendRedirect(request, response, "../profile");
@@ -158,8 +148,8 @@ public class OAuth2MergeController extends AbstractController {
       final RedirectAttributes redirectAttributes) {
 
     log.info("Exchange code from provider {}", provider);
-    final OAuth2AuthenticationProperties properties = providerProperties.get(provider);
-    final ForeignUserProfileParser parser = userProfileParsers.get(provider);
+    final OAuth2AuthenticationProperties properties = providerRegistry.getProperties(provider);
+    final ForeignUserProfileParser parser = providerRegistry.getUserProfileParser(provider);
     if (properties == null || parser == null) {
       addFlashAttribute(request, redirectAttributes,
           "i18n.oauth2.provider.unsupported", new Object[]{provider},
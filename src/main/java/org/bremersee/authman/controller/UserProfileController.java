@@ -17,7 +17,7 @@
 package org.bremersee.authman.controller;
 
 import java.util.List;
-import javax.annotation.PostConstruct;
+import java.util.Set;
 import javax.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.authman.business.OAuth2ForeignTokenService;
@@ -36,6 +36,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
@@ -73,12 +74,6 @@ public class UserProfileController extends AbstractController {
 
   private final OAuth2ForeignTokenService foreignTokenService;
 
-  private boolean gitHubConnected = false;
-
-  private boolean googleConnected = false;
-
-  private boolean facebookConnected = false;
-
   @Autowired
   public UserProfileController(
       final ValidationProperties validationProperties,
@@ -98,16 +93,6 @@ public class UserProfileController extends AbstractController {
     this.foreignTokenService = foreignTokenService;
   }
 
-  @PostConstruct
-  public void init() {
-    gitHubConnected = foreignTokenService.isAccountConnected(
-        SecurityHelper.getCurrentUserName(), gitHubProperties.getProvider());
-    googleConnected = foreignTokenService.isAccountConnected(
-        SecurityHelper.getCurrentUserName(), googleProperties.getProvider());
-    facebookConnected = foreignTokenService.isAccountConnected(
-        SecurityHelper.getCurrentUserName(), facebookProperties.getProvider());
-  }
-
   @ModelAttribute("userNamePattern")
   public String userNamePattern() {
     return validationProperties.getUserNamePattern().pattern();
@@ -140,19 +125,17 @@ public class UserProfileController extends AbstractController {
     }
   }
 
-  @ModelAttribute("gitHubConnected")
-  public boolean gitHubConnected() {
-    return gitHubConnected;
-  }
-
-  @ModelAttribute("googleConnected")
-  public boolean googleConnected() {
-    return googleConnected;
-  }
-
-  @ModelAttribute("facebookConnected")
-  public boolean facebookConnected() {
-    return facebookConnected;
+  @ModelAttribute
+  public void connectedProviders(final Model model) {
+    final Set<String> connectedProviders = foreignTokenService
+        .getConnectedProviders(SecurityHelper.getCurrentUserName());
+    model.addAttribute("connectedProviders", connectedProviders);
+    model.addAttribute("gitHubConnected",
+        connectedProviders.contains(gitHubProperties.getProvider()));
+    model.addAttribute("googleConnected",
+        connectedProviders.contains(googleProperties.getProvider()));
+    model.addAttribute("facebookConnected",
+        connectedProviders.contains(facebookProperties.getProvider()));
   }
 
   @GetMapping
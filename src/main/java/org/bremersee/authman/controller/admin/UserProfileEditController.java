@@ -48,6 +48,7 @@ import org.bremersee.authman.validation.ValidationProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
@@ -108,25 +109,20 @@ public class UserProfileEditController extends AbstractUserProfileChangeControll
     this.roleService = roleService;
   }
 
-  @ModelAttribute("gitHubConnected")
-  public boolean gitHubConnected(HttpServletRequest request) {
+  @ModelAttribute
+  public void connectedProviders(HttpServletRequest request, Model model) {
     final String userName = request.getParameter("user");
-    return "GET".equalsIgnoreCase(request.getMethod()) && StringUtils.hasText(userName)
-        && foreignTokenService.isAccountConnected(userName, gitHubProperties.getProvider());
-  }
-
-  @ModelAttribute("googleConnected")
-  public boolean googleConnected(HttpServletRequest request) {
-    final String userName = request.getParameter("user");
-    return "GET".equalsIgnoreCase(request.getMethod()) && StringUtils.hasText(userName)
-        && foreignTokenService.isAccountConnected(userName, googleProperties.getProvider());
-  }
-
-  @ModelAttribute("facebookConnected")
-  public boolean facebookConnected(HttpServletRequest request) {
-    final String userName = request.getParameter("user");
-    return "GET".equalsIgnoreCase(request.getMethod()) && StringUtils.hasText(userName)
-        && foreignTokenService.isAccountConnected(userName, facebookProperties.getProvider());
+    final Set<String> connectedProviders =
+        "GET".equalsIgnoreCase(request.getMethod()) && StringUtils.hasText(userName)
+            ? foreignTokenService.getConnectedProviders(userName)
+            : Collections.emptySet();
+    model.addAttribute("connectedProviders", connectedProviders);
+    model.addAttribute("gitHubConnected",
+        connectedProviders.contains(gitHubProperties.getProvider()));
+    model.addAttribute("googleConnected",
+        connectedProviders.contains(googleProperties.getProvider()));
+    model.addAttribute("facebookConnected",
+        connectedProviders.contains(facebookProperties.getProvider()));
   }
 
   @ModelAttribute("mobilePattern")
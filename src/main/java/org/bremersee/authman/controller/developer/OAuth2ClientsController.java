@@ -16,18 +16,17 @@
 
 package org.bremersee.authman.controller.developer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.authman.business.OAuth2ClientService;
 import org.bremersee.authman.business.PostmanCollectionService;
+import org.bremersee.authman.business.SerializedPostmanCollection;
 import org.bremersee.authman.controller.AbstractController;
 import org.bremersee.authman.controller.RedirectMessage;
 import org.bremersee.authman.controller.RedirectMessageType;
 import org.bremersee.authman.model.OAuth2ClientDto;
-import org.bremersee.authman.model.postman.Collection;
 import org.bremersee.authman.security.core.SecurityHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -37,6 +36,7 @@ import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
@@ -51,8 +51,6 @@ public class OAuth2ClientsController extends AbstractController {
 
   private final PostmanCollectionService postmanCollectionService;
 
-  private ObjectMapper objectMapper = new ObjectMapper();
-
   @Autowired
   public OAuth2ClientsController(
       final OAuth2ClientService clientService,
@@ -63,13 +61,6 @@ public class OAuth2ClientsController extends AbstractController {
     this.postmanCollectionService = postmanCollectionService;
   }
 
-  @Autowired(required = false)
-  public void setObjectMapper(final ObjectMapper objectMapper) {
-    if (objectMapper != null) {
-      this.objectMapper = objectMapper;
-    }
-  }
-
   @GetMapping(path = "/developer/clients")
   public String displayClients(
       @RequestParam(name = "q", required = false) String search,
@@ -116,10 +107,13 @@ public class OAuth2ClientsController extends AbstractController {
     final String scheme = request.getScheme();
     final String host = request.getServerName();
     final int port = request.getServerPort();
-    final Collection postmanCollection = postmanCollectionService.generatePostmanCollection(
-        clientId, scheme, host, port);
-    byte[] jsonBytes = objectMapper
-        .writerWithDefaultPrettyPrinter().writeValueAsBytes(postmanCollection);
+    final SerializedPostmanCollection postmanCollection = postmanCollectionService
+        .getSerializedPostmanCollection(clientId, scheme, host, port);
+    if (new ServletWebRequest(request, response)
+        .checkNotModified(postmanCollection.getETag())) {
+      return;
+    }
+    final byte[] jsonBytes = postmanCollection.getJson();
     response.setContentType("application/json");
     response.setHeader("Content-Disposition",
         "attachment; filename=\"" + clientId + ".postman_collection.json\""); // inline
@@ -16,11 +16,19 @@
 
 package org.bremersee.authman.controller.nameserver;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.DnsIndexEntry;
+import org.bremersee.authman.business.DnsIndexService;
+import org.bremersee.authman.business.DnsZoneFileService;
+import org.bremersee.authman.business.DnsZoneImportResult;
 import org.bremersee.authman.business.SambaConnectorService;
 import org.bremersee.authman.controller.AbstractController;
 import org.bremersee.authman.controller.RedirectMessage;
@@ -29,6 +37,9 @@ import org.bremersee.authman.model.SelectOptionDto;
 import org.bremersee.smbcon.model.DnsRecordType;
 import org.bremersee.smbcon.model.DnsZoneCreateRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
@@ -36,6 +47,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
@@ -48,17 +60,20 @@ public class NameServerController extends AbstractController {
 
   private final SambaConnectorService sambaConnectorService;
 
+  private final DnsIndexService dnsIndexService;
+
+  private final DnsZoneFileService dnsZoneFileService;
+
   @Autowired
   public NameServerController(
       final LocaleResolver localeResolver,
-      final SambaConnectorService sambaConnectorService) {
+      final SambaConnectorService sambaConnectorService,
+      final DnsIndexService dnsIndexService,
+      final DnsZoneFileService dnsZoneFileService) {
     super(localeResolver);
     this.sambaConnectorService = sambaConnectorService;
-  }
-
-  @ModelAttribute("nameServerHost")
-  public String nameServerHost() {
-    return sambaConnectorService.getInfo().getNameServerHost();
+    this.dnsIndexService = dnsIndexService;
+    this.dnsZoneFileService = dnsZoneFileService;
   }
 
   @ModelAttribute("dnsRecordTypes")
@@ -71,17 +86,22 @@ public class NameServerController extends AbstractController {
   }
 
   @GetMapping(path = "/admin/ns/records")
-  public String displayZonesView(final ModelMap model) {
-
-    if (!model.containsAttribute("entries")) {
-      final List<NameServerEntry> entries = new ArrayList<>();
-      sambaConnectorService.getDnsZones().forEach(
-          dnsZone -> entries.add(
-              new NameServerEntry(
-                  dnsZone,
-                  sambaConnectorService.getDnsRecords(dnsZone.getPszZoneName()))));
-      //Collections.sort(entries);
-      model.addAttribute("entries", entries);
+  public String displayZonesView(
+      @RequestParam(name = "zone", required = false) final String zoneName,
+      @RequestParam(name = "q", required = false) final String search,
+      final Pageable pageable,
+      final ModelMap model) {
+
+    model.addAttribute("nameServerHost", dnsIndexService.getInfo().getNameServerHost());
+    model.addAttribute("zone", zoneName);
+    model.addAttribute("q", search);
+    if (!model.containsAttribute("zones")) {
+      model.addAttribute("zones", dnsIndexService.getZones());
+    }
+    if (!model.containsAttribute("recordPage")) {
+      final Page<DnsIndexEntry> recordPage = dnsIndexService.findRecords(
+          zoneName, search, pageable);
+      model.addAttribute("recordPage", recordPage);
     }
     if (!model.containsAttribute("newZone")) {
       model.addAttribute("newZone", new DnsZoneCreateRequest());
@@ -103,6 +123,7 @@ public class NameServerController extends AbstractController {
 
     if (StringUtils.hasText(cmd.getPszZoneName())) {
       sambaConnectorService.createDnsZone(cmd.getPszZoneName());
+      dnsIndexService.invalidate();
 
       model.clear();
       final String msg = getMessageSource().getMessage(
@@ -127,6 +148,7 @@ public class NameServerController extends AbstractController {
 
     if (StringUtils.hasText(zoneName)) {
       sambaConnectorService.deleteDnsZone(zoneName);
+      dnsIndexService.invalidate();
 
       model.clear();
       final String msg = getMessageSource().getMessage(
@@ -140,6 +162,71 @@ public class NameServerController extends AbstractController {
     return "redirect:/admin/ns/records";
   }
 
+  @GetMapping(path = "/admin/ns/export-zone")
+  public void exportZone(
+      @RequestParam("zoneName") final String zoneName,
+      final HttpServletResponse response) throws IOException {
+
+    log.info("Exporting zone {}", zoneName);
+    response.setContentType("text/plain;charset=UTF-8");
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"" + zoneName.replace("\"", "") + ".zone\"");
+    dnsZoneFileService.exportZone(zoneName, response.getWriter());
+  }
+
+  @PostMapping(path = "/admin/ns/import-zone")
+  public String importZone(
+      @RequestParam("zoneName") final String zoneName,
+      @RequestParam("zoneFile") final MultipartFile zoneFile,
+      @RequestParam(name = "deleteMissing", defaultValue = "false") final boolean deleteMissing,
+      final ModelMap model,
+      final HttpServletRequest request,
+      final RedirectAttributes redirectAttributes) throws IOException {
+
+    log.info("Importing zone file {} into zone {} (delete missing = {})",
+        zoneFile.getOriginalFilename(), zoneName, deleteMissing);
+
+    final DnsZoneImportResult result;
+    try (final Reader reader = new InputStreamReader(
+        zoneFile.getInputStream(), StandardCharsets.UTF_8)) {
+      result = dnsZoneFileService.importZone(zoneName, reader, deleteMissing);
+
+    } catch (IllegalArgumentException e) {
+      // the zone file has too many records
+      log.warn("Importing zone file {} into zone {} failed: {}",
+          zoneFile.getOriginalFilename(), zoneName, e.getMessage());
+      model.clear();
+      final String msg = getMessageSource().getMessage(
+          "i18n.ns.zone.import.failed",
+          new Object[]{zoneName, e.getMessage()},
+          resolveLocale(request));
+      redirectAttributes.addFlashAttribute(
+          RedirectMessage.ATTRIBUTE_NAME, new RedirectMessage(msg, RedirectMessageType.DANGER));
+      return "redirect:/admin/ns/records";
+    }
+
+    model.clear();
+    final String msg = getMessageSource().getMessage(
+        "i18n.ns.zone.imported",
+        new Object[]{
+            zoneName,
+            result.getCreated(),
+            result.getDeleted(),
+            result.getUnchanged(),
+            result.getFailed(),
+            result.getSkipped(),
+            result.getDurationMillis()},
+        resolveLocale(request));
+    final RedirectMessageType msgType = result.getFailed() + result.getSkipped() > 0
+        ? RedirectMessageType.WARNING
+        : RedirectMessageType.SUCCESS;
+    redirectAttributes.addFlashAttribute(
+        RedirectMessage.ATTRIBUTE_NAME, new RedirectMessage(msg, msgType));
+    redirectAttributes.addFlashAttribute("importResult", result);
+    return "redirect:/admin/ns/records";
+  }
+
   @PostMapping(path = "/admin/ns/add-record")
   public String addRecord(
       @RequestParam(name = "zoneName") final String zoneName,
@@ -162,6 +249,7 @@ public class NameServerController extends AbstractController {
           name,
           dnsRecordType,
           recordValue);
+      dnsIndexService.invalidate();
 
       model.clear();
       final String msg = getMessageSource().getMessage(
@@ -196,6 +284,7 @@ public class NameServerController extends AbstractController {
           name,
           dnsRecordType,
           data);
+      dnsIndexService.invalidate();
 
       model.clear();
       final String msg = getMessageSource().getMessage(
@@ -253,6 +342,7 @@ public class NameServerController extends AbstractController {
           dnsRecordType,
           cmd.getRecordValue(),
           cmd.getNewRecordValue());
+      dnsIndexService.invalidate();
 
       model.clear();
       final String msg = getMessageSource().getMessage(
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.controller.rest;
+
+import org.bremersee.authman.model.AbstractAuditDto;
+import org.bremersee.authman.model.AuditVersion;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds a weak entity tag (built of version and modification date) to every response of a rest
+ * controller, that returns an {@link AbstractAuditDto}, and answers a matching
+ * {@code If-None-Match} header with {@code 304 Not Modified}.
+ *
+ * <p>Controllers, that can determine the version without loading the entity (like
+ * {@link MeRestController}), should check the header by themselves before.
+ *
+ * @author Christian Bremer
+ */
+@ControllerAdvice(annotations = RestController.class)
+public class AuditETagResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(
+      final MethodParameter returnType,
+      final Class<? extends HttpMessageConverter<?>> converterType) {
+    return AbstractAuditDto.class.isAssignableFrom(returnType.getParameterType());
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      final Object body,
+      final MethodParameter returnType,
+      final MediaType selectedContentType,
+      final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      final ServerHttpRequest request,
+      final ServerHttpResponse response) {
+
+    if (!(body instanceof AbstractAuditDto) || request.getMethod() != HttpMethod.GET
+        || response.getHeaders().getETag() != null) {
+      return body;
+    }
+    final String eTag = AuditVersion.of((AbstractAuditDto) body).toETag();
+    response.getHeaders().setETag(eTag);
+    final String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null && matches(ifNoneMatch, eTag)) {
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      return null;
+    }
+    return body;
+  }
+
+  private static boolean matches(final String ifNoneMatch, final String eTag) {
+    final String opaqueTag = eTag.substring(2);
+    for (final String candidate : ifNoneMatch.split(",")) {
+      final String tag = candidate.trim();
+      if ("*".equals(tag) || tag.equals(eTag) || tag.equals(opaqueTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -19,6 +19,7 @@ package org.bremersee.authman.controller.rest;
 import java.security.Principal;
 import lombok.extern.slf4j.Slf4j;
 import org.bremersee.authman.business.UserProfileService;
+import org.bremersee.authman.model.AuditVersion;
 import org.bremersee.authman.model.UserProfileDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -26,6 +27,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * @author Christian Bremer
@@ -46,8 +48,15 @@ public class MeRestController {
   @RequestMapping(
       method = RequestMethod.GET,
       produces = {MediaType.APPLICATION_JSON_VALUE})
-  public UserProfileDto me(Principal me) {
+  public UserProfileDto me(Principal me, WebRequest request) {
 
+    final String eTag = userProfileService.getUserProfileVersion(me.getName())
+        .map(AuditVersion::toETag)
+        .orElse(null);
+    if (eTag != null && request.checkNotModified(eTag)) {
+      log.debug("Me [{}] is not modified.", me.getName());
+      return null;
+    }
     UserProfileDto userProfile = userProfileService.getUserProfile(me.getName());
     log.debug("Returning me: {}", userProfile);
     return userProfile;
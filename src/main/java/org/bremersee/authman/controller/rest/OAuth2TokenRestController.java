@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.controller.rest;
+
+import java.security.Principal;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.OAuth2TokenIntrospectionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The token revocation endpoint (RFC 7009) and the token introspection endpoint (RFC 7662). The
+ * clients authenticate with basic authentication, see {@code OAuth2TokenEndpointSecurity}.
+ *
+ * @author Christian Bremer
+ */
+@RestController
+@RequestMapping(path = "/oauth")
+@Slf4j
+public class OAuth2TokenRestController {
+
+  private final OAuth2TokenIntrospectionService introspectionService;
+
+  @Autowired
+  public OAuth2TokenRestController(OAuth2TokenIntrospectionService introspectionService) {
+    this.introspectionService = introspectionService;
+  }
+
+  @RequestMapping(
+      path = "/revoke",
+      method = RequestMethod.POST,
+      consumes = {MediaType.APPLICATION_FORM_URLENCODED_VALUE})
+  public ResponseEntity<Void> revoke(
+      @RequestParam(name = "token") String token,
+      @RequestParam(name = "token_type_hint", required = false) String tokenTypeHint,
+      Principal client) {
+
+    log.debug("Client [{}] revokes a token (hint = {}).", client.getName(), tokenTypeHint);
+    introspectionService.revoke(client.getName(), token, tokenTypeHint);
+    return ResponseEntity.ok().cacheControl(CacheControl.noStore()).build();
+  }
+
+  @RequestMapping(
+      path = "/introspect",
+      method = RequestMethod.POST,
+      consumes = {MediaType.APPLICATION_FORM_URLENCODED_VALUE},
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<String> introspect(@RequestParam(name = "token") String token) {
+
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.noStore())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(introspectionService.introspect(token));
+  }
+
+  @RequestMapping(
+      path = "/introspect/batch",
+      method = RequestMethod.POST,
+      consumes = {MediaType.APPLICATION_JSON_VALUE},
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<String> introspect(@RequestBody List<String> tokens) {
+
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.noStore())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(introspectionService.introspect(tokens));
+  }
+
+}
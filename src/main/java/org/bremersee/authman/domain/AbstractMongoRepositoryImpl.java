@@ -16,10 +16,16 @@
 
 package org.bremersee.authman.domain;
 
+import java.util.Date;
+import java.util.Optional;
 import javax.validation.constraints.NotNull;
 import lombok.AccessLevel;
 import lombok.Getter;
+import org.bremersee.authman.model.AuditVersion;
+import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
 /**
  * @author Christian Bremer
@@ -32,4 +38,28 @@ public abstract class AbstractMongoRepositoryImpl {
   public AbstractMongoRepositoryImpl(@NotNull final MongoOperations mongoOperations) {
     this.mongoOperations = mongoOperations;
   }
+
+  /**
+   * Reads only the version and the modification date of an audited entity.
+   *
+   * @param criteria    the criteria of the entity
+   * @param entityClass the entity class
+   * @return the version and the modification date
+   */
+  protected Optional<AuditVersion> findAuditVersion(
+      @NotNull final Criteria criteria,
+      @NotNull final Class<? extends AbstractAuditBase> entityClass) {
+
+    final Query query = Query.query(criteria);
+    query.fields().include("version").include("modified");
+    final Document document = mongoOperations.findOne(
+        query, Document.class, mongoOperations.getCollectionName(entityClass));
+    if (document == null) {
+      return Optional.empty();
+    }
+    final Object version = document.get("version");
+    return Optional.of(new AuditVersion(
+        version instanceof Number ? ((Number) version).longValue() : null,
+        document.get("modified", Date.class)));
+  }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.io.Serializable;
+import java.util.Date;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A cache invalidation event. It is written by the node that changed the cached data and read by
+ * all other nodes, so that they can evict their local cache entries, too.
+ *
+ * @author Christian Bremer
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "cacheInvalidation")
+public class CacheInvalidation implements Serializable, Persistable<String> {
+
+  private static final long serialVersionUID = -2397312618720346781L;
+
+  @Id
+  private String id;
+
+  private String origin;
+
+  private String cacheName;
+
+  private String key; // null means the whole cache
+
+  @Indexed(expireAfterSeconds = 86400)
+  private Date created = new Date();
+
+  @Override
+  public boolean isNew() {
+    return id == null;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.io.Serializable;
+import java.util.Date;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The number of failed logins of an ip address or a login name within one time slot. The login
+ * throttle of every node adds its failures, so that they can be summed up cluster wide.
+ *
+ * @author Christian Bremer
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "loginFailureCount")
+public class LoginFailureCount implements Serializable {
+
+  private static final long serialVersionUID = -2207906436227281165L;
+
+  @Id
+  private String id;
+
+  private String key;
+
+  @Indexed
+  private long slot;
+
+  private long count;
+
+  @Indexed(expireAfterSeconds = 0)
+  private Date expireAt;
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * @author Christian Bremer
+ */
+public interface LoginFailureCountRepository extends
+    LoginFailureCountRepositoryCustom,
+    MongoRepository<LoginFailureCount, String> {
+
+  /**
+   * Deletes the counters of a key, for example after a successful login.
+   *
+   * @param key the key (ip address or login name)
+   * @return the number of deleted counters
+   */
+  long deleteByKey(String key);
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Date;
+import java.util.Map;
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface LoginFailureCountRepositoryCustom {
+
+  /**
+   * Adds failed logins to the time slot of the key.
+   *
+   * @param key      the key (ip address or login name)
+   * @param slot     the time slot
+   * @param delta    the number of failed logins to add
+   * @param expireAt the time when the counter may be removed
+   */
+  void increment(@NotNull String key, long slot, long delta, @NotNull Date expireAt);
+
+  /**
+   * Sums up the failed logins of all keys since the given time slot and returns the keys that
+   * reached the given number.
+   *
+   * @param minSlot  the first time slot
+   * @param minCount the minimum number of failed logins
+   * @return the number of failed logins per key
+   */
+  Map<String, Long> sumSince(long minSlot, long minCount);
+
+}
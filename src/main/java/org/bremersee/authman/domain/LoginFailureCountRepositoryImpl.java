@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import com.mongodb.BasicDBObject;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * @author Christian Bremer
+ */
+public class LoginFailureCountRepositoryImpl extends AbstractMongoRepositoryImpl implements
+    LoginFailureCountRepositoryCustom {
+
+  public LoginFailureCountRepositoryImpl(
+      @NotNull MongoOperations mongoOperations) {
+    super(mongoOperations);
+  }
+
+  @Override
+  public void increment(
+      @NotNull final String key,
+      final long slot,
+      final long delta,
+      @NotNull final Date expireAt) {
+
+    final Query query = Query.query(Criteria.where("_id").is(key + ":" + slot));
+    final Update update = new Update()
+        .setOnInsert("key", key)
+        .setOnInsert("slot", slot)
+        .setOnInsert("expireAt", expireAt)
+        .inc("count", delta);
+    getMongoOperations().upsert(query, update, LoginFailureCount.class);
+  }
+
+  @Override
+  public Map<String, Long> sumSince(final long minSlot, final long minCount) {
+    final Aggregation aggregation = newAggregation(
+        match(Criteria.where("slot").gte(minSlot)),
+        group("key").sum("count").as("total"),
+        match(Criteria.where("total").gte(minCount)));
+    final Map<String, Long> result = new HashMap<>();
+    getMongoOperations()
+        .aggregate(aggregation, LoginFailureCount.class, BasicDBObject.class)
+        .forEach(entry -> result.put(entry.getString("_id"), entry.getLong("total")));
+    return result;
+  }
+
+}
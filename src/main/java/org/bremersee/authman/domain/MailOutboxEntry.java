@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.io.Serializable;
+import java.util.Date;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A mail that is waiting to be sent. It is removed, when it was sent successfully.
+ *
+ * @author Christian Bremer
+ */
+@Data
+@ToString(exclude = {"text", "html"})
+@NoArgsConstructor
+@Document(collection = "mailOutbox")
+public class MailOutboxEntry implements Serializable, Persistable<String> {
+
+  private static final long serialVersionUID = 4476316458236014237L;
+
+  @Id
+  private String id;
+
+  private String sender;
+
+  private String recipient;
+
+  private String subject;
+
+  private String text;
+
+  private String html;
+
+  private int attempts;
+
+  @Indexed
+  private Date nextAttempt = new Date();
+
+  private Date lockedUntil;
+
+  private String lockOwner;
+
+  private boolean failed;
+
+  private String lastError;
+
+  @Indexed(expireAfterSeconds = 1209600) // 14 days
+  private Date created = new Date();
+
+  @Override
+  public boolean isNew() {
+    return id == null;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Date;
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface MailOutboxEntryRepositoryCustom {
+
+  /**
+   * Locks the next mail that is due and not locked by another dispatcher.
+   *
+   * @param owner       the name of the dispatcher
+   * @param now         the current date
+   * @param lockedUntil the end of the lock
+   * @return the locked mail or {@code null}, if there is no due mail
+   */
+  MailOutboxEntry lockNext(@NotNull String owner, @NotNull Date now, @NotNull Date lockedUntil);
+
+}
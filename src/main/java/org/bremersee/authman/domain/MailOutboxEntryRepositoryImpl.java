@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Date;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * @author Christian Bremer
+ */
+public class MailOutboxEntryRepositoryImpl extends AbstractMongoRepositoryImpl implements
+    MailOutboxEntryRepositoryCustom {
+
+  public MailOutboxEntryRepositoryImpl(
+      @NotNull MongoOperations mongoOperations) {
+    super(mongoOperations);
+  }
+
+  @Override
+  public MailOutboxEntry lockNext(
+      @NotNull final String owner,
+      @NotNull final Date now,
+      @NotNull final Date lockedUntil) {
+
+    final Query query = new Query();
+    query.addCriteria(Criteria.where("failed").is(false)
+        .and("nextAttempt").lte(now)
+        .orOperator(
+            Criteria.where("lockedUntil").is(null),
+            Criteria.where("lockedUntil").lt(now)));
+    query.with(Sort.by(Direction.ASC, "nextAttempt"));
+    final Update update = new Update()
+        .set("lockedUntil", lockedUntil)
+        .set("lockOwner", owner);
+    return getMongoOperations().findAndModify(
+        query, update, FindAndModifyOptions.options().returnNew(true), MailOutboxEntry.class);
+  }
+}
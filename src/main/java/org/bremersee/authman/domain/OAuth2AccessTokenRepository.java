@@ -23,7 +23,9 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 /**
  * @author Christian Bremer
  */
-public interface OAuth2AccessTokenRepository extends MongoRepository<OAuth2AccessToken, String> {
+public interface OAuth2AccessTokenRepository extends
+    OAuth2AccessTokenRepositoryCustom,
+    MongoRepository<OAuth2AccessToken, String> {
 
   void deleteByValue(String tokenValue);
 
@@ -37,8 +39,4 @@ public interface OAuth2AccessTokenRepository extends MongoRepository<OAuth2Acces
   List<OAuth2AccessToken> findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
       String clientId, String scopes);
 
-  List<OAuth2AccessToken> findByClientId(String clientId);
-
-  List<OAuth2AccessToken> findByClientIdAndUserName(String clientId, String userName);
-
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads and deletes access tokens without loading the serialized authentication.
+ *
+ * @author Christian Bremer
+ */
+public interface OAuth2AccessTokenRepositoryCustom {
+
+  /**
+   * Streams the access tokens of all users of a client from a cursor. The authentication field
+   * is not read. The stream must be closed.
+   *
+   * @param clientId the client ID
+   * @return the access tokens without authentication
+   */
+  Stream<OAuth2AccessToken> streamByClientId(@NotNull String clientId);
+
+  /**
+   * Streams the access tokens from a cursor. The authentication field is not read. The stream
+   * must be closed.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens without user are returned, for
+   *     example of the client credentials grant)
+   * @return the access tokens without authentication
+   */
+  Stream<OAuth2AccessToken> streamByClientIdAndUserName(
+      @NotNull String clientId,
+      String userName);
+
+  /**
+   * Reads one page of access tokens. The authentication field is not read.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens without user are returned)
+   * @param pageable the page request
+   * @return the page of access tokens without authentication
+   */
+  Page<OAuth2AccessToken> findPageByClientId(
+      @NotNull String clientId,
+      String userName,
+      @NotNull Pageable pageable);
+
+  /**
+   * Deletes the access tokens with one delete command on the server.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens of all users are deleted)
+   * @return the number of deleted tokens
+   */
+  long removeByClientId(@NotNull String clientId, String userName);
+
+  /**
+   * Deletes the access tokens, that were issued with one of the specified refresh tokens, and
+   * returns their values. Only the values of the tokens are read.
+   *
+   * @param refreshTokenValues the values of the refresh tokens
+   * @return the values of the deleted access tokens
+   */
+  List<String> findAndRemoveValuesByRefreshTokenValues(
+      @NotNull Collection<String> refreshTokenValues);
+
+  /**
+   * Finds the access token with the specified value. The authentication field is not read.
+   *
+   * @param tokenValue the token value
+   * @return the access token without authentication
+   */
+  Optional<OAuth2AccessToken> findByValueWithoutAuthentication(@NotNull String tokenValue);
+
+  /**
+   * Finds the access tokens with the specified values. The authentication field is not read.
+   *
+   * @param tokenValues the token values
+   * @return the found access tokens without authentication (in no particular order)
+   */
+  List<OAuth2AccessToken> findByValuesWithoutAuthentication(
+      @NotNull Collection<String> tokenValues);
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * @author Christian Bremer
+ */
+public class OAuth2AccessTokenRepositoryImpl extends AbstractMongoRepositoryImpl implements
+    OAuth2AccessTokenRepositoryCustom {
+
+  private static final String AUTHENTICATION = "authentication";
+
+  public OAuth2AccessTokenRepositoryImpl(
+      @NotNull MongoOperations mongoOperations) {
+    super(mongoOperations);
+  }
+
+  private static Query queryByClientId(final String clientId, final String userName) {
+    final Criteria criteria = Criteria.where("clientId").is(clientId);
+    if (StringUtils.hasText(userName)) {
+      criteria.and("userName").is(userName);
+    }
+    return Query.query(criteria);
+  }
+
+  private static Query queryByClientIdAndUserName(final String clientId, final String userName) {
+    // like the derived query, a null user name only matches tokens without user
+    return Query.query(Criteria.where("clientId").is(clientId).and("userName").is(userName));
+  }
+
+  private Stream<OAuth2AccessToken> stream(final Query query) {
+    query.fields().exclude(AUTHENTICATION);
+    return StreamUtils.createStreamFromIterator(
+        getMongoOperations().stream(query, OAuth2AccessToken.class));
+  }
+
+  @Override
+  public Stream<OAuth2AccessToken> streamByClientId(@NotNull final String clientId) {
+    return stream(Query.query(Criteria.where("clientId").is(clientId)));
+  }
+
+  @Override
+  public Stream<OAuth2AccessToken> streamByClientIdAndUserName(
+      @NotNull final String clientId,
+      final String userName) {
+
+    return stream(queryByClientIdAndUserName(clientId, userName));
+  }
+
+  @Override
+  public Page<OAuth2AccessToken> findPageByClientId(
+      @NotNull final String clientId,
+      final String userName,
+      @NotNull final Pageable pageable) {
+
+    final Query query = queryByClientIdAndUserName(clientId, userName).with(pageable);
+    query.fields().exclude(AUTHENTICATION);
+    final List<OAuth2AccessToken> content = getMongoOperations()
+        .find(query, OAuth2AccessToken.class);
+    return PageableExecutionUtils.getPage(content, pageable, () -> getMongoOperations()
+        .count(queryByClientIdAndUserName(clientId, userName), OAuth2AccessToken.class));
+  }
+
+  @Override
+  public long removeByClientId(@NotNull final String clientId, final String userName) {
+    return getMongoOperations()
+        .remove(queryByClientId(clientId, userName), OAuth2AccessToken.class)
+        .getDeletedCount();
+  }
+
+  @Override
+  public List<String> findAndRemoveValuesByRefreshTokenValues(
+      @NotNull final Collection<String> refreshTokenValues) {
+
+    final Query query = Query.query(Criteria.where("refreshTokenValue").in(refreshTokenValues));
+    query.fields().include("value");
+    return getMongoOperations()
+        .findAllAndRemove(query, OAuth2AccessToken.class)
+        .stream()
+        .map(OAuth2AccessToken::getValue)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<OAuth2AccessToken> findByValueWithoutAuthentication(
+      @NotNull final String tokenValue) {
+
+    final Query query = Query.query(Criteria.where("value").is(tokenValue));
+    query.fields().exclude(AUTHENTICATION);
+    return Optional.ofNullable(getMongoOperations().findOne(query, OAuth2AccessToken.class));
+  }
+
+  @Override
+  public List<OAuth2AccessToken> findByValuesWithoutAuthentication(
+      @NotNull final Collection<String> tokenValues) {
+
+    final Query query = Query.query(Criteria.where("value").in(tokenValues));
+    query.fields().exclude(AUTHENTICATION);
+    return getMongoOperations().find(query, OAuth2AccessToken.class);
+  }
+
+}
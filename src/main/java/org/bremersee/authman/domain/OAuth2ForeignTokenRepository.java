@@ -22,7 +22,8 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 /**
  * @author Christian Bremer
  */
-public interface OAuth2ForeignTokenRepository extends MongoRepository<OAuth2ForeignToken, String> {
+public interface OAuth2ForeignTokenRepository extends MongoRepository<OAuth2ForeignToken, String>,
+    OAuth2ForeignTokenRepositoryCustom {
 
   long countByUserNameAndProvider(String userName, String provider);
 
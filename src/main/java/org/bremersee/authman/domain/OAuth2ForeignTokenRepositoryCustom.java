@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Set;
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface OAuth2ForeignTokenRepositoryCustom {
+
+  /**
+   * Finds the providers, that are connected with the account of the user.
+   *
+   * @param userName the user name
+   * @return the names of the providers
+   */
+  Set<String> findProvidersByUserName(@NotNull String userName);
+
+  /**
+   * Writes only the fields of the updated token, that differ from the stored one. Nothing is
+   * written, if no field has changed. The update is applied only, if the stored token has still
+   * the same version.
+   *
+   * @param stored  the stored token
+   * @param updated the updated token
+   * @return {@code true} if the token was written, otherwise {@code false}
+   */
+  boolean updateChangedFields(
+      @NotNull OAuth2ForeignToken stored,
+      @NotNull OAuth2ForeignToken updated);
+
+}
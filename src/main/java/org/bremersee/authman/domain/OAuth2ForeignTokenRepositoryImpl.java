@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import javax.validation.constraints.NotNull;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * @author Christian Bremer
+ */
+public class OAuth2ForeignTokenRepositoryImpl extends AbstractMongoRepositoryImpl implements
+    OAuth2ForeignTokenRepositoryCustom {
+
+  /**
+   * The expiration date is calculated from the 'expires in' value of the provider, so it differs
+   * slightly on every login even if the token is the same.
+   */
+  private static final long EXPIRES_AT_TOLERANCE_MILLIS = 60000L;
+
+  public OAuth2ForeignTokenRepositoryImpl(
+      @NotNull MongoOperations mongoOperations) {
+    super(mongoOperations);
+  }
+
+  @Override
+  public Set<String> findProvidersByUserName(@NotNull final String userName) {
+    // distinct returns only the provider values, the tokens are not read
+    return getMongoOperations()
+        .getCollection(getMongoOperations().getCollectionName(OAuth2ForeignToken.class))
+        .distinct("provider", new Document("userName", userName), String.class)
+        .into(new LinkedHashSet<>());
+  }
+
+  @Override
+  public boolean updateChangedFields(
+      @NotNull final OAuth2ForeignToken stored,
+      @NotNull final OAuth2ForeignToken updated) {
+
+    final Update update = new Update();
+    setIfChanged(update, "userName", stored.getUserName(), updated.getUserName());
+    setIfChanged(update, "provider", stored.getProvider(), updated.getProvider());
+    setIfChanged(update, "foreignUserName",
+        stored.getForeignUserName(), updated.getForeignUserName());
+    setIfChanged(update, "scope", stored.getScopes(), updated.getScopes());
+    setIfChanged(update, "accessToken", stored.getAccessToken(), updated.getAccessToken());
+    setIfChanged(update, "tokenType", stored.getTokenType(), updated.getTokenType());
+    setIfChanged(update, "refreshToken", stored.getRefreshToken(), updated.getRefreshToken());
+    setIfChanged(update, "idToken", stored.getIdToken(), updated.getIdToken());
+    if (expiresAtHasChanged(stored.getExpiresAt(), updated.getExpiresAt())) {
+      update.set("expiresAt", updated.getExpiresAt());
+    }
+    if (update.getUpdateObject().isEmpty()) {
+      return false;
+    }
+    update.set("modified", new Date()).inc("version", 1);
+    final Query query = Query.query(Criteria.where("_id").is(stored.getId())
+        .and("version").is(stored.getVersion()));
+    return getMongoOperations()
+        .updateFirst(query, update, OAuth2ForeignToken.class)
+        .getModifiedCount() > 0;
+  }
+
+  private static void setIfChanged(
+      final Update update,
+      final String key,
+      final Object oldValue,
+      final Object newValue) {
+
+    if (!Objects.equals(oldValue, newValue)) {
+      update.set(key, newValue);
+    }
+  }
+
+  private static boolean expiresAtHasChanged(final Date oldValue, final Date newValue) {
+    if (oldValue == null || newValue == null) {
+      return oldValue != newValue;
+    }
+    return Math.abs(oldValue.getTime() - newValue.getTime()) > EXPIRES_AT_TOLERANCE_MILLIS;
+  }
+
+}
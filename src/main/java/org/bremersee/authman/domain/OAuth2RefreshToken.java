@@ -16,6 +16,8 @@
 
 package org.bremersee.authman.domain;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,6 +28,9 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 /**
+ * A refresh token. If refresh tokens are rotated, the document is the token family: the value is
+ * replaced on every refresh and the replaced values are kept to detect replays.
+ *
  * @author Christian Bremer
  */
 @Getter
@@ -42,6 +47,7 @@ public class OAuth2RefreshToken extends AbstractAuditBase // NOSONAR
   @Field("userName")
   private String userName; // extracted from the authentication
 
+  @Indexed
   @Field("clientId")
   private String clientId; // extracted from the authentication
 
@@ -55,4 +61,8 @@ public class OAuth2RefreshToken extends AbstractAuditBase // NOSONAR
   @Field("value")
   private String value;
 
+  @Indexed(sparse = true)
+  @Field("usedValues")
+  private List<String> usedValues = new ArrayList<>(); // NOSONAR
+
 }
@@ -22,7 +22,9 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 /**
  * @author Christian Bremer
  */
-public interface OAuth2RefreshTokenRepository extends MongoRepository<OAuth2RefreshToken, String> {
+public interface OAuth2RefreshTokenRepository extends
+    OAuth2RefreshTokenRepositoryCustom,
+    MongoRepository<OAuth2RefreshToken, String> {
 
   Optional<OAuth2RefreshToken> findByValue(String refreshTokenValue);
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Optional;
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface OAuth2RefreshTokenRepositoryCustom {
+
+  /**
+   * Deletes the refresh tokens with one delete command on the server.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens of all users are deleted)
+   * @return the number of deleted tokens
+   */
+  long removeByClientId(@NotNull String clientId, String userName);
+
+  /**
+   * Replaces the value of the refresh token with one atomic operation. The old value is appended
+   * to the used values of the token family.
+   *
+   * @param oldValue    the current value
+   * @param clientId    the client ID, the token must belong to
+   * @param newValue    the new value
+   * @param historySize the maximum number of used values, that are kept
+   * @return the refresh token before the rotation or {@code null}, if there is no refresh token
+   *     with the old value and the client ID
+   */
+  OAuth2RefreshToken rotate(
+      @NotNull String oldValue,
+      @NotNull String clientId,
+      @NotNull String newValue,
+      int historySize);
+
+  /**
+   * Reverts a rotation.
+   *
+   * @param newValue the value that was set by the rotation
+   * @param oldValue the value before the rotation
+   * @return {@code true} if the rotation was reverted, otherwise {@code false}
+   */
+  boolean undoRotation(@NotNull String newValue, @NotNull String oldValue);
+
+  /**
+   * Deletes the token family, that has used the specified value.
+   *
+   * @param usedValue the used value
+   * @return the deleted token family
+   */
+  Optional<OAuth2RefreshToken> removeFamilyByUsedValue(@NotNull String usedValue);
+
+}
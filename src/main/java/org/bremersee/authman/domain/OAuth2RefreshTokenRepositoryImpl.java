@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Date;
+import java.util.Optional;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.StringUtils;
+
+/**
+ * @author Christian Bremer
+ */
+public class OAuth2RefreshTokenRepositoryImpl extends AbstractMongoRepositoryImpl implements
+    OAuth2RefreshTokenRepositoryCustom {
+
+  public OAuth2RefreshTokenRepositoryImpl(
+      @NotNull MongoOperations mongoOperations) {
+    super(mongoOperations);
+  }
+
+  @Override
+  public long removeByClientId(@NotNull final String clientId, final String userName) {
+    final Criteria criteria = Criteria.where("clientId").is(clientId);
+    if (StringUtils.hasText(userName)) {
+      criteria.and("userName").is(userName);
+    }
+    return getMongoOperations()
+        .remove(Query.query(criteria), OAuth2RefreshToken.class)
+        .getDeletedCount();
+  }
+
+  @Override
+  public OAuth2RefreshToken rotate(
+      @NotNull final String oldValue,
+      @NotNull final String clientId,
+      @NotNull final String newValue,
+      final int historySize) {
+
+    final Query query = Query.query(Criteria.where("value").is(oldValue)
+        .and("clientId").is(clientId));
+    final Update update = new Update()
+        .set("value", newValue)
+        .set("modified", new Date())
+        .inc("version", 1);
+    update.push("usedValues").slice(-Math.max(1, historySize)).each(oldValue);
+    return getMongoOperations().findAndModify(
+        query, update, FindAndModifyOptions.options().returnNew(false), OAuth2RefreshToken.class);
+  }
+
+  @Override
+  public boolean undoRotation(@NotNull final String newValue, @NotNull final String oldValue) {
+    final Query query = Query.query(Criteria.where("value").is(newValue));
+    final Update update = new Update()
+        .set("value", oldValue)
+        .pull("usedValues", oldValue)
+        .set("modified", new Date())
+        .inc("version", 1);
+    return getMongoOperations()
+        .updateFirst(query, update, OAuth2RefreshToken.class)
+        .getModifiedCount() > 0;
+  }
+
+  @Override
+  public Optional<OAuth2RefreshToken> removeFamilyByUsedValue(@NotNull final String usedValue) {
+    return Optional.ofNullable(getMongoOperations().findAndRemove(
+        Query.query(Criteria.where("usedValues").is(usedValue)), OAuth2RefreshToken.class));
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.io.Serializable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A named counter. Every node reserves blocks of values from it, so that the values are unique
+ * cluster wide.
+ *
+ * @author Christian Bremer
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "sequenceCounter")
+public class SequenceCounter implements Serializable {
+
+  private static final long serialVersionUID = 6126394582871947395L;
+
+  @Id
+  private String id;
+
+  private long value;
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author Christian Bremer
+ */
+public interface SequenceCounterRepositoryCustom {
+
+  /**
+   * Reserves a block of values of the counter. The counter is created, if it doesn't exist.
+   *
+   * @param name the name of the counter
+   * @param size the size of the block
+   * @return the first value of the reserved block, the block ends before {@code first + size}
+   */
+  long reserveBlock(@NotNull String name, long size);
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import javax.validation.constraints.NotNull;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * @author Christian Bremer
+ */
+public class SequenceCounterRepositoryImpl extends AbstractMongoRepositoryImpl implements
+    SequenceCounterRepositoryCustom {
+
+  public SequenceCounterRepositoryImpl(
+      @NotNull MongoOperations mongoOperations) {
+    super(mongoOperations);
+  }
+
+  @Override
+  public long reserveBlock(@NotNull final String name, final long size) {
+    final SequenceCounter counter = getMongoOperations().findAndModify(
+        Query.query(Criteria.where("_id").is(name)),
+        new Update().inc("value", size),
+        FindAndModifyOptions.options().upsert(true).returnNew(true),
+        SequenceCounter.class);
+    return counter.getValue() - size;
+  }
+
+}
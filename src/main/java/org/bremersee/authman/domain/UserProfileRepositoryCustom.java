@@ -16,9 +16,42 @@
 
 package org.bremersee.authman.domain;
 
+import java.util.Optional;
+import javax.validation.constraints.NotNull;
+import org.bremersee.authman.model.AuditVersion;
+
 /**
  * @author Christian Bremer
  */
 public interface UserProfileRepositoryCustom {
 
+  /**
+   * Replaces the encoded password of the user, if it wasn't changed in the meantime.
+   *
+   * @param userName    the user name
+   * @param oldPassword the currently stored encoded password
+   * @param newPassword the new encoded password
+   * @return {@code true} if the password was replaced, otherwise {@code false}
+   */
+  boolean updatePassword(
+      @NotNull String userName,
+      @NotNull String oldPassword,
+      @NotNull String newPassword);
+
+  /**
+   * Reads only the version and the modification date of the user profile.
+   *
+   * @param userName the user name
+   * @return the version and the modification date
+   */
+  Optional<AuditVersion> findAuditVersionByUserName(@NotNull String userName);
+
+  /**
+   * Reads the user profile and the names of its roles with one aggregation.
+   *
+   * @param userName the user name
+   * @return the user profile with its roles
+   */
+  Optional<UserProfileWithRoles> findWithRolesByUserName(@NotNull String userName);
+
 }
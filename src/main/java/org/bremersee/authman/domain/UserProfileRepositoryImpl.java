@@ -16,8 +16,23 @@
 
 package org.bremersee.authman.domain;
 
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.lookup;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import javax.validation.constraints.NotNull;
+import org.bremersee.authman.model.AuditVersion;
+import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 /**
  * @author Christian Bremer
@@ -30,4 +45,50 @@ public class UserProfileRepositoryImpl extends AbstractMongoRepositoryImpl
     super(mongoOperations);
   }
 
+  @Override
+  public boolean updatePassword(
+      @NotNull final String userName,
+      @NotNull final String oldPassword,
+      @NotNull final String newPassword) {
+
+    final Query query = Query.query(Criteria.where("userName").is(userName)
+        .and("password").is(oldPassword));
+    final Update update = Update.update("password", newPassword);
+    return getMongoOperations()
+        .updateFirst(query, update, UserProfile.class)
+        .getModifiedCount() > 0;
+  }
+
+  @Override
+  public Optional<AuditVersion> findAuditVersionByUserName(@NotNull final String userName) {
+    return findAuditVersion(Criteria.where("userName").is(userName), UserProfile.class);
+  }
+
+  @Override
+  public Optional<UserProfileWithRoles> findWithRolesByUserName(@NotNull final String userName) {
+    final Aggregation aggregation = newAggregation(
+        match(Criteria.where("userName").is(userName)),
+        limit(1),
+        lookup(getMongoOperations().getCollectionName(Role.class),
+            "userName", "userName", "roles"));
+    final Document document = getMongoOperations()
+        .aggregate(aggregation, UserProfile.class, Document.class)
+        .getUniqueMappedResult();
+    if (document == null) {
+      return Optional.empty();
+    }
+    final Set<String> roleNames = new LinkedHashSet<>();
+    final Object roles = document.remove("roles");
+    if (roles instanceof List) {
+      for (final Object role : (List<?>) roles) {
+        if (role instanceof Document && ((Document) role).getString("roleName") != null) {
+          roleNames.add(((Document) role).getString("roleName"));
+        }
+      }
+    }
+    final UserProfile userProfile = getMongoOperations().getConverter()
+        .read(UserProfile.class, document);
+    return Optional.of(new UserProfileWithRoles(userProfile, roleNames));
+  }
+
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import java.util.Collections;
+import java.util.Set;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A user profile together with the names of its roles, as read by one aggregation.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+public class UserProfileWithRoles {
+
+  private final UserProfile userProfile;
+
+  private final Set<String> roleNames;
+
+  public UserProfileWithRoles(final UserProfile userProfile, final Set<String> roleNames) {
+    this.userProfile = userProfile;
+    this.roleNames = roleNames != null ? roleNames : Collections.emptySet();
+  }
+
+}
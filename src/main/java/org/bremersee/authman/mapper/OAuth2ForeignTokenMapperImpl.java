@@ -70,7 +70,7 @@ public class OAuth2ForeignTokenMapperImpl implements OAuth2ForeignTokenMapper {
     if (StringUtils.hasText(expiresSecondsStr)) {
       try {
         final Long expiresSeconds = Long.parseLong(expiresSecondsStr);
-        destination.setExpiresAt(new Date(System.currentTimeMillis() + expiresSeconds));
+        destination.setExpiresAt(new Date(System.currentTimeMillis() + expiresSeconds * 1000L));
 
       } catch (final NumberFormatException nfe) {
         destination.setExpiresAt(null);
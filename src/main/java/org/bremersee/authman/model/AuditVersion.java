@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The version and the modification date of an entity. It is enough to build an entity tag
+ * without loading and mapping the whole entity.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AuditVersion implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Long version;
+
+  private final Date modified;
+
+  public AuditVersion(final Long version, final Date modified) {
+    this.version = version;
+    this.modified = modified == null ? null : new Date(modified.getTime());
+  }
+
+  /**
+   * Creates the audit version of a data transfer object.
+   *
+   * @param dto the data transfer object
+   * @return the audit version
+   */
+  public static AuditVersion of(final AbstractAuditDto dto) {
+    return new AuditVersion(dto.getVersion(), dto.getModified());
+  }
+
+  /**
+   * Returns a weak entity tag, for example {@code W/"3-1534237853000"}.
+   *
+   * @return the weak entity tag
+   */
+  public String toETag() {
+    return "W/\"" + (version == null ? 0L : version) + "-"
+        + (modified == null ? 0L : modified.getTime()) + "\"";
+  }
+
+}
@@ -53,8 +53,18 @@ public class ForeignUserProfileDefaultRequestor implements ForeignUserProfileReq
   @Override
   public ForeignUserProfile getForeignUserProfile(
       @NotNull final CodeExchangeResponse credentials) {
+    return getForeignUserProfile(credentials, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public ForeignUserProfile getForeignUserProfile(
+      @NotNull final CodeExchangeResponse credentials,
+      final int timeoutMillis) {
 
-    final RestTemplate restTemplate = restTemplateBuilder.build();
+    final RestTemplate restTemplate = restTemplateBuilder
+        .setConnectTimeout(Math.min(properties.getConnectTimeoutMillis(), timeoutMillis))
+        .setReadTimeout(Math.min(properties.getReadTimeoutMillis(), timeoutMillis))
+        .build();
     final ResponseEntity<byte[]> response = restTemplate.getForEntity(
         buildProfileUrlTemplate(),
         byte[].class,
@@ -27,7 +27,11 @@ import lombok.EqualsAndHashCode;
 
 /**
  * @author Christian Bremer
+ * @deprecated the provider profiles are parsed into a {@link
+ * org.bremersee.authman.security.authentication.ForeignUserProfileRecord} now; this class is only
+ * kept to read authentication tokens of existing sessions
  */
+@Deprecated
 @EqualsAndHashCode(of = "content")
 public abstract class ForeignUserProfileDocumentContext implements ForeignUserProfile {
 
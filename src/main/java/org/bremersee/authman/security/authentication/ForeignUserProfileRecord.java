@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.util.Locale;
+import java.util.TimeZone;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * An immutable foreign user profile, that contains only the fields this application needs.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ForeignUserProfileRecord implements ForeignUserProfile {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String name;
+
+  private final String displayName;
+
+  private final String email;
+
+  private final Locale locale;
+
+  private final TimeZone timeZone;
+
+  public ForeignUserProfileRecord(
+      final String name,
+      final String displayName,
+      final String email,
+      final Locale locale,
+      final TimeZone timeZone) {
+    this.name = name;
+    this.displayName = displayName;
+    this.email = email;
+    this.locale = locale;
+    this.timeZone = timeZone == null ? null : (TimeZone) timeZone.clone();
+  }
+
+  @Override
+  public TimeZone getTimeZone() {
+    return timeZone == null ? null : (TimeZone) timeZone.clone();
+  }
+
+}
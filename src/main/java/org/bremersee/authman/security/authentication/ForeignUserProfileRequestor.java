@@ -25,4 +25,17 @@ public interface ForeignUserProfileRequestor {
 
   ForeignUserProfile getForeignUserProfile(@NotNull CodeExchangeResponse credentials);
 
+  /**
+   * Gets the profile, that must be received within the specified time.
+   *
+   * @param credentials   the credentials of the code exchange
+   * @param timeoutMillis the maximum connect and read timeout of the profile request
+   * @return the foreign user profile
+   */
+  default ForeignUserProfile getForeignUserProfile(
+      @NotNull CodeExchangeResponse credentials,
+      int timeoutMillis) {
+    return getForeignUserProfile(credentials);
+  }
+
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Extracts the scalar values of some fields of a JSON object in one pass with a streaming parser.
+ * Objects and arrays, that don't contain one of the fields, are skipped without being
+ * materialized.
+ *
+ * <p>The fields are given as paths of names and array indexes separated by dots, for example
+ * {@code email}, {@code name.givenName} or {@code emails.0.value}.
+ *
+ * @author Christian Bremer
+ */
+public class JsonFieldExtractor {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final Set<String> paths;
+
+  private final Set<String> containers = new HashSet<>();
+
+  /**
+   * Creates a field extractor.
+   *
+   * @param paths the paths of the fields to extract
+   */
+  public JsonFieldExtractor(@NotNull final Collection<String> paths) {
+    this.paths = Collections.unmodifiableSet(new HashSet<>(paths));
+    for (final String path : this.paths) {
+      int index = path.indexOf('.');
+      while (index > 0) {
+        containers.add(path.substring(0, index));
+        index = path.indexOf('.', index + 1);
+      }
+    }
+  }
+
+  /**
+   * Extracts the fields.
+   *
+   * @param json the JSON object
+   * @return the values of the fields, that were found and are not {@code null}
+   * @throws IOException if the JSON is malformed
+   */
+  public Map<String, String> extract(@NotNull final byte[] json) throws IOException {
+    final Map<String, String> values = new HashMap<>();
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        readObject(parser, "", values);
+      }
+    }
+    return values;
+  }
+
+  private void readObject(
+      final JsonParser parser,
+      final String prefix,
+      final Map<String, String> values) throws IOException {
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String path = prefix + parser.getCurrentName();
+      parser.nextToken();
+      readValue(parser, path, values);
+    }
+  }
+
+  private void readArray(
+      final JsonParser parser,
+      final String prefix,
+      final Map<String, String> values) throws IOException {
+
+    int index = 0;
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+      readValue(parser, prefix + index, values);
+      index++;
+    }
+  }
+
+  private void readValue(
+      final JsonParser parser,
+      final String path,
+      final Map<String, String> values) throws IOException {
+
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) {
+      if (containers.contains(path)) {
+        readObject(parser, path + ".", values);
+      } else {
+        parser.skipChildren();
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      if (containers.contains(path)) {
+        readArray(parser, path + ".", values);
+      } else {
+        parser.skipChildren();
+      }
+    } else if (token != null && token != JsonToken.VALUE_NULL && paths.contains(path)) {
+      values.put(path, parser.getValueAsString());
+    }
+  }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.LoginFailureCountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts failed logins per ip address and per login name in a sliding window. When a limit is
+ * reached, further attempts are rejected for a time that grows exponentially with every further
+ * failure. The check works on memory only, so rejected attempts cause no database and no password
+ * hash work.
+ *
+ * <p>If the cluster mode is enabled, the failures of this node are added to a mongo collection
+ * periodically, and the sums of all nodes are read back. When the sum of a key has grown and
+ * reached the limit, the key is blocked with the same exponential delay as a local one. A
+ * successful login resets the shared counters of the login name, too. If the exchange fails, the
+ * failures are kept and the next attempts are delayed exponentially.
+ *
+ * <p>Failures per ip address are only counted, if enabled. Behind a reverse proxy the server must
+ * resolve the client address from the forwarded headers ({@code server.use-forward-headers}),
+ * otherwise all users share the address of the proxy.
+ *
+ * <p>A window is only changed within an atomic operation of the window map, so that a failure
+ * can't get lost by the concurrent removal of an idle window.
+ *
+ * @author Christian Bremer
+ */
+@Component("loginThrottle")
+@Slf4j
+public class LoginThrottle {
+
+  private static final String IP_ADDRESS_PREFIX = "ip:";
+
+  private static final String LOGIN_PREFIX = "login:";
+
+  private final Map<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+  private final Set<String> pendingResets = ConcurrentHashMap.newKeySet();
+
+  private final LoginThrottleProperties properties;
+
+  private final LoginFailureCountRepository repository;
+
+  private final long slotMillis;
+
+  private final Counter allowedCounter;
+
+  private final Counter blockedIpAddressCounter;
+
+  private final Counter blockedLoginCounter;
+
+  private int syncFailures;
+
+  private long nextSync;
+
+  @Autowired
+  public LoginThrottle(
+      final LoginThrottleProperties properties,
+      final LoginFailureCountRepository repository,
+      final MeterRegistry meterRegistry) {
+
+    this.properties = properties;
+    this.repository = repository;
+    this.slotMillis = Math.max(1L,
+        TimeUnit.SECONDS.toMillis(properties.getWindowSeconds()) / Math.max(1, slots()));
+    this.allowedCounter = meterRegistry.counter("login.throttle.allowed");
+    this.blockedIpAddressCounter = meterRegistry.counter("login.throttle.blocked", "key", "ip");
+    this.blockedLoginCounter = meterRegistry.counter("login.throttle.blocked", "key", "login");
+    Gauge.builder("login.throttle.tracked", windows, Map::size)
+        .description("IP addresses and login names with recent failed logins")
+        .register(meterRegistry);
+  }
+
+  private int slots() {
+    return Math.max(1, properties.getSlots());
+  }
+
+  /**
+   * Determines whether a login attempt is allowed.
+   *
+   * @param ipAddress the ip address of the client (may be {@code null})
+   * @param login     the login name (may be {@code null})
+   * @return {@code true} if the attempt is allowed, otherwise {@code false}
+   */
+  public boolean isAllowed(final String ipAddress, final String login) {
+    if (!properties.isEnabled()) {
+      return true;
+    }
+    final long now = System.currentTimeMillis();
+    if (isBlocked(ipAddressKey(ipAddress), now)) {
+      blockedIpAddressCounter.increment();
+      log.debug("Login attempts from ip address [{}] are throttled.", ipAddress);
+      return false;
+    }
+    if (isBlocked(loginKey(login), now)) {
+      blockedLoginCounter.increment();
+      log.debug("Login attempts of [{}] are throttled.", login);
+      return false;
+    }
+    allowedCounter.increment();
+    return true;
+  }
+
+  /**
+   * Records a failed login.
+   *
+   * @param ipAddress the ip address of the client (may be {@code null})
+   * @param login     the login name (may be {@code null})
+   */
+  public void onFailure(final String ipAddress, final String login) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    addFailure(ipAddressKey(ipAddress), now);
+    addFailure(loginKey(login), now);
+  }
+
+  /**
+   * Records a successful login. The failures of the login name are forgotten (but not the ones
+   * of the ip address).
+   *
+   * @param login the login name (may be {@code null})
+   */
+  public void onSuccess(final String login) {
+    final String key = loginKey(login);
+    if (key != null) {
+      windows.remove(key);
+      if (properties.isClusterEnabled()) {
+        pendingResets.add(key);
+      }
+    }
+  }
+
+  private boolean isBlocked(final String key, final long now) {
+    if (key == null) {
+      return false;
+    }
+    final SlidingWindow window = windows.get(key);
+    return window != null && window.blockedUntil > now;
+  }
+
+  private int maxFailures(final String key) {
+    return key.startsWith(IP_ADDRESS_PREFIX)
+        ? properties.getMaxFailuresPerIpAddress()
+        : properties.getMaxFailuresPerLogin();
+  }
+
+  private long delay(final long failures, final int maxFailures) {
+    return Math.min(
+        properties.getInitialDelayMillis() << Math.min(failures - maxFailures, 30L),
+        properties.getMaxDelayMillis());
+  }
+
+  private void addFailure(final String key, final long now) {
+    if (key == null) {
+      return;
+    }
+    final int maxFailures = maxFailures(key);
+    windows.compute(key, (k, existing) -> {
+      final SlidingWindow window = existing != null ? existing : new SlidingWindow(slots());
+      window.add(now / slotMillis);
+      final long failures = window.sum(now / slotMillis);
+      if (failures >= maxFailures) {
+        window.blockedUntil = now + delay(failures, maxFailures);
+      }
+      return window;
+    });
+  }
+
+  /**
+   * Removes idle windows and exchanges the failures with the other nodes, if the cluster mode is
+   * enabled.
+   */
+  @Scheduled(fixedDelayString = "${bremersee.login-throttle.sync-interval-millis:5000}")
+  public void synchronize() {
+    final long now = System.currentTimeMillis();
+    final long slot = now / slotMillis;
+    if (properties.isClusterEnabled() && now >= nextSync) {
+      synchronizeCluster(now, slot);
+    }
+    for (final String key : windows.keySet()) {
+      windows.computeIfPresent(key, (k, window) -> window.blockedUntil <= now
+          && window.clusterFailures == 0L && window.sum(slot) == 0L ? null : window);
+    }
+  }
+
+  private void synchronizeCluster(final long now, final long slot) {
+    final Date expireAt = new Date(now + slotMillis * slots());
+    try {
+      for (final String key : pendingResets) {
+        repository.deleteByKey(key);
+        pendingResets.remove(key);
+      }
+      for (final Map.Entry<String, SlidingWindow> entry : windows.entrySet()) {
+        final AtomicLong unsynchronized = entry.getValue().unsynchronized;
+        final long delta = unsynchronized.getAndSet(0L);
+        if (delta > 0L) {
+          try {
+            repository.increment(entry.getKey(), slot, delta, expireAt);
+
+          } catch (RuntimeException e) {
+            unsynchronized.addAndGet(delta);
+            throw e;
+          }
+        }
+      }
+      final Map<String, Long> clusterFailures = repository.sumSince(slot - slots() + 1,
+          Math.min(properties.getMaxFailuresPerLogin(), properties.getMaxFailuresPerIpAddress()));
+      applyClusterFailures(clusterFailures, now);
+
+    } catch (RuntimeException e) {
+      syncFailures++;
+      final long delay = Math.min(
+          properties.getSyncIntervalMillis() << Math.min(syncFailures, 20),
+          properties.getMaxSyncBackoffMillis());
+      nextSync = now + delay;
+      log.error("Exchanging failed logins with the other nodes failed {} time(s), "
+          + "next attempt in {} ms.", syncFailures, delay, e);
+      return;
+    }
+    if (syncFailures > 0) {
+      log.info("Exchanging failed logins succeeded after {} failure(s).", syncFailures);
+      syncFailures = 0;
+    }
+  }
+
+  private void applyClusterFailures(final Map<String, Long> clusterFailures, final long now) {
+    for (final String key : windows.keySet()) {
+      if (!clusterFailures.containsKey(key)) {
+        windows.computeIfPresent(key, (k, window) -> {
+          window.clusterFailures = 0L;
+          return window;
+        });
+      }
+    }
+    clusterFailures.forEach((key, failures) -> {
+      final int maxFailures = maxFailures(key);
+      windows.compute(key, (k, existing) -> {
+        final SlidingWindow window = existing != null ? existing : new SlidingWindow(slots());
+        // only new failures of the other nodes extend the block, like a local failure does
+        if (failures > window.clusterFailures && failures >= maxFailures) {
+          window.blockedUntil = Math.max(window.blockedUntil, now + delay(failures, maxFailures));
+        }
+        window.clusterFailures = failures;
+        return window;
+      });
+    });
+  }
+
+  private String ipAddressKey(final String ipAddress) {
+    return !properties.isIpAddressEnabled() || ipAddress == null || ipAddress.isEmpty()
+        ? null
+        : IP_ADDRESS_PREFIX + ipAddress;
+  }
+
+  private static String loginKey(final String login) {
+    return login == null || login.isEmpty()
+        ? null
+        : LOGIN_PREFIX + login.trim().toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * A ring of counters, one per time slot. A counter is reset, when its slot is reused for a
+   * newer time slot. The counters are only changed within an atomic operation of the window map.
+   */
+  private static class SlidingWindow {
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLongArray slots;
+
+    private final AtomicLong unsynchronized = new AtomicLong();
+
+    private volatile long blockedUntil;
+
+    private long clusterFailures;
+
+    SlidingWindow(final int size) {
+      counts = new AtomicLongArray(size);
+      slots = new AtomicLongArray(size);
+    }
+
+    void add(final long slot) {
+      final int index = (int) (slot % counts.length());
+      if (slots.get(index) != slot) {
+        slots.set(index, slot);
+        counts.set(index, 0L);
+      }
+      counts.incrementAndGet(index);
+      unsynchronized.incrementAndGet();
+    }
+
+    long sum(final long slot) {
+      long sum = 0L;
+      for (int i = 0; i < counts.length(); i++) {
+        if (slots.get(i) > slot - counts.length()) {
+          sum += counts.get(i);
+        }
+      }
+      return sum;
+    }
+  }
+
+}
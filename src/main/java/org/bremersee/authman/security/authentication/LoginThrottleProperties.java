@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Login throttle properties.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.login-throttle")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class LoginThrottleProperties {
+
+  /**
+   * Specifies whether failed logins are throttled. Default is {@code true}.
+   */
+  private boolean enabled = true;
+
+  /**
+   * The length of the sliding window in seconds. Default is {@code 600}.
+   */
+  private long windowSeconds = 600L;
+
+  /**
+   * The number of time slots of the sliding window. Default is {@code 10}.
+   */
+  private int slots = 10;
+
+  /**
+   * The number of failed logins of one login name within the window, before further attempts
+   * are rejected. Default is {@code 5}.
+   */
+  private int maxFailuresPerLogin = 5;
+
+  /**
+   * Specifies whether failed logins are counted per ip address, too. Behind a reverse proxy this
+   * requires {@code server.use-forward-headers}, otherwise all users share the address of the
+   * proxy and lock each other out. Default is {@code false}.
+   */
+  private boolean ipAddressEnabled = false;
+
+  /**
+   * The number of failed logins from one ip address within the window, before further attempts
+   * are rejected. Default is {@code 20}.
+   */
+  private int maxFailuresPerIpAddress = 20;
+
+  /**
+   * The time in milliseconds attempts are rejected after the limit was reached. It is doubled
+   * with every further failure. Default is {@code 1000}.
+   */
+  private long initialDelayMillis = 1000L;
+
+  /**
+   * The maximum time in milliseconds attempts are rejected. Default is {@code 900000}.
+   */
+  private long maxDelayMillis = 900000L;
+
+  /**
+   * Specifies whether the failed logins are summed up over all nodes by a mongo collection.
+   * Default is {@code false}.
+   */
+  private boolean clusterEnabled = false;
+
+  /**
+   * The interval in milliseconds of exchanging failed logins with the other nodes. Default is
+   * {@code 5000}.
+   */
+  private long syncIntervalMillis = 5000L;
+
+  /**
+   * The maximum time in milliseconds between two attempts to exchange the failed logins, when
+   * the exchange fails. The time is doubled with every failure. Default is {@code 300000}.
+   */
+  private long maxSyncBackoffMillis = 300000L;
+
+}
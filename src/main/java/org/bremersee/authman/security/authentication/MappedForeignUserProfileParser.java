@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+import javax.validation.constraints.NotNull;
+import org.springframework.util.StringUtils;
+
+/**
+ * A foreign user profile parser, that creates the profile with the field mapping of the provider
+ * properties (see {@link OAuth2AuthenticationProperties#getProfileFields()}).
+ *
+ * @author Christian Bremer
+ */
+public class MappedForeignUserProfileParser extends StreamingForeignUserProfileParser {
+
+  public static final String NAME = "name";
+
+  public static final String DISPLAY_NAME = "displayName";
+
+  public static final String EMAIL = "email";
+
+  public static final String LOCALE = "locale";
+
+  public static final String TIME_ZONE = "timeZone";
+
+  private static final Pattern ALTERNATIVE_SEPARATOR = Pattern.compile("\\|");
+
+  private static final Pattern PATH_SEPARATOR = Pattern.compile(",");
+
+  private final Map<String, List<List<String>>> mapping;
+
+  /**
+   * Creates a foreign user profile parser with the field mapping of the properties.
+   *
+   * @param properties the properties of the provider
+   */
+  public MappedForeignUserProfileParser(@NotNull final OAuth2AuthenticationProperties properties) {
+    this(properties, parseMapping(properties.getProfileFields()));
+  }
+
+  private MappedForeignUserProfileParser(
+      final OAuth2AuthenticationProperties properties,
+      final Map<String, List<List<String>>> mapping) {
+    super(properties, paths(mapping));
+    this.mapping = mapping;
+  }
+
+  private static Map<String, List<List<String>>> parseMapping(final Map<String, String> fields) {
+    final Map<String, List<List<String>>> mapping = new LinkedHashMap<>();
+    if (fields == null) {
+      return mapping;
+    }
+    fields.forEach((field, value) -> {
+      if (StringUtils.hasText(value)) {
+        final List<List<String>> alternatives = new ArrayList<>();
+        for (final String alternative : ALTERNATIVE_SEPARATOR.split(value)) {
+          final List<String> paths = new ArrayList<>();
+          for (final String path : PATH_SEPARATOR.split(alternative)) {
+            if (StringUtils.hasText(path)) {
+              paths.add(path.trim());
+            }
+          }
+          if (!paths.isEmpty()) {
+            alternatives.add(paths);
+          }
+        }
+        mapping.put(field, alternatives);
+      }
+    });
+    return mapping;
+  }
+
+  private static Set<String> paths(final Map<String, List<List<String>>> mapping) {
+    final Set<String> paths = new LinkedHashSet<>();
+    mapping.values().forEach(alternatives -> alternatives.forEach(paths::addAll));
+    return paths;
+  }
+
+  @Override
+  protected ForeignUserProfileRecord createProfile(final Map<String, String> fields) {
+    final String timeZone = resolve(TIME_ZONE, fields);
+    return new ForeignUserProfileRecord(
+        resolve(NAME, fields),
+        resolve(DISPLAY_NAME, fields),
+        resolve(EMAIL, fields),
+        toLocale(resolve(LOCALE, fields)),
+        StringUtils.hasText(timeZone) ? TimeZone.getTimeZone(timeZone) : null);
+  }
+
+  private String resolve(final String field, final Map<String, String> fields) {
+    for (final List<String> paths : mapping.getOrDefault(field, Collections.emptyList())) {
+      final StringBuilder value = new StringBuilder();
+      for (final String path : paths) {
+        final String part = fields.get(path);
+        if (StringUtils.hasText(part)) {
+          if (value.length() > 0) {
+            value.append(' ');
+          }
+          value.append(part);
+        }
+      }
+      if (value.length() > 0) {
+        return value.toString();
+      }
+    }
+    return null;
+  }
+
+}
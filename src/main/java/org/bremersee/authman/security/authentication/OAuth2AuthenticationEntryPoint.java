@@ -17,7 +17,6 @@
 package org.bremersee.authman.security.authentication;
 
 import java.io.IOException;
-import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
@@ -49,7 +48,7 @@ public class OAuth2AuthenticationEntryPoint implements AuthenticationEntryPoint
     Assert.notNull(properties, "Properties must be present.");
     Assert.hasText(properties.getStateKeyName(), "State key name must be present.");
     this.properties = properties;
-    this.stateCache = new OAuth2StateCache(properties.getStateKeyName());
+    this.stateCache = OAuth2StateCache.newInstance(properties);
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -66,9 +65,8 @@ public class OAuth2AuthenticationEntryPoint implements AuthenticationEntryPoint
   public void commence(final HttpServletRequest request, final HttpServletResponse response,
       final AuthenticationException authException) throws IOException {
 
-    final String state = UUID.randomUUID().toString().replace("-", "");
+    final String state = getStateCache().createState(request, response);
     final String url = buildLoginUrl(state);
-    getStateCache().saveState(request, state);
     getRedirectStrategy().sendRedirect(request, response, url);
   }
 
@@ -66,6 +66,11 @@ public class OAuth2AuthenticationFailureHandler extends SimpleUrlAuthenticationF
       (new SimpleUrlAuthenticationFailureHandler(url))
           .onAuthenticationFailure(request, response, exception);
 
+    } else if (exception instanceof OAuth2ProviderUnavailableException) {
+      log.debug("OAuth2 provider is not available, redirecting to /login?error=unavailable");
+      (new SimpleUrlAuthenticationFailureHandler("/login?error=unavailable"))
+          .onAuthenticationFailure(request, response, exception);
+
     } else {
       log.debug("A general exception occurred while linking, redirecting to /login?error");
       super.onAuthenticationFailure(request, response, exception);
@@ -24,6 +24,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.regex.Pattern;
 import javax.validation.constraints.NotNull;
 import lombok.EqualsAndHashCode;
@@ -36,23 +37,54 @@ import org.springframework.http.HttpMethod;
 import org.springframework.util.StringUtils;
 
 /**
+ * The properties of an OAuth2 provider. Providers without specific defaults can be configured
+ * completely with these properties (see {@link OAuth2ProviderListProperties}).
+ *
  * @author Christian Bremer
  */
 @Getter
 @Setter
-@ToString(exclude = {"clientSecret"})
-@EqualsAndHashCode(exclude = {"clientSecret"})
+@ToString(exclude = {"clientSecret", "stateSecret"})
+@EqualsAndHashCode(exclude = {"clientSecret", "stateSecret"})
 @NoArgsConstructor
 @Slf4j
-public abstract class OAuth2AuthenticationProperties implements Serializable {
+public class OAuth2AuthenticationProperties implements Serializable {
 
   private static final long serialVersionUID = 5704725929075936143L;
 
   private String provider;
 
+  /**
+   * The label of the login button (default is the provider name).
+   */
+  private String displayName;
+
+  /**
+   * The name of the button style and icon of the login button, e. g. {@code gitlab} for
+   * {@code btn-gitlab} and {@code fa-gitlab} (default is the provider name).
+   */
+  private String buttonStyle;
 
   private String stateKeyName = getProvider() + ".state";
 
+  /**
+   * Use a signed state parameter instead of storing it in the http session.
+   */
+  private boolean stateless = false;
+
+  /**
+   * The secret to sign the state parameter. It must be the same on all nodes. The default is a
+   * random value, which only works with one node.
+   */
+  private String stateSecret = UUID.randomUUID().toString();
+
+  private long stateValiditySeconds = 600L;
+
+  /**
+   * Bind the signed state parameter to a cookie of the browser.
+   */
+  private boolean stateCookieBound = true;
+
   private String loginUrlTemplate;
 
   private String clientId;
@@ -93,6 +125,44 @@ public abstract class OAuth2AuthenticationProperties implements Serializable {
 
   private String profilePathTemplate;
 
+  /**
+   * Maps the fields of the foreign user profile ({@code name}, {@code displayName}, {@code email},
+   * {@code locale} and {@code timeZone}) to paths of the json profile, e.g. {@code
+   * emails.0.value}. Alternative paths are separated by {@code |}, the values of paths, that are
+   * separated by {@code ,}, are joined with a blank.
+   */
+  private Map<String, String> profileFields = defaultProfileFields();
+
+
+  private int connectTimeoutMillis = 2000;
+
+  private int readTimeoutMillis = 5000;
+
+  /**
+   * The time budget of the code exchange and the profile request together.
+   */
+  private long timeoutBudgetMillis = 10000L;
+
+  /**
+   * The maximum number of concurrent calls of each step.
+   */
+  private int maxConcurrentCalls = 20;
+
+  private int circuitBreakerErrorThresholdPercentage = 50;
+
+  private int circuitBreakerRequestVolumeThreshold = 10;
+
+  private int circuitBreakerSleepWindowMillis = 30000;
+
+
+  private static Map<String, String> defaultProfileFields() {
+    final Map<String, String> fields = new LinkedHashMap<>();
+    fields.put(MappedForeignUserProfileParser.NAME, "id");
+    fields.put(MappedForeignUserProfileParser.DISPLAY_NAME, "name");
+    fields.put(MappedForeignUserProfileParser.EMAIL, "email");
+    fields.put(MappedForeignUserProfileParser.LOCALE, "locale");
+    return fields;
+  }
 
   public Set<String> scopes() {
     LinkedHashSet<String> scopes = new LinkedHashSet<>();
@@ -16,33 +16,37 @@
 
 package org.bremersee.authman.security.authentication;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Optional;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.UserNameGenerator;
 import org.bremersee.authman.domain.OAuth2ForeignToken;
 import org.bremersee.authman.domain.OAuth2ForeignTokenRepository;
 import org.bremersee.authman.domain.Role;
 import org.bremersee.authman.domain.RoleRepository;
 import org.bremersee.authman.domain.UserProfile;
 import org.bremersee.authman.domain.UserProfileRepository;
-import org.bremersee.authman.domain.UserRegistrationRequestRepository;
+import org.bremersee.authman.domain.UserProfileWithRoles;
 import org.bremersee.authman.mapper.OAuth2ForeignTokenMapper;
 import org.bremersee.authman.mapper.OAuth2ForeignTokenMapperImpl;
 import org.bremersee.authman.security.core.RoleConstants;
-import org.bremersee.authman.security.crypto.password.PasswordEncoder;
 import org.bremersee.utils.PasswordUtils;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -60,7 +64,7 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
   private final UserProfileRepository userProfileRepository;
 
   @NonNull
-  private final UserRegistrationRequestRepository userRegistrationRequestRepository;
+  private final UserNameGenerator userNameGenerator;
 
   @NonNull
   private final RoleRepository roleRepository;
@@ -76,6 +80,8 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
 
   private OAuth2ForeignTokenMapper foreignTokenMapper = new OAuth2ForeignTokenMapperImpl();
 
+  private MeterRegistry meterRegistry;
+
   @SuppressWarnings("unused")
   public void setForeignTokenMapper(
       final OAuth2ForeignTokenMapper foreignTokenMapper) {
@@ -84,6 +90,10 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
     }
   }
 
+  public void setMeterRegistry(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   @Override
   public Authentication authenticate(@NotNull final Authentication authentication) {
 
@@ -102,7 +112,7 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
       log.debug("Authentication is an 'OAuth2CreateAccountAndLinkAuthenticationToken': " +
           "Trying to create an account and link it.");
       return createAccountAndLinkAndAuthenticate(
-          (OAuth2CreateAccountAndLinkAuthenticationToken) authentication);
+          (OAuth2CreateAccountAndLinkAuthenticationToken) authentication, false);
     }
 
     if (authentication instanceof OAuth2LinkAuthenticationToken) {
@@ -128,17 +138,38 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
   // ***********************************************************************************************
 
   private Authentication authenticateOrRedirect(final OAuth2AuthenticationToken authentication) {
+    final long start = System.nanoTime();
+    try {
+      return authenticateLinkedOrRedirect(authentication);
 
-    OAuth2ForeignToken foreignToken = findForeignToken(authentication)
-        .orElse(new OAuth2ForeignToken());
+    } finally {
+      if (meterRegistry != null) {
+        meterRegistry
+            .timer("oauth2.authentication", "provider", authentication.getProvider())
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
 
-    foreignTokenMapper.updateForeignToken(foreignToken, authentication);
+  private Authentication authenticateLinkedOrRedirect(
+      final OAuth2AuthenticationToken authentication) {
 
-    if (StringUtils.hasText(foreignToken.getUserName())) {
-      foreignToken = saveForeignToken(foreignToken);
+    final OAuth2ForeignToken storedToken = findForeignToken(authentication).orElse(null);
+
+    if (storedToken != null && StringUtils.hasText(storedToken.getUserName())) {
+      storeForeignToken(storedToken, authentication, storedToken.getUserName());
+      final UserProfileWithRoles user = userProfileRepository
+          .findWithRolesByUserName(storedToken.getUserName())
+          .orElseThrow(() -> new UsernameNotFoundException(
+              "User [" + storedToken.getUserName() + "] was not found."));
       log.debug("Authenticate or redirect: Successfully authenticated.");
-      return new OAuth2LinkedAuthenticationToken(authentication,
-          userDetailsService.loadUserByUsername(foreignToken.getUserName()));
+      return new OAuth2LinkedAuthenticationToken(
+          authentication,
+          user.getUserProfile(),
+          user.getRoleNames()
+              .stream()
+              .map(SimpleGrantedAuthority::new)
+              .collect(Collectors.toSet()));
     }
 
     final String loginName = authentication.getPrincipal().getEmail();
@@ -157,8 +188,7 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
                 " must link it's account with a local one.",
             authentication));
 
-    foreignToken.setUserName(userProfile.getUserName());
-    saveForeignToken(foreignToken);
+    storeForeignToken(storedToken, authentication, userProfile.getUserName());
     log.debug("Authenticate or redirect: Successfully authenticated by login/email [{}].",
         loginName);
 
@@ -187,11 +217,8 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
     }
 
     if (passwordEncoder.matches(authentication.getPassword(), user.getPassword())) {
-      final OAuth2ForeignToken foreignToken = findForeignToken(authentication)
-          .orElse(new OAuth2ForeignToken());
-      foreignTokenMapper.updateForeignToken(foreignToken, authentication);
-      foreignToken.setUserName(user.getUsername());
-      saveForeignToken(foreignToken);
+      storeForeignToken(
+          findForeignToken(authentication).orElse(null), authentication, user.getUsername());
 
       userProfileRepository.findByUserName(user.getUsername()).ifPresent(
           userProfile -> {
@@ -213,16 +240,15 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
   }
 
   private Authentication createAccountAndLinkAndAuthenticate(
-      final OAuth2CreateAccountAndLinkAuthenticationToken authentication) {
+      final OAuth2CreateAccountAndLinkAuthenticationToken authentication,
+      final boolean mustBeNew) {
 
     validateCreateAccountAndLinkAuthenticationToken(authentication);
 
-    final UserProfile userProfile = createAndSaveNewUserProfile(authentication);
-    final OAuth2ForeignToken foreignToken = findForeignToken(authentication)
-        .orElse(new OAuth2ForeignToken());
-    foreignTokenMapper.updateForeignToken(foreignToken, authentication);
-    foreignToken.setUserName(authentication.getUserName());
-    saveForeignToken(foreignToken);
+    final UserProfile userProfile = createAndSaveNewUserProfile(authentication, mustBeNew);
+    storeForeignToken(
+        findForeignToken(authentication).orElse(null), authentication,
+        authentication.getUserName());
 
     log.debug("Create account, link and authenticate: Successfully created account, "
         + "linked and authenticated.");
@@ -236,7 +262,7 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
     final OAuth2CreateAccountAndLinkAuthenticationToken createToken = generateCreateAndLinkAccountToken(
         authentication);
     try {
-      Authentication result = createAccountAndLinkAndAuthenticate(createToken);
+      Authentication result = createAccountAndLinkAndAuthenticate(createToken, true);
       log.debug("Successfully created account silently, linked and authenticated.");
       return result;
 
@@ -260,8 +286,48 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
     return oauth2TokenRepository.findByProviderAndForeignUserName(provider, foreignUserName);
   }
 
-  private OAuth2ForeignToken saveForeignToken(@NotNull final OAuth2ForeignToken foreignToken) {
-    return oauth2TokenRepository.save(foreignToken);
+  /**
+   * Saves a new foreign token or writes only the changed fields of an existing one, so that a
+   * login with an unchanged token doesn't touch the database.
+   */
+  private void storeForeignToken(
+      final OAuth2ForeignToken storedToken,
+      @NotNull final OAuth2AuthenticationToken authentication,
+      @NotNull final String userName) {
+
+    if (storedToken == null || storedToken.isNew()) {
+      final OAuth2ForeignToken foreignToken = new OAuth2ForeignToken();
+      foreignTokenMapper.updateForeignToken(foreignToken, authentication);
+      foreignToken.setUserName(userName);
+      oauth2TokenRepository.save(foreignToken);
+      return;
+    }
+
+    final OAuth2ForeignToken foreignToken = copyForeignToken(storedToken);
+    foreignTokenMapper.updateForeignToken(foreignToken, authentication);
+    foreignToken.setUserName(userName);
+    if (oauth2TokenRepository.updateChangedFields(storedToken, foreignToken)) {
+      log.debug("Changed fields of foreign token [{}] written.", storedToken.getId());
+    } else {
+      log.debug("Foreign token [{}] is unchanged or was modified concurrently.",
+          storedToken.getId());
+    }
+  }
+
+  private OAuth2ForeignToken copyForeignToken(final OAuth2ForeignToken source) {
+    final OAuth2ForeignToken copy = new OAuth2ForeignToken();
+    copy.setId(source.getId());
+    copy.setVersion(source.getVersion());
+    copy.setUserName(source.getUserName());
+    copy.setProvider(source.getProvider());
+    copy.setForeignUserName(source.getForeignUserName());
+    copy.setScopes(source.getScopes() != null ? new LinkedHashSet<>(source.getScopes()) : null);
+    copy.setAccessToken(source.getAccessToken());
+    copy.setTokenType(source.getTokenType());
+    copy.setExpiresAt(source.getExpiresAt());
+    copy.setRefreshToken(source.getRefreshToken());
+    copy.setIdToken(source.getIdToken());
+    return copy;
   }
 
   private void validateLinkAuthenticationToken(final OAuth2LinkAuthenticationToken authentication) {
@@ -307,37 +373,26 @@ public class OAuth2AuthenticationProvider implements AuthenticationProvider {
   private OAuth2CreateAccountAndLinkAuthenticationToken generateCreateAndLinkAccountToken(
       final OAuth2AuthenticationToken authToken) {
 
-    final String userName = generateUniqueUserName();
+    final String userName = userNameGenerator.generateUserName();
     final String password = PasswordUtils.createRandomClearPassword(
         14, false, true);
     return new OAuth2CreateAccountAndLinkAuthenticationToken(authToken, userName, password,
         password);
   }
 
-  private String generateUniqueUserName() {
-    String userName = generateUserName();
-    while (userProfileRepository.countByUserName(userName) > 0
-        || userRegistrationRequestRepository.countByUserName(userName) > 0) {
-      userName = generateUserName();
-    }
-    return userName;
-  }
-
-  private String generateUserName() {
-    final Random random = new Random();
-    String n = String.valueOf(random.nextInt());
-    while (n.length() < 7) {
-      n = String.valueOf(random.nextInt());
-    }
-    return "u" + n.substring(0, 7);
-  }
-
   private UserProfile createAndSaveNewUserProfile(
-      final OAuth2CreateAccountAndLinkAuthenticationToken authentication) {
+      final OAuth2CreateAccountAndLinkAuthenticationToken authentication,
+      final boolean mustBeNew) {
 
     final ForeignUserProfile foreignUserProfile = authentication.getPrincipal();
     UserProfile userProfile = userProfileRepository
         .findByUserName(authentication.getUserName()).orElse(new UserProfile());
+    if (mustBeNew && !userProfile.isNew()) {
+      // a generated name was chosen by hand before, the existing account must not be taken over
+      throw new OAuth2CreateAndLinkException(
+          "User [" + authentication.getUserName() + "] already exists.",
+          OAuth2CreateAndLinkException.Reason.ALREADY_EXISTS);
+    }
     updateUserProfile(userProfile, foreignUserProfile);
     userProfile.setUserName(authentication.getUserName());
     userProfile.setPassword(passwordEncoder.encode(authentication.getPassword()));
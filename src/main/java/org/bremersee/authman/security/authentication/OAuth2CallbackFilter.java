@@ -16,9 +16,13 @@
 
 package org.bremersee.authman.security.authentication;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
@@ -53,6 +57,9 @@ public class OAuth2CallbackFilter extends AbstractAuthenticationProcessingFilter
   @Setter
   private RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder();
 
+  @Setter
+  private MeterRegistry meterRegistry;
+
   public OAuth2CallbackFilter(
       @NotNull final OAuth2AuthenticationProperties properties,
       @NotNull final ForeignUserProfileRequestor foreignUserProfileRequestor,
@@ -62,7 +69,7 @@ public class OAuth2CallbackFilter extends AbstractAuthenticationProcessingFilter
 
     this.properties = properties;
     this.foreignUserProfileRequestor = foreignUserProfileRequestor;
-    this.stateCache = new OAuth2StateCache(properties.getStateKeyName());
+    this.stateCache = OAuth2StateCache.newInstance(properties);
 
     setAuthenticationSuccessHandler(new OAuth2AuthenticationSuccessHandler());
 
@@ -94,15 +101,11 @@ public class OAuth2CallbackFilter extends AbstractAuthenticationProcessingFilter
       throw exception;
     }
 
-    final String savedState = stateCache.getState(request);
-    OAuth2AuthenticationException.validateNotBlank(savedState,
-        "Saved state is not present.");
     final String state = request.getParameter(properties.getResponseStateParameter());
-    stateCache.removeState(request);
     OAuth2AuthenticationException.validateNotBlank(state, "State is not present.");
-    if (!savedState.equals(state)) {
+    if (!stateCache.verifyState(request, response, state)) {
       final OAuth2AuthenticationException exception = new OAuth2AuthenticationException(
-          "Saved state and state from OAuth2 Provider are not equal.");
+          "State from OAuth2 Provider is not valid.");
       log.error("Facebook login failed.", exception); // NOSONAR
       throw exception;
     }
@@ -115,9 +118,14 @@ public class OAuth2CallbackFilter extends AbstractAuthenticationProcessingFilter
       throw exception;
     }
 
-    final CodeExchangeResponse credentials = exchangeCode(code);
-    final ForeignUserProfile profile = foreignUserProfileRequestor
-        .getForeignUserProfile(credentials);
+    final long deadline = System.currentTimeMillis() + properties.getTimeoutBudgetMillis();
+    final int exchangeTimeout = remainingTimeoutBudget(deadline);
+    final CodeExchangeResponse credentials = callProvider(
+        "code-exchange", () -> exchangeCode(code, exchangeTimeout));
+    final int profileTimeout = remainingTimeoutBudget(deadline);
+    final ForeignUserProfile profile = callProvider(
+        "profile",
+        () -> foreignUserProfileRequestor.getForeignUserProfile(credentials, profileTimeout));
 
     final Authentication authRequest = new OAuth2AuthenticationToken(properties.getProvider(),
         credentials,
@@ -126,10 +134,62 @@ public class OAuth2CallbackFilter extends AbstractAuthenticationProcessingFilter
     return getAuthenticationManager().authenticate(authRequest);
   }
 
+  /**
+   * Returns the rest of the time budget, that can be used as timeout of the next request.
+   *
+   * @param deadline the end of the time budget
+   * @return the remaining time in milliseconds
+   * @throws OAuth2ProviderUnavailableException if the time budget is used up
+   */
+  private int remainingTimeoutBudget(final long deadline) {
+    final long remaining = deadline - System.currentTimeMillis();
+    if (remaining <= 0L) {
+      final OAuth2AuthenticationException exception = new OAuth2ProviderUnavailableException(
+          properties.getProvider(), null);
+      log.error("OAuth2 login failed: The time budget is exhausted.", exception);
+      throw exception;
+    }
+    return (int) Math.min(remaining, Integer.MAX_VALUE);
+  }
+
+  private <T> T callProvider(final String step, final Supplier<T> call) {
+    final long start = System.nanoTime();
+    String outcome = "success";
+    try {
+      return OAuth2ProviderCommand.execute(properties, step, call);
+
+    } catch (RuntimeException e) {
+      outcome = e instanceof OAuth2ProviderUnavailableException ? "unavailable" : "error";
+      throw e;
+
+    } finally {
+      if (meterRegistry != null) {
+        Timer.builder("oauth2.provider.requests")
+            .description("Requests to OAuth2 providers")
+            .tag("provider", String.valueOf(properties.getProvider()))
+            .tag("step", step)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  /**
+   * Exchanges the code for the credentials.
+   *
+   * @param code          the code from the OAuth2 provider
+   * @param timeoutMillis the maximum connect and read timeout of the request
+   * @return the credentials
+   */
   @SuppressWarnings("WeakerAccess")
-  protected CodeExchangeResponse exchangeCode(@NotNull final String code) {
+  protected CodeExchangeResponse exchangeCode(@NotNull final String code, final int timeoutMillis) {
 
-    final RestTemplate restTemplate = restTemplateBuilder.build();
+    final RestTemplate restTemplate = restTemplateBuilder
+        .setConnectTimeout(Math.min(properties.getConnectTimeoutMillis(), timeoutMillis))
+        .setReadTimeout(Math.min(properties.getReadTimeoutMillis(), timeoutMillis))
+        .build();
     final Map<String, Object> params = properties.buildExchangeCodeRequestParameters(
         code, null, null);
     final String url = properties.getTokenUrlTemplate();
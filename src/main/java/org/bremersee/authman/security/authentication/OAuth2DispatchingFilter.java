@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * One filter for the login and the callback of all OAuth2 providers. The provider is resolved
+ * with one map lookup of the path ({@code POST /{provider}/login} redirects to the login page of
+ * the provider, {@code GET /{provider}/callback} is processed by the callback filter of the
+ * provider), so that other requests don't have to pass a filter of every provider.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class OAuth2DispatchingFilter extends GenericFilterBean {
+
+  private static final String LOGIN = "login";
+
+  private static final String CALLBACK = "callback";
+
+  private final Map<String, AuthenticationEntryPoint> entryPoints = new HashMap<>();
+
+  private final Map<String, Filter> callbackFilters = new HashMap<>();
+
+  /**
+   * Adds a provider.
+   *
+   * @param provider       the name of the provider
+   * @param entryPoint     the entry point, that redirects to the login page of the provider
+   * @param callbackFilter the filter, that processes the callback of the provider
+   */
+  public void addProvider(
+      @NotNull final String provider,
+      @NotNull final AuthenticationEntryPoint entryPoint,
+      @NotNull final Filter callbackFilter) {
+    entryPoints.put(provider, entryPoint);
+    callbackFilters.put(provider, callbackFilter);
+  }
+
+  @Override
+  public void doFilter(
+      final ServletRequest servletRequest,
+      final ServletResponse servletResponse,
+      final FilterChain filterChain)
+      throws IOException, ServletException {
+
+    final HttpServletRequest request = (HttpServletRequest) servletRequest;
+    final HttpServletResponse response = (HttpServletResponse) servletResponse;
+    final String path = getPath(request);
+    final int index = path.indexOf('/', 1);
+    if (path.startsWith("/") && index > 1) {
+      final String provider = path.substring(1, index);
+      final String action = path.substring(index + 1);
+      if (LOGIN.equals(action) && HttpMethod.POST.matches(request.getMethod())) {
+        final AuthenticationEntryPoint entryPoint = entryPoints.get(provider);
+        if (entryPoint != null) {
+          log.debug("Redirecting to login of OAuth2 provider [{}].", provider);
+          entryPoint.commence(request, response, null);
+          return;
+        }
+      } else if (CALLBACK.equals(action) && HttpMethod.GET.matches(request.getMethod())) {
+        final Filter callbackFilter = callbackFilters.get(provider);
+        if (callbackFilter != null) {
+          log.debug("Processing callback of OAuth2 provider [{}].", provider);
+          callbackFilter.doFilter(request, response, filterChain);
+          return;
+        }
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private static String getPath(final HttpServletRequest request) {
+    final String servletPath = request.getServletPath();
+    final String pathInfo = request.getPathInfo();
+    if (pathInfo == null) {
+      return servletPath == null ? "" : servletPath;
+    }
+    return servletPath == null ? pathInfo : servletPath + pathInfo;
+  }
+
+}
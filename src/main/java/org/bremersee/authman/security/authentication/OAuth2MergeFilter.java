@@ -91,7 +91,10 @@ public class OAuth2MergeFilter extends AbstractAuthenticationProcessingFilter {
 
     final String username = request.getParameter(USERNAME);
     final String password = request.getParameter(PASSWORD);
-    return new OAuth2LinkAuthenticationToken(storedOAuth2AuthToken, username, password);
+    final OAuth2LinkAuthenticationToken authRequest = new OAuth2LinkAuthenticationToken(
+        storedOAuth2AuthToken, username, password);
+    authRequest.setDetails(authenticationDetailsSource.buildDetails(request));
+    return authRequest;
   }
 
   private Authentication createAccountAndLink(
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import java.util.function.Supplier;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Calls an OAuth2 provider with a bulkhead (a limited number of concurrent calls) and a circuit
+ * breaker per provider and step. The time of a call is limited by the connect and read timeouts
+ * of the rest template, so the hystrix timeout is disabled.
+ *
+ * <p>Client errors (4xx) of the provider, like an invalid code, don't open the circuit.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+class OAuth2ProviderCommand<T> extends HystrixCommand<T> {
+
+  private final Supplier<T> call;
+
+  private OAuth2ProviderCommand(
+      final OAuth2AuthenticationProperties properties,
+      final String step,
+      final Supplier<T> call) {
+
+    super(Setter
+        .withGroupKey(HystrixCommandGroupKey.Factory.asKey("oauth2-" + properties.getProvider()))
+        .andCommandKey(HystrixCommandKey.Factory.asKey(properties.getProvider() + "-" + step))
+        .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+            .withExecutionIsolationStrategy(ExecutionIsolationStrategy.SEMAPHORE)
+            .withExecutionIsolationSemaphoreMaxConcurrentRequests(
+                properties.getMaxConcurrentCalls())
+            .withExecutionTimeoutEnabled(false)
+            .withFallbackEnabled(false)
+            .withCircuitBreakerErrorThresholdPercentage(
+                properties.getCircuitBreakerErrorThresholdPercentage())
+            .withCircuitBreakerRequestVolumeThreshold(
+                properties.getCircuitBreakerRequestVolumeThreshold())
+            .withCircuitBreakerSleepWindowInMilliseconds(
+                properties.getCircuitBreakerSleepWindowMillis())));
+    this.call = call;
+  }
+
+  /**
+   * Executes the call.
+   *
+   * @param properties the properties of the OAuth2 provider
+   * @param step       the name of the step (like 'code-exchange' or 'profile')
+   * @param call       the call
+   * @param <T>        the type of the result
+   * @return the result of the call
+   * @throws OAuth2ProviderUnavailableException if the circuit is open, too many calls are running
+   *                                            or the provider fails
+   */
+  static <T> T execute(
+      @NotNull final OAuth2AuthenticationProperties properties,
+      @NotNull final String step,
+      @NotNull final Supplier<T> call) {
+
+    try {
+      return new OAuth2ProviderCommand<>(properties, step, call).execute();
+
+    } catch (HystrixBadRequestException e) {
+      throw (RuntimeException) e.getCause();
+
+    } catch (HystrixRuntimeException e) {
+      log.error("Calling OAuth2 provider [{}] at step [{}] failed ({}).",
+          properties.getProvider(), step, e.getFailureType(), e);
+      throw new OAuth2ProviderUnavailableException(properties.getProvider(), e);
+    }
+  }
+
+  @Override
+  protected T run() {
+    try {
+      return call.get();
+
+    } catch (HttpClientErrorException | OAuth2AuthenticationException e) {
+      throw new HystrixBadRequestException(e.getMessage(), e);
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Additional OAuth2 providers, that are configured completely in the application properties.
+ *
+ * @author Christian Bremer
+ */
+@ConfigurationProperties("bremersee.oauth2")
+@Component
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class OAuth2ProviderListProperties {
+
+  /**
+   * The additional providers. Facebook, GitHub and Google are always present.
+   */
+  private List<OAuth2AuthenticationProperties> providers = new ArrayList<>();
+
+}
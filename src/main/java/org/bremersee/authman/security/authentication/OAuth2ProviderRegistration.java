@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The components of an OAuth2 provider, that are created from its properties.
+ *
+ * @author Christian Bremer
+ */
+@Getter
+@ToString(of = "properties")
+@EqualsAndHashCode(of = "properties")
+public class OAuth2ProviderRegistration {
+
+  private final OAuth2AuthenticationProperties properties;
+
+  private final ForeignUserProfileParser userProfileParser;
+
+  private final OAuth2AuthenticationEntryPoint entryPoint;
+
+  OAuth2ProviderRegistration(@NotNull final OAuth2AuthenticationProperties properties) {
+    this.properties = properties;
+    this.userProfileParser = new MappedForeignUserProfileParser(properties);
+    this.entryPoint = new OAuth2AuthenticationEntryPoint(properties);
+  }
+
+  public String getProvider() {
+    return properties.getProvider();
+  }
+
+}
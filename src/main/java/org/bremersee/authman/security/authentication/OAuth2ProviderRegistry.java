@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * The registry of all OAuth2 providers. It contains the providers with specific properties
+ * (Facebook, GitHub and Google) and the additional providers of the
+ * {@link OAuth2ProviderListProperties}.
+ *
+ * @author Christian Bremer
+ */
+@Component("oAuth2ProviderRegistry")
+@Slf4j
+public class OAuth2ProviderRegistry {
+
+  private final Map<String, OAuth2ProviderRegistration> registrations;
+
+  @Autowired
+  public OAuth2ProviderRegistry(
+      final List<OAuth2AuthenticationProperties> providerProperties,
+      final OAuth2ProviderListProperties providerListProperties) {
+
+    final List<OAuth2AuthenticationProperties> allProperties = new ArrayList<>(providerProperties);
+    allProperties.addAll(providerListProperties.getProviders());
+    final Map<String, OAuth2ProviderRegistration> map = new LinkedHashMap<>();
+    for (final OAuth2AuthenticationProperties properties : allProperties) {
+      if (!StringUtils.hasText(properties.getProvider())) {
+        throw new IllegalStateException("OAuth2 provider without name: " + properties);
+      }
+      if (map.put(properties.getProvider(), new OAuth2ProviderRegistration(properties)) != null) {
+        throw new IllegalStateException(
+            "OAuth2 provider [" + properties.getProvider() + "] is configured twice.");
+      }
+      log.info("OAuth2 provider [{}] registered.", properties.getProvider());
+    }
+    this.registrations = Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Gets the registration of the provider.
+   *
+   * @param provider the name of the provider
+   * @return the registration or {@code null}, if the provider is unknown
+   */
+  public OAuth2ProviderRegistration getRegistration(final String provider) {
+    return provider == null ? null : registrations.get(provider);
+  }
+
+  /**
+   * Gets the properties of the provider.
+   *
+   * @param provider the name of the provider
+   * @return the properties or {@code null}, if the provider is unknown
+   */
+  public OAuth2AuthenticationProperties getProperties(final String provider) {
+    final OAuth2ProviderRegistration registration = getRegistration(provider);
+    return registration == null ? null : registration.getProperties();
+  }
+
+  /**
+   * Gets the user profile parser of the provider.
+   *
+   * @param provider the name of the provider
+   * @return the parser or {@code null}, if the provider is unknown
+   */
+  public ForeignUserProfileParser getUserProfileParser(final String provider) {
+    final OAuth2ProviderRegistration registration = getRegistration(provider);
+    return registration == null ? null : registration.getUserProfileParser();
+  }
+
+  /**
+   * Gets all registrations.
+   *
+   * @return the registrations
+   */
+  public Collection<OAuth2ProviderRegistration> getRegistrations() {
+    return registrations.values();
+  }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import lombok.Getter;
+
+/**
+ * Is thrown, if an OAuth2 provider doesn't answer in time or if the circuit of the provider is
+ * open.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2ProviderUnavailableException extends OAuth2AuthenticationException {
+
+  @Getter
+  private final String provider;
+
+  OAuth2ProviderUnavailableException(final String provider, final Throwable t) {
+    super("OAuth2 provider [" + provider + "] is not available.", t);
+    this.provider = provider;
+  }
+
+}
@@ -1,63 +0,0 @@
-/*
- * Copyright 2017 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package org.bremersee.authman.security.authentication;
-
-import java.io.IOException;
-import javax.servlet.FilterChain;
-import javax.servlet.ServletException;
-import javax.servlet.ServletRequest;
-import javax.servlet.ServletResponse;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.web.AuthenticationEntryPoint;
-import org.springframework.security.web.util.matcher.RequestMatcher;
-import org.springframework.web.filter.GenericFilterBean;
-
-/**
- * @author Christian Bremer
- */
-@RequiredArgsConstructor
-@Slf4j
-public class OAuth2RedirectFilter extends GenericFilterBean {
-
-  @NonNull
-  private final AuthenticationEntryPoint authenticationEntryPoint;
-
-  @NonNull
-  private final RequestMatcher requestMatcher;
-
-  @Override
-  public void doFilter(
-      final ServletRequest servletRequest,
-      final ServletResponse servletResponse,
-      final FilterChain filterChain)
-      throws IOException, ServletException {
-
-    final HttpServletRequest request = (HttpServletRequest) servletRequest;
-    final HttpServletResponse response = (HttpServletResponse) servletResponse;
-    if (requestMatcher.matches(request)) {
-      authenticationEntryPoint.commence(request, response, null);
-    } else {
-      log.debug("Request does not match {}", requestMatcher.toString());
-      filterChain.doFilter(request, response);
-    }
-  }
-
-}
@@ -16,7 +16,9 @@
 
 package org.bremersee.authman.security.authentication;
 
+import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +38,56 @@ public class OAuth2StateCache {
   @NonNull
   private final String keyName;
 
+  /**
+   * Creates the state cache that is configured in the specified properties.
+   *
+   * @param properties the properties of the OAuth2 provider
+   * @return the session based or the stateless state cache
+   */
+  public static OAuth2StateCache newInstance(final OAuth2AuthenticationProperties properties) {
+    Validate.notNull(properties, "Properties must not be null.");
+    if (properties.isStateless()) {
+      return new OAuth2StatelessStateCache(properties);
+    }
+    return new OAuth2StateCache(properties.getStateKeyName());
+  }
+
+  protected String getKeyName() {
+    return keyName;
+  }
+
+  /**
+   * Creates a new state parameter and saves it in the session.
+   *
+   * @param request  the http request
+   * @param response the http response
+   * @return the state parameter
+   */
+  public String createState(final HttpServletRequest request, final HttpServletResponse response) {
+    final String state = UUID.randomUUID().toString().replace("-", "");
+    saveState(request, state);
+    return state;
+  }
+
+  /**
+   * Checks whether the state parameter from the OAuth2 provider is equal to the saved one. The
+   * saved state is removed.
+   *
+   * @param request  the http request
+   * @param response the http response
+   * @param state    the state parameter from the OAuth2 provider
+   * @return {@code true} if the state is valid, otherwise {@code false}
+   */
+  public boolean verifyState(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final String state) {
+
+    final String savedState = getState(request);
+    removeState(request);
+    return StringUtils.isNotBlank(savedState) && savedState.equals(state);
+  }
+
   public void saveState(final HttpServletRequest request, final String state) {
     Validate.notNull(request, "Http request must not be null.");
     request.getSession(true).setAttribute(keyName, state);
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A state cache that doesn't need a http session. The state parameter is a signed and time
+ * limited token ({@code expiration:nonce:provider.signature}). If cookie binding is enabled, the
+ * nonce is also stored in a cookie, so that the state can only be used by the browser that
+ * started the login.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class OAuth2StatelessStateCache extends OAuth2StateCache {
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final SecureRandom random = new SecureRandom();
+
+  private final String provider;
+
+  private final SecretKeySpec secretKey;
+
+  private final long validityMillis;
+
+  private final boolean cookieBound;
+
+  public OAuth2StatelessStateCache(final OAuth2AuthenticationProperties properties) {
+    super(properties.getStateKeyName());
+    Validate.notBlank(properties.getStateSecret(), "State secret must be present.");
+    this.provider = properties.getProvider();
+    this.secretKey = new SecretKeySpec(
+        properties.getStateSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.validityMillis = properties.getStateValiditySeconds() * 1000L;
+    this.cookieBound = properties.isStateCookieBound();
+  }
+
+  @Override
+  public String createState(final HttpServletRequest request, final HttpServletResponse response) {
+    final byte[] nonceBytes = new byte[16];
+    random.nextBytes(nonceBytes);
+    final String nonce = ENCODER.encodeToString(nonceBytes);
+    final long expiration = System.currentTimeMillis() + validityMillis;
+    final String payload = expiration + ":" + nonce + ":" + provider;
+    if (cookieBound) {
+      addCookie(request, response, nonce, (int) (validityMillis / 1000L));
+    }
+    return ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+        + "." + ENCODER.encodeToString(sign(payload));
+  }
+
+  @Override
+  public boolean verifyState(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final String state) {
+
+    if (StringUtils.isBlank(state) || state.indexOf('.') < 0) {
+      log.warn("State [{}] is not a signed state.", state);
+      return false;
+    }
+    final String payload;
+    final byte[] signature;
+    try {
+      payload = new String(
+          DECODER.decode(state.substring(0, state.indexOf('.'))), StandardCharsets.UTF_8);
+      signature = DECODER.decode(state.substring(state.indexOf('.') + 1));
+    } catch (IllegalArgumentException e) {
+      log.warn("State [{}] is not a signed state.", state);
+      return false;
+    }
+    if (!MessageDigest.isEqual(sign(payload), signature)) {
+      log.warn("Signature of state [{}] is not valid.", state);
+      return false;
+    }
+    final String[] parts = payload.split(":", 3);
+    if (parts.length != 3 || !StringUtils.isNumeric(parts[0])) {
+      log.warn("State [{}] is malformed.", state);
+      return false;
+    }
+    if (Long.parseLong(parts[0]) < System.currentTimeMillis()) {
+      log.warn("State [{}] is expired.", state);
+      return false;
+    }
+    if (!StringUtils.equals(provider, parts[2])) {
+      log.warn("State [{}] was issued for another provider [{}].", state, parts[2]);
+      return false;
+    }
+    if (cookieBound) {
+      final String nonce = getCookieValue(request);
+      addCookie(request, response, "", 0);
+      if (!parts[1].equals(nonce)) {
+        log.warn("State [{}] does not belong to this browser.", state);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private byte[] sign(final String payload) {
+    try {
+      final Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(secretKey);
+      return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException("Signing state failed.", e);
+    }
+  }
+
+  private String getCookieValue(final HttpServletRequest request) {
+    if (request.getCookies() != null) {
+      for (final Cookie cookie : request.getCookies()) {
+        if (getKeyName().equals(cookie.getName())) {
+          return cookie.getValue();
+        }
+      }
+    }
+    return null;
+  }
+
+  private void addCookie(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final String value,
+      final int maxAge) {
+
+    final Cookie cookie = new Cookie(getKeyName(), value);
+    cookie.setPath(StringUtils.isNotBlank(request.getContextPath())
+        ? request.getContextPath()
+        : "/");
+    cookie.setMaxAge(maxAge);
+    cookie.setHttpOnly(true);
+    cookie.setSecure(request.isSecure());
+    response.addCookie(cookie);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.LocaleUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A foreign user profile parser, that reads only the fields it needs in one pass with a
+ * {@link JsonFieldExtractor} and creates a {@link ForeignUserProfileRecord}.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public abstract class StreamingForeignUserProfileParser implements ForeignUserProfileParser {
+
+  private final OAuth2AuthenticationProperties properties;
+
+  private final JsonFieldExtractor fieldExtractor;
+
+  /**
+   * Creates a streaming foreign user profile parser.
+   *
+   * @param properties the properties of the provider
+   * @param fields     the paths of the fields, that are needed to create the profile
+   */
+  protected StreamingForeignUserProfileParser(
+      @NotNull final OAuth2AuthenticationProperties properties,
+      @NotNull final Collection<String> fields) {
+    this.properties = properties;
+    this.fieldExtractor = new JsonFieldExtractor(fields);
+  }
+
+  @Override
+  public String getProvider() {
+    return properties.getProvider();
+  }
+
+  @Override
+  public ForeignUserProfile parseForeignUserProfile(@NotNull final byte[] profileBytes) {
+    try {
+      return createProfile(fieldExtractor.extract(profileBytes));
+    } catch (IOException e) {
+      log.error("Parsing user profile of provider [{}] failed.", getProvider(), e);
+      throw new OAuth2AuthenticationException(
+          "Parsing user profile of provider [" + getProvider() + "] failed.", e);
+    }
+  }
+
+  /**
+   * Creates the profile of the extracted fields.
+   *
+   * @param fields the values of the fields, that were found
+   * @return the profile
+   */
+  protected abstract ForeignUserProfileRecord createProfile(Map<String, String> fields);
+
+  /**
+   * Converts a language tag like {@code de-DE} or {@code de_DE} into a locale.
+   *
+   * @param value the language tag (may be {@code null})
+   * @return the locale or {@code null}
+   */
+  protected static Locale toLocale(final String value) {
+    if (!StringUtils.hasText(value)) {
+      return null;
+    }
+    try {
+      return LocaleUtils.toLocale(value.replace("-", "_"));
+    } catch (IllegalArgumentException e) {
+      log.warn("Illegal locale [{}] in foreign user profile.", value);
+      return null;
+    }
+  }
+
+}
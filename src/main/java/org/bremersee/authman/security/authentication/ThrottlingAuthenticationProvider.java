@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Asks the {@link LoginThrottle} before a login with user name and password (a form login or
+ * linking an OAuth2 account with an existing one) is passed to the delegate. All other
+ * authentications are passed through.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class ThrottlingAuthenticationProvider implements AuthenticationProvider {
+
+  private final AuthenticationProvider delegate;
+
+  private final LoginThrottle loginThrottle;
+
+  public ThrottlingAuthenticationProvider(
+      final AuthenticationProvider delegate,
+      final LoginThrottle loginThrottle) {
+    this.delegate = delegate;
+    this.loginThrottle = loginThrottle;
+  }
+
+  @Override
+  public Authentication authenticate(final Authentication authentication) {
+    final String login = getLogin(authentication);
+    if (login == null) {
+      return delegate.authenticate(authentication);
+    }
+    final String ipAddress = getIpAddress(authentication);
+    if (!loginThrottle.isAllowed(ipAddress, login)) {
+      throw new LockedException("Too many failed logins, please try again later.");
+    }
+    final Authentication result;
+    try {
+      result = delegate.authenticate(authentication);
+
+    } catch (AuthenticationException e) {
+      loginThrottle.onFailure(ipAddress, login);
+      throw e;
+    }
+    if (result != null) {
+      loginThrottle.onSuccess(login);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean supports(final Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+
+  private static String getLogin(final Authentication authentication) {
+    if (authentication instanceof UsernamePasswordAuthenticationToken) {
+      return authentication.getName();
+    }
+    if (authentication instanceof OAuth2LinkAuthenticationToken) {
+      return ((OAuth2LinkAuthenticationToken) authentication).getUserName();
+    }
+    return null;
+  }
+
+  private static String getIpAddress(final Authentication authentication) {
+    if (authentication.getDetails() instanceof WebAuthenticationDetails) {
+      return ((WebAuthenticationDetails) authentication.getDetails()).getRemoteAddress();
+    }
+    return null;
+  }
+
+}
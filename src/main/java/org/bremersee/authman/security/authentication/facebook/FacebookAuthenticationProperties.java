@@ -40,6 +40,7 @@ public class FacebookAuthenticationProperties extends OAuth2AuthenticationProper
 
   public FacebookAuthenticationProperties() {
     super.setProvider("facebook");
+    super.setDisplayName("Facebook");
     super.setScopeSeparator(",");
 
     super.setLoginUrlTemplate("https://www.facebook.com/v3.1/dialog/oauth"
@@ -33,7 +33,11 @@ import org.springframework.util.StringUtils;
 
 /**
  * @author Christian Bremer
+ * @deprecated the provider profiles are parsed into a {@link
+ * org.bremersee.authman.security.authentication.ForeignUserProfileRecord} now; this class is only
+ * kept to read authentication tokens of existing sessions
  */
+@Deprecated
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Getter
 @Setter
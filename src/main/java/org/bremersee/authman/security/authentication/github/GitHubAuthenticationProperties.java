@@ -20,6 +20,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.bremersee.authman.security.authentication.MappedForeignUserProfileParser;
 import org.bremersee.authman.security.authentication.OAuth2AuthenticationProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.http.HttpMethod;
@@ -42,6 +43,7 @@ public class GitHubAuthenticationProperties extends OAuth2AuthenticationProperti
 
   public GitHubAuthenticationProperties() {
     super.setProvider("github");
+    super.setDisplayName("GitHub");
 
     super.setLoginUrlTemplate("https://github.com/login/oauth/authorize"
         + "?client_id={clientId}"
@@ -58,5 +60,7 @@ public class GitHubAuthenticationProperties extends OAuth2AuthenticationProperti
     super.setTokenMethod(HttpMethod.POST);
     super.setApiBaseUrl("https://api.github.com");
     super.setProfilePathTemplate("/user?access_token={accessToken}");
+    super.getProfileFields().put(MappedForeignUserProfileParser.NAME, "login");
+    super.getProfileFields().remove(MappedForeignUserProfileParser.LOCALE);
   }
 }
@@ -23,7 +23,11 @@ import org.bremersee.authman.security.authentication.ForeignUserProfileDocumentC
 
 /**
  * @author Christian Bremer
+ * @deprecated the provider profiles are parsed into a {@link
+ * org.bremersee.authman.security.authentication.ForeignUserProfileRecord} now; this class is only
+ * kept to read authentication tokens of existing sessions
  */
+@Deprecated
 public class GitHubUserProfile extends ForeignUserProfileDocumentContext {
 
   private static final long serialVersionUID = 2653625254386327666L;
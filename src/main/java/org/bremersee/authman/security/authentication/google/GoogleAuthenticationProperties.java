@@ -20,6 +20,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.bremersee.authman.security.authentication.MappedForeignUserProfileParser;
 import org.bremersee.authman.security.authentication.OAuth2AuthenticationProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.http.HttpMethod;
@@ -38,6 +39,7 @@ public class GoogleAuthenticationProperties extends OAuth2AuthenticationProperti
 
   public GoogleAuthenticationProperties() {
     super.setProvider("google");
+    super.setDisplayName("Google");
     super.setScopeSeparator(" ");
 
     super.setLoginUrlTemplate("https://accounts.google.com/o/oauth2/v2/auth"
@@ -62,5 +64,9 @@ public class GoogleAuthenticationProperties extends OAuth2AuthenticationProperti
     super.setTokenMethod(HttpMethod.POST);
     super.setApiBaseUrl("https://www.googleapis.com");
     super.setProfilePathTemplate("/plus/v1/people/me?access_token={accessToken}");
+    super.getProfileFields().put(MappedForeignUserProfileParser.DISPLAY_NAME,
+        "name|name.givenName,name.familyName");
+    super.getProfileFields().put(MappedForeignUserProfileParser.EMAIL, "emails.0.value");
+    super.getProfileFields().put(MappedForeignUserProfileParser.LOCALE, "language");
   }
 }
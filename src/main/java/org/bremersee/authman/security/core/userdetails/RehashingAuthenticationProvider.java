@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.core.userdetails;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.domain.UserProfileRepository;
+import org.bremersee.authman.security.crypto.AdaptivePasswordEncoder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * A {@link DaoAuthenticationProvider} that hashes the password of the user again after a
+ * successful login, if the stored hash was created with a weaker policy than the current one.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+  private final AdaptivePasswordEncoder adaptivePasswordEncoder;
+
+  private final UserProfileRepository userProfileRepository;
+
+  public RehashingAuthenticationProvider(
+      final AdaptivePasswordEncoder adaptivePasswordEncoder,
+      final UserProfileRepository userProfileRepository) {
+    this.adaptivePasswordEncoder = adaptivePasswordEncoder;
+    this.userProfileRepository = userProfileRepository;
+  }
+
+  @Override
+  protected void additionalAuthenticationChecks(
+      final UserDetails userDetails,
+      final UsernamePasswordAuthenticationToken authentication) {
+
+    super.additionalAuthenticationChecks(userDetails, authentication);
+    final String encodedPassword = userDetails.getPassword();
+    if (authentication.getCredentials() == null
+        || !adaptivePasswordEncoder.needsUpgrade(encodedPassword)) {
+      return;
+    }
+    // The update only succeeds if the hash is the stored one (and not for example a generated
+    // password of a user without password).
+    final String newPassword = adaptivePasswordEncoder
+        .encode(authentication.getCredentials().toString());
+    if (userProfileRepository
+        .updatePassword(userDetails.getUsername(), encodedPassword, newPassword)) {
+      log.info("Password hash of user [{}] upgraded.", userDetails.getUsername());
+    }
+  }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.crypto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+/**
+ * Hashes user passwords with PBKDF2 and an adjustable number of iterations. The iterations are
+ * stored with the hash ({@code {pbkdf2}iterations$hash}), so hashes of an older policy can still
+ * be verified and detected ({@link #needsUpgrade(String)}). Hashes of another format are verified
+ * by the legacy password encoder.
+ *
+ * <p>If the adaptive hashing is disabled, everything is done by the legacy password encoder.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+  private static final String PREFIX = "{pbkdf2}";
+
+  private static final String SEPARATOR = "$";
+
+  private static final String PBKDF2 = "pbkdf2";
+
+  private static final String LEGACY = "legacy";
+
+  private static final int HASH_WIDTH = 256;
+
+  private final Map<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+  private final PasswordEncoder legacyPasswordEncoder;
+
+  private final boolean adaptive;
+
+  private volatile int iterations;
+
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Creates an adaptive password encoder.
+   *
+   * @param legacyPasswordEncoder the password encoder of existing hashes
+   * @param adaptive              {@code true} to hash new passwords with PBKDF2
+   * @param iterations            the PBKDF2 iterations of new hashes
+   */
+  public AdaptivePasswordEncoder(
+      final PasswordEncoder legacyPasswordEncoder,
+      final boolean adaptive,
+      final int iterations) {
+
+    this.legacyPasswordEncoder = legacyPasswordEncoder;
+    this.adaptive = adaptive;
+    this.iterations = Math.max(1, iterations);
+  }
+
+  /**
+   * Records the time of hashing a password per algorithm.
+   *
+   * @param meterRegistry the meter registry
+   * @return this password encoder
+   */
+  public AdaptivePasswordEncoder meterRegistry(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    return this;
+  }
+
+  /**
+   * Benchmarks the hash and sets the iterations, so that hashing a password takes about the
+   * given time on this machine.
+   *
+   * @param targetMillis  the time in milliseconds hashing a password should take
+   * @param minIterations the lower bound of the iterations
+   * @param maxIterations the upper bound of the iterations
+   * @return this password encoder
+   */
+  public AdaptivePasswordEncoder calibrate(
+      final long targetMillis,
+      final int minIterations,
+      final int maxIterations) {
+
+    if (!adaptive) {
+      return this;
+    }
+    final long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+    int candidate = Math.max(1, minIterations);
+    long nanos = measure(candidate);
+    while (nanos < targetNanos && candidate < maxIterations) {
+      candidate = (int) Math.min((long) candidate * 2L, maxIterations);
+      nanos = measure(candidate);
+    }
+    // the time grows linear with the iterations
+    final long calibrated = nanos <= 0L ? candidate : candidate * targetNanos / nanos;
+    iterations = (int) Math.max(minIterations, Math.min(maxIterations, calibrated));
+    log.info("Password hash calibrated to {} PBKDF2 iterations (target = {} ms).",
+        iterations, targetMillis);
+    return this;
+  }
+
+  private long measure(final int candidate) {
+    final Pbkdf2PasswordEncoder encoder = getEncoder(candidate);
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      final long start = System.nanoTime();
+      encoder.encode("calibration");
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best;
+  }
+
+  /**
+   * Returns the PBKDF2 iterations of new hashes.
+   *
+   * @return the iterations
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  @Override
+  public String encode(final CharSequence rawPassword) {
+    if (!adaptive) {
+      return record(LEGACY, "encode", () -> legacyPasswordEncoder.encode(rawPassword));
+    }
+    final int current = iterations;
+    return record(PBKDF2, "encode",
+        () -> PREFIX + current + SEPARATOR + getEncoder(current).encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+    final int hashIterations = parseIterations(encodedPassword);
+    if (hashIterations <= 0) {
+      return record(LEGACY, "matches",
+          () -> legacyPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+    final String hash = encodedPassword.substring(encodedPassword.indexOf(SEPARATOR) + 1);
+    return record(PBKDF2, "matches",
+        () -> getEncoder(hashIterations).matches(rawPassword, hash));
+  }
+
+  /**
+   * Determines whether the encoded password was created with a weaker policy than the current
+   * one.
+   *
+   * @param encodedPassword the encoded password
+   * @return {@code true} if the password should be hashed again
+   */
+  public boolean needsUpgrade(final String encodedPassword) {
+    return adaptive && encodedPassword != null && parseIterations(encodedPassword) < iterations;
+  }
+
+  private int parseIterations(final String encodedPassword) {
+    if (encodedPassword == null || !encodedPassword.startsWith(PREFIX)) {
+      return -1;
+    }
+    final int index = encodedPassword.indexOf(SEPARATOR, PREFIX.length());
+    if (index < 0) {
+      return -1;
+    }
+    try {
+      return Integer.parseInt(encodedPassword.substring(PREFIX.length(), index));
+    } catch (NumberFormatException e) { // NOSONAR
+      return -1;
+    }
+  }
+
+  private Pbkdf2PasswordEncoder getEncoder(final int iterations) {
+    return encoders.computeIfAbsent(
+        iterations, key -> new Pbkdf2PasswordEncoder("", key, HASH_WIDTH));
+  }
+
+  private <T> T record(final String algorithm, final String operation, final Supplier<T> hash) {
+    if (meterRegistry == null) {
+      return hash.get();
+    }
+    return Timer.builder("password.hash")
+        .description("Time of hashing a password")
+        .tag("algorithm", algorithm)
+        .tag("operation", operation)
+        .register(meterRegistry)
+        .record(hash);
+  }
+
+}
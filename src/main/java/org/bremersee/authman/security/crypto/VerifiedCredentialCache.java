@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.crypto;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A password encoder that remembers successful verifications of the delegate for a short time.
+ * Clients that authenticate over and over again (token requests of a client with HTTP Basic,
+ * Prometheus scrapes of the actuator) don't have to run the slow password hash every time.
+ *
+ * <p>The cache key is a HMAC (with a random key of this instance) of the raw password and the
+ * stored encoded password. So no raw password is kept in memory, and a changed password or client
+ * secret can never hit an old entry, because the stored encoded value is part of the key.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class VerifiedCredentialCache implements PasswordEncoder {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final PasswordEncoder delegate;
+
+  private final int maxSize;
+
+  private final long timeToLiveMillis;
+
+  private final SecretKeySpec key;
+
+  private final Map<String, Long> verifications;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates a cache of verified credentials.
+   *
+   * @param delegate          the password encoder that really verifies the credentials
+   * @param maxSize           the maximum number of cached verifications
+   * @param timeToLiveSeconds the time in seconds a verification is cached
+   */
+  public VerifiedCredentialCache(
+      final PasswordEncoder delegate,
+      final int maxSize,
+      final long timeToLiveSeconds) {
+
+    this.delegate = delegate;
+    this.maxSize = Math.max(1, maxSize);
+    this.timeToLiveMillis = TimeUnit.SECONDS.toMillis(Math.max(0L, timeToLiveSeconds));
+    final byte[] keyBytes = new byte[32];
+    new SecureRandom().nextBytes(keyBytes);
+    this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    this.verifications = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+        return size() > VerifiedCredentialCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Registers the hit ratio and the size of the cache.
+   *
+   * @param meterRegistry the meter registry
+   * @return this cache
+   */
+  public VerifiedCredentialCache meterRegistry(final MeterRegistry meterRegistry) {
+    if (meterRegistry != null) {
+      FunctionCounter.builder("credential.cache.hits", hits, AtomicLong::get)
+          .register(meterRegistry);
+      FunctionCounter.builder("credential.cache.misses", misses, AtomicLong::get)
+          .register(meterRegistry);
+      Gauge.builder("credential.cache.hit.ratio", this, VerifiedCredentialCache::getHitRatio)
+          .description("Ratio of verifications that were answered by the cache")
+          .register(meterRegistry);
+      Gauge.builder("credential.cache.size", this, VerifiedCredentialCache::size)
+          .register(meterRegistry);
+    }
+    return this;
+  }
+
+  @Override
+  public String encode(final CharSequence rawPassword) {
+    return delegate.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+    if (rawPassword == null || encodedPassword == null || timeToLiveMillis <= 0L) {
+      return delegate.matches(rawPassword, encodedPassword);
+    }
+    final String cacheKey = createKey(rawPassword, encodedPassword);
+    if (cacheKey == null) {
+      return delegate.matches(rawPassword, encodedPassword);
+    }
+    final long now = System.currentTimeMillis();
+    synchronized (verifications) {
+      final Long expiration = verifications.get(cacheKey);
+      if (expiration != null && expiration > now) {
+        hits.incrementAndGet();
+        return true;
+      }
+    }
+    misses.incrementAndGet();
+    final boolean result = delegate.matches(rawPassword, encodedPassword);
+    synchronized (verifications) {
+      if (result) {
+        verifications.put(cacheKey, now + timeToLiveMillis);
+      } else {
+        verifications.remove(cacheKey);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes all cached verifications.
+   */
+  public void clear() {
+    synchronized (verifications) {
+      verifications.clear();
+    }
+  }
+
+  /**
+   * Returns the number of cached verifications.
+   *
+   * @return the number of cached verifications
+   */
+  public int size() {
+    synchronized (verifications) {
+      return verifications.size();
+    }
+  }
+
+  /**
+   * Returns the ratio of the verifications, that were answered by the cache.
+   *
+   * @return the hit ratio (between {@code 0.0} and {@code 1.0})
+   */
+  public double getHitRatio() {
+    final long h = hits.get();
+    final long total = h + misses.get();
+    return total == 0L ? 0.0 : (double) h / total;
+  }
+
+  private String createKey(final CharSequence rawPassword, final String encodedPassword) {
+    try {
+      final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(mac.doFinal());
+
+    } catch (GeneralSecurityException e) {
+      log.error("Creating key of verified credential cache failed.", e);
+      return null;
+    }
+  }
+
+}
@@ -16,16 +16,24 @@
 
 package org.bremersee.authman.security.oauth2.provider.approval;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.CacheInvalidationService;
 import org.bremersee.authman.domain.OAuth2Approval;
 import org.bremersee.authman.domain.OAuth2ApprovalRepository;
 import org.bremersee.authman.mapper.OAuth2ApprovalMapper;
@@ -34,12 +42,18 @@ import org.springframework.security.oauth2.provider.approval.Approval;
 import org.springframework.security.oauth2.provider.approval.ApprovalStore;
 
 /**
+ * An approval store that keeps the approvals in the database. The approvals of an user and a
+ * client are cached in memory until the first of them expires or the maximum age of the cache
+ * entry is reached. Adding or revoking approvals evicts the cache entry on all nodes.
+ *
  * @author Christian Bremer
  */
 @RequiredArgsConstructor
 @Slf4j
 public class OAuth2ApprovalStore implements ApprovalStore {
 
+  public static final String CACHE_NAME = "oauth2Approvals";
+
   @NonNull
   private final OAuth2ApprovalRepository repository;
 
@@ -49,6 +63,31 @@ public class OAuth2ApprovalStore implements ApprovalStore {
   @Setter
   private boolean handleRevocationsAsExpiry = false;
 
+  @Setter
+  private long cacheMaxAgeMillis = 0L; // 0 disables the cache
+
+  @Setter
+  private int cacheMaxSize = 10000;
+
+  private final Map<String, CachedApprovals> cache = new ConcurrentHashMap<>();
+
+  private final AtomicLong cacheGeneration = new AtomicLong();
+
+  private CacheInvalidationService cacheInvalidationService;
+
+  public void setCacheInvalidationService(
+      final CacheInvalidationService cacheInvalidationService) {
+    this.cacheInvalidationService = cacheInvalidationService;
+    if (cacheInvalidationService != null) {
+      cacheInvalidationService.addListener(CACHE_NAME, this::evict);
+    }
+  }
+
+  private static String cacheKey(final String userId, final String clientId) {
+    // the length prefix makes the key unambiguous
+    return (userId == null ? -1 : userId.length()) + ":" + userId + ":" + clientId;
+  }
+
   @Override
   public boolean addApprovals(@NotNull final Collection<Approval> approvals) {
     for (final Approval approval : approvals) {
@@ -63,6 +102,7 @@ public class OAuth2ApprovalStore implements ApprovalStore {
       approvalMapper.updateEntity(approval, entity);
       repository.save(entity);
     }
+    invalidate(approvals);
     return true;
   }
 
@@ -87,21 +127,101 @@ public class OAuth2ApprovalStore implements ApprovalStore {
         rows = rows + (row == null ? 0 : row);
       }
     }
+    invalidate(approvals);
     return rows > 0;
   }
 
   @Override
   public List<Approval> getApprovals(@NotNull final String userId, @NotNull final String clientId) {
+    if (cacheMaxAgeMillis <= 0L) {
+      return loadApprovals(userId, clientId);
+    }
+    final String key = cacheKey(userId, clientId);
+    final long now = System.currentTimeMillis();
+    final CachedApprovals cachedApprovals = cache.get(key);
+    if (cachedApprovals != null && cachedApprovals.isValid(now)) {
+      log.debug("Getting approvals with userId [{}] and clientId [{}] from cache.",
+          userId, clientId);
+      return new ArrayList<>(cachedApprovals.getApprovals());
+    }
+    final long generation = cacheGeneration.get();
+    final List<Approval> approvals = loadApprovals(userId, clientId);
+    if (cache.size() >= cacheMaxSize) {
+      cache.values().removeIf(entry -> !entry.isValid(now));
+      if (cache.size() >= cacheMaxSize) {
+        cache.clear();
+      }
+    }
+    if (generation == cacheGeneration.get()) {
+      // nothing was invalidated while loading
+      cache.put(key, new CachedApprovals(approvals, now + cacheMaxAgeMillis));
+    }
+    return new ArrayList<>(approvals);
+  }
+
+  private List<Approval> loadApprovals(final String userId, final String clientId) {
     log.debug("Getting approvals with userId [{}] and clientId [{}] ...", userId, clientId);
     return repository.findByUserIdAndClientId(userId, clientId).stream()
         .map(approvalMapper::mapToDto).collect(Collectors.toList());
   }
 
+  private void invalidate(final Collection<Approval> approvals) {
+    final Set<String> keys = new LinkedHashSet<>();
+    for (final Approval approval : approvals) {
+      keys.add(cacheKey(approval.getUserId(), approval.getClientId()));
+    }
+    for (final String key : keys) {
+      if (cacheInvalidationService != null) {
+        cacheInvalidationService.invalidate(CACHE_NAME, key);
+      } else {
+        evict(key);
+      }
+    }
+  }
+
+  private void evict(final String key) {
+    cacheGeneration.incrementAndGet();
+    if (key == null) {
+      cache.clear();
+    } else {
+      cache.remove(key);
+    }
+  }
+
   @Scheduled(cron = "0 2 1 * * ?") // second, minute, hour, day of month, month, day(s) of week
   public void purgeExpiredApprovals() {
     log.debug("Purging expired approvals ...");
     Long rows = repository.deleteByExpiresAtBefore(new Date());
+    evict(null);
     log.debug("Purging expired approvals ... {} deleted.", rows);
   }
 
+  private static class CachedApprovals {
+
+    private final List<Approval> approvals;
+
+    private final long validUntil;
+
+    CachedApprovals(final List<Approval> approvals, final long maxValidUntil) {
+      this.approvals = Collections.unmodifiableList(new ArrayList<>(approvals));
+      // the entry must be reloaded as soon as the first approval expires
+      final long now = System.currentTimeMillis();
+      long until = maxValidUntil;
+      for (final Approval approval : approvals) {
+        if (approval.getExpiresAt() != null && approval.getExpiresAt().getTime() > now) {
+          until = Math.min(until, approval.getExpiresAt().getTime());
+        }
+      }
+      this.validUntil = until;
+    }
+
+    List<Approval> getApprovals() {
+      return approvals;
+    }
+
+    boolean isValid(final long now) {
+      return now < validUntil;
+    }
+  }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.oauth2.provider.token;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.security.oauth2.provider.token.store.OAuth2TokenStore;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.exceptions.InvalidScopeException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+
+/**
+ * Token services that rotate the refresh token on every refresh.
+ *
+ * <p>The refresh token document is a token family. A refresh replaces its value with one atomic
+ * find and modify, that also returns the authentication of the family, so the authentication is
+ * stored only once per family instead of once per refresh token. If a value is presented, that
+ * was already replaced, the refresh token was stolen or replayed and the whole family with all
+ * its access tokens is revoked.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class OAuth2RotatingTokenServices extends DefaultTokenServices {
+
+  private final OAuth2TokenStore tokenStore;
+
+  private final int historySize;
+
+  private TokenEnhancer tokenEnhancer;
+
+  public OAuth2RotatingTokenServices(final OAuth2TokenStore tokenStore, final int historySize) {
+    this.tokenStore = tokenStore;
+    this.historySize = historySize;
+    setTokenStore(tokenStore);
+    setSupportRefreshToken(true);
+  }
+
+  @Override
+  public void setTokenEnhancer(final TokenEnhancer accessTokenEnhancer) {
+    super.setTokenEnhancer(accessTokenEnhancer);
+    this.tokenEnhancer = accessTokenEnhancer;
+  }
+
+  @Override
+  public OAuth2AccessToken refreshAccessToken(
+      final String refreshTokenValue,
+      final TokenRequest tokenRequest) {
+
+    final String newRefreshTokenValue = UUID.randomUUID().toString();
+    final OAuth2Authentication authentication = tokenStore
+        .rotateRefreshToken(
+            refreshTokenValue, tokenRequest.getClientId(), newRefreshTokenValue, historySize)
+        .orElseThrow(() -> {
+          if (tokenStore.revokeRefreshTokenFamily(refreshTokenValue)) {
+            log.warn("Refresh token of client [{}] was used twice, the token family is revoked.",
+                tokenRequest.getClientId());
+            return new InvalidGrantException("Refresh token was already used.");
+          }
+          return new InvalidGrantException("Invalid refresh token: " + refreshTokenValue);
+        });
+
+    final OAuth2Authentication refreshedAuthentication;
+    try {
+      refreshedAuthentication = createRefreshedAuthentication(authentication, tokenRequest);
+
+    } catch (RuntimeException e) {
+      tokenStore.undoRefreshTokenRotation(newRefreshTokenValue, refreshTokenValue);
+      throw e;
+    }
+
+    tokenStore.removeAccessTokenUsingRefreshToken(
+        new DefaultOAuth2RefreshToken(refreshTokenValue));
+    final OAuth2RefreshToken refreshToken = new DefaultOAuth2RefreshToken(newRefreshTokenValue);
+    final OAuth2AccessToken accessToken = createAccessToken(refreshedAuthentication, refreshToken);
+    tokenStore.storeNewAccessToken(accessToken, refreshedAuthentication);
+    return accessToken;
+  }
+
+  /**
+   * Creates the refreshed authentication like the default token services do.
+   */
+  private OAuth2Authentication createRefreshedAuthentication(
+      final OAuth2Authentication authentication,
+      final TokenRequest request) {
+
+    final Set<String> scope = request.getScope();
+    OAuth2Request clientAuth = authentication.getOAuth2Request().refresh(request);
+    if (scope != null && !scope.isEmpty()) {
+      final Set<String> originalScope = clientAuth.getScope();
+      if (originalScope == null || !originalScope.containsAll(scope)) {
+        throw new InvalidScopeException(
+            "Unable to narrow the scope of the client authentication to " + scope + ".",
+            originalScope);
+      }
+      clientAuth = clientAuth.narrowScope(scope);
+    }
+    return new OAuth2Authentication(clientAuth, authentication.getUserAuthentication());
+  }
+
+  /**
+   * Creates the access token like the default token services do. The refresh token value of the
+   * family is kept, even if the token enhancer has changed it (the jwt converter encodes it).
+   */
+  private OAuth2AccessToken createAccessToken(
+      final OAuth2Authentication authentication,
+      final OAuth2RefreshToken refreshToken) {
+
+    final DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(
+        UUID.randomUUID().toString());
+    final int validitySeconds = getAccessTokenValiditySeconds(authentication.getOAuth2Request());
+    if (validitySeconds > 0) {
+      token.setExpiration(new Date(System.currentTimeMillis() + (validitySeconds * 1000L)));
+    }
+    token.setRefreshToken(refreshToken);
+    token.setScope(authentication.getOAuth2Request().getScope());
+    if (tokenEnhancer == null) {
+      return token;
+    }
+    final DefaultOAuth2AccessToken enhancedToken = new DefaultOAuth2AccessToken(
+        tokenEnhancer.enhance(token, authentication));
+    enhancedToken.setRefreshToken(refreshToken);
+    return enhancedToken;
+  }
+
+}
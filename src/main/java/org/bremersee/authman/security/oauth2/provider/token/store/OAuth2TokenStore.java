@@ -16,15 +16,42 @@
 
 package org.bremersee.authman.security.oauth2.provider.token.store;
 
+import static org.bremersee.authman.business.OAuth2TokenCaches.INTROSPECTION_CACHE_NAME;
+import static org.bremersee.authman.business.OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME;
+import static org.bremersee.authman.business.OAuth2TokenCaches.introspectionKey;
+import static org.bremersee.authman.business.OAuth2TokenCaches.isIssuedAccessTokenKey;
+import static org.bremersee.authman.business.OAuth2TokenCaches.isIssuedRefreshTokenKey;
+import static org.bremersee.authman.business.OAuth2TokenCaches.issuedAccessTokenKey;
+import static org.bremersee.authman.business.OAuth2TokenCaches.issuedRefreshTokenKey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.validation.constraints.NotNull;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.business.CacheInvalidationService;
 import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
 import org.bremersee.authman.domain.OAuth2AuthenticationKey;
 import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.CastUtils;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
@@ -35,18 +62,77 @@ import org.springframework.util.SerializationUtils;
 import org.springframework.util.StringUtils;
 
 /**
+ * A token store that keeps the tokens in the database.
+ *
+ * <p>The token services read the access token and then its authentication for every request of a
+ * resource. The access token document contains both, so the document read by {@link
+ * #readAccessToken(String)} is remembered by the current thread for a short time and the following
+ * {@link #readAuthentication(String)} with the same value is served from it.
+ *
+ * <p>Clients, that request a token again and again, get the same token as long as it is valid. If
+ * enabled, the token, that was found by {@link #getAccessToken(OAuth2Authentication)}, is cached
+ * in memory until it expires or the maximum age of the cache entry is reached. Every caller gets
+ * its own copy of the cached token. Re-storing an unchanged token is skipped, if it was cached on
+ * this node and nothing was invalidated since then. Removing a token evicts the cache entries and
+ * the cached introspection responses on all nodes; other nodes may serve a removed token until
+ * the invalidation arrives, so the cache is disabled by default.
+ *
  * @author Christian Bremer
  */
 @RequiredArgsConstructor
 @Slf4j
 public class OAuth2TokenStore implements TokenStore {
 
+  private static final long LAST_READ_MAX_AGE_MILLIS = 1000L;
+
+  private final ThreadLocal<LastReadAccessToken> lastReadAccessToken = new ThreadLocal<>();
+
   @NonNull
   private final OAuth2AccessTokenRepository accessTokenRepository;
 
   @NonNull
   private final OAuth2RefreshTokenRepository refreshTokenRepository;
 
+  @Setter
+  private long cacheMaxAgeMillis = 0L; // 0 disables the cache
+
+  @Setter
+  private int cacheMaxSize = 10000;
+
+  private final Map<String, CachedAccessToken> cache = new ConcurrentHashMap<>();
+
+  private final AtomicLong cacheGeneration = new AtomicLong();
+
+  private CacheInvalidationService cacheInvalidationService;
+
+  private Counter cacheHits;
+
+  private Counter cacheMisses;
+
+  public void setCacheInvalidationService(
+      final CacheInvalidationService cacheInvalidationService) {
+    this.cacheInvalidationService = cacheInvalidationService;
+    if (cacheInvalidationService != null) {
+      cacheInvalidationService.addListener(ISSUED_TOKEN_CACHE_NAME, this::evict);
+    }
+  }
+
+  public void setMeterRegistry(final MeterRegistry meterRegistry) {
+    if (meterRegistry != null) {
+      cacheHits = meterRegistry.counter("oauth2.token.cache.hits");
+      cacheMisses = meterRegistry.counter("oauth2.token.cache.misses");
+    }
+  }
+
+  private static String cacheKey(final OAuth2AuthenticationKey authKey) {
+    // the length prefixes make the key unambiguous
+    final String userName = authKey.getUserName();
+    final String clientId = authKey.getClientId();
+    return (userName == null ? -1 : userName.length()) + ":" + userName + ":"
+        + (clientId == null ? -1 : clientId.length()) + ":" + clientId + ":"
+        + authKey.getScopes();
+  }
+
   @Override
   public OAuth2AccessToken getAccessToken(final OAuth2Authentication authentication) {
 
@@ -55,19 +141,23 @@ public class OAuth2TokenStore implements TokenStore {
     }
     try {
       final OAuth2AuthenticationKey authKey = new OAuth2AuthenticationKey(authentication);
-      log.debug("Getting access token by authentication: {}", authKey);
-      final List<org.bremersee.authman.domain.OAuth2AccessToken> accessToken;
-      if (StringUtils.hasText(authKey.getUserName())) {
-        accessToken = accessTokenRepository
-            .findFirstByUserNameAndClientIdAndScopesOrderByExpirationAsc(
-                authKey.getUserName(), authKey.getClientId(), authKey.getScopes());
-      } else {
-        accessToken = accessTokenRepository
-            .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
-                authKey.getClientId(), authKey.getScopes());
+      if (cacheMaxAgeMillis <= 0L) {
+        return loadAccessToken(authKey);
+      }
+      final String key = cacheKey(authKey);
+      final CachedAccessToken cachedAccessToken = cache.get(key);
+      if (cachedAccessToken != null && cachedAccessToken.isValid(System.currentTimeMillis())) {
+        log.debug("Getting access token by authentication from cache: {}", authKey);
+        increment(cacheHits);
+        return copy(cachedAccessToken.accessToken);
       }
-      log.info("Found access token by authentication = {}", accessToken);
-      return accessToken.isEmpty() ? null : accessToken.get(0);
+      increment(cacheMisses);
+      final long generation = cacheGeneration.get();
+      final org.bremersee.authman.domain.OAuth2AccessToken accessToken = loadAccessToken(authKey);
+      if (accessToken != null) {
+        cache(key, accessToken, generation);
+      }
+      return accessToken;
 
     } catch (RuntimeException re) {
       log.error("Getting token failed.", re);
@@ -75,14 +165,137 @@ public class OAuth2TokenStore implements TokenStore {
     }
   }
 
+  private org.bremersee.authman.domain.OAuth2AccessToken loadAccessToken(
+      final OAuth2AuthenticationKey authKey) {
+
+    log.debug("Getting access token by authentication: {}", authKey);
+    final List<org.bremersee.authman.domain.OAuth2AccessToken> accessToken;
+    if (StringUtils.hasText(authKey.getUserName())) {
+      accessToken = accessTokenRepository
+          .findFirstByUserNameAndClientIdAndScopesOrderByExpirationAsc(
+              authKey.getUserName(), authKey.getClientId(), authKey.getScopes());
+    } else {
+      accessToken = accessTokenRepository
+          .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+              authKey.getClientId(), authKey.getScopes());
+    }
+    log.info("Found access token by authentication = {}", accessToken);
+    return accessToken.isEmpty() ? null : accessToken.get(0);
+  }
+
+  private void cache(
+      final String key,
+      final org.bremersee.authman.domain.OAuth2AccessToken accessToken,
+      final long generation) {
+
+    final long now = System.currentTimeMillis();
+    final CachedAccessToken entry = new CachedAccessToken(
+        copy(accessToken), now + cacheMaxAgeMillis, generation);
+    if (!entry.isValid(now)) {
+      return;
+    }
+    if (cache.size() >= cacheMaxSize) {
+      cache.values().removeIf(cached -> !cached.isValid(now));
+      if (cache.size() >= cacheMaxSize) {
+        cache.clear();
+      }
+    }
+    if (generation == cacheGeneration.get()) {
+      // nothing was invalidated while loading
+      cache.put(key, entry);
+    }
+  }
+
+  private static org.bremersee.authman.domain.OAuth2AccessToken copy(
+      final org.bremersee.authman.domain.OAuth2AccessToken source) {
+
+    final org.bremersee.authman.domain.OAuth2AccessToken target
+        = new org.bremersee.authman.domain.OAuth2AccessToken();
+    target.setId(source.getId());
+    target.setCreated(copy(source.getCreated()));
+    target.setModified(copy(source.getModified()));
+    target.setCreatedBy(source.getCreatedBy());
+    target.setModifiedBy(source.getModifiedBy());
+    target.setVersion(source.getVersion());
+    target.setUserName(source.getUserName());
+    target.setClientId(source.getClientId());
+    target.setScopes(source.getScopes());
+    target.setAuthentication(source.getAuthentication() != null
+        ? source.getAuthentication().clone()
+        : null);
+    target.setValue(source.getValue());
+    target.setExpiration(copy(source.getExpiration()));
+    target.setTokenType(source.getTokenType());
+    target.setRefreshTokenValue(source.getRefreshTokenValue());
+    target.setScope(new LinkedHashSet<>(source.getScope()));
+    target.setAdditionalInformation(new LinkedHashMap<>(source.getAdditionalInformation()));
+    return target;
+  }
+
+  private static Date copy(final Date date) {
+    return date != null ? new Date(date.getTime()) : null;
+  }
+
+  private static void increment(final Counter counter) {
+    if (counter != null) {
+      counter.increment();
+    }
+  }
+
   @Override
   public void storeAccessToken(
       @NotNull final OAuth2AccessToken token,
       @NotNull final OAuth2Authentication authentication) {
 
-    org.bremersee.authman.domain.OAuth2AccessToken accessTokenEntity = accessTokenRepository
+    final String key = cacheMaxAgeMillis > 0L
+        ? cacheKey(new OAuth2AuthenticationKey(authentication))
+        : null;
+    final CachedAccessToken cachedAccessToken = key != null ? cache.get(key) : null;
+    final long generation = cacheGeneration.get();
+    if (cachedAccessToken != null && cachedAccessToken.generation == generation
+        && cachedAccessToken.isValid(System.currentTimeMillis())
+        && cachedAccessToken.isUnchanged(token, authentication)) {
+      // the token services store the token, that was returned by getAccessToken, again
+      log.debug("Access token is unchanged and cached, storing is skipped.");
+      return;
+    }
+    final org.bremersee.authman.domain.OAuth2AccessToken accessTokenEntity = accessTokenRepository
         .findByValue(token.getValue())
         .orElse(new org.bremersee.authman.domain.OAuth2AccessToken());
+    updateAccessTokenEntity(accessTokenEntity, token, authentication);
+    log.debug("Storing access token {}", accessTokenEntity);
+    accessTokenRepository.save(accessTokenEntity);
+    if (key != null) {
+      cache(key, accessTokenEntity, generation);
+    }
+  }
+
+  /**
+   * Stores an access token, that was just created, without looking for an existing one.
+   *
+   * @param token          the new access token
+   * @param authentication the authentication
+   */
+  public void storeNewAccessToken(
+      @NotNull final OAuth2AccessToken token,
+      @NotNull final OAuth2Authentication authentication) {
+
+    final org.bremersee.authman.domain.OAuth2AccessToken accessTokenEntity
+        = new org.bremersee.authman.domain.OAuth2AccessToken();
+    updateAccessTokenEntity(accessTokenEntity, token, authentication);
+    log.debug("Inserting access token {}", accessTokenEntity);
+    final long generation = cacheGeneration.get();
+    accessTokenRepository.insert(accessTokenEntity);
+    if (cacheMaxAgeMillis > 0L) {
+      cache(cacheKey(new OAuth2AuthenticationKey(authentication)), accessTokenEntity, generation);
+    }
+  }
+
+  private static void updateAccessTokenEntity(
+      final org.bremersee.authman.domain.OAuth2AccessToken accessTokenEntity,
+      final OAuth2AccessToken token,
+      final OAuth2Authentication authentication) {
+
     final OAuth2AuthenticationKey authKey = new OAuth2AuthenticationKey(authentication);
     accessTokenEntity.setUserName(authKey.getUserName());
     accessTokenEntity.setClientId(authKey.getClientId());
@@ -105,16 +318,20 @@ public class OAuth2TokenStore implements TokenStore {
     if (token.getAdditionalInformation() != null) {
       accessTokenEntity.getAdditionalInformation().putAll(token.getAdditionalInformation());
     }
-
-    log.debug("Storing access token {}", accessTokenEntity);
-    accessTokenRepository.save(accessTokenEntity);
   }
 
   @Override
   public OAuth2AccessToken readAccessToken(@NotNull final String tokenValue) {
 
     log.debug("Reading access token by token value ...");
-    return accessTokenRepository.findByValue(tokenValue).orElse(null);
+    final org.bremersee.authman.domain.OAuth2AccessToken accessToken = accessTokenRepository
+        .findByValue(tokenValue).orElse(null);
+    if (accessToken != null) {
+      lastReadAccessToken.set(new LastReadAccessToken(accessToken));
+    } else {
+      lastReadAccessToken.remove();
+    }
+    return accessToken;
   }
 
   @Override
@@ -129,19 +346,35 @@ public class OAuth2TokenStore implements TokenStore {
   private void removeAccessToken(final String tokenValue) {
 
     log.debug("Removing access token by value...");
+    lastReadAccessToken.remove();
     if (tokenValue != null) {
       accessTokenRepository.deleteByValue(tokenValue);
+      invalidate(issuedAccessTokenKey(tokenValue));
+      invalidateIntrospection(introspectionKey(tokenValue));
     }
   }
 
   @Override
   public OAuth2Authentication readAuthentication(@NotNull final OAuth2AccessToken token) {
     log.debug("Reading authentication by token ...");
+    if (token instanceof org.bremersee.authman.domain.OAuth2AccessToken
+        && ((org.bremersee.authman.domain.OAuth2AccessToken) token).getAuthentication() != null) {
+      // the token was loaded with its authentication
+      return (OAuth2Authentication) SerializationUtils.deserialize(
+          ((org.bremersee.authman.domain.OAuth2AccessToken) token).getAuthentication());
+    }
     return readAuthentication(token.getValue());
   }
 
   @Override
   public OAuth2Authentication readAuthentication(@NotNull final String token) {
+    final LastReadAccessToken lastRead = lastReadAccessToken.get();
+    lastReadAccessToken.remove();
+    if (lastRead != null && lastRead.isValid(token)) {
+      log.debug("Reading authentication from the last read access token ...");
+      return (OAuth2Authentication) SerializationUtils.deserialize(
+          lastRead.accessToken.getAuthentication());
+    }
     log.debug("Reading authentication by token value ...");
     return accessTokenRepository.findByValue(token).map(
         oAuth2AccessToken -> (OAuth2Authentication) SerializationUtils.deserialize(
@@ -211,8 +444,12 @@ public class OAuth2TokenStore implements TokenStore {
   public void removeAccessTokenUsingRefreshToken(final OAuth2RefreshToken refreshToken) {
 
     log.debug("Removing refresh token by token value ...");
+    lastReadAccessToken.remove();
     if (refreshToken != null && refreshToken.getValue() != null) {
-      accessTokenRepository.deleteByRefreshTokenValue(refreshToken.getValue());
+      accessTokenRepository
+          .findAndRemoveValuesByRefreshTokenValues(Collections.singleton(refreshToken.getValue()))
+          .forEach(value -> invalidateIntrospection(introspectionKey(value)));
+      invalidate(issuedRefreshTokenKey(refreshToken.getValue()));
     }
   }
 
@@ -220,7 +457,10 @@ public class OAuth2TokenStore implements TokenStore {
   public Collection<OAuth2AccessToken> findTokensByClientId(final String clientId) {
 
     log.debug("Finding access tokens by clientId [{}] ...", clientId);
-    return CastUtils.cast(accessTokenRepository.findByClientId(clientId));
+    try (Stream<OAuth2AccessToken> tokens = accessTokenRepository.streamByClientId(clientId)
+        .map(CastUtils::cast)) {
+      return tokens.collect(Collectors.toList());
+    }
   }
 
   @Override
@@ -228,7 +468,228 @@ public class OAuth2TokenStore implements TokenStore {
       final String clientId, final String userName) {
 
     log.debug("Finding access tokens by clientId [{}] and user [{}] ...", clientId, userName);
-    return CastUtils.cast(accessTokenRepository.findByClientIdAndUserName(clientId, userName));
+    try (Stream<OAuth2AccessToken> tokens = streamTokensByClientId(clientId, userName)) {
+      return tokens.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Rotates a refresh token: the old value is replaced by the new one with one atomic operation
+   * and kept as used value of the token family.
+   *
+   * @param oldValue    the presented refresh token value
+   * @param clientId    the ID of the client, that presented the refresh token
+   * @param newValue    the new refresh token value
+   * @param historySize the maximum number of used values per family
+   * @return the authentication of the token family or empty, if the old value is not the current
+   *     value of a token family of the client
+   */
+  public Optional<OAuth2Authentication> rotateRefreshToken(
+      @NotNull final String oldValue,
+      @NotNull final String clientId,
+      @NotNull final String newValue,
+      final int historySize) {
+
+    log.debug("Rotating refresh token of client [{}] ...", clientId);
+    return Optional
+        .ofNullable(refreshTokenRepository.rotate(oldValue, clientId, newValue, historySize))
+        .map(family -> (OAuth2Authentication) SerializationUtils.deserialize(
+            family.getAuthentication()));
+  }
+
+  /**
+   * Reverts a rotation, for example if the refresh failed after the rotation.
+   *
+   * @param newValue the value that was set by the rotation
+   * @param oldValue the value before the rotation
+   */
+  public void undoRefreshTokenRotation(
+      @NotNull final String newValue,
+      @NotNull final String oldValue) {
+
+    log.debug("Reverting rotation of refresh token ...");
+    refreshTokenRepository.undoRotation(newValue, oldValue);
+  }
+
+  /**
+   * Revokes the token family, that has already used the specified refresh token value, and all
+   * access tokens of that family.
+   *
+   * @param usedValue the used refresh token value
+   * @return {@code true} if a token family was revoked, otherwise {@code false}
+   */
+  public boolean revokeRefreshTokenFamily(@NotNull final String usedValue) {
+
+    final Optional<org.bremersee.authman.domain.OAuth2RefreshToken> family
+        = refreshTokenRepository.removeFamilyByUsedValue(usedValue);
+    if (!family.isPresent()) {
+      return false;
+    }
+    final Set<String> values = new LinkedHashSet<>(family.get().getUsedValues());
+    values.add(family.get().getValue());
+    final List<String> accessTokens = accessTokenRepository
+        .findAndRemoveValuesByRefreshTokenValues(values);
+    invalidate(null);
+    // a stolen access token must not be introspected as active any longer
+    accessTokens.forEach(value -> invalidateIntrospection(introspectionKey(value)));
+    log.warn("Refresh token family of client [{}] and user [{}] revoked "
+            + "({} access token(s) removed).",
+        family.get().getClientId(), family.get().getUserName(), accessTokens.size());
+    return true;
+  }
+
+  /**
+   * Streams the access tokens of a client from a database cursor. The serialized authentications
+   * are not read. The stream must be closed.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens without user are returned, for
+   *     example of the client credentials grant)
+   * @return the access tokens
+   */
+  public Stream<OAuth2AccessToken> streamTokensByClientId(
+      @NotNull final String clientId,
+      final String userName) {
+
+    log.debug("Streaming access tokens by clientId [{}] and user [{}] ...", clientId, userName);
+    return accessTokenRepository.streamByClientIdAndUserName(clientId, userName)
+        .map(CastUtils::cast);
+  }
+
+  /**
+   * Reads one page of access tokens of a client. The serialized authentications are not read.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens without user are returned)
+   * @param pageable the page request
+   * @return the page of access tokens
+   */
+  public Page<OAuth2AccessToken> findTokensByClientId(
+      @NotNull final String clientId,
+      final String userName,
+      @NotNull final Pageable pageable) {
+
+    log.debug("Finding access tokens by clientId [{}] and user [{}] with page request {} ...",
+        clientId, userName, pageable);
+    return accessTokenRepository.findPageByClientId(clientId, userName, pageable)
+        .map(CastUtils::cast);
+  }
+
+  /**
+   * Revokes all access and refresh tokens of a client. Every token collection is cleared by one
+   * delete command on the server, no token is loaded.
+   *
+   * @param clientId the client ID
+   * @param userName the user name (if {@code null}, the tokens of all users are revoked)
+   * @return the number of revoked access tokens
+   */
+  public long revokeTokensByClientId(@NotNull final String clientId, final String userName) {
+
+    final long accessTokens = accessTokenRepository.removeByClientId(clientId, userName);
+    final long refreshTokens = refreshTokenRepository.removeByClientId(clientId, userName);
+    invalidate(null);
+    // the values of the removed access tokens are not read
+    invalidateIntrospection(null);
+    log.info("Revoked {} access token(s) and {} refresh token(s) of client [{}] and user [{}].",
+        accessTokens, refreshTokens, clientId, userName);
+    return accessTokens;
+  }
+
+  private void invalidate(final String key) {
+    if (cacheMaxAgeMillis <= 0L) {
+      return;
+    }
+    if (cacheInvalidationService != null) {
+      cacheInvalidationService.invalidate(ISSUED_TOKEN_CACHE_NAME, key);
+    } else {
+      evict(key);
+    }
+  }
+
+  private void invalidateIntrospection(final String key) {
+    if (cacheInvalidationService != null) {
+      cacheInvalidationService.invalidate(INTROSPECTION_CACHE_NAME, key);
+    }
+  }
+
+  private void evict(final String key) {
+    cacheGeneration.incrementAndGet();
+    if (key == null) {
+      cache.clear();
+    } else if (isIssuedAccessTokenKey(key)) {
+      cache.values().removeIf(cached -> key.equals(cached.accessTokenKey));
+    } else if (isIssuedRefreshTokenKey(key)) {
+      cache.values().removeIf(cached -> key.equals(cached.refreshTokenKey));
+    }
+  }
+
+  private static class CachedAccessToken {
+
+    private final org.bremersee.authman.domain.OAuth2AccessToken accessToken;
+
+    private final String accessTokenKey;
+
+    private final String refreshTokenKey;
+
+    private final long validUntil;
+
+    private final long generation;
+
+    CachedAccessToken(
+        final org.bremersee.authman.domain.OAuth2AccessToken accessToken,
+        final long maxValidUntil,
+        final long generation) {
+      this.accessToken = accessToken;
+      this.generation = generation;
+      this.accessTokenKey = issuedAccessTokenKey(accessToken.getValue());
+      this.refreshTokenKey = accessToken.getRefreshTokenValue() != null
+          ? issuedRefreshTokenKey(accessToken.getRefreshTokenValue())
+          : null;
+      // the entry must be reloaded before the token expires
+      this.validUntil = accessToken.getExpiration() != null
+          ? Math.min(maxValidUntil, accessToken.getExpiration().getTime())
+          : maxValidUntil;
+    }
+
+    boolean isValid(final long now) {
+      return now < validUntil;
+    }
+
+    boolean isUnchanged(
+        final OAuth2AccessToken token,
+        final OAuth2Authentication authentication) {
+
+      final String refreshTokenValue = token.getRefreshToken() != null
+          ? token.getRefreshToken().getValue()
+          : null;
+      return accessToken.getValue().equals(token.getValue())
+          && Objects.equals(accessToken.getExpiration(), token.getExpiration())
+          && Objects.equals(accessToken.getRefreshTokenValue(), refreshTokenValue)
+          && Objects.equals(accessToken.getTokenType(), token.getTokenType())
+          && Objects.equals(accessToken.getScope(), token.getScope())
+          && Objects.equals(
+              accessToken.getAdditionalInformation(), token.getAdditionalInformation())
+          && Arrays.equals(
+              accessToken.getAuthentication(), SerializationUtils.serialize(authentication));
+    }
+  }
+
+  private static class LastReadAccessToken {
+
+    private final org.bremersee.authman.domain.OAuth2AccessToken accessToken;
+
+    private final long validUntil;
+
+    LastReadAccessToken(final org.bremersee.authman.domain.OAuth2AccessToken accessToken) {
+      this.accessToken = accessToken;
+      this.validUntil = System.currentTimeMillis() + LAST_READ_MAX_AGE_MILLIS;
+    }
+
+    boolean isValid(final String tokenValue) {
+      return accessToken.getValue().equals(tokenValue)
+          && accessToken.getAuthentication() != null
+          && System.currentTimeMillis() < validUntil;
+    }
   }
 
 }
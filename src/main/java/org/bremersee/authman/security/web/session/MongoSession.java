@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.web.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.session.Session;
+
+/**
+ * A http session that is stored in the database. The attributes that are loaded from the
+ * database are decoded when they are accessed for the first time. Changed attributes are tracked,
+ * so that only they have to be written back.
+ *
+ * @author Christian Bremer
+ */
+public class MongoSession implements Session {
+
+  private final SessionAttributeCodec codec;
+
+  private String id;
+
+  private String persistedId;
+
+  private final Instant creationTime;
+
+  private Instant lastAccessedTime;
+
+  private Instant persistedLastAccessedTime;
+
+  private Duration maxInactiveInterval;
+
+  private boolean maxInactiveIntervalChanged;
+
+  private final Map<String, Object> attributes = new HashMap<>();
+
+  private final Map<String, Object> encodedAttributes;
+
+  private final Set<String> changedAttributes = new HashSet<>();
+
+  MongoSession(final SessionAttributeCodec codec, final Duration maxInactiveInterval) {
+    this.codec = codec;
+    this.id = UUID.randomUUID().toString();
+    this.creationTime = Instant.now();
+    this.lastAccessedTime = this.creationTime;
+    this.maxInactiveInterval = maxInactiveInterval;
+    this.encodedAttributes = new HashMap<>();
+  }
+
+  MongoSession(
+      final SessionAttributeCodec codec,
+      final String id,
+      final Instant creationTime,
+      final Instant lastAccessedTime,
+      final Duration maxInactiveInterval,
+      final Map<String, Object> encodedAttributes) {
+
+    this.codec = codec;
+    this.id = id;
+    this.persistedId = id;
+    this.creationTime = creationTime;
+    this.lastAccessedTime = lastAccessedTime;
+    this.persistedLastAccessedTime = lastAccessedTime;
+    this.maxInactiveInterval = maxInactiveInterval;
+    this.encodedAttributes = new HashMap<>(encodedAttributes);
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public String changeSessionId() {
+    this.id = UUID.randomUUID().toString();
+    return this.id;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T getAttribute(final String attributeName) {
+    if (!attributes.containsKey(attributeName)) {
+      final Object encoded = encodedAttributes.remove(attributeName);
+      if (encoded == null) {
+        return null;
+      }
+      attributes.put(attributeName, codec.decode(encoded));
+    }
+    return (T) attributes.get(attributeName);
+  }
+
+  @Override
+  public Set<String> getAttributeNames() {
+    final Set<String> names = new HashSet<>(attributes.keySet());
+    names.addAll(encodedAttributes.keySet());
+    return Collections.unmodifiableSet(names);
+  }
+
+  @Override
+  public void setAttribute(final String attributeName, final Object attributeValue) {
+    if (attributeValue == null) {
+      removeAttribute(attributeName);
+    } else {
+      encodedAttributes.remove(attributeName);
+      attributes.put(attributeName, attributeValue);
+      changedAttributes.add(attributeName);
+    }
+  }
+
+  @Override
+  public void removeAttribute(final String attributeName) {
+    encodedAttributes.remove(attributeName);
+    attributes.remove(attributeName);
+    changedAttributes.add(attributeName);
+  }
+
+  @Override
+  public Instant getCreationTime() {
+    return creationTime;
+  }
+
+  @Override
+  public void setLastAccessedTime(final Instant lastAccessedTime) {
+    this.lastAccessedTime = lastAccessedTime;
+  }
+
+  @Override
+  public Instant getLastAccessedTime() {
+    return lastAccessedTime;
+  }
+
+  @Override
+  public void setMaxInactiveInterval(final Duration interval) {
+    this.maxInactiveIntervalChanged = !interval.equals(this.maxInactiveInterval);
+    this.maxInactiveInterval = interval;
+  }
+
+  @Override
+  public Duration getMaxInactiveInterval() {
+    return maxInactiveInterval;
+  }
+
+  @Override
+  public boolean isExpired() {
+    return isExpired(Instant.now());
+  }
+
+  boolean isExpired(final Instant now) {
+    return !maxInactiveInterval.isNegative()
+        && now.minus(maxInactiveInterval).compareTo(lastAccessedTime) >= 0;
+  }
+
+  Instant getExpirationTime() {
+    return maxInactiveInterval.isNegative() ? null : lastAccessedTime.plus(maxInactiveInterval);
+  }
+
+  String getPersistedId() {
+    return persistedId;
+  }
+
+  Instant getPersistedLastAccessedTime() {
+    return persistedLastAccessedTime;
+  }
+
+  boolean isMaxInactiveIntervalChanged() {
+    return maxInactiveIntervalChanged;
+  }
+
+  Set<String> getChangedAttributes() {
+    return changedAttributes;
+  }
+
+  /**
+   * Returns the encoded value of the specified attribute or {@code null}, if it was removed.
+   */
+  Object getEncodedAttribute(final String attributeName) {
+    if (attributes.containsKey(attributeName)) {
+      return codec.encode(attributes.get(attributeName));
+    }
+    return encodedAttributes.get(attributeName);
+  }
+
+  void markPersisted() {
+    this.persistedId = id;
+    this.persistedLastAccessedTime = lastAccessedTime;
+    this.maxInactiveIntervalChanged = false;
+    this.changedAttributes.clear();
+  }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.web.session;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOptions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.validation.constraints.NotNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.session.SessionRepository;
+
+/**
+ * A session repository that stores the http sessions in a mongo collection, so that every node
+ * can serve every request.
+ *
+ * <p>Each attribute is stored in its own field. When an existing session is saved, only the
+ * changed attributes are written. The last access time is only written, if it is older than the
+ * touch interval, or if something else has changed. Expired sessions are removed by a TTL index.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class MongoSessionRepository implements SessionRepository<MongoSession> {
+
+  private static final String ID = "_id";
+
+  private static final String CREATED = "created";
+
+  private static final String LAST_ACCESSED = "lastAccessed";
+
+  private static final String MAX_INACTIVE = "maxInactive";
+
+  private static final String EXPIRE_AT = "expireAt";
+
+  private static final String ATTRIBUTES = "attributes";
+
+  private final MongoOperations mongoOperations;
+
+  private final String collectionName;
+
+  private final SessionAttributeCodec codec;
+
+  @Setter
+  private Duration defaultMaxInactiveInterval = Duration.ofMinutes(30L);
+
+  @Setter
+  private Duration touchInterval = Duration.ofMinutes(1L);
+
+  public MongoSessionRepository(
+      @NotNull final MongoOperations mongoOperations,
+      @NotNull final String collectionName,
+      final int compressionThreshold) {
+
+    this.mongoOperations = mongoOperations;
+    this.collectionName = collectionName;
+    this.codec = new SessionAttributeCodec(getClass().getClassLoader(), compressionThreshold);
+  }
+
+  public MongoSessionRepository init() {
+    getCollection().createIndex(
+        Indexes.ascending(EXPIRE_AT),
+        new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+    return this;
+  }
+
+  private MongoCollection<Document> getCollection() {
+    return mongoOperations.getCollection(collectionName);
+  }
+
+  @Override
+  public MongoSession createSession() {
+    return new MongoSession(codec, defaultMaxInactiveInterval);
+  }
+
+  @Override
+  public void save(final MongoSession session) {
+    if (session.getPersistedId() == null || !session.getPersistedId().equals(session.getId())) {
+      saveAll(session);
+    } else {
+      saveChanges(session);
+    }
+    session.markPersisted();
+  }
+
+  private void saveAll(final MongoSession session) {
+    if (session.getPersistedId() != null) {
+      deleteById(session.getPersistedId());
+    }
+    final Document attributes = new Document();
+    for (final String name : session.getAttributeNames()) {
+      attributes.put(SessionAttributeCodec.encodeName(name), session.getEncodedAttribute(name));
+    }
+    final Document document = new Document(ID, session.getId())
+        .append(CREATED, Date.from(session.getCreationTime()))
+        .append(ATTRIBUTES, attributes);
+    appendAccess(document, session);
+    getCollection().replaceOne(
+        Filters.eq(ID, session.getId()), document, new UpdateOptions().upsert(true));
+    log.debug("Session {} with {} attributes saved.", session.getId(), attributes.size());
+  }
+
+  private void saveChanges(final MongoSession session) {
+    final Document set = new Document();
+    final Document unset = new Document();
+    for (final String name : session.getChangedAttributes()) {
+      final String field = ATTRIBUTES + "." + SessionAttributeCodec.encodeName(name);
+      final Object value = session.getEncodedAttribute(name);
+      if (value == null) {
+        unset.put(field, "");
+      } else {
+        set.put(field, value);
+      }
+    }
+    final boolean touch = session.getPersistedLastAccessedTime() == null
+        || session.getLastAccessedTime().isAfter(
+        session.getPersistedLastAccessedTime().plus(touchInterval));
+    if (set.isEmpty() && unset.isEmpty() && !touch && !session.isMaxInactiveIntervalChanged()) {
+      return;
+    }
+    appendAccess(set, session);
+    final Document update = new Document("$set", set);
+    if (!unset.isEmpty()) {
+      update.append("$unset", unset);
+    }
+    getCollection().updateOne(Filters.eq(ID, session.getId()), update);
+    log.debug("Session {} updated ({} attributes changed).",
+        session.getId(), session.getChangedAttributes().size());
+  }
+
+  private static void appendAccess(final Document document, final MongoSession session) {
+    final Instant expireAt = session.getExpirationTime();
+    document.append(LAST_ACCESSED, Date.from(session.getLastAccessedTime()))
+        .append(MAX_INACTIVE, session.getMaxInactiveInterval().getSeconds())
+        .append(EXPIRE_AT, expireAt != null ? Date.from(expireAt) : null);
+  }
+
+  @Override
+  public MongoSession findById(final String id) {
+    final Document document = getCollection().find(Filters.eq(ID, id)).first();
+    if (document == null) {
+      return null;
+    }
+    final Map<String, Object> attributes = new HashMap<>();
+    final Document encodedAttributes = document.get(ATTRIBUTES, Document.class);
+    if (encodedAttributes != null) {
+      encodedAttributes.forEach(
+          (name, value) -> attributes.put(SessionAttributeCodec.decodeName(name), value));
+    }
+    final MongoSession session = new MongoSession(
+        codec,
+        id,
+        document.getDate(CREATED).toInstant(),
+        document.getDate(LAST_ACCESSED).toInstant(),
+        Duration.ofSeconds(((Number) document.get(MAX_INACTIVE)).longValue()),
+        attributes);
+    if (session.isExpired()) {
+      deleteById(id);
+      return null;
+    }
+    return session;
+  }
+
+  @Override
+  public void deleteById(final String id) {
+    getCollection().deleteOne(Filters.eq(ID, id));
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.web.session;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Binary;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+/**
+ * Encodes session attributes for the database. Strings are stored as they are, all other values
+ * are serialized and compressed, if they are larger than the compression threshold.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+class SessionAttributeCodec {
+
+  private static final byte SERIALIZED = 0;
+
+  private static final byte DEFLATED = 1;
+
+  private final SerializingConverter serializer = new SerializingConverter();
+
+  private final DeserializingConverter deserializer;
+
+  private final int compressionThreshold;
+
+  SessionAttributeCodec(final ClassLoader classLoader, final int compressionThreshold) {
+    this.deserializer = new DeserializingConverter(classLoader);
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  static String encodeName(final String name) {
+    return name.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+  }
+
+  static String decodeName(final String name) {
+    return name.replace("%24", "$").replace("%2E", ".").replace("%25", "%");
+  }
+
+  Object encode(final Object value) {
+    if (value == null || value instanceof String) {
+      return value;
+    }
+    final byte[] serialized = serializer.convert(value);
+    if (serialized.length >= compressionThreshold) {
+      final byte[] deflated = deflate(serialized);
+      if (deflated.length < serialized.length) {
+        return withFlag(DEFLATED, deflated);
+      }
+    }
+    return withFlag(SERIALIZED, serialized);
+  }
+
+  Object decode(final Object value) {
+    final byte[] data;
+    if (value instanceof Binary) {
+      data = ((Binary) value).getData();
+    } else if (value instanceof byte[]) {
+      data = (byte[]) value;
+    } else {
+      return value;
+    }
+    if (data.length == 0) {
+      return null;
+    }
+    try {
+      final byte[] serialized = Arrays.copyOfRange(data, 1, data.length);
+      return deserializer.convert(data[0] == DEFLATED ? inflate(serialized) : serialized);
+
+    } catch (SerializationFailedException | DataFormatException e) {
+      log.warn("Decoding session attribute failed, it will be ignored.", e);
+      return null;
+    }
+  }
+
+  private static byte[] withFlag(final byte flag, final byte[] data) {
+    final byte[] result = new byte[data.length + 1];
+    result[0] = flag;
+    System.arraycopy(data, 0, result, 1, data.length);
+    return result;
+  }
+
+  private static byte[] deflate(final byte[] data) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+      final byte[] buffer = new byte[1024];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(final byte[] data) throws DataFormatException {
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+      final byte[] buffer = new byte[1024];
+      while (!inflater.finished()) {
+        final int length = inflater.inflate(buffer);
+        if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("Compressed session attribute is truncated.");
+        }
+        out.write(buffer, 0, length);
+      }
+      return out.toByteArray();
+
+    } finally {
+      inflater.end();
+    }
+  }
+
+}
@@ -208,7 +208,7 @@ public class SambaConnectorMock implements SambaConnectorControllerApi {
   }
 
   @Override
-  public ResponseEntity<Void> createOrDeleteDnsRecord( // NOSONAR
+  public synchronized ResponseEntity<Void> createOrDeleteDnsRecord( // NOSONAR
       @NotNull @Valid final String action,
       @Valid final DnsRecordRequest request) {
     log.info("Samba connector MOCK is executing '{}' with {}", action, request);
@@ -278,7 +278,8 @@ public class SambaConnectorMock implements SambaConnectorControllerApi {
   }
 
   @Override
-  public ResponseEntity<List<DnsEntry>> getDnsRecords(@NotNull @Valid String zoneName) {
+  public synchronized ResponseEntity<List<DnsEntry>> getDnsRecords(
+      @NotNull @Valid String zoneName) {
     log.info("Samba connector MOCK is getting name server records of zone {}", zoneName);
     final List<DnsEntry> entries = ns.get(createDnsZone(zoneName));
     log.debug("Samba connector MOCK is getting name server records of zone {}: {}", zoneName,
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A small helper of the JUnit driven micro benchmarks. The operation is run some times to warm up
+ * the JIT compiler, then it is measured and the throughput is logged. The number of measured
+ * operations can be raised with the system property {@code benchmark.iterations}.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public abstract class MicroBenchmark {
+
+  /**
+   * Returns the number of measured operations.
+   *
+   * @param defaultIterations the default number, if the system property is not set
+   * @return the number of measured operations
+   */
+  public static int iterations(final int defaultIterations) {
+    return Integer.getInteger("benchmark.iterations", defaultIterations);
+  }
+
+  /**
+   * Runs the operation and logs the throughput.
+   *
+   * @param name       the name of the benchmark
+   * @param iterations the number of measured operations
+   * @param operation  the operation, that gets the number of the run
+   * @return the throughput in operations per second
+   */
+  public static double run(
+      final String name,
+      final int iterations,
+      final IntConsumer operation) {
+
+    final int warmUp = Math.max(1, iterations / 5);
+    for (int i = 0; i < warmUp; i++) {
+      operation.accept(i);
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      operation.accept(i);
+    }
+    final long nanos = Math.max(1L, System.nanoTime() - start);
+    final double throughput = iterations * (double) TimeUnit.SECONDS.toNanos(1L) / nanos;
+    log.info("Benchmark [{}]: {} operations in {} ms = {} ops/s", name, iterations,
+        TimeUnit.NANOSECONDS.toMillis(nanos), Math.round(throughput));
+    return throughput;
+  }
+
+}
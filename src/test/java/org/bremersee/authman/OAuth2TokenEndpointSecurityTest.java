@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.bremersee.authman.business.OAuth2TokenIntrospectionService;
+import org.bremersee.authman.controller.rest.OAuth2TokenRestController;
+import org.bremersee.authman.exception.ForbiddenException;
+import org.bremersee.authman.security.crypto.VerifiedCredentialCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Tests the security and the status codes of the token revocation and introspection endpoints.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2TokenEndpointSecurityTest {
+
+  private AnnotationConfigWebApplicationContext context;
+
+  private OAuth2TokenIntrospectionService introspectionService;
+
+  private MockMvc mockMvc;
+
+  @Before
+  public void setUp() {
+    context = new AnnotationConfigWebApplicationContext();
+    context.setServletContext(new MockServletContext());
+    context.register(TestConfiguration.class);
+    context.refresh();
+    introspectionService = context.getBean(OAuth2TokenIntrospectionService.class);
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @After
+  public void tearDown() {
+    context.close();
+  }
+
+  @Test
+  public void testRevokeRequiresClientAuthentication() throws Exception {
+    mockMvc.perform(post("/oauth/revoke")
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+        .param("token", "access"))
+        .andExpect(status().isUnauthorized());
+
+    mockMvc.perform(post("/oauth/revoke")
+        .with(httpBasic("client", "wrong"))
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+        .param("token", "access"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void testRevokeUnknownToken() throws Exception {
+    mockMvc.perform(post("/oauth/revoke")
+        .with(httpBasic("client", "secret"))
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+        .param("token", "unknown")
+        .param("token_type_hint", "refresh_token"))
+        .andExpect(status().isOk());
+
+    verify(introspectionService).revoke("client", "unknown", "refresh_token");
+  }
+
+  @Test
+  public void testRevokeTokenOfOtherClient() throws Exception {
+    doThrow(new ForbiddenException())
+        .when(introspectionService).revoke("client", "foreign", null);
+
+    mockMvc.perform(post("/oauth/revoke")
+        .with(httpBasic("client", "secret"))
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+        .param("token", "foreign"))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  public void testIntrospectBatch() throws Exception {
+    when(introspectionService.introspect(anyList())).thenReturn("[{\"active\":false}]");
+
+    mockMvc.perform(post("/oauth/introspect/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"unknown\"]"))
+        .andExpect(status().isUnauthorized());
+
+    mockMvc.perform(post("/oauth/introspect/batch")
+        .with(httpBasic("client", "secret"))
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"unknown\"]"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("[{\"active\":false}]"));
+  }
+
+  /**
+   * The token endpoint security with the rest controller and a mocked service.
+   */
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  @Import(OAuth2TokenEndpointSecurity.class)
+  static class TestConfiguration {
+
+    @Bean
+    public AuthorizationServerProperties authorizationServerProperties() {
+      return new AuthorizationServerProperties();
+    }
+
+    @Bean
+    public ClientDetailsService oauth2ClientDetailsService() {
+      final BaseClientDetails client = new BaseClientDetails(
+          "client", null, "profile", "client_credentials", null);
+      client.setClientSecret("secret");
+      return clientId -> client;
+    }
+
+    @Bean
+    @SuppressWarnings("deprecation")
+    public VerifiedCredentialCache verifiedCredentialCache() {
+      return new VerifiedCredentialCache(NoOpPasswordEncoder.getInstance(), 10, 60L);
+    }
+
+    @Bean
+    public OAuth2TokenIntrospectionService introspectionService() {
+      return mock(OAuth2TokenIntrospectionService.class);
+    }
+
+    @Bean
+    public OAuth2TokenRestController tokenRestController() {
+      return new OAuth2TokenRestController(introspectionService());
+    }
+  }
+
+}
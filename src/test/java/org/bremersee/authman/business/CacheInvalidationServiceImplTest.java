@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.bremersee.authman.domain.CacheInvalidation;
+import org.bremersee.authman.domain.CacheInvalidationRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests the polling of the cache invalidation service.
+ *
+ * @author Christian Bremer
+ */
+public class CacheInvalidationServiceImplTest {
+
+  private CacheInvalidationProperties properties;
+
+  private CacheInvalidationRepository repository;
+
+  private CacheInvalidationServiceImpl service;
+
+  private List<String> invalidatedKeys;
+
+  @Before
+  public void setUp() {
+    properties = new CacheInvalidationProperties();
+    repository = mock(CacheInvalidationRepository.class);
+    service = new CacheInvalidationServiceImpl(properties, repository);
+    invalidatedKeys = new ArrayList<>();
+    service.addListener("test", invalidatedKeys::add);
+  }
+
+  @Test
+  public void testFailedPollIsDelayed() {
+    properties.setPollIntervalMillis(60000L);
+    when(repository.findByCreatedAfterOrderByCreatedAsc(any(Date.class)))
+        .thenThrow(new IllegalStateException("Database is not available."));
+
+    service.pollInvalidations();
+    service.pollInvalidations();
+    service.pollInvalidations();
+
+    verify(repository, times(1)).findByCreatedAfterOrderByCreatedAsc(any(Date.class));
+  }
+
+  @Test
+  public void testFailedPollKeepsPollWindow() {
+    properties.setPollIntervalMillis(0L); // no delay
+    final CacheInvalidation event = new CacheInvalidation();
+    event.setOrigin("other node");
+    event.setCacheName("test");
+    event.setKey("key");
+    when(repository.findByCreatedAfterOrderByCreatedAsc(any(Date.class)))
+        .thenThrow(new IllegalStateException("Database is not available."))
+        .thenReturn(Collections.singletonList(event));
+
+    service.pollInvalidations();
+    service.pollInvalidations();
+
+    final ArgumentCaptor<Date> since = ArgumentCaptor.forClass(Date.class);
+    verify(repository, times(2)).findByCreatedAfterOrderByCreatedAsc(since.capture());
+    assertEquals(since.getAllValues().get(0), since.getAllValues().get(1));
+    assertEquals(Collections.singletonList("key"), invalidatedKeys);
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import org.bremersee.smbcon.model.DnsEntry;
+import org.bremersee.smbcon.model.DnsZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the caching of the name server index.
+ *
+ * @author Christian Bremer
+ */
+public class DnsIndexServiceImplTest {
+
+  private DnsIndexProperties properties;
+
+  private SambaConnectorService sambaConnectorService;
+
+  private DnsIndexServiceImpl dnsIndexService;
+
+  @Before
+  public void setUp() {
+    properties = new DnsIndexProperties();
+    sambaConnectorService = mock(SambaConnectorService.class);
+    when(sambaConnectorService.getDnsZones()).thenReturn(Arrays.asList(
+        new DnsZone().pszZoneName("example.org"),
+        new DnsZone().pszZoneName("broken.org")));
+    when(sambaConnectorService.getDnsRecords("example.org")).thenReturn(
+        Collections.singletonList(new DnsEntry().name("www")));
+    when(sambaConnectorService.getDnsRecords("broken.org")).thenThrow(
+        new IllegalStateException("Zone is not available."));
+    dnsIndexService = new DnsIndexServiceImpl(properties, sambaConnectorService,
+        mock(CacheInvalidationService.class), new SimpleMeterRegistry());
+  }
+
+  @After
+  public void tearDown() {
+    dnsIndexService.shutdown();
+  }
+
+  @Test
+  public void testIncompleteIndexIsKept() {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(2, dnsIndexService.getZones().size());
+      assertEquals(1L, dnsIndexService.findRecords(null, null, null).getTotalElements());
+    }
+
+    verify(sambaConnectorService, times(1)).getDnsZones();
+    verify(sambaConnectorService, times(1)).getDnsRecords("broken.org");
+  }
+
+  @Test
+  public void testIncompleteIndexExpires() {
+    properties.setIncompleteTimeToLiveSeconds(0L);
+
+    dnsIndexService.getZones();
+    sleep();
+    dnsIndexService.getZones();
+
+    verify(sambaConnectorService, times(2)).getDnsZones();
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(5L);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
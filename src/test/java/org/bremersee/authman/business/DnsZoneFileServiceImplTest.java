@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Set;
+import java.util.TreeSet;
+import org.bremersee.smbcon.client.SambaConnectorMock;
+import org.bremersee.smbcon.model.DnsEntry;
+import org.bremersee.smbcon.model.DnsRecord;
+import org.bremersee.smbcon.model.DnsRecordRequest;
+import org.bremersee.smbcon.model.DnsRecordType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the zone file import and export against the in-memory name server of the samba connector
+ * mock.
+ *
+ * @author Christian Bremer
+ */
+public class DnsZoneFileServiceImplTest {
+
+  private static final String ZONE = "eixe.bremersee.org";
+
+  private SambaConnectorMock sambaConnector;
+
+  private DnsZoneFileServiceImpl zoneFileService;
+
+  @Before
+  public void setUp() {
+    sambaConnector = new SambaConnectorMock();
+    addRecord("", DnsRecordType.NS, "dc.eixe.bremersee.org.");
+    addRecord("", DnsRecordType.MX, "10 mail.eixe.bremersee.org.");
+    addRecord("mail", DnsRecordType.MX, "mail.eixe.bremersee.org (10)");
+    addRecord("www", DnsRecordType.CNAME, "vmhost.eixe.bremersee.org.");
+    addRecord("weird", DnsRecordType.CNAME, "host;comment");
+    addRecord("spf", DnsRecordType.TXT, "v=spf1 mx -all");
+    addRecord("quote", DnsRecordType.TXT, "say \"hello\" to C:\\temp (really)");
+    addRecord("_ldap._tcp", DnsRecordType.SRV, "0 100 389 dc.eixe.bremersee.org.");
+
+    zoneFileService = new DnsZoneFileServiceImpl(
+        new DnsZoneFileProperties(),
+        new SambaConnectorServiceImpl(sambaConnector),
+        mock(DnsIndexService.class),
+        new SimpleMeterRegistry());
+  }
+
+  @After
+  public void tearDown() {
+    zoneFileService.shutdown();
+  }
+
+  @Test
+  public void testImportOfUnchangedExport() throws IOException {
+    final Set<String> before = records();
+    final String zoneFile = export();
+
+    final DnsZoneImportResult result = zoneFileService
+        .importZone(ZONE, new StringReader(zoneFile), true);
+
+    assertEquals(zoneFile, 0L, result.getCreated());
+    assertEquals(zoneFile, 0L, result.getDeleted());
+    assertEquals(zoneFile, 0L, result.getFailed());
+    assertEquals(zoneFile, 0L, result.getSkipped());
+    assertEquals(before.size(), result.getUnchanged());
+    assertEquals(before, records());
+    assertEquals(zoneFile, export());
+  }
+
+  @Test
+  public void testImportOfChangedExport() throws IOException {
+    final String zoneFile = export()
+        .replaceAll("(?m)^www\\t.*\\n", "")
+        + "ftp\tIN\tCNAME\t\"ftp.example.org (old)\"\n";
+
+    final DnsZoneImportResult result = zoneFileService
+        .importZone(ZONE, new StringReader(zoneFile), true);
+
+    assertEquals(1L, result.getCreated());
+    assertEquals(1L, result.getDeleted());
+    assertEquals(0L, result.getFailed());
+    final Set<String> records = records();
+    assertTrue(records.contains("ftp|CNAME|ftp.example.org (old)"));
+    assertTrue(records.stream().noneMatch(record -> record.startsWith("www|")));
+  }
+
+  @Test
+  public void testImportWithoutDeletion() throws IOException {
+    final Set<String> before = records();
+
+    final DnsZoneImportResult result = zoneFileService.importZone(
+        ZONE, new StringReader("$ORIGIN eixe.bremersee.org.\nnew 3600 IN A 192.168.1.9\n"),
+        false);
+
+    assertEquals(1L, result.getCreated());
+    assertEquals(0L, result.getDeleted());
+    before.add("new|A|192.168.1.9");
+    assertEquals(before, records());
+  }
+
+  private void addRecord(final String name, final DnsRecordType type, final String data) {
+    sambaConnector.createOrDeleteDnsRecord("CREATE", new DnsRecordRequest()
+        .zoneName(ZONE)
+        .name(name)
+        .recordType(type)
+        .data(data));
+  }
+
+  private String export() throws IOException {
+    final StringWriter writer = new StringWriter();
+    zoneFileService.exportZone(ZONE, writer);
+    return writer.toString();
+  }
+
+  private Set<String> records() {
+    final Set<String> records = new TreeSet<>();
+    for (final DnsEntry dnsEntry : sambaConnector.getDnsRecords(ZONE).getBody()) {
+      for (final DnsRecord dnsRecord : dnsEntry.getRecords()) {
+        records.add(dnsEntry.getName() + '|' + dnsRecord.getRecordType() + '|'
+            + dnsRecord.getRecordValue());
+      }
+    }
+    return records;
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.bremersee.authman.MicroBenchmark;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+/**
+ * Measures the throughput of rendering mails from the cached templates, like a mass operation
+ * that sends tens of thousands of mails.
+ *
+ * @author Christian Bremer
+ */
+public class MailTemplateBenchmarkTest {
+
+  private static final String SUBJECT_CODE = "registration.mail.subject";
+
+  private static final Locale[] LOCALES = {Locale.ENGLISH, Locale.GERMANY, Locale.GERMAN};
+
+  private List<String> loadedResources;
+
+  private MailTemplateServiceImpl templateService;
+
+  @Before
+  public void setUp() {
+    loadedResources = new ArrayList<>();
+    templateService = new MailTemplateServiceImpl(new DefaultResourceLoader() {
+      @Override
+      public Resource getResource(final String location) {
+        loadedResources.add(location);
+        return super.getResource(location);
+      }
+    }, new MailTemplateProperties());
+    final StaticMessageSource messageSource = new StaticMessageSource();
+    messageSource.addMessage(SUBJECT_CODE, Locale.ENGLISH, "Your registration");
+    messageSource.addMessage(SUBJECT_CODE, Locale.GERMAN, "Ihre Registrierung");
+    messageSource.addMessage(SUBJECT_CODE, Locale.GERMANY, "Ihre Registrierung");
+    templateService.setMessageSource(messageSource);
+  }
+
+  @Test
+  public void testRenderThroughput() {
+    final Map<String, Object> variables = new HashMap<>();
+    final StringBuilder text = new StringBuilder();
+    final StringBuilder html = new StringBuilder();
+    final long[] length = new long[1];
+
+    final double throughput = MicroBenchmark.run("render registration mails",
+        MicroBenchmark.iterations(30000), i -> {
+          final MailTemplate template = templateService.getTemplate(
+              "registration", SUBJECT_CODE, null, LOCALES[i % LOCALES.length]);
+          variables.put("displayName", "User <" + i + ">");
+          variables.put("link", "https://bremersee.org/register?hash=" + i + "&b=2");
+          text.setLength(0);
+          html.setLength(0);
+          template.renderText(variables, text);
+          template.renderHtml(variables, html);
+          length[0] += text.length() + html.length();
+        });
+
+    assertTrue(throughput > 0.0);
+    assertTrue(length[0] > 0L);
+    // every template is loaded once, not once per mail
+    final int loaded = loadedResources.size();
+    templateService.getTemplate("registration", SUBJECT_CODE, null, Locale.ENGLISH);
+    assertEquals(loaded, loadedResources.size());
+  }
+
+}
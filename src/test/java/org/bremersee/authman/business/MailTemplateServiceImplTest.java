@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+/**
+ * Tests the cached, pre-compiled localized mail templates.
+ *
+ * @author Christian Bremer
+ */
+public class MailTemplateServiceImplTest {
+
+  private static final String SUBJECT_CODE = "registration.mail.subject";
+
+  private List<String> loadedResources;
+
+  private MailTemplateServiceImpl templateService;
+
+  private Map<String, Object> variables;
+
+  @Before
+  public void setUp() {
+    loadedResources = new ArrayList<>();
+    templateService = new MailTemplateServiceImpl(new DefaultResourceLoader() {
+      @Override
+      public Resource getResource(final String location) {
+        loadedResources.add(location);
+        return super.getResource(location);
+      }
+    }, new MailTemplateProperties());
+    final StaticMessageSource messageSource = new StaticMessageSource();
+    messageSource.addMessage(SUBJECT_CODE, Locale.ENGLISH, "Your registration");
+    messageSource.addMessage(SUBJECT_CODE, Locale.GERMAN, "Ihre Registrierung");
+    messageSource.addMessage(SUBJECT_CODE, Locale.GERMANY, "Ihre Registrierung");
+    templateService.setMessageSource(messageSource);
+
+    variables = new HashMap<>();
+    variables.put("displayName", "Anna <Smith> & Bob");
+    variables.put("link", "https://bremersee.org/register?hash=a1&b=2");
+  }
+
+  @Test
+  public void testTemplateIsCompiledOnce() {
+    final MailTemplate template = getTemplate(Locale.ENGLISH);
+    final int loaded = loadedResources.size();
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(template, getTemplate(Locale.ENGLISH));
+    }
+    assertEquals(loaded, loadedResources.size());
+    assertNotSame(template, getTemplate(Locale.GERMAN));
+  }
+
+  @Test
+  public void testTemplatesAreBoundedByConfiguredLocales() {
+    final MailTemplate template = getTemplate(Locale.GERMAN);
+
+    assertSame(template, getTemplate(Locale.GERMANY));
+    assertSame(template, getTemplate(Locale.forLanguageTag("de-AT")));
+    assertSame(getTemplate(Locale.ENGLISH), getTemplate(Locale.FRENCH));
+    assertSame(getTemplate(Locale.ENGLISH), getTemplate(Locale.CHINA));
+  }
+
+  @Test
+  public void testLocalizedTemplate() {
+    final MailTemplate template = getTemplate(Locale.GERMANY);
+
+    assertEquals("Ihre Registrierung", template.getSubject());
+    assertTrue(template.renderText(variables).startsWith("Hallo Anna <Smith> & Bob,"));
+    assertTrue(template.renderHtml(variables).contains("<html lang=\"de\">"));
+  }
+
+  @Test
+  public void testDefaultTemplate() {
+    final MailTemplate template = getTemplate(Locale.ENGLISH);
+
+    assertEquals("Your registration", template.getSubject());
+    assertTrue(template.renderText(variables).startsWith("Dear Anna <Smith> & Bob,"));
+    assertTrue(template.renderText(variables)
+        .endsWith("https://bremersee.org/register?hash=a1&b=2\n"));
+  }
+
+  @Test
+  public void testHtmlValuesAreEscaped() {
+    final String html = getTemplate(Locale.ENGLISH).renderHtml(variables);
+
+    assertTrue(html.contains("<p>Dear Anna &lt;Smith&gt; &amp; Bob,</p>"));
+    assertTrue(html.contains("href=\"https://bremersee.org/register?hash=a1&amp;b=2\""));
+  }
+
+  @Test
+  public void testRenderingIntoBufferWithNullValues() {
+    final MailTemplate template = getTemplate(Locale.ENGLISH);
+    final String text = template.renderText(variables);
+
+    final StringBuilder buffer = new StringBuilder("x");
+    final Map<String, Object> nullValues = new HashMap<>();
+    nullValues.put("displayName", null);
+    nullValues.put("link", null);
+    template.renderText(nullValues, buffer);
+
+    assertTrue(buffer.toString().startsWith("xDear ,"));
+    assertEquals(text, template.renderText(variables));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingValue() {
+    variables.remove("link");
+    getTemplate(Locale.ENGLISH).renderText(variables);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingTemplate() {
+    templateService.getTemplate("missing", SUBJECT_CODE, null, Locale.ENGLISH);
+  }
+
+  private MailTemplate getTemplate(final Locale locale) {
+    return templateService.getTemplate("registration", SUBJECT_CODE, null, locale);
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import org.bremersee.authman.domain.OAuth2Scope;
+import org.bremersee.authman.domain.OAuth2ScopeRepository;
+import org.bremersee.authman.model.OAuth2ScopeVisibility;
+import org.bremersee.authman.security.core.RoleConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Tests the visibility checks of the scope catalog.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2ScopeCatalogImplTest {
+
+  private OAuth2ScopeRepository scopeRepository;
+
+  private OAuth2ScopeCatalogImpl scopeCatalog;
+
+  @Before
+  public void setUp() {
+    scopeRepository = mock(OAuth2ScopeRepository.class);
+    when(scopeRepository.findAll()).thenReturn(Arrays.asList(
+        scope("public", OAuth2ScopeVisibility.PUBLIC, "anna"),
+        scope("private", OAuth2ScopeVisibility.PRIVATE, "anna")));
+    scopeCatalog = new OAuth2ScopeCatalogImpl(
+        scopeRepository, mock(CacheInvalidationService.class));
+  }
+
+  @After
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void testAdminCanSeeAllScopes() {
+    authenticate("admin", RoleConstants.ADMIN_ROLE);
+    assertTrue(scopeCatalog.isVisible("public"));
+    assertTrue(scopeCatalog.isVisible("private"));
+    assertFalse(scopeCatalog.isVisible("unknown"));
+    verify(scopeRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void testUserCanSeeOwnScopes() {
+    authenticate("anna", RoleConstants.USER_ROLE);
+    assertTrue(scopeCatalog.isVisible("private"));
+
+    authenticate("bob", RoleConstants.USER_ROLE);
+    assertTrue(scopeCatalog.isVisible("public"));
+    assertTrue(scopeCatalog.isNotVisible("private"));
+  }
+
+  @Test
+  public void testAnonymousCanSeePublicScopes() {
+    assertTrue(scopeCatalog.isVisible("public"));
+    assertTrue(scopeCatalog.isNotVisible("private"));
+  }
+
+  private static OAuth2Scope scope(
+      final String name,
+      final OAuth2ScopeVisibility visibility,
+      final String createdBy) {
+    final OAuth2Scope scope = new OAuth2Scope();
+    scope.setScope(name);
+    scope.setVisibility(visibility);
+    scope.setCreatedBy(createdBy);
+    return scope;
+  }
+
+  private static void authenticate(final String userName, final String role) {
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        userName, null, AuthorityUtils.createAuthorityList(role)));
+  }
+
+}
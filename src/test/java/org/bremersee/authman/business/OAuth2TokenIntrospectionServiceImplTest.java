@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.bremersee.authman.AuthorizationServerProperties;
+import org.bremersee.authman.domain.OAuth2AccessToken;
+import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
+import org.bremersee.authman.domain.OAuth2RefreshToken;
+import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
+import org.bremersee.authman.exception.BadRequestException;
+import org.bremersee.authman.exception.ForbiddenException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the token introspection and revocation with mocked repositories.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2TokenIntrospectionServiceImplTest {
+
+  private static final String INACTIVE = "{\"active\":false}";
+
+  private AuthorizationServerProperties properties;
+
+  private OAuth2AccessTokenRepository accessTokenRepository;
+
+  private OAuth2RefreshTokenRepository refreshTokenRepository;
+
+  private List<String> invalidations;
+
+  private OAuth2TokenIntrospectionServiceImpl service;
+
+  @Before
+  public void setUp() {
+    properties = new AuthorizationServerProperties();
+    properties.setIntrospectionBatchMaxSize(3);
+    accessTokenRepository = mock(OAuth2AccessTokenRepository.class);
+    refreshTokenRepository = mock(OAuth2RefreshTokenRepository.class);
+    invalidations = new ArrayList<>();
+    service = newService();
+  }
+
+  @Test
+  public void testIntrospectActiveToken() {
+    when(accessTokenRepository.findByValueWithoutAuthentication("access"))
+        .thenReturn(Optional.of(newAccessToken("access", "client")));
+
+    final String json = service.introspect("access");
+
+    assertTrue(json, json.startsWith("{\"active\":true,\"scope\":\"profile\""));
+    assertTrue(json, json.contains("\"client_id\":\"client\""));
+    assertTrue(json, json.contains("\"username\":\"anna\""));
+  }
+
+  @Test
+  public void testIntrospectUnknownAndExpiredToken() {
+    final OAuth2AccessToken expired = newAccessToken("expired", "client");
+    expired.setExpiration(new Date(System.currentTimeMillis() - 1000L));
+    when(accessTokenRepository.findByValueWithoutAuthentication("expired"))
+        .thenReturn(Optional.of(expired));
+    when(accessTokenRepository.findByValueWithoutAuthentication("unknown"))
+        .thenReturn(Optional.empty());
+
+    assertEquals(INACTIVE, service.introspect("expired"));
+    assertEquals(INACTIVE, service.introspect("unknown"));
+  }
+
+  @Test
+  public void testIntrospectionResponseIsCached() {
+    when(accessTokenRepository.findByValueWithoutAuthentication("access"))
+        .thenReturn(Optional.of(newAccessToken("access", "client")));
+
+    final String json = service.introspect("access");
+
+    assertEquals(json, service.introspect("access"));
+    verify(accessTokenRepository, times(1)).findByValueWithoutAuthentication("access");
+  }
+
+  @Test
+  public void testBatchKeepsOrderAndQueriesOnce() {
+    when(accessTokenRepository.findByValuesWithoutAuthentication(anyCollection()))
+        .thenReturn(Collections.singletonList(newAccessToken("access", "client")));
+
+    final String json = service.introspect(Arrays.asList("unknown", "access", "unknown"));
+
+    assertTrue(json, json.startsWith("[" + INACTIVE + ",{\"active\":true,"));
+    assertTrue(json, json.endsWith("}," + INACTIVE + "]"));
+    verify(accessTokenRepository, times(1)).findByValuesWithoutAuthentication(anyCollection());
+  }
+
+  @Test
+  public void testBatchUsesCachedResponses() {
+    when(accessTokenRepository.findByValueWithoutAuthentication("access"))
+        .thenReturn(Optional.of(newAccessToken("access", "client")));
+    final String json = service.introspect("access");
+
+    assertEquals("[" + json + "]", service.introspect(Collections.singletonList("access")));
+    verify(accessTokenRepository, never()).findByValuesWithoutAuthentication(anyCollection());
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void testBatchIsLimited() {
+    service.introspect(Arrays.asList("a", "b", "c", "d"));
+  }
+
+  @Test
+  public void testRevokeAccessToken() {
+    when(accessTokenRepository.findByValueWithoutAuthentication("access"))
+        .thenReturn(Optional.of(newAccessToken("access", "client")));
+
+    service.revoke("client", "access", null);
+
+    verify(accessTokenRepository).deleteByValue("access");
+    assertTrue(invalidations.contains(OAuth2TokenCaches.INTROSPECTION_CACHE_NAME + '|'
+        + OAuth2TokenCaches.introspectionKey("access")));
+    assertTrue(invalidations.contains(OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME + '|'
+        + OAuth2TokenCaches.issuedAccessTokenKey("access")));
+  }
+
+  @Test
+  public void testRevokeRefreshTokenWithHint() {
+    final OAuth2RefreshToken refreshToken = new OAuth2RefreshToken();
+    refreshToken.setValue("refresh");
+    refreshToken.setClientId("client");
+    when(refreshTokenRepository.findByValue("refresh")).thenReturn(Optional.of(refreshToken));
+    when(accessTokenRepository.findAndRemoveValuesByRefreshTokenValues(anyCollection()))
+        .thenReturn(Collections.singletonList("access"));
+
+    service.revoke("client", "refresh", "refresh_token");
+
+    verify(refreshTokenRepository).deleteByValue("refresh");
+    verify(accessTokenRepository, never()).findByValueWithoutAuthentication(anyString());
+    assertTrue(invalidations.contains(OAuth2TokenCaches.INTROSPECTION_CACHE_NAME + '|'
+        + OAuth2TokenCaches.introspectionKey("access")));
+    assertTrue(invalidations.contains(OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME + '|'
+        + OAuth2TokenCaches.issuedRefreshTokenKey("refresh")));
+  }
+
+  @Test(expected = ForbiddenException.class)
+  public void testRevokeTokenOfOtherClientIsForbidden() {
+    when(accessTokenRepository.findByValueWithoutAuthentication("access"))
+        .thenReturn(Optional.of(newAccessToken("access", "other")));
+
+    try {
+      service.revoke("client", "access", "access_token");
+    } finally {
+      verify(accessTokenRepository, never()).deleteByValue(anyString());
+    }
+  }
+
+  @Test
+  public void testRevokeUnknownTokenIsIgnored() {
+    when(accessTokenRepository.findByValueWithoutAuthentication("unknown"))
+        .thenReturn(Optional.empty());
+    when(refreshTokenRepository.findByValue("unknown")).thenReturn(Optional.empty());
+
+    service.revoke("client", "unknown", null);
+
+    verify(accessTokenRepository, never()).deleteByValue(anyString());
+    verify(refreshTokenRepository, never()).deleteByValue(anyString());
+    assertTrue(invalidations.isEmpty());
+  }
+
+  private OAuth2TokenIntrospectionServiceImpl newService() {
+    final CacheInvalidationService cacheInvalidationService = new CacheInvalidationService() {
+
+      private final Map<String, Consumer<String>> listeners = new HashMap<>();
+
+      @Override
+      public void addListener(final String cacheName, final Consumer<String> listener) {
+        listeners.put(cacheName, listener);
+      }
+
+      @Override
+      public void invalidate(final String cacheName, final String key) {
+        invalidations.add(cacheName + '|' + key);
+        listeners.getOrDefault(cacheName, k -> {
+        }).accept(key);
+      }
+    };
+    return new OAuth2TokenIntrospectionServiceImpl(properties, accessTokenRepository,
+        refreshTokenRepository, cacheInvalidationService, new SimpleMeterRegistry());
+  }
+
+  private static OAuth2AccessToken newAccessToken(final String value, final String clientId) {
+    final OAuth2AccessToken accessToken = new OAuth2AccessToken();
+    accessToken.setValue(value);
+    accessToken.setClientId(clientId);
+    accessToken.setUserName("anna");
+    accessToken.setExpiration(new Date(System.currentTimeMillis() + 3600000L));
+    accessToken.getScope().add("profile");
+    return accessToken;
+  }
+
+}
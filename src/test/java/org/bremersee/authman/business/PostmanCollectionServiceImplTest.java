@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.bremersee.authman.domain.OAuth2Client;
+import org.bremersee.authman.domain.OAuth2ClientRepository;
+import org.bremersee.authman.security.core.RoleConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests the cache of the serialized postman collections.
+ *
+ * @author Christian Bremer
+ */
+public class PostmanCollectionServiceImplTest {
+
+  private PostmanCollectionServiceImpl postmanCollectionService;
+
+  @Before
+  public void setUp() {
+    final OAuth2Client client = new OAuth2Client();
+    client.setClientId("test");
+    client.setClientSecret("secret");
+    client.getAuthorizedGrantTypes().add("client_credentials");
+    client.getScope().add("profile");
+    final OAuth2ClientRepository clientRepository = mock(OAuth2ClientRepository.class);
+    when(clientRepository.findByClientId("test")).thenReturn(Optional.of(client));
+
+    postmanCollectionService = new PostmanCollectionServiceImpl(clientRepository);
+    ReflectionTestUtils.setField(postmanCollectionService, "cacheMaxSize", 2);
+
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        "admin", null, AuthorityUtils.createAuthorityList(RoleConstants.ADMIN_ROLE)));
+  }
+
+  @After
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void testCollectionIsCached() {
+    final SerializedPostmanCollection collection = getCollection("a.example.org");
+
+    assertSame(collection, getCollection("a.example.org"));
+    assertNotSame(collection, getCollection("b.example.org"));
+  }
+
+  @Test
+  public void testCacheIsBounded() {
+    final SerializedPostmanCollection collection = getCollection("a.example.org");
+    getCollection("b.example.org");
+    getCollection("c.example.org");
+
+    assertNotSame(collection, getCollection("a.example.org"));
+  }
+
+  @Test
+  public void testCacheEvictsLeastRecentlyUsed() {
+    final SerializedPostmanCollection a = getCollection("a.example.org");
+    final SerializedPostmanCollection b = getCollection("b.example.org");
+    getCollection("a.example.org");
+    getCollection("c.example.org");
+
+    assertSame(a, getCollection("a.example.org"));
+    assertNotSame(b, getCollection("b.example.org"));
+  }
+
+  private SerializedPostmanCollection getCollection(final String host) {
+    return postmanCollectionService.getSerializedPostmanCollection("test", "https", host, 443);
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.MicroBenchmark;
+import org.bremersee.authman.domain.SequenceCounterRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the user name generator with the previous random names at one million existing users.
+ * The existence checks of the random names are simulated with a bit set, so the benchmark shows
+ * the number of database queries, that the random names would need, and the pure cpu time.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class UserNameGeneratorBenchmarkTest {
+
+  private static final int EXISTING_USERS = 1000000;
+
+  private static final int ITERATIONS = MicroBenchmark.iterations(100000);
+
+  private final BitSet existingRandomNames = new BitSet(11000000);
+
+  private final AtomicLong blockReservations = new AtomicLong();
+
+  private UserNameGeneratorImpl generator;
+
+  @Before
+  public void setUp() {
+    final Random random = new Random(42L);
+    int existing = 0;
+    while (existing < EXISTING_USERS) {
+      final int userName = randomUserName(random);
+      if (!existingRandomNames.get(userName)) {
+        existingRandomNames.set(userName);
+        existing++;
+      }
+    }
+
+    // the sequence continues after the existing users
+    final AtomicLong counter = new AtomicLong(EXISTING_USERS);
+    final SequenceCounterRepository counterRepository = mock(SequenceCounterRepository.class);
+    when(counterRepository.reserveBlock(anyString(), anyLong())).thenAnswer(invocation -> {
+      blockReservations.incrementAndGet();
+      return counter.getAndAdd(invocation.getArgument(1));
+    });
+    final UserNameGeneratorProperties properties = new UserNameGeneratorProperties();
+    properties.setKey("benchmark");
+    generator = new UserNameGeneratorImpl(properties, counterRepository);
+    generator.init();
+  }
+
+  @Test
+  public void testGeneratorThroughput() {
+    final long[] queries = new long[1];
+    final Random random = new Random();
+    MicroBenchmark.run("random user names with existence checks", ITERATIONS, i -> {
+      int candidate;
+      do {
+        candidate = randomUserName(random);
+        queries[0] += 2L; // user profile and registration request
+      } while (existingRandomNames.get(candidate));
+    });
+    final int warmUp = Math.max(1, ITERATIONS / 5);
+    final double queriesPerName = queries[0] / (double) (ITERATIONS + warmUp);
+    log.info("Random user names need {} existence queries per name at {} existing users.",
+        queriesPerName, EXISTING_USERS);
+
+    final int[] length = new int[1];
+    MicroBenchmark.run("sequence based user name generator", ITERATIONS,
+        i -> length[0] += generator.generateUserName().length());
+
+    assertTrue(queriesPerName > 2.0);
+    assertEquals((ITERATIONS + warmUp) * 10L, length[0]);
+    // one reservation per block instead of two queries per name
+    assertEquals((ITERATIONS + warmUp + 99) / 100, blockReservations.get());
+  }
+
+  private static int randomUserName(final Random random) {
+    // like the previous implementation: the first seven characters of a random integer,
+    // mapped to a positive index (a negative integer keeps its minus sign)
+    String n = String.valueOf(random.nextInt());
+    while (n.length() < 7) {
+      n = String.valueOf(random.nextInt());
+    }
+    return Integer.parseInt(n.substring(0, 7)) + 1000000;
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bremersee.authman.domain.SequenceCounterRepository;
+import org.junit.Test;
+
+/**
+ * Tests the user name generator.
+ *
+ * @author Christian Bremer
+ */
+public class UserNameGeneratorImplTest {
+
+  @Test
+  public void testPermutationIsBijection() {
+    final int digits = 6;
+    final UserNameGeneratorImpl generator = newGenerator(digits, 997, "secret");
+
+    final BitSet generated = new BitSet(1000000);
+    for (int i = 0; i < 1000000; i++) {
+      final String userName = generator.generateUserName();
+      assertEquals(1 + digits, userName.length());
+      assertTrue(userName.startsWith("u"));
+      final int value = Integer.parseInt(userName.substring(1));
+      assertFalse("Collision of " + userName, generated.get(value));
+      generated.set(value);
+    }
+    assertEquals(1000000, generated.cardinality());
+
+    try {
+      generator.generateUserName();
+      fail("The number space of the digits is exhausted.");
+
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSequenceIsHidden() {
+    final UserNameGeneratorImpl generator = newGenerator(9, 100, "secret");
+
+    int sequential = 0;
+    long last = Long.parseLong(generator.generateUserName().substring(1));
+    for (int i = 0; i < 100; i++) {
+      final long value = Long.parseLong(generator.generateUserName().substring(1));
+      if (value == last + 1L) {
+        sequential++;
+      }
+      last = value;
+    }
+    assertTrue(sequential < 5);
+  }
+
+  @Test
+  public void testNamesDependOnKey() {
+    final UserNameGeneratorImpl generator0 = newGenerator(9, 100, "secret");
+    final UserNameGeneratorImpl generator1 = newGenerator(9, 100, "another secret");
+    final UserNameGeneratorImpl generator2 = newGenerator(9, 100, "secret");
+
+    for (int i = 0; i < 10; i++) {
+      final String userName = generator0.generateUserName();
+      assertNotEquals(userName, generator1.generateUserName());
+      assertEquals(userName, generator2.generateUserName());
+    }
+  }
+
+  private static UserNameGeneratorImpl newGenerator(
+      final int digits,
+      final int blockSize,
+      final String key) {
+
+    final AtomicLong counter = new AtomicLong();
+    final SequenceCounterRepository counterRepository = mock(SequenceCounterRepository.class);
+    when(counterRepository.reserveBlock(anyString(), anyLong()))
+        .thenAnswer(invocation -> counter.getAndAdd(invocation.getArgument(1)));
+
+    final UserNameGeneratorProperties properties = new UserNameGeneratorProperties();
+    properties.setDigits(digits);
+    properties.setBlockSize(blockSize);
+    properties.setKey(key);
+    final UserNameGeneratorImpl generator = new UserNameGeneratorImpl(
+        properties, counterRepository);
+    generator.init();
+    return generator;
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.Update.Modifier;
+import org.springframework.data.mongodb.core.query.Update.Modifiers;
+
+/**
+ * Tests the rotation update of the refresh token repository.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2RefreshTokenRepositoryImplTest {
+
+  private MongoOperations mongoOperations;
+
+  private OAuth2RefreshTokenRepositoryImpl repository;
+
+  @Before
+  public void setUp() {
+    mongoOperations = mock(MongoOperations.class);
+    repository = new OAuth2RefreshTokenRepositoryImpl(mongoOperations);
+  }
+
+  @Test
+  public void testRotateCapsUsedValues() {
+    final OAuth2RefreshToken family = new OAuth2RefreshToken();
+    when(mongoOperations.findAndModify(any(Query.class), any(Update.class),
+        any(FindAndModifyOptions.class), eq(OAuth2RefreshToken.class))).thenReturn(family);
+
+    assertSame(family, repository.rotate("old", "client", "new", 3));
+
+    assertEquals(-3, usedValuesModifier("$slice"));
+  }
+
+  @Test
+  public void testRotateKeepsAtLeastOneUsedValue() {
+    repository.rotate("old", "client", "new", 0);
+
+    assertEquals(-1, usedValuesModifier("$slice"));
+  }
+
+  private Object usedValuesModifier(final String key) {
+    final ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    final ArgumentCaptor<FindAndModifyOptions> options
+        = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    verify(mongoOperations).findAndModify(any(Query.class), update.capture(),
+        options.capture(), eq(OAuth2RefreshToken.class));
+    // the old family is returned, the caller needs the authentication only
+    assertFalse(options.getValue().isReturnNew());
+
+    final Document push = (Document) update.getValue().getUpdateObject().get("$push");
+    assertNotNull(push);
+    final Modifiers modifiers = (Modifiers) push.get("usedValues");
+    return modifiers.getModifiers().stream()
+        .filter(modifier -> key.equals(modifier.getKey()))
+        .map(Modifier::getValue)
+        .findFirst()
+        .orElse(null);
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.Date;
+import org.bremersee.authman.domain.LoginFailureCountRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the login throttle.
+ *
+ * @author Christian Bremer
+ */
+public class LoginThrottleTest {
+
+  private LoginThrottleProperties properties;
+
+  private LoginFailureCountRepository repository;
+
+  @Before
+  public void setUp() {
+    properties = new LoginThrottleProperties();
+    properties.setClusterEnabled(true);
+    repository = mock(LoginFailureCountRepository.class);
+    when(repository.sumSince(anyLong(), anyLong())).thenReturn(Collections.emptyMap());
+  }
+
+  @Test
+  public void testLoginIsBlocked() {
+    final LoginThrottle throttle = newThrottle();
+    for (int i = 0; i < properties.getMaxFailuresPerLogin(); i++) {
+      assertTrue(throttle.isAllowed("10.0.0.1", "anna"));
+      throttle.onFailure("10.0.0.1", "anna");
+    }
+
+    assertFalse(throttle.isAllowed("10.0.0.2", "Anna"));
+    assertTrue(throttle.isAllowed("10.0.0.2", "bob"));
+  }
+
+  @Test
+  public void testFailuresAreKeptWhenSynchronizationFails() {
+    properties.setSyncIntervalMillis(0L); // no delay
+    doThrow(new IllegalStateException("Database is not available."))
+        .doNothing()
+        .when(repository).increment(eq("login:anna"), anyLong(), anyLong(), any(Date.class));
+    final LoginThrottle throttle = newThrottle();
+    throttle.onFailure(null, "anna");
+
+    throttle.synchronize();
+    throttle.synchronize();
+    throttle.synchronize();
+
+    verify(repository, times(2))
+        .increment(eq("login:anna"), anyLong(), eq(1L), any(Date.class));
+  }
+
+  @Test
+  public void testFailedSynchronizationIsDelayed() {
+    properties.setSyncIntervalMillis(60000L);
+    when(repository.sumSince(anyLong(), anyLong()))
+        .thenThrow(new IllegalStateException("Database is not available."));
+    final LoginThrottle throttle = newThrottle();
+
+    throttle.synchronize();
+    throttle.synchronize();
+
+    verify(repository, times(1)).sumSince(anyLong(), anyLong());
+    verify(repository, times(0)).increment(anyString(), anyLong(), anyLong(), any(Date.class));
+  }
+
+  @Test
+  public void testIpAddressIsIgnoredByDefault() {
+    properties.setMaxFailuresPerIpAddress(1);
+    final LoginThrottle throttle = newThrottle();
+    throttle.onFailure("10.0.0.1", "anna");
+
+    assertTrue(throttle.isAllowed("10.0.0.1", "bob"));
+
+    properties.setIpAddressEnabled(true);
+    throttle.onFailure("10.0.0.1", "anna");
+
+    assertFalse(throttle.isAllowed("10.0.0.1", "bob"));
+  }
+
+  @Test
+  public void testClusterFailuresAreDelayed() {
+    properties.setSyncIntervalMillis(0L); // no delay
+    properties.setInitialDelayMillis(60000L);
+    when(repository.sumSince(anyLong(), anyLong()))
+        .thenReturn(Collections.singletonMap("login:anna", 5L));
+    final LoginThrottle throttle = newThrottle();
+    assertTrue(throttle.isAllowed("10.0.0.1", "anna"));
+
+    throttle.synchronize();
+
+    assertFalse(throttle.isAllowed("10.0.0.1", "anna"));
+    assertTrue(throttle.isAllowed("10.0.0.1", "bob"));
+
+    // the block expires, unchanged failures of the cluster don't extend it
+    properties.setInitialDelayMillis(0L);
+    final LoginThrottle expiringThrottle = newThrottle();
+    expiringThrottle.synchronize();
+    expiringThrottle.synchronize();
+
+    assertTrue(expiringThrottle.isAllowed("10.0.0.1", "anna"));
+  }
+
+  @Test
+  public void testSuccessResetsClusterFailures() {
+    properties.setSyncIntervalMillis(0L); // no delay
+    final LoginThrottle throttle = newThrottle();
+    throttle.onFailure(null, "Anna");
+    throttle.onSuccess("Anna");
+
+    throttle.synchronize();
+    throttle.synchronize();
+
+    verify(repository, times(1)).deleteByKey("login:anna");
+    verify(repository, times(0)).increment(anyString(), anyLong(), anyLong(), any(Date.class));
+  }
+
+  private LoginThrottle newThrottle() {
+    return new LoginThrottle(properties, repository, new SimpleMeterRegistry());
+  }
+
+}
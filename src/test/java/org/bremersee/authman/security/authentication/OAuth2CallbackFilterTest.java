@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.validation.constraints.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+/**
+ * Tests the time budget of the OAuth2 callback filter.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2CallbackFilterTest {
+
+  private OAuth2AuthenticationProperties properties;
+
+  private AtomicInteger profileTimeout;
+
+  @Before
+  public void setUp() {
+    properties = new OAuth2AuthenticationProperties();
+    properties.setProvider("test" + System.nanoTime()); // fresh circuit breaker per test
+    profileTimeout = new AtomicInteger(-1);
+  }
+
+  @Test
+  public void testProfileRequestGetsRemainingBudget() {
+    properties.setTimeoutBudgetMillis(10000L);
+
+    final Authentication authentication = newFilter(0L)
+        .attemptAuthentication(newRequest(), new MockHttpServletResponse());
+
+    assertTrue(authentication instanceof OAuth2AuthenticationToken);
+    assertTrue(profileTimeout.get() > 0 && profileTimeout.get() <= 10000);
+  }
+
+  @Test
+  public void testProfileIsNotRequestedWhenBudgetIsUsedUp() {
+    properties.setTimeoutBudgetMillis(50L);
+
+    try {
+      newFilter(100L).attemptAuthentication(newRequest(), new MockHttpServletResponse());
+      fail("The time budget must be enforced.");
+
+    } catch (OAuth2ProviderUnavailableException e) {
+      assertEquals(-1, profileTimeout.get());
+    }
+  }
+
+  @Test
+  public void testProfileTimeoutIsReducedByCodeExchange() {
+    properties.setTimeoutBudgetMillis(1000L);
+
+    newFilter(300L).attemptAuthentication(newRequest(), new MockHttpServletResponse());
+
+    assertTrue(profileTimeout.get() > 0 && profileTimeout.get() <= 700);
+  }
+
+  private OAuth2CallbackFilter newFilter(final long exchangeMillis) {
+    final ForeignUserProfileRequestor requestor = new ForeignUserProfileRequestor() {
+      @Override
+      public ForeignUserProfile getForeignUserProfile(final CodeExchangeResponse credentials) {
+        throw new UnsupportedOperationException("The time budget must be passed.");
+      }
+
+      @Override
+      public ForeignUserProfile getForeignUserProfile(
+          final CodeExchangeResponse credentials,
+          final int timeoutMillis) {
+        profileTimeout.set(timeoutMillis);
+        return mock(ForeignUserProfile.class);
+      }
+    };
+    final OAuth2CallbackFilter filter = new OAuth2CallbackFilter(
+        properties, requestor, new AntPathRequestMatcher("/test/callback")) {
+      @Override
+      protected CodeExchangeResponse exchangeCode(
+          @NotNull final String code,
+          final int timeoutMillis) {
+        assertTrue(timeoutMillis <= properties.getTimeoutBudgetMillis());
+        try {
+          Thread.sleep(exchangeMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        final CodeExchangeResponse response = new CodeExchangeResponse();
+        response.setAccessToken("access");
+        return response;
+      }
+    };
+    filter.setAuthenticationManager(authentication -> authentication);
+    return filter;
+  }
+
+  private MockHttpServletRequest newRequest() {
+    final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test/callback");
+    request.getSession(true).setAttribute(properties.getStateKeyName(), "state");
+    request.setParameter(properties.getResponseStateParameter(), "state");
+    request.setParameter(properties.getResponseCodeParameter(), "code");
+    return request;
+  }
+
+}
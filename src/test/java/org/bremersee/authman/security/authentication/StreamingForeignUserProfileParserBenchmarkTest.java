@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import static org.bremersee.authman.security.authentication.StreamingForeignUserProfileParserTest.readProfile;
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import org.bremersee.authman.MicroBenchmark;
+import org.bremersee.authman.security.authentication.facebook.FacebookAuthenticationProperties;
+import org.bremersee.authman.security.authentication.facebook.FacebookUserProfile;
+import org.bremersee.authman.security.authentication.google.GoogleAuthenticationProperties;
+import org.bremersee.authman.security.authentication.google.GoogleUserProfile;
+import org.junit.Test;
+
+/**
+ * Compares the throughput of the streaming parser with the previous profile classes (JsonPath for
+ * Google, data binding for Facebook) on the recorded provider profiles.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("deprecation")
+public class StreamingForeignUserProfileParserBenchmarkTest {
+
+  private static final int ITERATIONS = MicroBenchmark.iterations(10000);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private int checksum;
+
+  @Test
+  public void testGoogleProfileThroughput() throws IOException {
+    final byte[] json = readProfile("google.json");
+    final MappedForeignUserProfileParser parser = new MappedForeignUserProfileParser(
+        new GoogleAuthenticationProperties());
+
+    checksum = 0;
+    MicroBenchmark.run("google profile with JsonPath", ITERATIONS,
+        i -> consume(new GoogleUserProfile(json)));
+    final int expected = checksum;
+    checksum = 0;
+    MicroBenchmark.run("google profile with streaming parser", ITERATIONS,
+        i -> consume(parser.parseForeignUserProfile(json)));
+
+    assertEquals(expected, checksum);
+  }
+
+  @Test
+  public void testFacebookProfileThroughput() throws IOException {
+    final byte[] json = readProfile("facebook.json");
+    final MappedForeignUserProfileParser parser = new MappedForeignUserProfileParser(
+        new FacebookAuthenticationProperties());
+
+    checksum = 0;
+    MicroBenchmark.run("facebook profile with data binding", ITERATIONS, i -> {
+      try {
+        consume(objectMapper.readValue(json, FacebookUserProfile.class));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    final int expected = checksum;
+    checksum = 0;
+    MicroBenchmark.run("facebook profile with streaming parser", ITERATIONS,
+        i -> consume(parser.parseForeignUserProfile(json)));
+
+    assertEquals(expected, checksum);
+  }
+
+  private void consume(final ForeignUserProfile profile) {
+    // reads every field, like the authentication provider does, so nothing is optimized away
+    checksum += Objects.hash(profile.getName(), profile.getDisplayName(), profile.getEmail(),
+        profile.getLocale(), profile.getTimeZone());
+  }
+
+}
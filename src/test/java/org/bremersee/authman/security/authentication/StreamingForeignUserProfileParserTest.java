@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import org.bremersee.authman.security.authentication.facebook.FacebookAuthenticationProperties;
+import org.bremersee.authman.security.authentication.facebook.FacebookUserProfile;
+import org.bremersee.authman.security.authentication.github.GitHubAuthenticationProperties;
+import org.bremersee.authman.security.authentication.github.GitHubUserProfile;
+import org.bremersee.authman.security.authentication.google.GoogleAuthenticationProperties;
+import org.bremersee.authman.security.authentication.google.GoogleUserProfile;
+import org.junit.Test;
+
+/**
+ * Tests the streaming parser with recorded provider profiles against the output of the previous
+ * profile classes.
+ *
+ * @author Christian Bremer
+ */
+@SuppressWarnings("deprecation")
+public class StreamingForeignUserProfileParserTest {
+
+  @Test
+  public void testGoogleProfile() throws IOException {
+    final byte[] json = readProfile("google.json");
+
+    final ForeignUserProfile actual = new MappedForeignUserProfileParser(
+        new GoogleAuthenticationProperties()).parseForeignUserProfile(json);
+
+    assertSameProfile(new GoogleUserProfile(json), actual);
+    assertEquals("106457293804926543271", actual.getName());
+    assertEquals("Christian Bremer", actual.getDisplayName());
+    assertEquals("christian@example.org", actual.getEmail());
+    assertEquals(Locale.GERMAN, actual.getLocale());
+  }
+
+  @Test
+  public void testFacebookProfile() throws IOException {
+    final byte[] json = readProfile("facebook.json");
+
+    final ForeignUserProfile actual = new MappedForeignUserProfileParser(
+        new FacebookAuthenticationProperties()).parseForeignUserProfile(json);
+
+    final FacebookUserProfile expected = new ObjectMapper()
+        .readValue(json, FacebookUserProfile.class);
+    assertSameProfile(expected, actual);
+    assertEquals("10155721829453977", actual.getName());
+    assertEquals(Locale.GERMANY, actual.getLocale());
+  }
+
+  @Test
+  public void testGitHubProfile() throws IOException {
+    final byte[] json = readProfile("github.json");
+
+    final ForeignUserProfile actual = new MappedForeignUserProfileParser(
+        new GitHubAuthenticationProperties()).parseForeignUserProfile(json);
+
+    assertSameProfile(new GitHubUserProfile(json), actual);
+    assertEquals("bremersee", actual.getName());
+    assertEquals("christian@example.org", actual.getEmail());
+  }
+
+  @Test
+  public void testMissingAndNullFields() {
+    final byte[] json = "{\"login\":\"anna\",\"name\":null,\"plan\":{\"name\":\"free\"}}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    final ForeignUserProfile actual = new MappedForeignUserProfileParser(
+        new GitHubAuthenticationProperties()).parseForeignUserProfile(json);
+
+    assertSameProfile(new GitHubUserProfile(json), actual);
+    assertEquals("anna", actual.getName());
+    assertNull(actual.getDisplayName());
+    assertNull(actual.getEmail());
+  }
+
+  @Test(expected = OAuth2AuthenticationException.class)
+  public void testMalformedProfile() {
+    new MappedForeignUserProfileParser(new GitHubAuthenticationProperties())
+        .parseForeignUserProfile("{\"login\": ".getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void assertSameProfile(
+      final ForeignUserProfile expected,
+      final ForeignUserProfile actual) {
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getDisplayName(), actual.getDisplayName());
+    assertEquals(expected.getEmail(), actual.getEmail());
+    assertEquals(expected.getLocale(), actual.getLocale());
+    assertEquals(expected.getTimeZone(), actual.getTimeZone());
+  }
+
+  static byte[] readProfile(final String name) throws IOException {
+    try (InputStream in = StreamingForeignUserProfileParserTest.class
+        .getResourceAsStream("/profiles/" + name)) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      int len;
+      while ((len = in.read(buf)) > -1) {
+        out.write(buf, 0, len);
+      }
+      return out.toByteArray();
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.oauth2.provider.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
+import org.bremersee.authman.domain.OAuth2RefreshToken;
+import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
+import org.bremersee.authman.security.oauth2.provider.token.store.OAuth2TokenStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.exceptions.InvalidScopeException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * Tests the rotation of refresh tokens with mocked repositories.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2RotatingTokenServicesTest {
+
+  private static final int HISTORY_SIZE = 5;
+
+  private OAuth2AccessTokenRepository accessTokenRepository;
+
+  private OAuth2RefreshTokenRepository refreshTokenRepository;
+
+  private OAuth2RotatingTokenServices tokenServices;
+
+  @Before
+  public void setUp() {
+    accessTokenRepository = mock(OAuth2AccessTokenRepository.class);
+    refreshTokenRepository = mock(OAuth2RefreshTokenRepository.class);
+    tokenServices = new OAuth2RotatingTokenServices(
+        new OAuth2TokenStore(accessTokenRepository, refreshTokenRepository), HISTORY_SIZE);
+  }
+
+  @Test
+  public void testRefreshAccessToken() {
+    when(refreshTokenRepository.rotate(eq("old"), eq("client"), anyString(), eq(HISTORY_SIZE)))
+        .thenReturn(newFamily("old"));
+
+    final OAuth2AccessToken accessToken = tokenServices
+        .refreshAccessToken("old", tokenRequest("read"));
+
+    final ArgumentCaptor<String> newValue = ArgumentCaptor.forClass(String.class);
+    verify(refreshTokenRepository)
+        .rotate(eq("old"), eq("client"), newValue.capture(), eq(HISTORY_SIZE));
+    assertNotEquals("old", newValue.getValue());
+    assertNotNull(accessToken.getRefreshToken());
+    assertEquals(newValue.getValue(), accessToken.getRefreshToken().getValue());
+    assertEquals(Collections.singleton("read"), accessToken.getScope());
+    verify(accessTokenRepository)
+        .findAndRemoveValuesByRefreshTokenValues(Collections.singleton("old"));
+    verify(accessTokenRepository)
+        .insert(any(org.bremersee.authman.domain.OAuth2AccessToken.class));
+    verify(refreshTokenRepository, never()).undoRotation(anyString(), anyString());
+  }
+
+  @Test
+  public void testReplayedRefreshTokenRevokesFamily() {
+    final OAuth2RefreshToken family = newFamily("new");
+    family.setUsedValues(new ArrayList<>(Collections.singletonList("old")));
+    when(refreshTokenRepository.removeFamilyByUsedValue("old"))
+        .thenReturn(Optional.of(family));
+
+    try {
+      tokenServices.refreshAccessToken("old", tokenRequest());
+      fail("Replayed refresh token must be rejected.");
+
+    } catch (InvalidGrantException e) {
+      assertEquals("Refresh token was already used.", e.getMessage());
+    }
+    verify(accessTokenRepository).findAndRemoveValuesByRefreshTokenValues(
+        new LinkedHashSet<>(Arrays.asList("old", "new")));
+    verify(accessTokenRepository, never())
+        .insert(any(org.bremersee.authman.domain.OAuth2AccessToken.class));
+  }
+
+  @Test
+  public void testUnknownRefreshToken() {
+    when(refreshTokenRepository.removeFamilyByUsedValue("unknown"))
+        .thenReturn(Optional.empty());
+
+    try {
+      tokenServices.refreshAccessToken("unknown", tokenRequest());
+      fail("Unknown refresh token must be rejected.");
+
+    } catch (InvalidGrantException e) {
+      assertEquals("Invalid refresh token: unknown", e.getMessage());
+    }
+    verify(accessTokenRepository, never()).findAndRemoveValuesByRefreshTokenValues(anyCollection());
+  }
+
+  @Test
+  public void testInvalidScopeUndoesRotation() {
+    when(refreshTokenRepository.rotate(eq("old"), eq("client"), anyString(), eq(HISTORY_SIZE)))
+        .thenReturn(newFamily("old"));
+
+    try {
+      tokenServices.refreshAccessToken("old", tokenRequest("admin"));
+      fail("Widening the scope must be rejected.");
+
+    } catch (InvalidScopeException e) {
+      // expected
+    }
+    final ArgumentCaptor<String> newValue = ArgumentCaptor.forClass(String.class);
+    verify(refreshTokenRepository)
+        .rotate(eq("old"), eq("client"), newValue.capture(), eq(HISTORY_SIZE));
+    verify(refreshTokenRepository, times(1)).undoRotation(newValue.getValue(), "old");
+    verify(accessTokenRepository, never()).findAndRemoveValuesByRefreshTokenValues(anyCollection());
+    verify(accessTokenRepository, never())
+        .insert(any(org.bremersee.authman.domain.OAuth2AccessToken.class));
+  }
+
+  private static TokenRequest tokenRequest(final String... scope) {
+    return new TokenRequest(Collections.emptyMap(), "client",
+        new HashSet<>(Arrays.asList(scope)), "refresh_token");
+  }
+
+  private static OAuth2RefreshToken newFamily(final String value) {
+    final OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "client",
+        AuthorityUtils.createAuthorityList("ROLE_CLIENT"), true,
+        new HashSet<>(Arrays.asList("read", "write")), null, null, null, null);
+    final OAuth2Authentication authentication = new OAuth2Authentication(request,
+        new UsernamePasswordAuthenticationToken(
+            "anna", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    final OAuth2RefreshToken family = new OAuth2RefreshToken();
+    family.setValue(value);
+    family.setClientId("client");
+    family.setUserName("anna");
+    family.setAuthentication(SerializationUtils.serialize(authentication));
+    return family;
+  }
+
+}
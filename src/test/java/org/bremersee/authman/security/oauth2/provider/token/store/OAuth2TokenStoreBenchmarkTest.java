@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.oauth2.provider.token.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bremersee.authman.MicroBenchmark;
+import org.bremersee.authman.business.UserProfileService;
+import org.bremersee.authman.controller.rest.MeRestController;
+import org.bremersee.authman.domain.OAuth2AccessToken;
+import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
+import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
+import org.bremersee.authman.model.UserProfileDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationManager;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationProcessingFilter;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextPersistenceFilter;
+import org.springframework.security.web.servletapi.SecurityContextHolderAwareRequestFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * Measures the throughput of {@code /api/me} behind the resource server filter with the token
+ * store, once with the fused token lookup and once with a token store, that reads the
+ * authentication again like the previous version did. The database is mocked, so the benchmark
+ * shows the number of token reads per request next to the throughput.
+ *
+ * @author Christian Bremer
+ */
+@Slf4j
+public class OAuth2TokenStoreBenchmarkTest {
+
+  private static final int ITERATIONS = MicroBenchmark.iterations(2000);
+
+  private OAuth2AccessTokenRepository accessTokenRepository;
+
+  private OAuth2RefreshTokenRepository refreshTokenRepository;
+
+  private UserProfileService userProfileService;
+
+  private final AtomicLong tokenReads = new AtomicLong();
+
+  @Before
+  public void setUp() {
+    final OAuth2Request request = new OAuth2Request(
+        Collections.emptyMap(), "client", Collections.emptyList(), true,
+        Collections.singleton("profile"), null, null, null, null);
+    final UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
+        "anna", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    final OAuth2AccessToken accessToken = new OAuth2AccessToken();
+    accessToken.setValue("access");
+    accessToken.setClientId("client");
+    accessToken.setUserName("anna");
+    accessToken.setExpiration(new Date(System.currentTimeMillis() + 3600000L));
+    accessToken.setAuthentication(
+        SerializationUtils.serialize(new OAuth2Authentication(request, user)));
+
+    accessTokenRepository = mock(OAuth2AccessTokenRepository.class);
+    when(accessTokenRepository.findByValue(anyString())).thenAnswer(invocation -> {
+      tokenReads.incrementAndGet();
+      return Optional.of(accessToken);
+    });
+    refreshTokenRepository = mock(OAuth2RefreshTokenRepository.class);
+
+    final UserProfileDto userProfile = new UserProfileDto();
+    userProfile.setUserName("anna");
+    userProfileService = mock(UserProfileService.class);
+    when(userProfileService.getUserProfileVersion("anna")).thenReturn(Optional.empty());
+    when(userProfileService.getUserProfile("anna")).thenReturn(userProfile);
+  }
+
+  @Test
+  public void testMeThroughput() throws Exception {
+    final OAuth2TokenStore fusedTokenStore = new OAuth2TokenStore(
+        accessTokenRepository, refreshTokenRepository);
+    final OAuth2TokenStore separateTokenStore = new OAuth2TokenStore(
+        accessTokenRepository, refreshTokenRepository) {
+      @Override
+      public OAuth2Authentication readAuthentication(
+          final org.springframework.security.oauth2.common.OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+      }
+
+      @Override
+      public OAuth2Authentication readAuthentication(final String token) {
+        // like before: the authentication is read with a second query
+        return accessTokenRepository.findByValue(token)
+            .map(entity -> (OAuth2Authentication) SerializationUtils
+                .deserialize(entity.getAuthentication()))
+            .orElse(null);
+      }
+    };
+
+    assertEquals(2.0, run("/api/me with two token reads", separateTokenStore), 0.0);
+    assertEquals(1.0, run("/api/me with one token read", fusedTokenStore), 0.0);
+  }
+
+  private double run(final String name, final OAuth2TokenStore tokenStore) throws Exception {
+    final MockMvc mockMvc = newMockMvc(tokenStore);
+    tokenReads.set(0L);
+    final int warmUp = Math.max(1, ITERATIONS / 5);
+    MicroBenchmark.run(name, ITERATIONS, i -> {
+      try {
+        mockMvc.perform(get("/api/me")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer access")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.userName").value("anna"));
+
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    final double readsPerRequest = tokenReads.get() / (double) (ITERATIONS + warmUp);
+    log.info("Benchmark [{}]: {} token read(s) per request", name, readsPerRequest);
+    return readsPerRequest;
+  }
+
+  private MockMvc newMockMvc(final OAuth2TokenStore tokenStore) throws Exception {
+    final DefaultTokenServices tokenServices = new DefaultTokenServices();
+    tokenServices.setTokenStore(tokenStore);
+    final OAuth2AuthenticationManager authenticationManager = new OAuth2AuthenticationManager();
+    authenticationManager.setTokenServices(tokenServices);
+    final OAuth2AuthenticationProcessingFilter authenticationFilter
+        = new OAuth2AuthenticationProcessingFilter();
+    authenticationFilter.setAuthenticationManager(authenticationManager);
+    authenticationFilter.afterPropertiesSet();
+    final HttpSessionSecurityContextRepository contextRepository
+        = new HttpSessionSecurityContextRepository();
+    contextRepository.setAllowSessionCreation(false);
+    final SecurityContextHolderAwareRequestFilter requestFilter
+        = new SecurityContextHolderAwareRequestFilter();
+    requestFilter.afterPropertiesSet();
+    return MockMvcBuilders.standaloneSetup(new MeRestController(userProfileService))
+        .addFilters(
+            new SecurityContextPersistenceFilter(contextRepository),
+            authenticationFilter,
+            requestFilter)
+        .build();
+  }
+
+}
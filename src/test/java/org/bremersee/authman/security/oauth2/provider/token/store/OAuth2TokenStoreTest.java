@@ -0,0 +1,374 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bremersee.authman.security.oauth2.provider.token.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.bremersee.authman.business.CacheInvalidationService;
+import org.bremersee.authman.business.OAuth2TokenCaches;
+import org.bremersee.authman.domain.OAuth2AccessTokenRepository;
+import org.bremersee.authman.domain.OAuth2RefreshTokenRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * Tests the token store with mocked repositories.
+ *
+ * @author Christian Bremer
+ */
+public class OAuth2TokenStoreTest {
+
+  private static final String INTROSPECTION = OAuth2TokenCaches.INTROSPECTION_CACHE_NAME;
+
+  private OAuth2AccessTokenRepository accessTokenRepository;
+
+  private OAuth2RefreshTokenRepository refreshTokenRepository;
+
+  private RecordingCacheInvalidationService cacheInvalidationService;
+
+  private OAuth2TokenStore tokenStore;
+
+  @Before
+  public void setUp() {
+    accessTokenRepository = mock(OAuth2AccessTokenRepository.class);
+    refreshTokenRepository = mock(OAuth2RefreshTokenRepository.class);
+    cacheInvalidationService = new RecordingCacheInvalidationService();
+    tokenStore = new OAuth2TokenStore(accessTokenRepository, refreshTokenRepository);
+    tokenStore.setCacheMaxAgeMillis(30000L);
+    tokenStore.setCacheInvalidationService(cacheInvalidationService);
+  }
+
+  @Test
+  public void testRemoveAccessTokenEvictsIntrospection() {
+    tokenStore.removeAccessToken(new DefaultOAuth2AccessToken("access"));
+
+    assertInvalidated(INTROSPECTION, OAuth2TokenCaches.introspectionKey("access"));
+  }
+
+  @Test
+  public void testRemoveAccessTokenUsingRefreshTokenEvictsIntrospection() {
+    when(accessTokenRepository.findAndRemoveValuesByRefreshTokenValues(anyCollection()))
+        .thenReturn(Arrays.asList("access1", "access2"));
+
+    tokenStore.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+
+    assertInvalidated(INTROSPECTION, OAuth2TokenCaches.introspectionKey("access1"));
+    assertInvalidated(INTROSPECTION, OAuth2TokenCaches.introspectionKey("access2"));
+  }
+
+  @Test
+  public void testRevokeTokensByClientIdClearsIntrospection() {
+    tokenStore.revokeTokensByClientId("client", null);
+
+    assertInvalidated(INTROSPECTION, null);
+  }
+
+  @Test
+  public void testRevokeRefreshTokenFamilyEvictsIntrospection() {
+    final org.bremersee.authman.domain.OAuth2RefreshToken family
+        = new org.bremersee.authman.domain.OAuth2RefreshToken();
+    family.setValue("refresh2");
+    family.setUsedValues(new ArrayList<>(Collections.singletonList("refresh1")));
+    when(refreshTokenRepository.removeFamilyByUsedValue("refresh1"))
+        .thenReturn(Optional.of(family));
+    when(accessTokenRepository.findAndRemoveValuesByRefreshTokenValues(
+        new LinkedHashSet<>(Arrays.asList("refresh1", "refresh2"))))
+        .thenReturn(Arrays.asList("stolen", "current"));
+
+    assertTrue(tokenStore.revokeRefreshTokenFamily("refresh1"));
+
+    assertInvalidated(INTROSPECTION, OAuth2TokenCaches.introspectionKey("stolen"));
+    assertInvalidated(INTROSPECTION, OAuth2TokenCaches.introspectionKey("current"));
+    assertInvalidated(OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME, null);
+  }
+
+  @Test
+  public void testFindTokensWithoutUserName() {
+    when(accessTokenRepository.streamByClientIdAndUserName("client", null))
+        .thenReturn(Stream.of(newAccessToken()));
+
+    assertEquals(1, tokenStore.findTokensByClientIdAndUserName("client", null).size());
+    verify(accessTokenRepository, times(0)).streamByClientId("client");
+  }
+
+  @Test
+  public void testFindTokensOfAllUsers() {
+    when(accessTokenRepository.streamByClientId("client"))
+        .thenReturn(Stream.of(newAccessToken(), newAccessToken()));
+
+    assertEquals(2, tokenStore.findTokensByClientId("client").size());
+  }
+
+  @Test
+  public void testReadAuthenticationIsServedFromLastReadAccessToken() {
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+
+    assertNotNull(tokenStore.readAccessToken("access"));
+    final OAuth2Authentication authentication = tokenStore.readAuthentication("access");
+
+    assertNotNull(authentication);
+    assertEquals("client", authentication.getOAuth2Request().getClientId());
+    verify(accessTokenRepository, times(1)).findByValue("access");
+  }
+
+  @Test
+  public void testLastReadAccessTokenIsUsedOnlyOnce() {
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+
+    tokenStore.readAccessToken("access");
+    tokenStore.readAuthentication("access");
+    assertNotNull(tokenStore.readAuthentication("access"));
+
+    verify(accessTokenRepository, times(2)).findByValue("access");
+  }
+
+  @Test
+  public void testLastReadAccessTokenIsNotUsedForOtherToken() {
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+    when(accessTokenRepository.findByValue("other")).thenReturn(Optional.empty());
+
+    tokenStore.readAccessToken("access");
+
+    assertNull(tokenStore.readAuthentication("other"));
+    verify(accessTokenRepository, times(1)).findByValue("other");
+  }
+
+  @Test
+  public void testRemoveAccessTokenClearsLastReadAccessToken() {
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+
+    tokenStore.readAccessToken("access");
+    tokenStore.removeAccessToken(new DefaultOAuth2AccessToken("access"));
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.empty());
+
+    assertNull(tokenStore.readAuthentication("access"));
+    verify(accessTokenRepository, times(2)).findByValue("access");
+  }
+
+  @Test
+  public void testLastReadAccessTokenIsNotVisibleInOtherThreads() throws InterruptedException {
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+    tokenStore.readAccessToken("access");
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.empty());
+
+    final AtomicReference<OAuth2Authentication> authentication = new AtomicReference<>();
+    final Thread thread = new Thread(
+        () -> authentication.set(tokenStore.readAuthentication("access")));
+    thread.start();
+    thread.join();
+
+    assertNull(authentication.get());
+    assertNotNull(tokenStore.readAuthentication("access"));
+  }
+
+  @Test
+  public void testIssuedTokenCacheHitReturnsCopy() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+
+    final OAuth2AccessToken first = tokenStore.getAccessToken(newAuthentication());
+    first.getAdditionalInformation().put("changed", "by caller");
+    final OAuth2AccessToken second = tokenStore.getAccessToken(newAuthentication());
+
+    assertNotSame(first, second);
+    assertEquals("access", second.getValue());
+    assertFalse(second.getAdditionalInformation().containsKey("changed"));
+    verify(accessTokenRepository, times(1))
+        .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+            anyString(), anyString());
+  }
+
+  @Test
+  public void testIssuedTokenCacheMiss() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.emptyList());
+
+    assertNull(tokenStore.getAccessToken(newAuthentication()));
+    assertNull(tokenStore.getAccessToken(newAuthentication()));
+
+    verify(accessTokenRepository, times(2))
+        .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+            anyString(), anyString());
+  }
+
+  @Test
+  public void testIssuedTokenCacheIsDisabled() {
+    tokenStore.setCacheMaxAgeMillis(0L);
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+
+    final OAuth2AccessToken token = tokenStore.getAccessToken(newAuthentication());
+    tokenStore.storeAccessToken(token, newAuthentication());
+    tokenStore.getAccessToken(newAuthentication());
+
+    verify(accessTokenRepository, times(2))
+        .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+            anyString(), anyString());
+    verify(accessTokenRepository, times(1)).save(any(
+        org.bremersee.authman.domain.OAuth2AccessToken.class));
+  }
+
+  @Test
+  public void testStoringUnchangedCachedTokenIsSkipped() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+
+    final OAuth2AccessToken token = tokenStore.getAccessToken(newAuthentication());
+    tokenStore.storeAccessToken(token, newAuthentication());
+
+    verify(accessTokenRepository, times(0)).findByValue("access");
+    verify(accessTokenRepository, times(0)).save(any(
+        org.bremersee.authman.domain.OAuth2AccessToken.class));
+  }
+
+  @Test
+  public void testStoringChangedCachedTokenIsNotSkipped() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+
+    final OAuth2AccessToken token = tokenStore.getAccessToken(newAuthentication());
+    token.getScope().add("email");
+    tokenStore.storeAccessToken(token, newAuthentication());
+
+    verify(accessTokenRepository, times(1)).save(any(
+        org.bremersee.authman.domain.OAuth2AccessToken.class));
+  }
+
+  @Test
+  public void testStoringCachedTokenAfterInvalidationIsNotSkipped() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+    when(accessTokenRepository.findByValue("access")).thenReturn(Optional.of(newAccessToken()));
+
+    final OAuth2AccessToken token = tokenStore.getAccessToken(newAuthentication());
+    tokenStore.removeAccessToken(new DefaultOAuth2AccessToken("other"));
+    tokenStore.storeAccessToken(token, newAuthentication());
+
+    verify(accessTokenRepository, times(1)).save(any(
+        org.bremersee.authman.domain.OAuth2AccessToken.class));
+  }
+
+  @Test
+  public void testRemoveAccessTokenEvictsIssuedToken() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+
+    tokenStore.getAccessToken(newAuthentication());
+    tokenStore.removeAccessToken(new DefaultOAuth2AccessToken("access"));
+    tokenStore.getAccessToken(newAuthentication());
+
+    assertInvalidated(OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME,
+        OAuth2TokenCaches.issuedAccessTokenKey("access"));
+    verify(accessTokenRepository, times(2))
+        .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+            anyString(), anyString());
+  }
+
+  @Test
+  public void testRemoveAccessTokenUsingRefreshTokenEvictsIssuedToken() {
+    when(accessTokenRepository.findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+        anyString(), anyString())).thenReturn(Collections.singletonList(newAccessToken()));
+    when(accessTokenRepository.findAndRemoveValuesByRefreshTokenValues(anyCollection()))
+        .thenReturn(Collections.singletonList("access"));
+
+    tokenStore.getAccessToken(newAuthentication());
+    tokenStore.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+    tokenStore.getAccessToken(newAuthentication());
+
+    assertInvalidated(OAuth2TokenCaches.ISSUED_TOKEN_CACHE_NAME,
+        OAuth2TokenCaches.issuedRefreshTokenKey("refresh"));
+    verify(accessTokenRepository, times(2))
+        .findFirstByUserNameIsNullAndClientIdAndScopesOrderByExpirationAsc(
+            anyString(), anyString());
+  }
+
+  private static OAuth2Authentication newAuthentication() {
+    final OAuth2Request request = new OAuth2Request(
+        Collections.emptyMap(), "client", Collections.emptyList(), true,
+        Collections.singleton("profile"), null, null, null, null);
+    return new OAuth2Authentication(request, null);
+  }
+
+  private static org.bremersee.authman.domain.OAuth2AccessToken newAccessToken() {
+    final org.bremersee.authman.domain.OAuth2AccessToken accessToken
+        = new org.bremersee.authman.domain.OAuth2AccessToken();
+    accessToken.setValue("access");
+    accessToken.setClientId("client");
+    accessToken.setExpiration(new Date(System.currentTimeMillis() + 3600000L));
+    accessToken.setRefreshTokenValue("refresh");
+    accessToken.getScope().add("profile");
+    accessToken.setAuthentication(SerializationUtils.serialize(newAuthentication()));
+    return accessToken;
+  }
+
+  private void assertInvalidated(final String cacheName, final String key) {
+    assertTrue(cacheName + " must be invalidated with " + key + ": "
+            + cacheInvalidationService.invalidations,
+        cacheInvalidationService.invalidations.contains(cacheName + '|' + key));
+  }
+
+  private static class RecordingCacheInvalidationService implements CacheInvalidationService {
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    private final List<String> invalidations = new ArrayList<>();
+
+    @Override
+    public void addListener(final String cacheName, final Consumer<String> listener) {
+      listeners.computeIfAbsent(cacheName, name -> new ArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void invalidate(final String cacheName, final String key) {
+      invalidations.add(cacheName + '|' + key);
+      listeners.getOrDefault(cacheName, new ArrayList<>()).forEach(l -> l.accept(key));
+    }
+  }
+
+}